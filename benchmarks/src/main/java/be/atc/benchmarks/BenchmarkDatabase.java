@@ -0,0 +1,366 @@
+package be.atc.benchmarks;
+
+import be.atc.cache.SlotAvailabilityCache;
+import be.atc.util.JpaUtil;
+import be.atc.util.PasswordHasher;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Remplit la base H2 en mémoire avec des volumes réalistes : 100 000 utilisateurs
+ * (modifiable avec {@code -Dbenchmark.users}) avec leur adresse, environ 2 800 localités belges et les
+ * terrains d'un centre sportif avec un historique de réservations, quelques fermetures et
+ * les abonnements d'un tiers des utilisateurs, générés de façon déterministe.
+ * <p>
+ * Le schéma est créé par les scripts de migration de l'application à l'initialisation de
+ * {@link JpaUtil}, puis les données sont insérées par lots JDBC.
+ * Tous les utilisateurs partagent le mot de passe {@link #PASSWORD} ; son hash est
+ * calculé une seule fois avec le coût BCrypt configuré.
+ * </p>
+ */
+public final class BenchmarkDatabase {
+
+    /**
+     * Mot de passe en clair de tous les utilisateurs générés.
+     */
+    public static final String PASSWORD = "Benchmark123";
+
+    /**
+     * Nombre d'utilisateurs générés.
+     */
+    public static final int USER_COUNT = Integer.getInteger("benchmark.users", 100_000);
+
+    /**
+     * Nombre de localités générées.
+     */
+    public static final int LOCALITY_COUNT = 2_800;
+
+    /**
+     * Nombre de sports ; chaque terrain accueille deux sports.
+     */
+    public static final int SPORT_COUNT = 8;
+
+    /**
+     * Nombre de terrains (4 salles de 10 terrains).
+     */
+    public static final int FIELD_COUNT = 40;
+
+    /**
+     * Nombre d'associations sport-terrain réservables.
+     */
+    public static final int SPORT_FIELD_COUNT = FIELD_COUNT * 2;
+
+    /**
+     * Nombre de créneaux horaires par jour (de 8 h à 22 h).
+     */
+    public static final int TIME_SLOT_COUNT = 14;
+
+    /**
+     * Jours d'historique de réservations avant aujourd'hui, et jours déjà ouverts à la réservation après.
+     */
+    public static final int PAST_RESERVATION_DAYS = 90;
+    public static final int FUTURE_RESERVATION_DAYS = 14;
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final String[] FIRST_NAMES = {"Marie", "Jean", "Sophie", "Pierre", "Julie", "Nicolas", "Laura", "Thomas",
+            "Emma", "Lucas", "Chloé", "Hugo", "Léa", "Louis", "Manon", "Arthur", "Camille", "Noah", "Sarah", "Martin"};
+    private static final String[] LAST_NAMES = {"Peeters", "Janssens", "Maes", "Jacobs", "Mertens", "Willems", "Claes", "Goossens",
+            "Wouters", "Dubois", "Lambert", "Dupont", "Martin", "Simon", "Laurent", "Leroy", "Renard", "Lejeune", "Collard", "Denis"};
+    private static final String[] SYLLABLES = {"ba", "ber", "bois", "char", "court", "dam", "el", "fon", "gem", "ghem",
+            "han", "hout", "ker", "la", "lin", "mont", "ne", "ou", "rix", "sart", "ta", "ville", "wa", "zee"};
+
+    private static boolean seeded;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Crée le schéma et insère les données, une seule fois par JVM.
+     */
+    public static synchronized void seed() {
+        if (seeded) {
+            return;
+        }
+        // Initialise l'EntityManagerFactory, après la création du schéma par les migrations
+        EntityManager em = JpaUtil.getEntityManager();
+        JpaUtil.closeEntityManager(em);
+
+        String passwordHash = PasswordHasher.getInstance().hash(PASSWORD);
+        Properties properties = loadDatabaseProperties();
+        try (Connection connection = DriverManager.getConnection(properties.getProperty("db.url"),
+                properties.getProperty("db.user"), properties.getProperty("db.password", ""))) {
+            connection.setAutoCommit(false);
+            insertReferenceData(connection);
+            insertLocalities(connection);
+            insertAddresses(connection);
+            insertUsers(connection, passwordHash);
+            insertSportFields(connection);
+            insertReservations(connection);
+            insertCloses(connection);
+            insertSubscriptions(connection);
+            connection.commit();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Initialisation de la base de benchmark impossible", e);
+        }
+        seeded = true;
+    }
+
+    /**
+     * @param index Un indice entre 0 et {@link #USER_COUNT} - 1.
+     * @return L'adresse e-mail de l'utilisateur généré correspondant.
+     */
+    public static String emailOf(int index) {
+        return "user" + index + "@example.org";
+    }
+
+    private static void insertReferenceData(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO roles (role_id, role_name) VALUES (1, 'Utilisateur'), (2, 'Manager'), (3, 'Administrateur')");
+            statement.executeUpdate("INSERT INTO countries (country_id, country_name, iso_alpha3) VALUES (1, 'Belgique', 'BEL')");
+        }
+    }
+
+    private static void insertLocalities(Connection connection) throws SQLException {
+        Random random = new Random(42);
+        String sql = "INSERT INTO localities (locality_id, postal_code, town, sub_town, main_town, province, fk_country_id) VALUES (?, ?, ?, ?, ?, ?, 1)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            int postalCode = 1000;
+            String mainTown = null;
+            for (int id = 1; id <= LOCALITY_COUNT; id++) {
+                // Plusieurs sections de commune partagent souvent un code postal
+                boolean newPostalCode = mainTown == null || random.nextInt(10) < 4;
+                if (newPostalCode) {
+                    postalCode = Math.min(9992, postalCode + 1 + random.nextInt(5));
+                    mainTown = townName(random);
+                }
+                insert.setInt(1, id);
+                insert.setString(2, String.valueOf(postalCode));
+                insert.setString(3, newPostalCode ? mainTown : townName(random));
+                insert.setString(4, newPostalCode ? null : String.valueOf(random.nextInt(9) + 1));
+                insert.setString(5, mainTown);
+                insert.setString(6, provinceOf(postalCode));
+                insert.addBatch();
+                if (id % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Une adresse par utilisateur, dans une localité choisie au hasard.
+     */
+    private static void insertAddresses(Connection connection) throws SQLException {
+        Random random = new Random(11);
+        String sql = "INSERT INTO addresses (address_id, street_name, number, box_number, fk_locality_id) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (int i = 0; i < USER_COUNT; i++) {
+                insert.setInt(1, i + 1);
+                insert.setString(2, "Rue " + townName(random));
+                insert.setString(3, String.valueOf(1 + random.nextInt(250)));
+                insert.setString(4, random.nextInt(5) == 0 ? String.valueOf(1 + random.nextInt(20)) : null);
+                insert.setInt(5, 1 + random.nextInt(LOCALITY_COUNT));
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void insertUsers(Connection connection, String passwordHash) throws SQLException {
+        Random random = new Random(7);
+        String sql = "INSERT INTO users (user_id, email, password, first_name, last_name, birthdate, gender, phone, blacklist, active, fk_role_id, fk_addresse_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (int i = 0; i < USER_COUNT; i++) {
+                insert.setInt(1, i + 1);
+                insert.setString(2, emailOf(i));
+                insert.setString(3, passwordHash);
+                insert.setString(4, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                insert.setString(5, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                insert.setObject(6, LocalDate.of(1950 + random.nextInt(55), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+                insert.setString(7, random.nextBoolean() ? "Male" : "Female");
+                insert.setString(8, "04" + (70000000 + random.nextInt(29999999)));
+                insert.setBoolean(9, random.nextInt(100) == 0);
+                insert.setBoolean(10, random.nextInt(50) != 0);
+                insert.setInt(11, i % 1000 == 0 ? 3 : 1);
+                insert.setInt(12, i + 1);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void insertSportFields(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (int hall = 1; hall <= FIELD_COUNT / 10; hall++) {
+                statement.addBatch("INSERT INTO halls (hall_id, label_hall, active) VALUES (" + hall + ", 'Salle " + hall + "', TRUE)");
+            }
+            for (int sport = 1; sport <= SPORT_COUNT; sport++) {
+                statement.addBatch("INSERT INTO sports (sport_id, sport_label, active) VALUES (" + sport + ", 'Sport " + sport + "', TRUE)");
+            }
+            for (int field = 1; field <= FIELD_COUNT; field++) {
+                statement.addBatch("INSERT INTO fields (field_id, label_field, active, fk_hall_id) VALUES ("
+                        + field + ", 'Terrain " + field + "', TRUE, " + (1 + (field - 1) / 10) + ")");
+                for (int i = 0; i < 2; i++) {
+                    int sportField = (field - 1) * 2 + i + 1;
+                    int sport = 1 + (field + i * (SPORT_COUNT / 2)) % SPORT_COUNT;
+                    statement.addBatch("INSERT INTO sport_field (sport_field_id, fk_field_id, fk_sport_id) VALUES ("
+                            + sportField + ", " + field + ", " + sport + ")");
+                }
+            }
+            for (int slot = 1; slot <= TIME_SLOT_COUNT; slot++) {
+                statement.addBatch("INSERT INTO time_slots (time_slot_id, time_slot) VALUES (" + slot + ", '"
+                        + String.format("%02d:00 - %02d:00", 7 + slot, 8 + slot) + "')");
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Réserve environ la moitié des créneaux de chaque terrain, du passé jusqu'aux jours ouverts à la réservation.
+     */
+    private static void insertReservations(Connection connection) throws SQLException {
+        Random random = new Random(11);
+        LocalDate today = LocalDate.now(SlotAvailabilityCache.CENTRE_ZONE);
+        String sql = "INSERT INTO reservations (name_reservation, price, date, active, fk_user_id, fk_time_slot_id, fk_sport_field_id) "
+                + "VALUES (?, ?, ?, TRUE, ?, ?, ?)";
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            int count = 0;
+            for (int day = -PAST_RESERVATION_DAYS; day < FUTURE_RESERVATION_DAYS; day++) {
+                Timestamp date = Timestamp.from(SlotAvailabilityCache.startOfDay(today.plusDays(day)));
+                for (int sportField = 1; sportField <= SPORT_FIELD_COUNT; sportField++) {
+                    for (int slot = 1; slot <= TIME_SLOT_COUNT; slot++) {
+                        if (random.nextBoolean()) {
+                            continue;
+                        }
+                        insert.setString(1, "Réservation");
+                        insert.setBigDecimal(2, BigDecimal.valueOf(12));
+                        insert.setTimestamp(3, date);
+                        insert.setInt(4, 1 + random.nextInt(USER_COUNT));
+                        insert.setInt(5, slot);
+                        insert.setInt(6, sportField);
+                        insert.addBatch();
+                        if (++count % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Ferme un terrain sur dix pour deux jours de maintenance, dans la période ouverte à la réservation.
+     */
+    private static void insertCloses(Connection connection) throws SQLException {
+        LocalDate today = LocalDate.now(SlotAvailabilityCache.CENTRE_ZONE);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO closes (begin_date, end_date, fk_sport_field_id) VALUES (?, ?, ?)")) {
+            for (int sportField = 10; sportField <= SPORT_FIELD_COUNT; sportField += 10) {
+                insert.setTimestamp(1, Timestamp.from(SlotAvailabilityCache.startOfDay(today.plusDays(2))));
+                insert.setTimestamp(2, Timestamp.from(SlotAvailabilityCache.startOfDay(today.plusDays(4))));
+                insert.setInt(3, sportField);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    /**
+     * Crée une formule d'abonnement par sport et abonne environ un tiers des utilisateurs :
+     * une à trois périodes de 30, 90 ou 365 jours ayant commencé au cours de l'année écoulée.
+     */
+    private static void insertSubscriptions(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (int sport = 1; sport <= SPORT_COUNT; sport++) {
+                statement.addBatch("INSERT INTO subscriptions (subscription_id, label, price, fk_sport_id) VALUES ("
+                        + sport + ", 'Abonnement sport " + sport + "', 120, " + sport + ")");
+            }
+            statement.executeBatch();
+        }
+        Random random = new Random(17);
+        int[] durations = {30, 90, 365};
+        Instant now = Instant.now();
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO users_subscriptions "
+                + "(begin_date_subscription, end_date_subscription, fk_subscription_id, fk_user_id) VALUES (?, ?, ?, ?)")) {
+            int count = 0;
+            for (int user = 1; user <= USER_COUNT; user++) {
+                if (random.nextInt(3) != 0) {
+                    continue;
+                }
+                int periods = 1 + random.nextInt(3);
+                for (int i = 0; i < periods; i++) {
+                    Instant begin = now.minus(random.nextInt(365), ChronoUnit.DAYS);
+                    insert.setTimestamp(1, Timestamp.from(begin));
+                    insert.setTimestamp(2, Timestamp.from(begin.plus(durations[random.nextInt(durations.length)], ChronoUnit.DAYS)));
+                    insert.setInt(3, 1 + random.nextInt(SPORT_COUNT));
+                    insert.setInt(4, user);
+                    insert.addBatch();
+                    if (++count % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static String townName(Random random) {
+        int syllables = 2 + random.nextInt(2);
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private static String provinceOf(int postalCode) {
+        if (postalCode < 1300) return "Bruxelles-Capitale";
+        if (postalCode < 1500) return "Brabant wallon";
+        if (postalCode < 2000) return "Brabant flamand";
+        if (postalCode < 3000) return "Anvers";
+        if (postalCode < 3500) return "Brabant flamand";
+        if (postalCode < 4000) return "Limbourg";
+        if (postalCode < 5000) return "Liège";
+        if (postalCode < 6000) return "Namur";
+        if (postalCode < 6600) return "Hainaut";
+        if (postalCode < 7000) return "Luxembourg";
+        if (postalCode < 8000) return "Hainaut";
+        if (postalCode < 9000) return "Flandre-Occidentale";
+        return "Flandre-Orientale";
+    }
+
+    private static Properties loadDatabaseProperties() {
+        Properties properties = new Properties();
+        try (InputStream input = BenchmarkDatabase.class.getResourceAsStream("/database.properties")) {
+            properties.load(input);
+        } catch (IOException e) {
+            throw new IllegalStateException("database.properties introuvable", e);
+        }
+        return properties;
+    }
+}
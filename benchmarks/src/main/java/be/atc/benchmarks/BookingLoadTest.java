@@ -0,0 +1,209 @@
+package be.atc.benchmarks;
+
+import be.atc.cache.SlotAvailabilityCache;
+import be.atc.dao.ReservationDao;
+import be.atc.dao.impl.ReservationDaoImpl;
+import be.atc.entities.Reservation;
+import be.atc.services.ReservationService;
+import be.atc.services.impl.ReservationServiceImpl;
+import be.atc.util.JpaUtil;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static be.atc.benchmarks.UserServiceBenchmark.inRequest;
+
+/**
+ * Test de charge de l'ouverture des réservations : 1 000 tentatives simultanées, dont la plupart
+ * visent le même créneau d'un terrain très demandé.
+ * <p>
+ * Phase 1 : les tentatives passent par {@link ReservationService}. Une seule réservation du créneau
+ * convoité doit réussir, et celles des autres terrains ne doivent pas attendre derrière elle.
+ * Phase 2 : les tentatives insèrent directement en base, comme des instances de l'application qui ne
+ * partagent pas leur index mémoire ; seule la contrainte unique de la table départage les concurrents.
+ * </p>
+ * Le programme se termine avec le code 1 si un créneau visé n'est pas réservé exactement une fois.
+ * Utilisation : {@code java -cp benchmarks/target/benchmarks.jar be.atc.benchmarks.BookingLoadTest}
+ */
+public class BookingLoadTest {
+
+    private static final int ATTEMPTS = 1_000;
+    private static final int HOT_ATTEMPTS = 900;
+    private static final int THREADS = 64;
+    private static final int HOT_SPORT_FIELD_ID = 1;
+    private static final int HOT_TIME_SLOT_ID = 1;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkDatabase.seed();
+        // Chaque tentative refusée annule sa transaction : inutile de journaliser ces annulations attendues
+        Logger.getLogger(JpaUtil.class).setLevel(Level.ERROR);
+        ReservationService reservationService = new ReservationServiceImpl();
+        ReservationDao reservationDao = new ReservationDaoImpl();
+        // Jours sans réservation existante
+        LocalDate day = LocalDate.now(SlotAvailabilityCache.CENTRE_ZONE).plusDays(BenchmarkDatabase.FUTURE_RESERVATION_DAYS + 1);
+        LocalDate secondDay = day.plusDays(1);
+        boolean failed = false;
+
+        // Phase 1 : service de réservation (index mémoire puis contrainte unique)
+        List<Callable<Attempt>> attempts = new ArrayList<>(ATTEMPTS);
+        for (int i = 0; i < ATTEMPTS; i++) {
+            int sportFieldId = i < HOT_ATTEMPTS ? HOT_SPORT_FIELD_ID : coldSportFieldId(i - HOT_ATTEMPTS);
+            int timeSlotId = i < HOT_ATTEMPTS ? HOT_TIME_SLOT_ID : coldTimeSlotId(i - HOT_ATTEMPTS);
+            int userId = 1 + i;
+            attempts.add(() -> timed(sportFieldId, timeSlotId, () -> inRequest(() ->
+                    reservationService.bookReservation(userId, sportFieldId, day, timeSlotId, "Charge", BigDecimal.TEN))));
+        }
+        List<Attempt> results = runConcurrently(attempts);
+        System.out.println("Phase 1 : " + ATTEMPTS + " tentatives via ReservationService, " + THREADS + " threads");
+        failed |= report(results, reservationDao, day);
+
+        // Phase 2 : insertions directes, la contrainte unique est le seul arbitre
+        attempts.clear();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            int userId = 1 + i;
+            attempts.add(() -> timed(HOT_SPORT_FIELD_ID, HOT_TIME_SLOT_ID, () -> inRequest(() -> {
+                Reservation reservation = new Reservation();
+                reservation.setNameReservation("Charge");
+                reservation.setPrice(BigDecimal.TEN);
+                reservation.setDate(SlotAvailabilityCache.startOfDay(secondDay));
+                reservation.setActive(true);
+                reservationDao.createReservation(reservation, userId, HOT_SPORT_FIELD_ID, HOT_TIME_SLOT_ID);
+                return reservation;
+            })));
+        }
+        results = runConcurrently(attempts);
+        System.out.println("Phase 2 : " + ATTEMPTS + " insertions directes simultanées du même créneau, " + THREADS + " threads");
+        failed |= report(results, reservationDao, secondDay);
+
+        System.out.println(failed ? "ÉCHEC : un créneau n'est pas réservé exactement une fois" : "OK : chaque créneau réservé exactement une fois");
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static int coldSportFieldId(int index) {
+        return 2 + index % (BenchmarkDatabase.SPORT_FIELD_COUNT - 1);
+    }
+
+    private static int coldTimeSlotId(int index) {
+        return 1 + index / (BenchmarkDatabase.SPORT_FIELD_COUNT - 1);
+    }
+
+    /**
+     * Lance toutes les tentatives en même temps et attend leur fin.
+     */
+    private static List<Attempt> runConcurrently(List<Callable<Attempt>> attempts) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Attempt>> futures = new ArrayList<>(attempts.size());
+        for (Callable<Attempt> attempt : attempts) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return attempt.call();
+            }));
+        }
+        start.countDown();
+        List<Attempt> results = new ArrayList<>(attempts.size());
+        for (Future<Attempt> future : futures) {
+            results.add(future.get());
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        return results;
+    }
+
+    private static Attempt timed(int sportFieldId, int timeSlotId, Runnable booking) {
+        long start = System.nanoTime();
+        boolean booked;
+        try {
+            booking.run();
+            booked = true;
+        } catch (RuntimeException e) {
+            booked = false;
+        }
+        return new Attempt(sportFieldId, timeSlotId, booked, System.nanoTime() - start);
+    }
+
+    /**
+     * Affiche les réservations réussies et les temps de réponse, puis compare chaque créneau visé à la base.
+     *
+     * @return {@code true} si un créneau n'a pas été obtenu par exactement une tentative ou n'est pas
+     *         réservé exactement une fois en base.
+     */
+    private static boolean report(List<Attempt> results, ReservationDao reservationDao, LocalDate date) {
+        boolean failed = false;
+        List<Attempt> hot = new ArrayList<>();
+        List<Attempt> cold = new ArrayList<>();
+        for (Attempt attempt : results) {
+            boolean isHot = attempt.sportFieldId == HOT_SPORT_FIELD_ID && attempt.timeSlotId == HOT_TIME_SLOT_ID;
+            (isHot ? hot : cold).add(attempt);
+        }
+        failed |= check("créneau convoité", hot, reservationDao, date);
+        if (!cold.isEmpty()) {
+            failed |= check("autres terrains", cold, reservationDao, date);
+        }
+        return failed;
+    }
+
+    /**
+     * Compare les tentatives de chaque créneau visé à la base : chaque créneau doit avoir été
+     * obtenu par exactement une tentative et compter exactement une réservation en base.
+     *
+     * @return {@code true} si un créneau est réservé plusieurs fois ou pas du tout.
+     */
+    private static boolean check(String label, List<Attempt> attempts, ReservationDao reservationDao, LocalDate date) {
+        Map<List<Integer>, Long> bookedBySlot = attempts.stream()
+                .collect(Collectors.groupingBy(attempt -> Arrays.asList(attempt.sportFieldId, attempt.timeSlotId),
+                        LinkedHashMap::new, Collectors.summingLong(attempt -> attempt.booked ? 1 : 0)));
+        Map<List<Integer>, Long> rowsBySlot = new LinkedHashMap<>();
+        for (List<Integer> slot : bookedBySlot.keySet()) {
+            rowsBySlot.put(slot, inRequest(() -> reservationDao.countReservations(slot.get(0), slot.get(1),
+                    SlotAvailabilityCache.startOfDay(date), SlotAvailabilityCache.startOfDay(date.plusDays(1)))));
+        }
+        long distinctSlots = bookedBySlot.size();
+        long booked = bookedBySlot.values().stream().mapToLong(Long::longValue).sum();
+        long rows = rowsBySlot.values().stream().mapToLong(Long::longValue).sum();
+        long maxRows = rowsBySlot.values().stream().mapToLong(Long::longValue).max().orElse(0);
+        boolean oneBookingPerSlot = bookedBySlot.values().stream().allMatch(count -> count == 1)
+                && rowsBySlot.values().stream().allMatch(count -> count == 1);
+
+        long[] latencies = attempts.stream().mapToLong(attempt -> attempt.nanos).sorted().toArray();
+        System.out.println(String.format(Locale.ROOT,
+                "  %-16s : %4d tentatives, %4d réussies pour %3d créneaux, %d réservation(s) en base (max %d par créneau),"
+                        + " latence médiane %.2f ms, p99 %.2f ms, max %.2f ms",
+                label, attempts.size(), booked, distinctSlots, rows, maxRows,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6));
+        return !oneBookingPerSlot || rows != booked || booked != distinctSlots;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * (sorted.length - 1)))] / 1e6;
+    }
+
+    private static final class Attempt {
+        private final int sportFieldId;
+        private final int timeSlotId;
+        private final boolean booked;
+        private final long nanos;
+
+        private Attempt(int sportFieldId, int timeSlotId, boolean booked, long nanos) {
+            this.sportFieldId = sportFieldId;
+            this.timeSlotId = timeSlotId;
+            this.booked = booked;
+            this.nanos = nanos;
+        }
+    }
+}
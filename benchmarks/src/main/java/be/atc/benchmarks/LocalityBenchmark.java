@@ -0,0 +1,81 @@
+package be.atc.benchmarks;
+
+import be.atc.dao.LocalityDao;
+import be.atc.dao.impl.LocalityDaoImpl;
+import be.atc.dto.LocalitySummary;
+import be.atc.services.LocalityService;
+import be.atc.services.impl.LocalityServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accès aux localités : cache mémoire (par identifiant, par préfixe) comparé à
+ * l'aller-retour DAO qu'il remplace.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocalityBenchmark {
+
+    private LocalityService localityService;
+    private LocalityDao localityDao;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        localityService = new LocalityServiceImpl();
+        localityDao = new LocalityDaoImpl();
+        localityService.findAll(); // Charge le cache
+    }
+
+    @Benchmark
+    public Optional<LocalitySummary> cachedFindById() {
+        return localityService.findById(randomLocalityId());
+    }
+
+    @Benchmark
+    public Optional<LocalitySummary> daoFindById() {
+        int id = randomLocalityId();
+        return UserServiceBenchmark.inRequest(() -> localityDao.findById(id));
+    }
+
+    @Benchmark
+    public List<LocalitySummary> cachedFindAll() {
+        return localityService.findAll();
+    }
+
+    @Benchmark
+    public List<LocalitySummary> daoFindAll() {
+        return UserServiceBenchmark.inRequest(() -> localityDao.findAll());
+    }
+
+    @Benchmark
+    public List<LocalitySummary> autocompletePostalCode() {
+        return localityService.searchByPrefix("40", 20);
+    }
+
+    @Benchmark
+    public List<LocalitySummary> autocompleteTown() {
+        return localityService.searchByPrefix("cha", 20);
+    }
+
+    private static int randomLocalityId() {
+        return 1 + ThreadLocalRandom.current().nextInt(BenchmarkDatabase.LOCALITY_COUNT);
+    }
+}
@@ -0,0 +1,140 @@
+package be.atc.benchmarks;
+
+import be.atc.dao.ReservationDao;
+import be.atc.dao.impl.ReservationDaoImpl;
+import be.atc.dto.FieldAvailability;
+import be.atc.dto.ReservedSlot;
+import be.atc.cache.ScheduleGridCache;
+import be.atc.cache.SlotAvailabilityCache;
+import be.atc.dto.ScheduleGrid;
+import be.atc.entities.Field;
+import be.atc.entities.Hall;
+import be.atc.entities.Reservation;
+import be.atc.entities.SportField;
+import be.atc.services.ReservationService;
+import be.atc.services.ScheduleService;
+import be.atc.services.impl.ReservationServiceImpl;
+import be.atc.services.impl.ScheduleServiceImpl;
+import be.atc.util.JpaUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static be.atc.benchmarks.UserServiceBenchmark.inRequest;
+
+/**
+ * Disponibilités des terrains : lecture dans l'index mémoire de {@link SlotAvailabilityCache}
+ * comparée à la requête sur la table des réservations qu'elle remplace, et grille hebdomadaire
+ * d'une salle (en cache, reconstruite, ou par parcours des collections des entités).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservationBenchmark {
+
+    private ReservationService reservationService;
+    private ReservationDao reservationDao;
+    private ScheduleService scheduleService;
+    private LocalDate today;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        reservationService = new ReservationServiceImpl();
+        reservationDao = new ReservationDaoImpl();
+        scheduleService = new ScheduleServiceImpl();
+        today = LocalDate.now(SlotAvailabilityCache.CENTRE_ZONE);
+    }
+
+    @Benchmark
+    public boolean isSlotAvailable() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return reservationService.isSlotAvailable(1 + random.nextInt(BenchmarkDatabase.SPORT_FIELD_COUNT), randomDay(),
+                1 + random.nextInt(BenchmarkDatabase.TIME_SLOT_COUNT));
+    }
+
+    @Benchmark
+    public List<FieldAvailability> findAvailabilityBySport() {
+        int sportId = 1 + ThreadLocalRandom.current().nextInt(BenchmarkDatabase.SPORT_COUNT);
+        return reservationService.findAvailabilityBySport(sportId, randomDay());
+    }
+
+    /**
+     * Référence : les créneaux réservés de tous les terrains sont relus en base à chaque appel.
+     */
+    @Benchmark
+    public List<ReservedSlot> findReservedSlotsUncached() {
+        LocalDate day = randomDay();
+        List<Integer> sportFieldIds = new ArrayList<>(BenchmarkDatabase.SPORT_FIELD_COUNT);
+        for (int id = 1; id <= BenchmarkDatabase.SPORT_FIELD_COUNT; id++) {
+            sportFieldIds.add(id);
+        }
+        return inRequest(() -> reservationDao.findReservedSlots(sportFieldIds,
+                SlotAvailabilityCache.startOfDay(day), SlotAvailabilityCache.startOfDay(day.plusDays(1))));
+    }
+
+    @Benchmark
+    public String findWeekScheduleCached() {
+        return scheduleService.findWeekSchedule(randomHallId(), randomDay()).toJson();
+    }
+
+    /**
+     * Grille reconstruite à chaque appel : deux requêtes ensemblistes pour toute la salle.
+     */
+    @Benchmark
+    public String buildWeekSchedule() {
+        ScheduleGridCache.getInstance().invalidate();
+        return scheduleService.findWeekSchedule(randomHallId(), randomDay()).toJson();
+    }
+
+    /**
+     * Référence : parcours des collections Hall → Field → SportField → Reservation (N+1 requêtes au premier accès).
+     */
+    @Benchmark
+    public int findWeekScheduleByNavigation() {
+        int hallId = randomHallId();
+        Instant start = SlotAvailabilityCache.startOfDay(ScheduleGridCache.weekStart(randomDay()));
+        Instant end = start.plus(ScheduleGrid.DAYS, ChronoUnit.DAYS);
+        return inRequest(() -> {
+            EntityManager em = JpaUtil.getEntityManager();
+            int booked = 0;
+            for (Field field : em.find(Hall.class, hallId).getFields()) {
+                for (SportField sportField : field.getSportFields()) {
+                    for (Reservation reservation : sportField.getReservations()) {
+                        if (!reservation.getDate().isBefore(start) && reservation.getDate().isBefore(end)) {
+                            booked++;
+                        }
+                    }
+                }
+            }
+            return booked;
+        });
+    }
+
+    private int randomHallId() {
+        return 1 + ThreadLocalRandom.current().nextInt(BenchmarkDatabase.FIELD_COUNT / 10);
+    }
+
+    private LocalDate randomDay() {
+        return today.plusDays(ThreadLocalRandom.current().nextInt(BenchmarkDatabase.FUTURE_RESERVATION_DAYS));
+    }
+}
@@ -0,0 +1,18 @@
+package be.atc.benchmarks;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * État JMH partagé garantissant que la base de benchmark est remplie avant les mesures.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    @Setup(Level.Trial)
+    public void seed() {
+        BenchmarkDatabase.seed();
+    }
+}
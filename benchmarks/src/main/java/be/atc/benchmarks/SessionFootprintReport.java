@@ -0,0 +1,99 @@
+package be.atc.benchmarks;
+
+import be.atc.dto.UserPrincipal;
+import be.atc.entities.Address;
+import be.atc.entities.User;
+import be.atc.services.UserService;
+import be.atc.services.impl.AddressServiceImpl;
+import be.atc.services.impl.UserServiceImpl;
+import be.atc.util.JpaUtil;
+import org.eclipse.persistence.jpa.JpaEntityManager;
+import org.openjdk.jol.info.GraphLayout;
+
+import javax.persistence.EntityManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Locale;
+
+import static be.atc.benchmarks.UserServiceBenchmark.inRequest;
+
+/**
+ * Mesure la taille des attributs de session d'un utilisateur connecté qui consulte son profil.
+ * <p>
+ * Avant : l'entité {@link User} (attribut "user") et sa copie en édition ("currentEditUser"),
+ * détachées avec leurs relations. Après : le {@link UserPrincipal} et l'ID de l'utilisateur
+ * en édition. La taille mémoire retenue est mesurée avec JOL (graphe d'objets atteignable),
+ * la taille sérialisée (persistance ou réplication de session) avec la sérialisation Java.
+ * </p>
+ * Utilisation : {@code java -Djol.magicFieldOffset=true -cp benchmarks/target/benchmarks.jar be.atc.benchmarks.SessionFootprintReport}
+ */
+public class SessionFootprintReport {
+
+    public static void main(String[] args) throws IOException {
+        BenchmarkDatabase.seed();
+        UserService userService = new UserServiceImpl();
+        int userId = 1;
+
+        // Profil complet : utilisateur actif possédant une adresse, comme après une première édition du profil
+        inRequest(() -> {
+            User user = userService.findById(userId).orElseThrow(IllegalStateException::new);
+            Address address = new Address();
+            address.setStreetName("Rue de la Station");
+            address.setNumber("12");
+            new AddressServiceImpl().createAddress(address, 1);
+            user.setFkAddresse(address);
+            user.setActive(true);
+            user.setBlacklist(false);
+            userService.updateUser(user);
+            return null;
+        });
+
+        // Avant : entités détachées conservées en session après la connexion puis l'affichage du profil
+        User sessionUser = inRequest(() -> userService.authenticateUser(BenchmarkDatabase.emailOf(0), BenchmarkDatabase.PASSWORD));
+        User currentEditUser = inRequest(() -> {
+            User user = userService.findById(userId).orElseThrow(IllegalStateException::new);
+            user.getFkAddresse().getFkLocality().getTown(); // Relations affichées par profile.jsp
+            return user;
+        });
+        // Les entités détachées référencent la session EclipseLink partagée (chargement paresseux) :
+        // seuls les objets propres à la session HTTP sont comptés
+        GraphLayout shared = sharedLayout();
+        long before = GraphLayout.parseInstance(sessionUser, currentEditUser).subtract(shared).totalSize();
+
+        // Après : principal compact et ID de l'utilisateur en édition
+        UserPrincipal principal = UserPrincipal.fromUser(sessionUser);
+        Integer currentEditUserId = userId;
+        // Compté en entier : les chaînes du principal survivent à l'éviction de l'utilisateur du cache partagé
+        long after = GraphLayout.parseInstance(principal, currentEditUserId).totalSize();
+
+        System.out.println(String.format(Locale.ROOT, "Mémoire retenue par la session : avant %,d octets, après %,d octets",
+                before, after));
+        System.out.println("Sérialisation avant : impossible (" + User.class.getName() + " n'est pas Serializable)");
+        System.out.println(String.format(Locale.ROOT, "Sérialisation après : %,d octets",
+                serializedSize(principal) + serializedSize(currentEditUserId)));
+        System.exit(0);
+    }
+
+    /**
+     * @return Le graphe des objets partagés par toutes les sessions HTTP (session serveur EclipseLink et son cache).
+     */
+    private static GraphLayout sharedLayout() {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return GraphLayout.parseInstance(em.unwrap(JpaEntityManager.class).getServerSession());
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    private static int serializedSize(Serializable value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(value);
+        }
+        return bytes.size();
+    }
+}
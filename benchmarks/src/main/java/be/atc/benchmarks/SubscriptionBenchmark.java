@@ -0,0 +1,79 @@
+package be.atc.benchmarks;
+
+import be.atc.services.SubscriptionService;
+import be.atc.services.impl.SubscriptionServiceImpl;
+import be.atc.util.JpaUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static be.atc.benchmarks.UserServiceBenchmark.inRequest;
+
+/**
+ * Vérification « l'utilisateur U a-t-il un abonnement valide pour le sport S maintenant ? » :
+ * index mémoire de {@link be.atc.cache.SubscriptionIndex} comparé à la requête qu'il remplace.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SubscriptionBenchmark {
+
+    private SubscriptionService subscriptionService;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        subscriptionService = new SubscriptionServiceImpl();
+        subscriptionService.hasValidSubscription(1, 1, Instant.now()); // Charge l'index
+    }
+
+    @Benchmark
+    public boolean hasValidSubscription() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return subscriptionService.hasValidSubscription(1 + random.nextInt(BenchmarkDatabase.USER_COUNT),
+                1 + random.nextInt(BenchmarkDatabase.SPORT_COUNT), Instant.now());
+    }
+
+    /**
+     * Même vérification sous contention : les lectures de l'index ne prennent aucun verrou.
+     */
+    @Benchmark
+    @Threads(8)
+    public boolean hasValidSubscriptionConcurrent() {
+        return hasValidSubscription();
+    }
+
+    /**
+     * Référence : une requête par vérification.
+     */
+    @Benchmark
+    public boolean hasValidSubscriptionQuery() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int userId = 1 + random.nextInt(BenchmarkDatabase.USER_COUNT);
+        int sportId = 1 + random.nextInt(BenchmarkDatabase.SPORT_COUNT);
+        Instant now = Instant.now();
+        return inRequest(() -> JpaUtil.getEntityManager()
+                .createQuery("SELECT COUNT(us) FROM UsersSubscription us WHERE us.fkUser.id = :userId "
+                        + "AND us.fkSubscription.fkSport.id = :sportId AND us.beginDateSubscription <= :at "
+                        + "AND us.endDateSubscription > :at", Long.class)
+                .setParameter("userId", userId)
+                .setParameter("sportId", sportId)
+                .setParameter("at", now)
+                .getSingleResult() > 0);
+    }
+}
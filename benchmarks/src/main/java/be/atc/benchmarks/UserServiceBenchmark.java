@@ -0,0 +1,136 @@
+package be.atc.benchmarks;
+
+import be.atc.dao.UserDao;
+import be.atc.dao.impl.UserDaoImpl;
+import be.atc.dto.LoginCredentials;
+import be.atc.dto.UserSummary;
+import be.atc.entities.User;
+import be.atc.services.UserService;
+import be.atc.services.impl.UserServiceImpl;
+import be.atc.util.JpaUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Chemins critiques de {@link UserServiceImpl} : authentification, recherche et
+ * pagination de l'administration, lectures unitaires (aller-retour DAO).
+ * <p>
+ * Chaque opération s'exécute dans une portée de requête ({@link JpaUtil#openRequestScope()}),
+ * comme sous {@code EntityManagerFilter}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    private UserService userService;
+    private UserDao userDao;
+    private List<UserSummary> allUsers;
+
+    @Setup(Level.Trial)
+    public void setUp(SeededDatabase database) {
+        userService = new UserServiceImpl();
+        userDao = new UserDaoImpl();
+        allUsers = inRequest(() -> userService.findAll());
+    }
+
+    @Benchmark
+    public User authenticateUser() {
+        String email = BenchmarkDatabase.emailOf(randomUserIndex());
+        return inRequest(() -> {
+            try {
+                return userService.authenticateUser(email, BenchmarkDatabase.PASSWORD);
+            } catch (IllegalArgumentException e) {
+                return null; // Utilisateur désactivé
+            }
+        });
+    }
+
+    @Benchmark
+    public User authenticateUnknownEmail() {
+        return inRequest(() -> userService.authenticateUser("unknown@example.org", BenchmarkDatabase.PASSWORD));
+    }
+
+    @Benchmark
+    public User authenticateWrongPassword() {
+        String email = BenchmarkDatabase.emailOf(randomUserIndex());
+        return inRequest(() -> {
+            try {
+                return userService.authenticateUser(email, "Mauvais123");
+            } catch (IllegalArgumentException e) {
+                return null; // Utilisateur désactivé
+            }
+        });
+    }
+
+    @Benchmark
+    public Optional<LoginCredentials> findLoginCredentialsUncached() {
+        String email = BenchmarkDatabase.emailOf(randomUserIndex());
+        return inRequest(() -> userDao.findLoginCredentials(email));
+    }
+
+    @Benchmark
+    public List<UserSummary> filterUsersInMemory() {
+        return userService.filterUsers(allUsers, "mar");
+    }
+
+    @Benchmark
+    public List<User> searchUsersFirstPage() {
+        return inRequest(() -> userService.searchUsers("mar", 1, 10));
+    }
+
+    @Benchmark
+    public long countUsers() {
+        return inRequest(() -> userService.countUsers("mar"));
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        int id = randomUserIndex() + 1;
+        return inRequest(() -> userService.findById(id));
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        String email = BenchmarkDatabase.emailOf(randomUserIndex());
+        return inRequest(() -> userService.findByEmail(email));
+    }
+
+    private static int randomUserIndex() {
+        return ThreadLocalRandom.current().nextInt(BenchmarkDatabase.USER_COUNT);
+    }
+
+    /**
+     * Exécute une opération dans une portée de requête, validée à la fin.
+     */
+    static <T> T inRequest(Supplier<T> operation) {
+        JpaUtil.openRequestScope();
+        boolean success = false;
+        try {
+            T result = operation.get();
+            success = true;
+            return result;
+        } finally {
+            JpaUtil.closeRequestScope(success);
+        }
+    }
+}
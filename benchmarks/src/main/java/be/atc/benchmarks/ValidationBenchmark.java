@@ -0,0 +1,126 @@
+package be.atc.benchmarks;
+
+import be.atc.util.ValidationUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Validations de {@link ValidationUtil} appelées à chaque inscription et mise à jour de profil,
+ * sur des entrées valides, invalides et longues (4 000 caractères, pires cas des anciennes
+ * expressions régulières). Les méthodes {@code legacy*} mesurent l'ancienne implémentation
+ * ({@code Pattern.matches} sur les mêmes expressions) pour comparaison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+
+    private static final String LEGACY_EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$";
+    private static final String LEGACY_PASSWORD_REGEX = "^(?=.*[A-Z])(?=.*\\d).{8,}$";
+    private static final String LEGACY_PHONE_REGEX = "^[0-9\\-\\+]{9,20}$";
+    private static final String LEGACY_NAME_REGEX = "^[A-Za-zÀ-ÖØ-öø-ÿ\\'\\-]+(\\s[A-Za-zÀ-ÖØ-öø-ÿ\\'\\-]+)*$";
+
+    private static final int LONG_INPUT_LENGTH = 4000;
+
+    @Param({"valid", "invalid", "long"})
+    public String input;
+
+    private String email;
+    private String password;
+    private String phone;
+    private String name;
+
+    @Setup
+    public void setUp() {
+        switch (input) {
+            case "valid":
+                email = "jean.dupont@example.org";
+                password = "Motdepasse123";
+                phone = "+32470123456";
+                name = "Jean-François D'Hondt";
+                break;
+            case "invalid":
+                email = "jean.dupont@@example";
+                password = "motdepasse";
+                phone = "04-ABC";
+                name = "Jean  3";
+                break;
+            default:
+                // Entrées rejetées seulement au dernier caractère : pire cas des lookaheads et du groupe répété
+                email = repeat("a", LONG_INPUT_LENGTH) + "@example!";
+                password = repeat("a", LONG_INPUT_LENGTH) + "A";
+                phone = repeat("0", LONG_INPUT_LENGTH);
+                name = repeat("Jean ", LONG_INPUT_LENGTH / 5) + "3";
+                break;
+        }
+    }
+
+    @Benchmark
+    public boolean isValidEmail() {
+        return ValidationUtil.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean isValidPassword() {
+        return ValidationUtil.isValidPassword(password);
+    }
+
+    @Benchmark
+    public boolean isValidPhone() {
+        return ValidationUtil.isValidPhone(phone);
+    }
+
+    @Benchmark
+    public boolean isValidFirstName() {
+        return ValidationUtil.isValidFirstName(name);
+    }
+
+    @Benchmark
+    public List<String> validateRegistration() {
+        return ValidationUtil.validateRegistration(email, name, name, password, password);
+    }
+
+    @Benchmark
+    public boolean legacyIsValidEmail() {
+        return Pattern.matches(LEGACY_EMAIL_REGEX, email);
+    }
+
+    @Benchmark
+    public boolean legacyIsValidPassword() {
+        return Pattern.matches(LEGACY_PASSWORD_REGEX, password);
+    }
+
+    @Benchmark
+    public boolean legacyIsValidPhone() {
+        return Pattern.matches(LEGACY_PHONE_REGEX, phone);
+    }
+
+    @Benchmark
+    public boolean legacyIsValidFirstName() {
+        return Pattern.matches(LEGACY_NAME_REGEX, name);
+    }
+
+    private static String repeat(String value, int count) {
+        StringBuilder builder = new StringBuilder(value.length() * count);
+        for (int i = 0; i < count; i++) {
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package be.atc.cache;
+
+import java.util.Locale;
+
+/**
+ * Instantané immuable des statistiques d'un cache applicatif.
+ * <p>
+ * Les valeurs sont lues au moment de la création de l'objet et ne sont
+ * pas mises à jour par la suite.
+ * </p>
+ */
+public class CacheStats {
+
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long invalidations;
+    private final double lastLoadMillis;
+
+    /**
+     * Construit un instantané des statistiques du cache.
+     *
+     * @param size           Nombre d'entrées actuellement en cache.
+     * @param hits           Nombre de lectures servies par le cache.
+     * @param misses         Nombre de lectures ayant dû interroger la base de données.
+     * @param loads          Nombre de chargements complets du cache.
+     * @param invalidations  Nombre d'invalidations explicites.
+     * @param lastLoadMillis Durée du dernier chargement complet (ms).
+     */
+    public CacheStats(int size, long hits, long misses, long loads, long invalidations, double lastLoadMillis) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.invalidations = invalidations;
+        this.lastLoadMillis = lastLoadMillis;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getLoads() {
+        return loads;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public double getLastLoadMillis() {
+        return lastLoadMillis;
+    }
+
+    /**
+     * @return La proportion de lectures servies par le cache, entre 0 et 1.
+     */
+    public double getHitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Retourne une représentation JSON de l'instantané.
+     *
+     * @return La chaîne JSON représentant les statistiques du cache.
+     */
+    public String toJson() {
+        return String.format(Locale.ROOT,
+                "{\"size\": %d, \"hits\": %d, \"misses\": %d, \"hitRatio\": %.4f, \"loads\": %d, \"invalidations\": %d, \"lastLoadMs\": %.3f}",
+                size, hits, misses, getHitRatio(), loads, invalidations, lastLoadMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats" + toJson();
+    }
+}
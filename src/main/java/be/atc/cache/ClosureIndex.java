@@ -0,0 +1,189 @@
+package be.atc.cache;
+
+import be.atc.dao.CloseDao;
+import be.atc.dao.impl.CloseDaoImpl;
+import be.atc.dto.ClosePeriod;
+import org.apache.log4j.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index mémoire des fermetures de terrains (table {@code closes}), partagé par toute l'application.
+ * <p>
+ * Pour chaque terrain, les fermetures en cours ou à venir sont conservées dans une liste
+ * immuable triée par date de début ({@link SortedIntervals}). « Le terrain est-il fermé entre
+ * A et B ? » se résout en O(log n), sans requête SQL ni verrou en lecture (voir {@link IntervalIndex}).
+ * </p>
+ * <p>
+ * L'index est chargé une seule fois, au démarrage ou au premier accès, puis mis à jour
+ * fermeture par fermeture ({@link #add}, {@link #remove}) après la validation des modifications
+ * (voir {@link be.atc.services.impl.CloseServiceImpl}) : seule la liste du terrain concerné est
+ * reconstruite. Les fermetures terminées en sont retirées à cette occasion.
+ * </p>
+ */
+public class ClosureIndex extends IntervalIndex<ClosureIndex.FieldClosures> {
+
+    private static final Logger logger = Logger.getLogger(ClosureIndex.class);
+
+    private static final ClosureIndex INSTANCE = new ClosureIndex(new CloseDaoImpl());
+
+    private final CloseDao closeDao;
+
+    /**
+     * Construit un index alimenté par le DAO fourni.
+     *
+     * @param closeDao Le DAO utilisé pour charger les fermetures.
+     */
+    ClosureIndex(CloseDao closeDao) {
+        super("Index des fermetures");
+        this.closeDao = closeDao;
+    }
+
+    /**
+     * @return L'instance partagée de l'index des fermetures.
+     */
+    public static ClosureIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Indique si un terrain est fermé pendant au moins une partie d'une période.
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @param start        Le début de la période (inclus).
+     * @param end          La fin de la période (exclue).
+     * @return {@code true} si une fermeture du terrain chevauche la période.
+     */
+    public boolean overlaps(int sportFieldId, Instant start, Instant end) {
+        FieldClosures closures = find(sportFieldId);
+        return closures != null && closures.overlaps(start.toEpochMilli(), end.toEpochMilli());
+    }
+
+    /**
+     * Retourne les fermetures en cours ou à venir d'un terrain.
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @return Les périodes de fermeture, triées par date de début.
+     */
+    public List<ClosePeriod> findClosePeriods(int sportFieldId) {
+        FieldClosures closures = find(sportFieldId);
+        return closures == null ? Collections.emptyList() : closures.periods(System.currentTimeMillis());
+    }
+
+    /**
+     * Ajoute une fermeture validée en base. Sans effet si elle est déjà indexée.
+     *
+     * @param period La fermeture ajoutée.
+     */
+    public void add(ClosePeriod period) {
+        long now = System.currentTimeMillis();
+        update(period.getSportFieldId(), (id, closures) ->
+                (closures == null ? FieldClosures.EMPTY : closures).with(period, now));
+    }
+
+    /**
+     * Retire une fermeture supprimée en base.
+     *
+     * @param sportFieldId L'ID du terrain concerné.
+     * @param closeId      L'ID de la fermeture supprimée.
+     */
+    public void remove(int sportFieldId, int closeId) {
+        long now = System.currentTimeMillis();
+        update(sportFieldId, (id, closures) -> closures == null ? null : closures.without(closeId, now));
+    }
+
+    /**
+     * Charge les fermetures en cours ou à venir de tous les terrains.
+     */
+    @Override
+    Map<Integer, FieldClosures> loadAll() {
+        long now = System.currentTimeMillis();
+        List<ClosePeriod> periods = closeDao.findClosePeriodsEndingAfter(Instant.ofEpochMilli(now));
+        Map<Integer, FieldClosures> closuresBySportField = new HashMap<>();
+        for (ClosePeriod period : periods) {
+            closuresBySportField.compute(period.getSportFieldId(), (id, closures) ->
+                    (closures == null ? FieldClosures.EMPTY : closures).with(period, now));
+        }
+        logger.debug(periods.size() + " fermetures lues pour " + closuresBySportField.size() + " terrains");
+        return closuresBySportField;
+    }
+
+    /**
+     * La taille de l'index est le nombre de fermetures indexées.
+     */
+    @Override
+    int sizeOf(FieldClosures closures) {
+        return closures.ids.length;
+    }
+
+    /**
+     * Fermetures d'un terrain, immuables, triées par date de début.
+     */
+    static final class FieldClosures {
+        private static final FieldClosures EMPTY = new FieldClosures(new ClosePeriod[0]);
+
+        private final ClosePeriod[] periods;
+        private final int[] ids;
+        private final SortedIntervals intervals;
+
+        private FieldClosures(ClosePeriod[] periods) {
+            this.periods = periods;
+            this.ids = new int[periods.length];
+            long[] begins = new long[periods.length];
+            long[] ends = new long[periods.length];
+            for (int i = 0; i < periods.length; i++) {
+                ids[i] = periods[i].getCloseId();
+                begins[i] = periods[i].getBegin().toEpochMilli();
+                ends[i] = periods[i].getEnd().toEpochMilli();
+            }
+            this.intervals = new SortedIntervals(begins, ends);
+        }
+
+        private boolean overlaps(long start, long end) {
+            return intervals.overlaps(start, end);
+        }
+
+        private List<ClosePeriod> periods(long now) {
+            List<ClosePeriod> current = new ArrayList<>(periods.length);
+            for (ClosePeriod period : periods) {
+                if (period.getEnd().toEpochMilli() > now) {
+                    current.add(period);
+                }
+            }
+            return current;
+        }
+
+        /**
+         * @return Une copie contenant la fermeture (remplacée si son ID est déjà présent), sans les fermetures terminées.
+         */
+        private FieldClosures with(ClosePeriod added, long now) {
+            List<ClosePeriod> kept = new ArrayList<>(periods.length + 1);
+            for (ClosePeriod period : periods) {
+                if (period.getCloseId() != added.getCloseId() && period.getEnd().toEpochMilli() > now) {
+                    kept.add(period);
+                }
+            }
+            kept.add(added);
+            kept.sort((a, b) -> a.getBegin().compareTo(b.getBegin()));
+            return new FieldClosures(kept.toArray(new ClosePeriod[0]));
+        }
+
+        /**
+         * @return Une copie sans la fermeture ni les fermetures terminées, ou {@code null} si elle serait vide.
+         */
+        private FieldClosures without(int closeId, long now) {
+            List<ClosePeriod> kept = new ArrayList<>(periods.length);
+            for (ClosePeriod period : periods) {
+                if (period.getCloseId() != closeId && period.getEnd().toEpochMilli() > now) {
+                    kept.add(period);
+                }
+            }
+            return kept.isEmpty() ? null : new FieldClosures(kept.toArray(new ClosePeriod[0]));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package be.atc.cache;
+
+import org.apache.log4j.Logger;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Base des index mémoire de périodes ({@link SortedIntervals}) par ID : fermetures par terrain,
+ * abonnements par utilisateur.
+ * <p>
+ * Le contenu est une table immuable publiée par une référence {@code volatile} : une lecture
+ * ne prend aucun verrou et voit toujours une table complète. Chaque mise à jour construit une
+ * copie de la table puis la publie ; une invalidation retire la table, rechargée depuis la base
+ * au prochain accès. Chargement, mises à jour et invalidation sont sérialisés sur l'index.
+ * </p>
+ *
+ * @param <V> Le type immuable des périodes d'une clé.
+ */
+abstract class IntervalIndex<V> {
+
+    private static final Logger logger = Logger.getLogger(IntervalIndex.class);
+
+    /**
+     * Nom de l'index dans les logs (« Index des fermetures »...).
+     */
+    private final String name;
+
+    /**
+     * Table courante, immuable, ou {@code null} si l'index doit être (re)chargé.
+     */
+    private volatile Map<Integer, V> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile long lastLoadNanos;
+
+    /**
+     * @param name Le nom de l'index dans les logs.
+     */
+    IntervalIndex(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Charge l'index immédiatement (appelé au démarrage de l'application).
+     */
+    public void warmUp() {
+        current();
+    }
+
+    /**
+     * Invalide l'index : il sera rechargé depuis la base au prochain accès.
+     */
+    public synchronized void invalidate() {
+        entries = null;
+        invalidations.increment();
+        logger.info(name + " invalidé");
+    }
+
+    /**
+     * Retourne un instantané des statistiques de l'index.
+     * La taille est la somme des {@link #sizeOf(Object)} des entrées.
+     *
+     * @return Les statistiques courantes (taille, succès, défauts, chargements).
+     */
+    public CacheStats getStats() {
+        Map<Integer, V> current = entries;
+        int size = 0;
+        if (current != null) {
+            for (V value : current.values()) {
+                size += sizeOf(value);
+            }
+        }
+        return new CacheStats(size, hits.sum(), misses.sum(), loads.sum(), invalidations.sum(),
+                lastLoadNanos / 1_000_000.0);
+    }
+
+    /**
+     * Retourne les périodes d'une clé, en chargeant l'index si nécessaire.
+     *
+     * @param key La clé (ID du terrain, de l'utilisateur...).
+     * @return Les périodes de la clé, ou {@code null} si elle n'en a aucune.
+     */
+    V find(int key) {
+        return current().get(key);
+    }
+
+    /**
+     * Remplace les périodes d'une clé après une modification validée en base, en publiant
+     * une copie de la table. Sans effet si l'index n'est pas chargé : le prochain chargement
+     * lira la modification en base.
+     *
+     * @param key     La clé modifiée.
+     * @param updater Calcule les nouvelles périodes à partir des anciennes ({@code null} si absentes) ;
+     *                retourne {@code null} pour retirer la clé.
+     */
+    synchronized void update(int key, BiFunction<Integer, V, V> updater) {
+        Map<Integer, V> current = entries;
+        if (current == null) {
+            return;
+        }
+        Map<Integer, V> updated = new HashMap<>(current);
+        updated.compute(key, updater);
+        entries = Collections.unmodifiableMap(updated);
+    }
+
+    /**
+     * Lit en base les périodes en cours ou à venir de toutes les clés.
+     *
+     * @return Les périodes par clé ; une clé sans période est absente.
+     */
+    abstract Map<Integer, V> loadAll();
+
+    /**
+     * @return Le nombre de périodes comptées dans la taille de l'index pour une entrée (1 par défaut).
+     */
+    int sizeOf(V value) {
+        return 1;
+    }
+
+    private Map<Integer, V> current() {
+        Map<Integer, V> current = entries;
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        return load();
+    }
+
+    /**
+     * Charge et publie la table. Un seul thread charge à la fois ; les autres réutilisent son
+     * résultat, et les mises à jour attendent la fin du chargement.
+     */
+    private synchronized Map<Integer, V> load() {
+        Map<Integer, V> current = entries;
+        if (current != null) {
+            return current;
+        }
+        long start = System.nanoTime();
+        current = Collections.unmodifiableMap(loadAll());
+        lastLoadNanos = System.nanoTime() - start;
+        loads.increment();
+        entries = current;
+        logger.info(name + " chargé : " + current.size() + " entrées en " + lastLoadNanos / 1_000_000 + " ms");
+        return current;
+    }
+}
@@ -0,0 +1,298 @@
+package be.atc.cache;
+
+import be.atc.dao.LocalityDao;
+import be.atc.dao.impl.LocalityDaoImpl;
+import be.atc.dto.LocalitySummary;
+import org.apache.log4j.Logger;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache mémoire des localités, partagé par toute l'application.
+ * <p>
+ * Les localités sont des données de référence (environ 2 800 communes belges)
+ * qui ne changent pratiquement jamais : elles sont chargées une seule fois,
+ * au démarrage ou au premier accès, puis servies sans requête SQL.
+ * </p>
+ * <p>
+ * Le contenu est un instantané immuable publié par une référence {@code volatile} :
+ * les lectures ne prennent aucun verrou. L'instantané contient un index trié par
+ * identifiant ({@code int[]}, recherche dichotomique sans boxing) et deux index
+ * triés pour la recherche par préfixe, sur le code postal et sur le nom de la ville
+ * (sans tenir compte de la casse ni des accents).
+ * </p>
+ * <p>
+ * Les localités sont conservées sous forme de projections immuables ({@link LocalitySummary}),
+ * partagées sans risque entre les threads. Après une modification en base, appeler
+ * {@link #invalidate()} ; l'instantané sera rechargé au prochain accès.
+ * </p>
+ */
+public class LocalityCache {
+
+    private static final Logger logger = Logger.getLogger(LocalityCache.class);
+
+    private static final LocalityCache INSTANCE = new LocalityCache(new LocalityDaoImpl());
+
+    private final LocalityDao localityDao;
+
+    /**
+     * Instantané courant, ou {@code null} s'il doit être (re)chargé.
+     */
+    private volatile Snapshot snapshot;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile long lastLoadNanos;
+
+    /**
+     * Construit un cache alimenté par le DAO fourni.
+     *
+     * @param localityDao Le DAO utilisé pour charger les localités.
+     */
+    LocalityCache(LocalityDao localityDao) {
+        this.localityDao = localityDao;
+    }
+
+    /**
+     * @return L'instance partagée du cache des localités.
+     */
+    public static LocalityCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Charge le cache immédiatement (appelé au démarrage de l'application).
+     */
+    public void warmUp() {
+        load();
+    }
+
+    /**
+     * Recherche une localité par son identifiant.
+     * <p>
+     * Un identifiant absent du cache (localité ajoutée en base depuis le chargement)
+     * est recherché en base de données et compté comme un défaut de cache.
+     * </p>
+     *
+     * @param id L'identifiant de la localité.
+     * @return Un {@link Optional} contenant la localité si elle existe, sinon vide.
+     */
+    public Optional<LocalitySummary> findById(int id) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            int index = Arrays.binarySearch(current.ids, id);
+            if (index >= 0) {
+                hits.increment();
+                return Optional.of(current.byId[index]);
+            }
+        }
+        misses.increment();
+        if (current == null) {
+            current = load();
+            int index = Arrays.binarySearch(current.ids, id);
+            if (index >= 0) {
+                return Optional.of(current.byId[index]);
+            }
+        }
+        return localityDao.findById(id);
+    }
+
+    /**
+     * Récupère toutes les localités, dans l'ordre retourné par la base de données.
+     *
+     * @return Une liste non modifiable de toutes les localités.
+     */
+    public List<LocalitySummary> findAll() {
+        return current().all;
+    }
+
+    /**
+     * Recherche les localités dont le code postal commence par le préfixe donné.
+     *
+     * @param prefix Le début du code postal.
+     * @param limit  Le nombre maximum de localités à retourner.
+     * @return Les localités correspondantes, triées par code postal puis par ville.
+     */
+    public List<LocalitySummary> findByPostalCodePrefix(String prefix, int limit) {
+        Snapshot current = current();
+        return findByPrefix(current.postalCodeKeys, current.byPostalCode, prefix == null ? "" : prefix.trim(), limit);
+    }
+
+    /**
+     * Recherche les localités dont le nom de ville commence par le préfixe donné,
+     * sans tenir compte de la casse ni des accents.
+     *
+     * @param prefix Le début du nom de la ville.
+     * @param limit  Le nombre maximum de localités à retourner.
+     * @return Les localités correspondantes, triées par ville puis par code postal.
+     */
+    public List<LocalitySummary> findByTownPrefix(String prefix, int limit) {
+        Snapshot current = current();
+        return findByPrefix(current.townKeys, current.byTown, normalize(prefix), limit);
+    }
+
+    /**
+     * Invalide le cache : l'instantané sera rechargé depuis la base au prochain accès.
+     */
+    public void invalidate() {
+        snapshot = null;
+        invalidations.increment();
+        logger.info("Cache des localités invalidé");
+    }
+
+    /**
+     * Retourne un instantané des statistiques du cache.
+     *
+     * @return Les statistiques courantes (taille, succès, défauts, chargements).
+     */
+    public CacheStats getStats() {
+        Snapshot current = snapshot;
+        return new CacheStats(
+                current == null ? 0 : current.ids.length,
+                hits.sum(),
+                misses.sum(),
+                loads.sum(),
+                invalidations.sum(),
+                lastLoadNanos / 1_000_000.0);
+    }
+
+    /**
+     * Normalise une chaîne pour la recherche : minuscules, sans accents ni espaces superflus.
+     *
+     * @param value La chaîne à normaliser.
+     * @return La chaîne normalisée, ou une chaîne vide si la valeur est {@code null}.
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Retourne l'instantané courant, en le chargeant si nécessaire.
+     *
+     * @return L'instantané courant.
+     */
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        return load();
+    }
+
+    /**
+     * Charge toutes les localités et publie un nouvel instantané.
+     * Un seul thread charge à la fois ; les autres réutilisent son résultat.
+     *
+     * @return L'instantané chargé.
+     */
+    private synchronized Snapshot load() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        long start = System.nanoTime();
+        current = new Snapshot(localityDao.findAll());
+        lastLoadNanos = System.nanoTime() - start;
+        loads.increment();
+        snapshot = current;
+        logger.info("Cache des localités chargé : " + current.ids.length + " localités en " + lastLoadNanos / 1_000_000 + " ms");
+        return current;
+    }
+
+    /**
+     * Parcourt un index trié à partir de la première clé supérieure ou égale au préfixe.
+     *
+     * @param keys   Les clés triées.
+     * @param values Les localités, dans le même ordre que les clés.
+     * @param prefix Le préfixe recherché (déjà normalisé).
+     * @param limit  Le nombre maximum de résultats.
+     * @return Les localités dont la clé commence par le préfixe.
+     */
+    private static List<LocalitySummary> findByPrefix(String[] keys, LocalitySummary[] values, String prefix, int limit) {
+        if (prefix.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<LocalitySummary> result = new ArrayList<>(Math.min(limit, 16));
+        for (int i = lowerBound(keys, prefix); i < keys.length && result.size() < limit && keys[i].startsWith(prefix); i++) {
+            result.add(values[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return L'indice de la première clé supérieure ou égale à la valeur recherchée.
+     */
+    private static int lowerBound(String[] keys, String value) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(value) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Contenu immuable du cache à un instant donné.
+     */
+    private static final class Snapshot {
+        private final List<LocalitySummary> all;
+        private final int[] ids;
+        private final LocalitySummary[] byId;
+        private final String[] postalCodeKeys;
+        private final LocalitySummary[] byPostalCode;
+        private final String[] townKeys;
+        private final LocalitySummary[] byTown;
+
+        private Snapshot(List<LocalitySummary> localities) {
+            this.all = Collections.unmodifiableList(new ArrayList<>(localities));
+
+            this.byId = localities.toArray(new LocalitySummary[0]);
+            Arrays.sort(byId, Comparator.comparingInt(LocalitySummary::getId));
+            this.ids = new int[byId.length];
+            for (int i = 0; i < byId.length; i++) {
+                ids[i] = byId[i].getId();
+            }
+
+            this.byPostalCode = localities.toArray(new LocalitySummary[0]);
+            Arrays.sort(byPostalCode, Comparator.comparing((LocalitySummary l) -> nullToEmpty(l.getPostalCode()))
+                    .thenComparing(l -> normalize(l.getTown())));
+            this.postalCodeKeys = new String[byPostalCode.length];
+            for (int i = 0; i < byPostalCode.length; i++) {
+                postalCodeKeys[i] = nullToEmpty(byPostalCode[i].getPostalCode());
+            }
+
+            this.byTown = localities.toArray(new LocalitySummary[0]);
+            Arrays.sort(byTown, Comparator.comparing((LocalitySummary l) -> normalize(l.getTown()))
+                    .thenComparing(l -> nullToEmpty(l.getPostalCode())));
+            this.townKeys = new String[byTown.length];
+            for (int i = 0; i < byTown.length; i++) {
+                townKeys[i] = normalize(byTown[i].getTown());
+            }
+        }
+
+        private static String nullToEmpty(String value) {
+            return value == null ? "" : value;
+        }
+    }
+}
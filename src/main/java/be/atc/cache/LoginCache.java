@@ -0,0 +1,262 @@
+package be.atc.cache;
+
+import be.atc.dto.LoginCredentials;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache de courte durée des informations d'authentification, par adresse e-mail.
+ * <p>
+ * Chaque tentative de connexion interroge la base pour l'e-mail saisi. Les tentatives
+ * répétées (mot de passe erroné, e-mail inexistant, robots) sont servies par ce cache :
+ * les e-mails connus sont conservés {@code loginCache.ttlSeconds} secondes (résultat
+ * positif) et les e-mails inconnus {@code loginCache.negativeTtlSeconds} secondes
+ * (résultat négatif). Le nombre d'entrées est borné par {@code loginCache.maxEntries},
+ * les entrées les moins récemment utilisées étant évincées en premier. La vérification
+ * BCrypt du mot de passe a toujours lieu ; seule la lecture en base est évitée.
+ * </p>
+ * <p>
+ * Toute modification d'un utilisateur (inscription, profil, mot de passe, rôle, statut,
+ * suppression) doit appeler {@link #invalidateUser(int, String)} ou
+ * {@link #invalidateUsers(Collection)}. Une invalidation survenue pendant un chargement
+ * empêche la mise en cache du résultat de ce chargement, qui peut déjà être périmé.
+ * La durée de vie courte borne l'obsolescence des modifications faites hors de
+ * l'application (ou par une autre instance).
+ * </p>
+ */
+public class LoginCache {
+
+    private static final Logger logger = Logger.getLogger(LoginCache.class);
+
+    /**
+     * Fichier de configuration du cache.
+     */
+    private static final String SECURITY_PROPERTIES = "/security.properties";
+
+    private static final LoginCache INSTANCE = fromConfiguration(loadConfiguration());
+
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final int maxEntries;
+
+    /**
+     * Entrées du cache, dans l'ordre d'accès (LRU). Protégées par {@code this}.
+     */
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * Incrémenté à chaque invalidation. Protégé par {@code this}.
+     */
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile long lastLoadNanos;
+
+    /**
+     * Construit un cache avec les durées de vie et la taille données.
+     *
+     * @param ttlSeconds         Durée de vie d'un résultat positif (s), 0 pour ne pas le conserver.
+     * @param negativeTtlSeconds Durée de vie d'un résultat négatif (s), 0 pour ne pas le conserver.
+     * @param maxEntries         Nombre maximum d'entrées.
+     */
+    LoginCache(int ttlSeconds, int negativeTtlSeconds, int maxEntries) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, ttlSeconds));
+        this.negativeTtlNanos = TimeUnit.SECONDS.toNanos(Math.max(0, negativeTtlSeconds));
+        this.maxEntries = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > LoginCache.this.maxEntries;
+            }
+        };
+        logger.info("Cache d'authentification : " + ttlSeconds + " s (positif), " + negativeTtlSeconds
+                + " s (négatif), " + this.maxEntries + " entrées maximum");
+    }
+
+    /**
+     * @return L'instance partagée du cache d'authentification.
+     */
+    public static LoginCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Retourne les informations d'authentification de l'e-mail, depuis le cache ou,
+     * à défaut, depuis le chargeur fourni.
+     *
+     * @param email  L'adresse e-mail saisie.
+     * @param loader La recherche en base, appelée en cas d'absence ou d'expiration.
+     * @return Les informations d'authentification, ou vide si l'e-mail est inconnu.
+     */
+    public Optional<LoginCredentials> get(String email, Function<String, Optional<LoginCredentials>> loader) {
+        if (email == null) {
+            return loader.apply(null);
+        }
+        long startGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(email);
+            if (entry != null && entry.expiresAtNanos - System.nanoTime() > 0) {
+                hits.increment();
+                return Optional.ofNullable(entry.credentials);
+            }
+            startGeneration = generation;
+        }
+        misses.increment();
+
+        long start = System.nanoTime();
+        Optional<LoginCredentials> credentials = loader.apply(email);
+        long now = System.nanoTime();
+        lastLoadNanos = now - start;
+
+        long ttl = credentials.isPresent() ? ttlNanos : negativeTtlNanos;
+        if (ttl > 0) {
+            synchronized (this) {
+                if (generation == startGeneration) {
+                    entries.put(email, new Entry(credentials.orElse(null), now + ttl));
+                }
+            }
+        }
+        return credentials;
+    }
+
+    /**
+     * Remplace le hash du mot de passe en cache après son recalcul, sans invalider l'entrée.
+     *
+     * @param email       L'adresse e-mail de l'utilisateur.
+     * @param credentials Les informations d'authentification à jour.
+     */
+    public synchronized void refresh(String email, LoginCredentials credentials) {
+        Entry entry = entries.get(email);
+        if (entry != null && entry.credentials != null && entry.credentials.getUserId() == credentials.getUserId()) {
+            entries.put(email, new Entry(credentials, entry.expiresAtNanos));
+        }
+    }
+
+    /**
+     * Retire du cache un utilisateur, sous toutes les casses de son e-mail, ainsi que
+     * le résultat négatif éventuel de cet e-mail (après une inscription).
+     *
+     * @param userId L'ID de l'utilisateur, ou 0 s'il n'est pas encore connu.
+     * @param email  L'adresse e-mail de l'utilisateur, ou {@code null}.
+     */
+    public synchronized void invalidateUser(int userId, String email) {
+        generation++;
+        invalidations.increment();
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            LoginCredentials credentials = entry.getValue().credentials;
+            if ((email != null && entry.getKey().equalsIgnoreCase(email))
+                    || (credentials != null && credentials.getUserId() == userId)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Retire du cache les utilisateurs donnés (modification groupée depuis le panneau d'administration).
+     *
+     * @param userIds Les IDs des utilisateurs modifiés.
+     */
+    public synchronized void invalidateUsers(Collection<Integer> userIds) {
+        generation++;
+        invalidations.increment();
+        entries.values().removeIf(entry -> entry.credentials != null && userIds.contains(entry.credentials.getUserId()));
+    }
+
+    /**
+     * Vide entièrement le cache.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations.increment();
+        entries.clear();
+        logger.info("Cache d'authentification vidé");
+    }
+
+    /**
+     * Retourne un instantané des statistiques du cache.
+     * Les chargements correspondent aux lectures en base ; la dernière durée est celle de la dernière lecture.
+     *
+     * @return Les statistiques courantes (taille, succès, défauts, invalidations).
+     */
+    public CacheStats getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        long missCount = misses.sum();
+        return new CacheStats(size, hits.sum(), missCount, missCount, invalidations.sum(), lastLoadNanos / 1_000_000.0);
+    }
+
+    /**
+     * Entrée du cache : les informations d'authentification, ou {@code null} pour un e-mail inconnu.
+     */
+    private static final class Entry {
+        private final LoginCredentials credentials;
+        private final long expiresAtNanos;
+
+        private Entry(LoginCredentials credentials, long expiresAtNanos) {
+            this.credentials = credentials;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    /**
+     * Construit le cache à partir de la configuration.
+     *
+     * @param configuration La configuration (voir {@code security.properties}).
+     * @return Le cache configuré.
+     */
+    private static LoginCache fromConfiguration(Properties configuration) {
+        return new LoginCache(
+                intProperty(configuration, "loginCache.ttlSeconds", 30),
+                intProperty(configuration, "loginCache.negativeTtlSeconds", 10),
+                intProperty(configuration, "loginCache.maxEntries", 10_000));
+    }
+
+    /**
+     * Charge {@code security.properties} depuis le classpath.
+     *
+     * @return Les propriétés lues, vides si le fichier est absent.
+     */
+    private static Properties loadConfiguration() {
+        Properties properties = new Properties();
+        try (InputStream input = LoginCache.class.getResourceAsStream(SECURITY_PROPERTIES)) {
+            if (input != null) {
+                properties.load(input);
+            } else {
+                logger.warn("Fichier " + SECURITY_PROPERTIES + " introuvable, configuration par défaut utilisée");
+            }
+        } catch (IOException e) {
+            logger.error("Erreur lors de la lecture de " + SECURITY_PROPERTIES, e);
+        }
+        return properties;
+    }
+
+    /**
+     * Lit une propriété entière.
+     *
+     * @param properties   Les propriétés.
+     * @param key          La clé.
+     * @param defaultValue La valeur par défaut si la clé est absente.
+     * @return La valeur lue.
+     */
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
@@ -0,0 +1,189 @@
+package be.atc.cache;
+
+import be.atc.dao.RoleDao;
+import be.atc.dao.impl.RoleDaoImpl;
+import be.atc.entities.Role;
+import org.apache.log4j.Logger;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Table des rôles en mémoire, partagée par toute l'application.
+ * <p>
+ * Les rôles (utilisateur, organisateur, administrateur) sont lus à chaque requête
+ * protégée par {@link be.atc.projetcentresportif2024.AuthorizationFilter} : ils sont
+ * chargés une seule fois, au démarrage ou au premier accès, puis servis sans requête SQL.
+ * Le contenu est un instantané immuable (ID vers nom du rôle) publié par une référence
+ * {@code volatile} : les lectures ne prennent aucun verrou.
+ * </p>
+ * <p>
+ * Toute modification des rôles doit appeler {@link #invalidate()} ; c'est le cas de
+ * {@link be.atc.services.impl.RoleServiceImpl}. L'instantané est rechargé au prochain accès.
+ * Un chargement commencé avant une invalidation n'est pas publié : il a pu lire l'état
+ * antérieur à la modification.
+ * </p>
+ */
+public class RoleCache {
+
+    private static final Logger logger = Logger.getLogger(RoleCache.class);
+
+    private static final RoleCache INSTANCE = new RoleCache(new RoleDaoImpl());
+
+    private final RoleDao roleDao;
+
+    /**
+     * Instantané courant (ID du rôle vers son nom), ou {@code null} s'il doit être (re)chargé.
+     */
+    private volatile Map<Integer, String> snapshot;
+
+    /**
+     * Verrou de publication de l'instantané, distinct de celui du chargement pour
+     * qu'une invalidation n'attende pas la fin d'une lecture en base.
+     */
+    private final Object publishLock = new Object();
+
+    /**
+     * Incrémenté à chaque invalidation. Protégé par {@link #publishLock}.
+     */
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile long lastLoadNanos;
+
+    /**
+     * Construit un cache alimenté par le DAO fourni.
+     *
+     * @param roleDao Le DAO utilisé pour charger les rôles.
+     */
+    RoleCache(RoleDao roleDao) {
+        this.roleDao = roleDao;
+    }
+
+    /**
+     * @return L'instance partagée de la table des rôles.
+     */
+    public static RoleCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Charge la table immédiatement (appelé au démarrage de l'application).
+     */
+    public void warmUp() {
+        load();
+    }
+
+    /**
+     * Indique si le rôle existe.
+     *
+     * @param roleId L'ID du rôle, éventuellement {@code null}.
+     * @return {@code true} si le rôle existe.
+     */
+    public boolean exists(Integer roleId) {
+        return roleId != null && current().containsKey(roleId);
+    }
+
+    /**
+     * Recherche le nom d'un rôle par son ID.
+     *
+     * @param roleId L'ID du rôle.
+     * @return Un {@link Optional} contenant le nom du rôle s'il existe, sinon vide.
+     */
+    public Optional<String> findRoleName(int roleId) {
+        return Optional.ofNullable(current().get(roleId));
+    }
+
+    /**
+     * @return Tous les rôles (ID vers nom), triés par ID, dans une table non modifiable.
+     */
+    public Map<Integer, String> findAll() {
+        return current();
+    }
+
+    /**
+     * Invalide la table : elle sera rechargée depuis la base au prochain accès.
+     */
+    public void invalidate() {
+        synchronized (publishLock) {
+            generation++;
+            snapshot = null;
+        }
+        invalidations.increment();
+        logger.info("Table des rôles invalidée");
+    }
+
+    /**
+     * Retourne un instantané des statistiques du cache.
+     *
+     * @return Les statistiques courantes (taille, succès, défauts, chargements).
+     */
+    public CacheStats getStats() {
+        Map<Integer, String> current = snapshot;
+        return new CacheStats(
+                current == null ? 0 : current.size(),
+                hits.sum(),
+                misses.sum(),
+                loads.sum(),
+                invalidations.sum(),
+                lastLoadNanos / 1_000_000.0);
+    }
+
+    /**
+     * Retourne l'instantané courant, en le chargeant si nécessaire.
+     *
+     * @return L'instantané courant.
+     */
+    private Map<Integer, String> current() {
+        Map<Integer, String> current = snapshot;
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        return load();
+    }
+
+    /**
+     * Charge tous les rôles et publie un nouvel instantané.
+     * Un seul thread charge à la fois ; les autres réutilisent son résultat. Si la table est
+     * invalidée pendant le chargement, le résultat est rendu à l'appelant sans être publié.
+     *
+     * @return L'instantané chargé.
+     */
+    private synchronized Map<Integer, String> load() {
+        Map<Integer, String> current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        long startGeneration;
+        synchronized (publishLock) {
+            startGeneration = generation;
+        }
+        long start = System.nanoTime();
+        List<Role> roles = roleDao.findAllRoles();
+        Map<Integer, String> names = new LinkedHashMap<>();
+        roles.stream()
+                .sorted((a, b) -> Integer.compare(a.getId(), b.getId()))
+                .forEach(role -> names.put(role.getId(), role.getRoleName()));
+        current = Collections.unmodifiableMap(names);
+        lastLoadNanos = System.nanoTime() - start;
+        loads.increment();
+        synchronized (publishLock) {
+            if (generation != startGeneration) {
+                logger.info("Table des rôles invalidée pendant son chargement : instantané non publié");
+                return current;
+            }
+            snapshot = current;
+        }
+        logger.info("Table des rôles chargée : " + current.size() + " rôles en " + lastLoadNanos / 1_000_000 + " ms");
+        return current;
+    }
+}
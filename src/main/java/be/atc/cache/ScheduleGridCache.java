@@ -0,0 +1,298 @@
+package be.atc.cache;
+
+import be.atc.dao.ReservationDao;
+import be.atc.dao.SportFieldDao;
+import be.atc.dao.impl.ReservationDaoImpl;
+import be.atc.dao.impl.SportFieldDaoImpl;
+import be.atc.dto.ScheduleGrid;
+import be.atc.dto.ScheduleSportField;
+import be.atc.dto.ScheduledReservation;
+import be.atc.entities.TimeSlot;
+import org.apache.log4j.Logger;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grilles hebdomadaires des salles ({@link ScheduleGrid}), mises en cache par (salle, semaine).
+ * <p>
+ * Une grille est construite en deux requêtes quelle que soit la taille de la salle : les terrains
+ * de la salle avec leur sport, puis les créneaux réservés de toute la salle pour la semaine. Les
+ * créneaux horaires viennent de {@link SlotAvailabilityCache} et les fermetures de
+ * {@link ClosureIndex}, sans requête. Les collections {@code Hall.fields}, {@code Field.sportFields}
+ * et {@code SportField.reservations} ne sont jamais parcourues.
+ * </p>
+ * <p>
+ * Seules les semaines de la semaine courante à {@link #CACHED_WEEKS} semaines plus tard sont
+ * conservées ; les autres sont construites à chaque demande. Une réservation, une annulation ou
+ * une fermeture invalide les grilles concernées ({@link #invalidate(int, LocalDate)},
+ * {@link #invalidateSportField(int)}) après la validation de la transaction. Une grille construite
+ * pendant une invalidation n'est pas conservée, afin de ne pas republier un état antérieur.
+ * </p>
+ */
+public class ScheduleGridCache {
+
+    private static final Logger logger = Logger.getLogger(ScheduleGridCache.class);
+
+    /**
+     * Nombre de semaines à venir, après la semaine courante, dont les grilles sont conservées.
+     */
+    public static final int CACHED_WEEKS = 8;
+
+    /**
+     * Nombre de chargements entre deux évictions des semaines passées.
+     */
+    private static final int EVICTION_INTERVAL = 256;
+
+    private static final ScheduleGridCache INSTANCE = new ScheduleGridCache(new SportFieldDaoImpl(), new ReservationDaoImpl(),
+            SlotAvailabilityCache.getInstance(), ClosureIndex.getInstance());
+
+    private final SportFieldDao sportFieldDao;
+    private final ReservationDao reservationDao;
+    private final SlotAvailabilityCache slotAvailability;
+    private final ClosureIndex closures;
+
+    /**
+     * Grilles par clé (salle, lundi de la semaine) (voir {@link #key(int, LocalDate)}).
+     */
+    private final ConcurrentHashMap<Long, ScheduleGrid> grids = new ConcurrentHashMap<>();
+
+    /**
+     * Salle de chaque terrain apparu dans une grille, pour retrouver les grilles à invalider.
+     */
+    private final ConcurrentHashMap<Integer, Integer> hallBySportField = new ConcurrentHashMap<>();
+
+    /**
+     * Incrémenté à chaque invalidation : une grille n'est conservée que si aucune invalidation
+     * n'a eu lieu pendant sa construction.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile long lastLoadNanos;
+
+    /**
+     * Construit un cache alimenté par les DAO et index fournis.
+     *
+     * @param sportFieldDao    Le DAO des terrains.
+     * @param reservationDao   Le DAO des réservations.
+     * @param slotAvailability L'index des créneaux, source des créneaux horaires.
+     * @param closures         L'index des fermetures.
+     */
+    ScheduleGridCache(SportFieldDao sportFieldDao, ReservationDao reservationDao, SlotAvailabilityCache slotAvailability,
+                      ClosureIndex closures) {
+        this.sportFieldDao = sportFieldDao;
+        this.reservationDao = reservationDao;
+        this.slotAvailability = slotAvailability;
+        this.closures = closures;
+    }
+
+    /**
+     * @return L'instance partagée du cache des grilles.
+     */
+    public static ScheduleGridCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param date Un jour.
+     * @return Le lundi de la semaine de ce jour.
+     */
+    public static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * Retourne la grille d'une salle pour la semaine d'un jour donné.
+     *
+     * @param hallId L'ID de la salle.
+     * @param date   Un jour de la semaine voulue.
+     * @return La grille, ou vide si la salle n'existe pas, est inactive ou n'a aucun terrain réservable.
+     */
+    public Optional<ScheduleGrid> findWeek(int hallId, LocalDate date) {
+        LocalDate weekStart = weekStart(date);
+        long key = key(hallId, weekStart);
+        ScheduleGrid grid = grids.get(key);
+        if (grid != null) {
+            hits.increment();
+            return Optional.of(grid);
+        }
+        misses.increment();
+
+        long startGeneration = generation.get();
+        grid = load(hallId, weekStart);
+        if (grid == null) {
+            return Optional.empty();
+        }
+        LocalDate currentWeek = weekStart(LocalDate.now(SlotAvailabilityCache.CENTRE_ZONE));
+        if (!weekStart.isBefore(currentWeek) && !weekStart.isAfter(currentWeek.plusWeeks(CACHED_WEEKS))) {
+            for (ScheduleSportField sportField : grid.getSportFields()) {
+                hallBySportField.put(sportField.getSportFieldId(), hallId);
+            }
+            ScheduleGrid existing = grids.putIfAbsent(key, grid);
+            if (existing != null) {
+                return Optional.of(existing);
+            }
+            if (generation.get() != startGeneration) {
+                grids.remove(key, grid); // Invalidée pendant la construction
+            }
+        }
+        if (loads.sum() % EVICTION_INTERVAL == 0) {
+            evictBefore(currentWeek);
+        }
+        return Optional.of(grid);
+    }
+
+    /**
+     * Invalide la grille de la semaine d'un jour pour la salle d'un terrain (réservation ou annulation).
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @param date         Le jour modifié.
+     */
+    public void invalidate(int sportFieldId, LocalDate date) {
+        generation.incrementAndGet();
+        invalidations.increment();
+        Integer hallId = hallBySportField.get(sportFieldId);
+        if (hallId != null) {
+            grids.remove(key(hallId, weekStart(date)));
+        }
+    }
+
+    /**
+     * Invalide toutes les grilles de la salle d'un terrain (fermeture ajoutée ou supprimée).
+     *
+     * @param sportFieldId L'ID du terrain.
+     */
+    public void invalidateSportField(int sportFieldId) {
+        generation.incrementAndGet();
+        invalidations.increment();
+        Integer hallId = hallBySportField.get(sportFieldId);
+        if (hallId != null) {
+            grids.keySet().removeIf(key -> (int) (key >>> 32) == hallId);
+        }
+    }
+
+    /**
+     * Invalide toutes les grilles (modification des salles, terrains, sports ou créneaux horaires).
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        invalidations.increment();
+        grids.clear();
+        hallBySportField.clear();
+        logger.info("Grilles hebdomadaires invalidées");
+    }
+
+    /**
+     * Retourne un instantané des statistiques du cache.
+     * La taille est le nombre de grilles (salle, semaine) conservées.
+     *
+     * @return Les statistiques courantes (taille, succès, défauts, chargements).
+     */
+    public CacheStats getStats() {
+        return new CacheStats(grids.size(), hits.sum(), misses.sum(), loads.sum(), invalidations.sum(),
+                lastLoadNanos / 1_000_000.0);
+    }
+
+    /**
+     * Construit la grille d'une salle pour une semaine, en deux requêtes.
+     *
+     * @param hallId    L'ID de la salle.
+     * @param weekStart Le lundi de la semaine.
+     * @return La grille, ou {@code null} si la salle n'a aucun terrain réservable.
+     */
+    private ScheduleGrid load(int hallId, LocalDate weekStart) {
+        long start = System.nanoTime();
+        List<ScheduleSportField> sportFields = sportFieldDao.findScheduleSportFields(hallId);
+        if (sportFields.isEmpty()) {
+            return null;
+        }
+        List<TimeSlot> timeSlots = slotAvailability.findTimeSlots();
+        int[] timeSlotIds = new int[timeSlots.size()];
+        String[] timeSlotLabels = new String[timeSlots.size()];
+        for (int i = 0; i < timeSlots.size(); i++) {
+            timeSlotIds[i] = timeSlots.get(i).getId(); // Triés par ID
+            timeSlotLabels[i] = timeSlots.get(i).getTimeSlot();
+        }
+        Map<Integer, Integer> rows = new HashMap<>();
+        for (int row = 0; row < sportFields.size(); row++) {
+            rows.put(sportFields.get(row).getSportFieldId(), row);
+        }
+
+        byte[] states = new byte[sportFields.size() * ScheduleGrid.DAYS * timeSlotIds.length];
+        LocalDate weekEnd = weekStart.plusDays(ScheduleGrid.DAYS);
+        List<ScheduledReservation> reservations = reservationDao.findScheduledReservations(hallId,
+                SlotAvailabilityCache.startOfDay(weekStart), SlotAvailabilityCache.startOfDay(weekEnd));
+        for (ScheduledReservation reservation : reservations) {
+            Integer row = rows.get(reservation.getSportFieldId());
+            int slot = Arrays.binarySearch(timeSlotIds, reservation.getTimeSlotId());
+            long day = reservation.getDate().atZone(SlotAvailabilityCache.CENTRE_ZONE).toLocalDate().toEpochDay()
+                    - weekStart.toEpochDay();
+            if (row != null && slot >= 0 && day >= 0 && day < ScheduleGrid.DAYS) {
+                states[ScheduleGrid.indexOf(row, (int) day, slot, timeSlotIds.length)] = ScheduleGrid.BOOKED;
+            }
+        }
+        markClosures(sportFields, weekStart, timeSlotIds, states);
+
+        ScheduleGrid grid = new ScheduleGrid(hallId, sportFields.get(0).getHallLabel(), weekStart, timeSlotIds, timeSlotLabels,
+                Collections.unmodifiableList(sportFields), states);
+        lastLoadNanos = System.nanoTime() - start;
+        loads.increment();
+        logger.debug("Grille de la salle " + hallId + " pour la semaine du " + weekStart + " construite : "
+                + sportFields.size() + " terrains, " + reservations.size() + " réservations");
+        return grid;
+    }
+
+    /**
+     * Marque fermés les créneaux libres qui chevauchent une fermeture. Un terrain sans fermeture
+     * ce jour-là ne coûte qu'une recherche dans l'index des fermetures.
+     */
+    private void markClosures(List<ScheduleSportField> sportFields, LocalDate weekStart, int[] timeSlotIds, byte[] states) {
+        for (int row = 0; row < sportFields.size(); row++) {
+            int sportFieldId = sportFields.get(row).getSportFieldId();
+            for (int day = 0; day < ScheduleGrid.DAYS; day++) {
+                LocalDate date = weekStart.plusDays(day);
+                if (!closures.overlaps(sportFieldId, SlotAvailabilityCache.startOfDay(date),
+                        SlotAvailabilityCache.startOfDay(date.plusDays(1)))) {
+                    continue;
+                }
+                for (int slot = 0; slot < timeSlotIds.length; slot++) {
+                    int index = ScheduleGrid.indexOf(row, day, slot, timeSlotIds.length);
+                    if (states[index] == ScheduleGrid.FREE && slotAvailability.isClosed(sportFieldId, date, timeSlotIds[slot])) {
+                        states[index] = ScheduleGrid.CLOSED;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Retire les grilles des semaines passées.
+     *
+     * @param currentWeek Le lundi de la semaine courante.
+     */
+    private void evictBefore(LocalDate currentWeek) {
+        long currentEpochDay = currentWeek.toEpochDay();
+        grids.keySet().removeIf(key -> (int) key.longValue() < currentEpochDay);
+    }
+
+    /**
+     * @return La clé d'un couple (salle, semaine) : l'ID de la salle dans les 32 bits de poids fort, le lundi dans les autres.
+     */
+    private static long key(int hallId, LocalDate weekStart) {
+        return ((long) hallId << 32) | (weekStart.toEpochDay() & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,722 @@
+package be.atc.cache;
+
+import be.atc.dao.ReservationDao;
+import be.atc.dao.SportFieldDao;
+import be.atc.dao.TimeSlotDao;
+import be.atc.dao.impl.ReservationDaoImpl;
+import be.atc.dao.impl.SportFieldDaoImpl;
+import be.atc.dao.impl.TimeSlotDaoImpl;
+import be.atc.dto.BookableSportField;
+import be.atc.dto.FieldAvailability;
+import be.atc.dto.ReservedSlot;
+import be.atc.entities.TimeSlot;
+import org.apache.log4j.Logger;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Index mémoire des créneaux réservés, par terrain et par jour.
+ * <p>
+ * Pour chaque couple (terrain, jour) consulté, les créneaux réservés sont chargés en une
+ * requête puis conservés sous forme de bitmap : un bit par créneau horaire, dans l'ordre
+ * des IDs des créneaux. « Le terrain X est-il libre au créneau Y ? » est alors une lecture
+ * de bit, et « quels créneaux sont libres pour le sport S le jour D ? » parcourt les seuls
+ * terrains de ce sport, les bitmaps manquantes étant chargées en une seule requête.
+ * Les créneaux horaires et les terrains réservables (données de référence) sont chargés
+ * une seule fois.
+ * </p>
+ * <p>
+ * Seuls les jours du jour courant à {@link #BOOKING_HORIZON_DAYS} jours plus tard sont
+ * réservables et conservés : la bitmap d'un autre jour est lue en base à chaque demande,
+ * ce qui borne la mémoire de l'index quel que soit le jour demandé.
+ * </p>
+ * <p>
+ * Une réservation prend son créneau par compare-and-set sur le bit ({@link #tryClaim}) :
+ * deux réservations concurrentes du même créneau ne peuvent pas réussir toutes les deux.
+ * La prise est ensuite confirmée après la validation de la transaction
+ * ({@link #confirmClaim}) ou rendue après son annulation ({@link #releaseClaim}).
+ * Une bitmap portant des prises non confirmées n'est jamais remplacée, ce qui garantit
+ * qu'un rechargement depuis la base ne fait pas disparaître une réservation en cours.
+ * </p>
+ * <p>
+ * Un créneau qui chevauche une fermeture du terrain ({@link ClosureIndex}) n'est jamais
+ * libre. Les heures d'un créneau sont lues dans son libellé (par exemple « 08:00 - 09:00 ») ;
+ * un libellé sans heures couvre toute la journée, si bien qu'une fermeture ce jour-là le ferme.
+ * </p>
+ * <p>
+ * La base de données reste la référence : une réservation faite hors de l'application
+ * est rejetée par la contrainte unique de la table des réservations
+ * (voir {@link be.atc.services.impl.ReservationServiceImpl}). Après une modification des
+ * créneaux horaires ou des terrains, appeler {@link #invalidate()}.
+ * </p>
+ */
+public class SlotAvailabilityCache {
+
+    private static final Logger logger = Logger.getLogger(SlotAvailabilityCache.class);
+
+    /**
+     * Fuseau horaire du centre sportif : un jour réservé commence à minuit dans ce fuseau.
+     */
+    public static final ZoneId CENTRE_ZONE = ZoneId.of("Europe/Brussels");
+
+    /**
+     * Nombre de jours à venir, après le jour courant, ouverts à la réservation.
+     */
+    public static final int BOOKING_HORIZON_DAYS = 90;
+
+    /**
+     * Nombre de chargements entre deux évictions des jours passés.
+     */
+    private static final int EVICTION_INTERVAL = 1024;
+
+    /**
+     * Nombre de secondes dans une journée : fin d'un créneau couvrant toute la journée.
+     */
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private static final SlotAvailabilityCache INSTANCE = new SlotAvailabilityCache(
+            new ReservationDaoImpl(), new TimeSlotDaoImpl(), new SportFieldDaoImpl(), ClosureIndex.getInstance());
+
+    private final ReservationDao reservationDao;
+    private final TimeSlotDao timeSlotDao;
+    private final SportFieldDao sportFieldDao;
+    private final ClosureIndex closures;
+
+    /**
+     * Données de référence courantes, ou {@code null} si elles doivent être (re)chargées.
+     */
+    private volatile ReferenceData referenceData;
+
+    /**
+     * Bitmaps chargées, par clé (terrain, jour) (voir {@link #key(int, LocalDate)}).
+     */
+    private final ConcurrentHashMap<Long, DayBitmap> days = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile long lastLoadNanos;
+
+    /**
+     * Construit un index alimenté par les DAO fournis.
+     *
+     * @param reservationDao Le DAO des réservations.
+     * @param timeSlotDao    Le DAO des créneaux horaires.
+     * @param sportFieldDao  Le DAO des terrains.
+     * @param closures       L'index des fermetures des terrains.
+     */
+    SlotAvailabilityCache(ReservationDao reservationDao, TimeSlotDao timeSlotDao, SportFieldDao sportFieldDao,
+                          ClosureIndex closures) {
+        this.reservationDao = reservationDao;
+        this.timeSlotDao = timeSlotDao;
+        this.sportFieldDao = sportFieldDao;
+        this.closures = closures;
+    }
+
+    /**
+     * @return L'instance partagée de l'index des créneaux.
+     */
+    public static SlotAvailabilityCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Charge les données de référence immédiatement (appelé au démarrage de l'application).
+     */
+    public void warmUp() {
+        referenceData();
+    }
+
+    /**
+     * @param date Un jour.
+     * @return Le début de ce jour dans le fuseau du centre, valeur enregistrée dans {@code reservations.date}.
+     */
+    public static Instant startOfDay(LocalDate date) {
+        return date.atStartOfDay(CENTRE_ZONE).toInstant();
+    }
+
+    /**
+     * @param date Un jour.
+     * @return {@code true} si le jour est réservable : du jour courant à {@link #BOOKING_HORIZON_DAYS} jours plus tard.
+     */
+    public static boolean isWithinBookingHorizon(LocalDate date) {
+        LocalDate today = LocalDate.now(CENTRE_ZONE);
+        return !date.isBefore(today) && !date.isAfter(today.plusDays(BOOKING_HORIZON_DAYS));
+    }
+
+    /**
+     * @return Tous les créneaux horaires, triés par ID (entités détachées partagées : ne pas les modifier).
+     */
+    public List<TimeSlot> findTimeSlots() {
+        return referenceData().timeSlots;
+    }
+
+    /**
+     * @param timeSlotId L'ID d'un créneau horaire.
+     * @return {@code true} si le créneau existe.
+     */
+    public boolean isKnownTimeSlot(int timeSlotId) {
+        return referenceData().bitOf(timeSlotId) >= 0;
+    }
+
+    /**
+     * @param sportFieldId L'ID d'un terrain.
+     * @return {@code true} si le terrain est réservable (sport, terrain et salle actifs).
+     */
+    public boolean isBookable(int sportFieldId) {
+        return referenceData().isBookable(sportFieldId);
+    }
+
+    /**
+     * Indique si un créneau d'un terrain chevauche une fermeture du terrain.
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @param date         Le jour.
+     * @param timeSlotId   L'ID du créneau horaire.
+     * @return {@code true} si le terrain est fermé pendant au moins une partie du créneau.
+     */
+    public boolean isClosed(int sportFieldId, LocalDate date, int timeSlotId) {
+        ReferenceData reference = referenceData();
+        int bit = reference.bitOf(timeSlotId);
+        return bit >= 0 && isClosed(reference, sportFieldId, date, bit);
+    }
+
+    /**
+     * Indique si un créneau d'un terrain est libre.
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @param date         Le jour.
+     * @param timeSlotId   L'ID du créneau horaire.
+     * @return {@code true} si le terrain est réservable, ouvert et le créneau libre.
+     */
+    public boolean isFree(int sportFieldId, LocalDate date, int timeSlotId) {
+        ReferenceData reference = referenceData();
+        if (!reference.isBookable(sportFieldId) || reference.bitOf(timeSlotId) < 0
+                || isClosed(reference, sportFieldId, date, reference.bitOf(timeSlotId))) {
+            return false;
+        }
+        DayBitmap day = day(reference, sportFieldId, date);
+        int bit = day.reference.bitOf(timeSlotId);
+        return bit >= 0 && !day.isSet(bit);
+    }
+
+    /**
+     * Retourne les créneaux libres d'un terrain pour un jour.
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @param date         Le jour.
+     * @return Les IDs des créneaux libres et ouverts, triés par ID ; vide si le terrain n'est pas réservable.
+     */
+    public List<Integer> findFreeTimeSlotIds(int sportFieldId, LocalDate date) {
+        ReferenceData reference = referenceData();
+        if (!reference.isBookable(sportFieldId)) {
+            return Collections.emptyList();
+        }
+        return openTimeSlotIds(reference, sportFieldId, date, day(reference, sportFieldId, date).freeTimeSlotIds());
+    }
+
+    /**
+     * Retourne les créneaux libres de chaque terrain réservable d'un sport pour un jour.
+     * Les bitmaps manquantes sont chargées en une seule requête.
+     *
+     * @param sportId L'ID du sport.
+     * @param date    Le jour.
+     * @return Les disponibilités des terrains du sport, triées par ID de terrain.
+     */
+    public List<FieldAvailability> findFreeTimeSlotsBySport(int sportId, LocalDate date) {
+        ReferenceData reference = referenceData();
+        int[] sportFieldIds = reference.sportFieldsBySport.getOrDefault(sportId, new int[0]);
+
+        DayBitmap[] bitmaps = new DayBitmap[sportFieldIds.length];
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < sportFieldIds.length; i++) {
+            bitmaps[i] = current(reference, sportFieldIds[i], date);
+            if (bitmaps[i] == null) {
+                missing.add(sportFieldIds[i]);
+            }
+        }
+        Map<Integer, DayBitmap> loaded = missing.isEmpty() ? Collections.emptyMap() : load(reference, missing, date);
+
+        List<FieldAvailability> result = new ArrayList<>(sportFieldIds.length);
+        for (int i = 0; i < sportFieldIds.length; i++) {
+            DayBitmap day = bitmaps[i] != null ? bitmaps[i] : loaded.get(sportFieldIds[i]);
+            result.add(new FieldAvailability(sportFieldIds[i], openTimeSlotIds(reference, sportFieldIds[i], date,
+                    day.freeTimeSlotIds())));
+        }
+        return result;
+    }
+
+    /**
+     * Prend un créneau libre par compare-and-set. La prise doit ensuite être confirmée
+     * ({@link #confirmClaim}) ou rendue ({@link #releaseClaim}).
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @param date         Le jour.
+     * @param timeSlotId   L'ID du créneau horaire.
+     * @return {@code true} si le créneau était libre et a été pris, {@code false} s'il est déjà pris, inconnu
+     *         ou hors de l'horizon de réservation.
+     */
+    public boolean tryClaim(int sportFieldId, LocalDate date, int timeSlotId) {
+        ReferenceData reference = referenceData();
+        if (!reference.isBookable(sportFieldId) || reference.bitOf(timeSlotId) < 0 || !isWithinBookingHorizon(date)) {
+            return false;
+        }
+        while (true) {
+            DayBitmap day = day(reference, sportFieldId, date);
+            int bit = day.reference.bitOf(timeSlotId);
+            if (bit < 0 || !day.trySet(bit)) {
+                return false;
+            }
+            if (day.addPendingClaim()) {
+                return true;
+            }
+            // La bitmap a été remplacée entre-temps : la prise est refaite sur la nouvelle
+            day.clear(bit);
+        }
+    }
+
+    /**
+     * Confirme une prise après la validation de la réservation en base : le créneau reste pris.
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @param date         Le jour.
+     * @param timeSlotId   L'ID du créneau horaire.
+     */
+    public void confirmClaim(int sportFieldId, LocalDate date, int timeSlotId) {
+        DayBitmap day = days.get(key(sportFieldId, date));
+        if (day != null) {
+            day.removePendingClaim();
+        }
+    }
+
+    /**
+     * Rend une prise après l'annulation de la réservation : le créneau redevient libre.
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @param date         Le jour.
+     * @param timeSlotId   L'ID du créneau horaire.
+     */
+    public void releaseClaim(int sportFieldId, LocalDate date, int timeSlotId) {
+        DayBitmap day = days.get(key(sportFieldId, date));
+        if (day != null) {
+            int bit = day.reference.bitOf(timeSlotId);
+            if (bit >= 0) {
+                day.clear(bit);
+            }
+            day.removePendingClaim();
+        }
+    }
+
+    /**
+     * Libère un créneau après la suppression validée de sa réservation.
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @param date         Le jour.
+     * @param timeSlotId   L'ID du créneau horaire.
+     */
+    public void markFree(int sportFieldId, LocalDate date, int timeSlotId) {
+        DayBitmap day = days.get(key(sportFieldId, date));
+        if (day != null) {
+            int bit = day.reference.bitOf(timeSlotId);
+            if (bit >= 0) {
+                day.clear(bit);
+            }
+        }
+    }
+
+    /**
+     * Invalide l'index : les données de référence seront rechargées au prochain accès et les
+     * bitmaps construites sur les anciennes le seront dès qu'elles ne portent plus de prise en cours.
+     */
+    public void invalidate() {
+        referenceData = null;
+        invalidations.increment();
+        logger.info("Index des créneaux invalidé");
+    }
+
+    /**
+     * Retourne un instantané des statistiques de l'index.
+     * La taille est le nombre de bitmaps (terrain, jour) chargées.
+     *
+     * @return Les statistiques courantes (taille, succès, défauts, chargements).
+     */
+    public CacheStats getStats() {
+        return new CacheStats(days.size(), hits.sum(), misses.sum(), loads.sum(), invalidations.sum(),
+                lastLoadNanos / 1_000_000.0);
+    }
+
+    /**
+     * Retire d'une liste de créneaux libres ceux qui chevauchent une fermeture du terrain.
+     * Un jour sans fermeture, la liste est retournée telle quelle après une seule recherche.
+     *
+     * @param reference    Les données de référence courantes.
+     * @param sportFieldId L'ID du terrain.
+     * @param date         Le jour.
+     * @param free         Les IDs des créneaux libres, triés par ID.
+     * @return Les IDs des créneaux libres et ouverts.
+     */
+    private List<Integer> openTimeSlotIds(ReferenceData reference, int sportFieldId, LocalDate date, List<Integer> free) {
+        if (free.isEmpty() || !closures.overlaps(sportFieldId, startOfDay(date), startOfDay(date.plusDays(1)))) {
+            return free;
+        }
+        List<Integer> open = new ArrayList<>(free.size());
+        for (Integer timeSlotId : free) {
+            if (!isClosed(reference, sportFieldId, date, reference.bitOf(timeSlotId))) {
+                open.add(timeSlotId);
+            }
+        }
+        return open;
+    }
+
+    /**
+     * @return {@code true} si le créneau du bit donné chevauche une fermeture du terrain ce jour-là.
+     */
+    private boolean isClosed(ReferenceData reference, int sportFieldId, LocalDate date, int bit) {
+        return closures.overlaps(sportFieldId, reference.instantOf(date, reference.slotStarts[bit]),
+                reference.instantOf(date, reference.slotEnds[bit]));
+    }
+
+    /**
+     * Retourne la bitmap d'un terrain pour un jour, en la chargeant si nécessaire.
+     *
+     * @param reference    Les données de référence courantes.
+     * @param sportFieldId L'ID du terrain.
+     * @param date         Le jour.
+     * @return La bitmap du terrain pour ce jour.
+     */
+    private DayBitmap day(ReferenceData reference, int sportFieldId, LocalDate date) {
+        DayBitmap day = current(reference, sportFieldId, date);
+        if (day != null) {
+            return day;
+        }
+        return load(reference, Collections.singletonList(sportFieldId), date).get(sportFieldId);
+    }
+
+    /**
+     * Retourne la bitmap chargée d'un terrain pour un jour, si elle est à jour. Une bitmap
+     * construite sur d'anciennes données de référence est retirée, sauf si elle porte une
+     * prise en cours (elle reste alors utilisée jusqu'à sa confirmation).
+     *
+     * @return La bitmap utilisable, ou {@code null} si elle doit être chargée.
+     */
+    private DayBitmap current(ReferenceData reference, int sportFieldId, LocalDate date) {
+        long key = key(sportFieldId, date);
+        DayBitmap day = days.get(key);
+        if (day != null && (day.reference == reference || !retire(key, day))) {
+            hits.increment();
+            return day;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Charge en une requête les bitmaps des terrains donnés pour un jour et les publie si le jour
+     * est dans l'horizon de réservation. Si une autre requête a publié la bitmap d'un terrain
+     * entre-temps, c'est elle qui est retenue.
+     *
+     * @param reference     Les données de référence courantes.
+     * @param sportFieldIds Les IDs des terrains.
+     * @param date          Le jour.
+     * @return Les bitmaps publiées, par ID de terrain.
+     */
+    private Map<Integer, DayBitmap> load(ReferenceData reference, List<Integer> sportFieldIds, LocalDate date) {
+        long start = System.nanoTime();
+        List<ReservedSlot> reservedSlots = reservationDao.findReservedSlots(sportFieldIds,
+                startOfDay(date), startOfDay(date.plusDays(1)));
+
+        Map<Integer, DayBitmap> loaded = new HashMap<>();
+        for (Integer sportFieldId : sportFieldIds) {
+            loaded.put(sportFieldId, new DayBitmap(reference));
+        }
+        for (ReservedSlot reservedSlot : reservedSlots) {
+            int bit = reference.bitOf(reservedSlot.getTimeSlotId());
+            DayBitmap day = loaded.get(reservedSlot.getSportFieldId());
+            if (bit >= 0 && day != null) {
+                day.trySet(bit);
+            }
+        }
+
+        Map<Integer, DayBitmap> published = loaded;
+        if (isWithinBookingHorizon(date)) {
+            published = new HashMap<>();
+            for (Map.Entry<Integer, DayBitmap> entry : loaded.entrySet()) {
+                DayBitmap existing = days.putIfAbsent(key(entry.getKey(), date), entry.getValue());
+                published.put(entry.getKey(), existing != null ? existing : entry.getValue());
+            }
+        }
+        lastLoadNanos = System.nanoTime() - start;
+        loads.increment();
+        if (loads.sum() % EVICTION_INTERVAL == 0) {
+            evictBefore(LocalDate.now(CENTRE_ZONE));
+        }
+        return published;
+    }
+
+    /**
+     * Retire les bitmaps des jours passés qui ne portent plus de prise en cours.
+     *
+     * @param today Le jour courant.
+     */
+    private void evictBefore(LocalDate today) {
+        long todayEpochDay = today.toEpochDay();
+        int evicted = 0;
+        for (Map.Entry<Long, DayBitmap> entry : days.entrySet()) {
+            if ((int) entry.getKey().longValue() < todayEpochDay && retire(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        logger.debug(evicted + " bitmaps de jours passés retirées de l'index des créneaux");
+    }
+
+    /**
+     * Retire une bitmap si elle ne porte aucune prise en cours.
+     *
+     * @return {@code true} si la bitmap a été retirée.
+     */
+    private boolean retire(long key, DayBitmap day) {
+        if (!day.retire()) {
+            return false;
+        }
+        days.remove(key, day);
+        return true;
+    }
+
+    /**
+     * @return La clé d'un couple (terrain, jour) : l'ID du terrain dans les 32 bits de poids fort, le jour dans les autres.
+     */
+    private static long key(int sportFieldId, LocalDate date) {
+        return ((long) sportFieldId << 32) | (date.toEpochDay() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Retourne les données de référence courantes, en les chargeant si nécessaire.
+     *
+     * @return Les données de référence.
+     */
+    private ReferenceData referenceData() {
+        ReferenceData current = referenceData;
+        return current != null ? current : loadReferenceData();
+    }
+
+    /**
+     * Charge les créneaux horaires et les terrains réservables.
+     * Un seul thread charge à la fois ; les autres réutilisent son résultat.
+     *
+     * @return Les données de référence chargées.
+     */
+    private synchronized ReferenceData loadReferenceData() {
+        ReferenceData current = referenceData;
+        if (current != null) {
+            return current;
+        }
+        current = new ReferenceData(timeSlotDao.findAllTimeSlots(), sportFieldDao.findBookableSportFields());
+        referenceData = current;
+        logger.info("Index des créneaux : " + current.slotIds.length + " créneaux horaires, "
+                + current.sportFieldIds.length + " terrains réservables");
+        return current;
+    }
+
+    /**
+     * Créneaux horaires et terrains réservables, immuables.
+     */
+    private static final class ReferenceData {
+        private final List<TimeSlot> timeSlots;
+        /**
+         * IDs des créneaux triés : la position d'un ID est son bit dans les bitmaps.
+         */
+        private final int[] slotIds;
+        /**
+         * Début et fin de chaque créneau, en secondes depuis minuit, par bit.
+         */
+        private final int[] slotStarts;
+        private final int[] slotEnds;
+        private final int[] sportFieldIds;
+        private final Map<Integer, int[]> sportFieldsBySport;
+
+        private ReferenceData(List<TimeSlot> timeSlots, List<BookableSportField> sportFields) {
+            List<TimeSlot> sorted = new ArrayList<>(timeSlots);
+            sorted.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+            this.timeSlots = Collections.unmodifiableList(sorted);
+            this.slotIds = sorted.stream().mapToInt(TimeSlot::getId).toArray();
+            this.slotStarts = new int[slotIds.length];
+            this.slotEnds = new int[slotIds.length];
+            for (int bit = 0; bit < slotIds.length; bit++) {
+                int[] bounds = parseBounds(sorted.get(bit).getTimeSlot());
+                slotStarts[bit] = bounds[0];
+                slotEnds[bit] = bounds[1];
+            }
+
+            this.sportFieldIds = sportFields.stream().mapToInt(BookableSportField::getSportFieldId).sorted().toArray();
+            Map<Integer, List<Integer>> bySport = new HashMap<>();
+            for (BookableSportField sportField : sportFields) {
+                bySport.computeIfAbsent(sportField.getSportId(), id -> new ArrayList<>()).add(sportField.getSportFieldId());
+            }
+            Map<Integer, int[]> sportFieldsBySport = new HashMap<>();
+            for (Map.Entry<Integer, List<Integer>> entry : bySport.entrySet()) {
+                sportFieldsBySport.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).sorted().toArray());
+            }
+            this.sportFieldsBySport = sportFieldsBySport;
+        }
+
+        /**
+         * @return Le bit du créneau horaire, ou -1 s'il est inconnu.
+         */
+        private int bitOf(int timeSlotId) {
+            int index = Arrays.binarySearch(slotIds, timeSlotId);
+            return index >= 0 ? index : -1;
+        }
+
+        private boolean isBookable(int sportFieldId) {
+            return Arrays.binarySearch(sportFieldIds, sportFieldId) >= 0;
+        }
+
+        /**
+         * @return L'instant correspondant à une heure du jour donné, dans le fuseau du centre.
+         */
+        private Instant instantOf(LocalDate date, int secondOfDay) {
+            return secondOfDay >= SECONDS_PER_DAY
+                    ? startOfDay(date.plusDays(1))
+                    : date.atTime(LocalTime.ofSecondOfDay(secondOfDay)).atZone(CENTRE_ZONE).toInstant();
+        }
+
+        /**
+         * Lit les heures de début et de fin dans le libellé d'un créneau (« 08:00 - 09:00 », « 8h00-9h00 »).
+         * Un libellé sans deux heures valides, ou dont la fin précède le début, couvre toute la journée.
+         *
+         * @param label Le libellé du créneau.
+         * @return Le début et la fin, en secondes depuis minuit.
+         */
+        private static int[] parseBounds(String label) {
+            int[] bounds = new int[2];
+            int found = 0;
+            int length = label == null ? 0 : label.length();
+            for (int i = 0; i < length && found < 2; i++) {
+                // Heure sur un ou deux chiffres, séparateur ':' ou 'h', minutes sur deux chiffres
+                int hourEnd = i;
+                while (hourEnd < length && hourEnd - i < 2 && Character.isDigit(label.charAt(hourEnd))) {
+                    hourEnd++;
+                }
+                if (hourEnd == i || hourEnd + 2 >= length || (i > 0 && Character.isDigit(label.charAt(i - 1)))) {
+                    continue;
+                }
+                char separator = label.charAt(hourEnd);
+                if ((separator != ':' && separator != 'h' && separator != 'H')
+                        || !Character.isDigit(label.charAt(hourEnd + 1)) || !Character.isDigit(label.charAt(hourEnd + 2))) {
+                    continue;
+                }
+                int hour = Integer.parseInt(label.substring(i, hourEnd));
+                int minute = Integer.parseInt(label.substring(hourEnd + 1, hourEnd + 3));
+                if (hour > 24 || minute > 59 || (hour == 24 && minute > 0)) {
+                    continue;
+                }
+                bounds[found++] = hour * 3600 + minute * 60;
+                i = hourEnd + 2;
+            }
+            if (found < 2 || bounds[1] <= bounds[0]) {
+                return new int[]{0, SECONDS_PER_DAY};
+            }
+            return bounds;
+        }
+    }
+
+    /**
+     * Créneaux pris d'un terrain pour un jour : un bit par créneau horaire.
+     * Les bits sont modifiés par compare-and-set ; le compteur de prises en cours et
+     * l'état retiré sont protégés par le moniteur de l'objet.
+     */
+    private static final class DayBitmap {
+        private final ReferenceData reference;
+        private final AtomicLongArray words;
+        private int pendingClaims;
+        private boolean retired;
+
+        private DayBitmap(ReferenceData reference) {
+            this.reference = reference;
+            this.words = new AtomicLongArray(Math.max(1, (reference.slotIds.length + 63) >>> 6));
+        }
+
+        private boolean isSet(int bit) {
+            return (words.get(bit >>> 6) & (1L << bit)) != 0;
+        }
+
+        /**
+         * @return {@code true} si le bit était à 0 et a été mis à 1 par cet appel.
+         */
+        private boolean trySet(int bit) {
+            int index = bit >>> 6;
+            long mask = 1L << bit;
+            while (true) {
+                long word = words.get(index);
+                if ((word & mask) != 0) {
+                    return false;
+                }
+                if (words.compareAndSet(index, word, word | mask)) {
+                    return true;
+                }
+            }
+        }
+
+        private void clear(int bit) {
+            int index = bit >>> 6;
+            long mask = 1L << bit;
+            while (true) {
+                long word = words.get(index);
+                if ((word & mask) == 0 || words.compareAndSet(index, word, word & ~mask)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * @return {@code false} si la bitmap a été retirée (la prise doit être refaite sur la nouvelle).
+         */
+        private synchronized boolean addPendingClaim() {
+            if (retired) {
+                return false;
+            }
+            pendingClaims++;
+            return true;
+        }
+
+        private synchronized void removePendingClaim() {
+            if (pendingClaims > 0) {
+                pendingClaims--;
+            }
+        }
+
+        /**
+         * @return {@code true} si la bitmap ne portait aucune prise en cours et est désormais retirée.
+         */
+        private synchronized boolean retire() {
+            if (pendingClaims > 0) {
+                return false;
+            }
+            retired = true;
+            return true;
+        }
+
+        private List<Integer> freeTimeSlotIds() {
+            List<Integer> free = new ArrayList<>(reference.slotIds.length);
+            for (int bit = 0; bit < reference.slotIds.length; bit++) {
+                if (!isSet(bit)) {
+                    free.add(reference.slotIds[bit]);
+                }
+            }
+            return free;
+        }
+    }
+}
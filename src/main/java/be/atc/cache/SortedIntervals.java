@@ -0,0 +1,58 @@
+package be.atc.cache;
+
+import java.util.Arrays;
+
+/**
+ * Ensemble immuable d'intervalles {@code [début, fin[} (millisecondes depuis l'époque), trié par début.
+ * <p>
+ * À côté des débuts triés, le maximum cumulé des fins est précalculé : {@code maxEnds[i]} est la
+ * plus grande fin parmi les intervalles {@code 0..i}. Savoir si une période chevauche l'un des
+ * intervalles revient à chercher par dichotomie le dernier intervalle commençant avant la fin de
+ * la période, puis à comparer ce maximum avec son début : O(log n), sans allocation.
+ * </p>
+ */
+final class SortedIntervals {
+
+    static final SortedIntervals EMPTY = new SortedIntervals(new long[0], new long[0]);
+
+    private final long[] begins;
+    private final long[] maxEnds;
+
+    /**
+     * @param begins Les débuts, triés par ordre croissant.
+     * @param ends   Les fins, dans le même ordre que les débuts.
+     */
+    SortedIntervals(long[] begins, long[] ends) {
+        this.begins = begins;
+        this.maxEnds = new long[ends.length];
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = 0; i < ends.length; i++) {
+            maxEnd = Math.max(maxEnd, ends[i]);
+            maxEnds[i] = maxEnd;
+        }
+    }
+
+    /**
+     * @return {@code true} si un intervalle chevauche la période {@code [start, end[}.
+     */
+    boolean overlaps(long start, long end) {
+        // Dernier intervalle commençant avant la fin de la période
+        int index = Arrays.binarySearch(begins, end);
+        int last = index >= 0 ? index - 1 : -index - 2;
+        while (last >= 0 && begins[last] >= end) {
+            last--; // Débuts égaux à la fin de la période
+        }
+        return last >= 0 && maxEnds[last] > start;
+    }
+
+    /**
+     * @return {@code true} si un intervalle contient l'instant donné.
+     */
+    boolean contains(long instant) {
+        return overlaps(instant, instant + 1);
+    }
+
+    int size() {
+        return begins.length;
+    }
+}
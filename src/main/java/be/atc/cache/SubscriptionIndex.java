@@ -0,0 +1,194 @@
+package be.atc.cache;
+
+import be.atc.dao.UsersSubscriptionDao;
+import be.atc.dao.impl.UsersSubscriptionDaoImpl;
+import be.atc.dto.SubscriptionValidity;
+import org.apache.log4j.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index mémoire des abonnements valides, par utilisateur, partagé par toute l'application.
+ * <p>
+ * Pour chaque utilisateur ayant un abonnement en cours ou à venir, l'index conserve un objet
+ * immuable : les IDs des sports couverts, triés, et pour chacun ses périodes de validité triées
+ * par début ({@link SortedIntervals}). « L'utilisateur U a-t-il un abonnement valide pour le
+ * sport S à l'instant T ? » est une lecture dans une table immuable suivie de deux
+ * recherches par dichotomie : aucune requête SQL, aucun verrou (voir {@link IntervalIndex}).
+ * </p>
+ * <p>
+ * L'index est chargé en une requête, au démarrage ou au premier accès, puis mis à jour
+ * abonnement par abonnement ({@link #add}) après la validation d'une souscription (voir
+ * {@link be.atc.services.impl.SubscriptionServiceImpl}) : seules les données de l'utilisateur
+ * concerné sont reconstruites, et ses abonnements terminés en sont retirés à cette occasion.
+ * </p>
+ */
+public class SubscriptionIndex extends IntervalIndex<SubscriptionIndex.UserSubscriptions> {
+
+    private static final Logger logger = Logger.getLogger(SubscriptionIndex.class);
+
+    private static final SubscriptionIndex INSTANCE = new SubscriptionIndex(new UsersSubscriptionDaoImpl());
+
+    /**
+     * Ordre des périodes d'un utilisateur : par sport, puis par début de validité.
+     */
+    private static final Comparator<SubscriptionValidity> BY_SPORT_AND_BEGIN =
+            Comparator.comparingInt(SubscriptionValidity::getSportId).thenComparing(SubscriptionValidity::getBegin);
+
+    private final UsersSubscriptionDao usersSubscriptionDao;
+
+    /**
+     * Construit un index alimenté par le DAO fourni.
+     *
+     * @param usersSubscriptionDao Le DAO utilisé pour charger les abonnements.
+     */
+    SubscriptionIndex(UsersSubscriptionDao usersSubscriptionDao) {
+        super("Index des abonnements");
+        this.usersSubscriptionDao = usersSubscriptionDao;
+    }
+
+    /**
+     * @return L'instance partagée de l'index des abonnements.
+     */
+    public static SubscriptionIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Indique si un utilisateur a un abonnement valide pour un sport à un instant donné.
+     *
+     * @param userId  L'ID de l'utilisateur.
+     * @param sportId L'ID du sport.
+     * @param at      L'instant vérifié.
+     * @return {@code true} si une période de validité d'un abonnement du sport contient cet instant.
+     */
+    public boolean isValid(int userId, int sportId, Instant at) {
+        UserSubscriptions subscriptions = find(userId);
+        return subscriptions != null && subscriptions.isValid(sportId, at.toEpochMilli());
+    }
+
+    /**
+     * Retourne les abonnements en cours ou à venir d'un utilisateur.
+     *
+     * @param userId L'ID de l'utilisateur.
+     * @return Les périodes de validité, triées par sport puis par début.
+     */
+    public List<SubscriptionValidity> findValidities(int userId) {
+        UserSubscriptions subscriptions = find(userId);
+        return subscriptions == null ? Collections.emptyList() : subscriptions.validities(System.currentTimeMillis());
+    }
+
+    /**
+     * Ajoute un abonnement validé en base. Sans effet s'il est déjà indexé.
+     *
+     * @param validity La période de validité ajoutée.
+     */
+    public void add(SubscriptionValidity validity) {
+        long now = System.currentTimeMillis();
+        update(validity.getUserId(), (id, subscriptions) ->
+                (subscriptions == null ? UserSubscriptions.EMPTY : subscriptions).with(validity, now));
+    }
+
+    /**
+     * Charge les abonnements en cours ou à venir de tous les utilisateurs, en une requête.
+     * La taille de l'index est le nombre d'utilisateurs ayant un abonnement en cours ou à venir.
+     */
+    @Override
+    Map<Integer, UserSubscriptions> loadAll() {
+        List<SubscriptionValidity> validities = usersSubscriptionDao.findValiditiesEndingAfter(Instant.now());
+        Map<Integer, List<SubscriptionValidity>> byUser = new HashMap<>();
+        for (SubscriptionValidity validity : validities) {
+            byUser.computeIfAbsent(validity.getUserId(), id -> new ArrayList<>(2)).add(validity);
+        }
+        Map<Integer, UserSubscriptions> subscriptionsByUser = new HashMap<>(byUser.size() * 2);
+        for (Map.Entry<Integer, List<SubscriptionValidity>> entry : byUser.entrySet()) {
+            subscriptionsByUser.put(entry.getKey(), UserSubscriptions.of(entry.getValue()));
+        }
+        logger.debug(validities.size() + " abonnements lus pour " + byUser.size() + " utilisateurs");
+        return subscriptionsByUser;
+    }
+
+    /**
+     * Abonnements d'un utilisateur, immuables : sports couverts triés et, par sport, périodes triées par début.
+     */
+    static final class UserSubscriptions {
+        private static final UserSubscriptions EMPTY = of(Collections.emptyList());
+
+        /**
+         * Périodes triées par sport puis par début.
+         */
+        private final SubscriptionValidity[] validities;
+        private final int[] sportIds;
+        private final SortedIntervals[] intervalsBySport;
+
+        private UserSubscriptions(SubscriptionValidity[] validities) {
+            this.validities = validities;
+            int sports = 0;
+            for (int i = 0; i < validities.length; i++) {
+                if (i == 0 || validities[i].getSportId() != validities[i - 1].getSportId()) {
+                    sports++;
+                }
+            }
+            this.sportIds = new int[sports];
+            this.intervalsBySport = new SortedIntervals[sports];
+            int sport = 0;
+            for (int from = 0; from < validities.length; sport++) {
+                int to = from;
+                while (to < validities.length && validities[to].getSportId() == validities[from].getSportId()) {
+                    to++;
+                }
+                long[] begins = new long[to - from];
+                long[] ends = new long[to - from];
+                for (int i = from; i < to; i++) {
+                    begins[i - from] = validities[i].getBegin().toEpochMilli();
+                    ends[i - from] = validities[i].getEnd().toEpochMilli();
+                }
+                sportIds[sport] = validities[from].getSportId();
+                intervalsBySport[sport] = new SortedIntervals(begins, ends);
+                from = to;
+            }
+        }
+
+        private static UserSubscriptions of(List<SubscriptionValidity> validities) {
+            SubscriptionValidity[] sorted = validities.toArray(new SubscriptionValidity[0]);
+            Arrays.sort(sorted, BY_SPORT_AND_BEGIN);
+            return new UserSubscriptions(sorted);
+        }
+
+        private boolean isValid(int sportId, long at) {
+            int index = Arrays.binarySearch(sportIds, sportId);
+            return index >= 0 && intervalsBySport[index].contains(at);
+        }
+
+        private List<SubscriptionValidity> validities(long now) {
+            List<SubscriptionValidity> current = new ArrayList<>(validities.length);
+            for (SubscriptionValidity validity : validities) {
+                if (validity.getEnd().toEpochMilli() > now) {
+                    current.add(validity);
+                }
+            }
+            return current;
+        }
+
+        /**
+         * @return Une copie contenant la période (remplacée si son ID est déjà présent), sans les périodes terminées.
+         */
+        private UserSubscriptions with(SubscriptionValidity added, long now) {
+            List<SubscriptionValidity> kept = new ArrayList<>(validities.length + 1);
+            for (SubscriptionValidity validity : validities) {
+                if (validity.getUserSubscriptionId() != added.getUserSubscriptionId() && validity.getEnd().toEpochMilli() > now) {
+                    kept.add(validity);
+                }
+            }
+            kept.add(added);
+            return of(kept);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package be.atc.dao;
 
+import be.atc.dto.AddressSummary;
 import be.atc.entities.Address;
 
 import java.util.List;
@@ -8,21 +9,23 @@ import java.util.Optional;
 /**
  * Interface pour les opérations de base de données liées à l'entité {@link Address}.
  */
-public interface AddressDao {
+public interface AddressDao extends KeysetPageableDao<Address> {
 
     /**
      * Crée une nouvelle adresse dans la base de données.
      *
-     * @param address L'adresse à créer.
+     * @param address    L'adresse à créer.
+     * @param localityId L'ID de sa localité.
      */
-    void createAddress(Address address);
+    void createAddress(Address address, int localityId);
 
     /**
      * Met à jour une adresse existante dans la base de données.
      *
-     * @param address L'adresse à mettre à jour.
+     * @param address    L'adresse à mettre à jour.
+     * @param localityId L'ID de sa localité.
      */
-    void updateAddress(Address address);
+    void updateAddress(Address address, int localityId);
 
     /**
      * Supprime une adresse de la base de données par son ID.
@@ -40,11 +43,11 @@ public interface AddressDao {
     Optional<Address> findById(int id);
 
     /**
-     * Récupère toutes les adresses de la base de données.
+     * Récupère toutes les adresses de la base de données, en lecture seule.
      *
-     * @return Une liste de toutes les adresses.
+     * @return Une liste de toutes les adresses, triées par ID.
      */
-    List<Address> findAll();
+    List<AddressSummary> findAll();
 
     /**
      * Recherche des adresses par nom de rue.
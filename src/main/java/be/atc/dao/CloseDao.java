@@ -0,0 +1,46 @@
+package be.atc.dao;
+
+import be.atc.dto.ClosePeriod;
+import be.atc.entities.Close;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interface pour gérer les opérations de base de données liées aux entités {@link Close}.
+ */
+public interface CloseDao {
+
+    /**
+     * Trouve une fermeture par son ID.
+     *
+     * @param id L'ID de la fermeture.
+     * @return Un {@link Optional} contenant la fermeture si elle est trouvée, ou vide sinon.
+     */
+    Optional<Close> findCloseById(int id);
+
+    /**
+     * Enregistre une nouvelle fermeture. Si une transaction est déjà active (requête HTTP
+     * en cours), la fermeture est enregistrée dans cette transaction.
+     *
+     * @param close        La fermeture à créer.
+     * @param sportFieldId L'ID du terrain fermé.
+     */
+    void createClose(Close close, int sportFieldId);
+
+    /**
+     * Supprime une fermeture.
+     *
+     * @param id L'ID de la fermeture à supprimer.
+     */
+    void deleteCloseById(int id);
+
+    /**
+     * Récupère les fermetures qui ne sont pas terminées à une date donnée.
+     *
+     * @param from La date de référence.
+     * @return Les périodes de fermeture dont la fin est postérieure à {@code from}, triées par terrain puis par début.
+     */
+    List<ClosePeriod> findClosePeriodsEndingAfter(Instant from);
+}
@@ -0,0 +1,71 @@
+package be.atc.dao;
+
+import be.atc.entities.EmailOutbox;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Interface pour les opérations de base de données liées à l'entité {@link EmailOutbox}.
+ */
+public interface EmailOutboxDao {
+
+    /**
+     * Enregistre un e-mail dans la boîte d'envoi. Si une transaction est déjà
+     * active (requête HTTP en cours), l'e-mail est enregistré dans cette transaction.
+     *
+     * @param email L'e-mail à enregistrer.
+     */
+    void enqueue(EmailOutbox email);
+
+    /**
+     * Récupère les e-mails dont la prochaine tentative est due : e-mails en attente, et
+     * e-mails réservés dont l'envoi ne s'est jamais terminé (réservation expirée).
+     *
+     * @param now   La date de référence.
+     * @param limit Le nombre maximum d'e-mails à retourner.
+     * @return Les e-mails à envoyer, du plus ancien au plus récent.
+     */
+    List<EmailOutbox> findDue(Instant now, int limit);
+
+    /**
+     * Réserve un e-mail pour une tentative d'envoi : il passe à l'état
+     * {@link EmailOutbox.Status#SENDING} et sa tentative est comptée, seulement s'il est
+     * toujours dans l'état lu par {@link #findDue(Instant, int)}. Une lecture périmée
+     * (e-mail envoyé ou réservé entre-temps) ne réserve donc rien.
+     *
+     * @param id         L'ID de l'e-mail.
+     * @param status     L'état lu.
+     * @param attempts   Le nombre de tentatives lu.
+     * @param leaseUntil La date après laquelle l'e-mail sera repris si la tentative ne se termine pas.
+     * @return {@code true} si l'e-mail a été réservé, {@code false} s'il a changé depuis la lecture.
+     */
+    boolean claim(int id, EmailOutbox.Status status, int attempts, Instant leaseUntil);
+
+    /**
+     * Marque un e-mail comme envoyé.
+     *
+     * @param id       L'ID de l'e-mail.
+     * @param attempts Le nombre de tentatives effectuées.
+     * @param sentAt   La date d'envoi.
+     */
+    void markSent(int id, int attempts, Instant sentAt);
+
+    /**
+     * Enregistre l'échec d'une tentative d'envoi.
+     *
+     * @param id            L'ID de l'e-mail.
+     * @param attempts      Le nombre de tentatives effectuées.
+     * @param status        {@link EmailOutbox.Status#PENDING} pour réessayer plus tard, {@link EmailOutbox.Status#FAILED} pour abandonner.
+     * @param nextAttemptAt La date de la prochaine tentative.
+     * @param lastError     Le message d'erreur.
+     */
+    void markAttemptFailed(int id, int attempts, EmailOutbox.Status status, Instant nextAttemptAt, String lastError);
+
+    /**
+     * Compte les e-mails dans l'état donné.
+     *
+     * @param status L'état recherché.
+     * @return Le nombre d'e-mails dans cet état.
+     */
+    long countByStatus(EmailOutbox.Status status);
+}
@@ -0,0 +1,90 @@
+package be.atc.dao;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Page de résultats obtenue par pagination par clé (keyset / seek).
+ * <p>
+ * Au lieu d'un numéro de page (OFFSET), le curseur est l'ID du dernier élément
+ * de la page précédente : la base de données se positionne directement dans
+ * l'index de la clé primaire, si bien qu'une page profonde coûte autant que la première.
+ * </p>
+ *
+ * @param <T> Le type des éléments de la page.
+ */
+public class KeysetPage<T> {
+
+    private final List<T> items;
+    private final int nextAfterId;
+    private final boolean hasNext;
+
+    /**
+     * Construit une page de résultats.
+     *
+     * @param items       Les éléments de la page, triés par ID croissant.
+     * @param nextAfterId Le curseur à transmettre pour obtenir la page suivante.
+     * @param hasNext     {@code true} s'il existe au moins un élément après cette page.
+     */
+    public KeysetPage(List<T> items, int nextAfterId, boolean hasNext) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextAfterId = nextAfterId;
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * Vérifie une taille de page : une taille nulle ou négative donnerait une page vide
+     * dont le curseur ne progresse pas.
+     *
+     * @param pageSize La taille de page demandée.
+     * @throws IllegalArgumentException Si la taille est inférieure à 1 ("INVALID_PAGE_SIZE").
+     */
+    public static void requireValidPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("INVALID_PAGE_SIZE");
+        }
+    }
+
+    /**
+     * Construit une page à partir des lignes lues avec une limite de {@code pageSize + 1}.
+     * La ligne supplémentaire, si elle est présente, indique qu'une page suivante existe
+     * et n'est pas retournée.
+     *
+     * @param rows     Les lignes lues (au plus {@code pageSize + 1}), triées par ID croissant.
+     * @param pageSize La taille de page demandée.
+     * @param afterId  Le curseur utilisé pour cette page.
+     * @param idOf     Fonction donnant l'ID d'un élément.
+     * @param <T>      Le type des éléments.
+     * @return La page correspondante.
+     * @throws IllegalArgumentException Si la taille de page est inférieure à 1 ("INVALID_PAGE_SIZE").
+     */
+    public static <T> KeysetPage<T> fromRows(List<T> rows, int pageSize, int afterId, ToIntFunction<T> idOf) {
+        requireValidPageSize(pageSize);
+        boolean hasNext = rows.size() > pageSize;
+        List<T> items = hasNext ? rows.subList(0, pageSize) : rows;
+        int nextAfterId = items.isEmpty() ? afterId : idOf.applyAsInt(items.get(items.size() - 1));
+        return new KeysetPage<>(items, nextAfterId, hasNext);
+    }
+
+    /**
+     * @return Les éléments de la page (liste non modifiable).
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return Le curseur (ID du dernier élément) à transmettre pour obtenir la page suivante.
+     */
+    public int getNextAfterId() {
+        return nextAfterId;
+    }
+
+    /**
+     * @return {@code true} s'il existe une page suivante.
+     */
+    public boolean hasNext() {
+        return hasNext;
+    }
+}
@@ -0,0 +1,60 @@
+package be.atc.dao;
+
+import be.atc.util.JpaUtil;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Contrat de pagination par clé (keyset) commun aux DAO de liste.
+ * <p>
+ * Les éléments sont toujours triés par ID croissant, ce qui garantit un ordre
+ * stable entre deux pages même si des lignes sont ajoutées entretemps.
+ * </p>
+ *
+ * @param <T> Le type d'entité paginé.
+ */
+public interface KeysetPageableDao<T> {
+
+    /**
+     * ID à utiliser comme curseur pour obtenir la première page.
+     */
+    int FIRST_PAGE = 0;
+
+    /**
+     * Récupère les éléments dont l'ID est strictement supérieur au curseur donné.
+     *
+     * @param afterId  Le curseur : ID du dernier élément de la page précédente, ou {@link #FIRST_PAGE}.
+     * @param pageSize Le nombre maximum d'éléments à retourner.
+     * @return La page d'éléments et le curseur de la page suivante.
+     * @throws IllegalArgumentException Si la taille de page est inférieure à 1 ("INVALID_PAGE_SIZE").
+     */
+    KeysetPage<T> findPageAfter(int afterId, int pageSize);
+
+    /**
+     * Parcourt toute la table page par page, sans OFFSET, par exemple pour un export.
+     * <p>
+     * Chaque page est lue par son propre EntityManager, fermé aussitôt, même pendant une requête
+     * HTTP : les éléments transmis au traitement sont détachés et la mémoire utilisée ne dépend
+     * que de la taille de page. Les modifications non validées de la requête en cours ne sont
+     * donc pas visibles.
+     * </p>
+     *
+     * @param pageSize Le nombre d'éléments lus par page.
+     * @param consumer Le traitement appliqué à chaque page.
+     * @throws IllegalArgumentException Si la taille de page est inférieure à 1 ("INVALID_PAGE_SIZE").
+     */
+    default void forEachPage(int pageSize, Consumer<List<T>> consumer) {
+        KeysetPage.requireValidPageSize(pageSize);
+        int afterId = FIRST_PAGE;
+        KeysetPage<T> page;
+        do {
+            int cursor = afterId;
+            page = JpaUtil.callOutsideRequestScope(() -> findPageAfter(cursor, pageSize));
+            if (!page.getItems().isEmpty()) {
+                consumer.accept(page.getItems());
+            }
+            afterId = page.getNextAfterId();
+        } while (page.hasNext());
+    }
+}
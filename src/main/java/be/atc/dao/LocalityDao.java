@@ -1,5 +1,6 @@
 package be.atc.dao;
 
+import be.atc.dto.LocalitySummary;
 import be.atc.entities.Locality;
 import java.util.List;
 import java.util.Optional;
@@ -7,21 +8,21 @@ import java.util.Optional;
 /**
  * Interface pour les opérations de base de données liées à l'entité {@link Locality}.
  */
-public interface LocalityDao {
+public interface LocalityDao extends KeysetPageableDao<Locality> {
 
     /**
-     * Recherche une localité par son ID.
+     * Recherche une localité par son ID, en lecture seule.
      *
      * @param id L'ID de la localité à rechercher.
      * @return Un {@link Optional} contenant la localité si elle est trouvée, ou vide sinon.
      */
-    Optional<Locality> findById(int id);
+    Optional<LocalitySummary> findById(int id);
 
     /**
-     * Récupère toutes les localités de la base de données.
+     * Récupère toutes les localités de la base de données, en lecture seule.
      *
      * @return Une liste de toutes les localités.
      */
-    List<Locality> findAll();
+    List<LocalitySummary> findAll();
 }
 
@@ -0,0 +1,73 @@
+package be.atc.dao;
+
+import be.atc.dto.ReservedSlot;
+import be.atc.dto.ScheduledReservation;
+import be.atc.entities.Reservation;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interface pour gérer les opérations de base de données liées aux entités {@link Reservation}.
+ */
+public interface ReservationDao {
+
+    /**
+     * Trouve une réservation par son ID.
+     *
+     * @param id L'ID de la réservation.
+     * @return Un {@link Optional} contenant la réservation si elle est trouvée, ou vide sinon.
+     */
+    Optional<Reservation> findReservationById(int id);
+
+    /**
+     * Enregistre une nouvelle réservation. Si une transaction est déjà active (requête HTTP
+     * en cours), la réservation est enregistrée dans cette transaction.
+     *
+     * @param reservation  La réservation à créer.
+     * @param userId       L'ID de l'utilisateur qui réserve.
+     * @param sportFieldId L'ID du terrain réservé.
+     * @param timeSlotId   L'ID du créneau horaire réservé.
+     */
+    void createReservation(Reservation reservation, int userId, int sportFieldId, int timeSlotId);
+
+    /**
+     * Supprime une réservation, ce qui libère son créneau.
+     *
+     * @param id L'ID de la réservation à supprimer.
+     */
+    void deleteReservationById(int id);
+
+    /**
+     * Récupère les créneaux réservés des terrains donnés sur une période.
+     *
+     * @param sportFieldIds Les IDs des terrains.
+     * @param start         Le début de la période (inclus).
+     * @param end           La fin de la période (exclue).
+     * @return Les créneaux réservés.
+     */
+    List<ReservedSlot> findReservedSlots(Collection<Integer> sportFieldIds, Instant start, Instant end);
+
+    /**
+     * Compte les réservations d'un créneau d'un terrain sur une période.
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @param timeSlotId   L'ID du créneau horaire.
+     * @param start        Le début de la période (inclus).
+     * @param end          La fin de la période (exclue).
+     * @return Le nombre de réservations.
+     */
+    long countReservations(int sportFieldId, int timeSlotId, Instant start, Instant end);
+
+    /**
+     * Récupère en une requête les créneaux réservés de tous les terrains d'une salle sur une période.
+     *
+     * @param hallId L'ID de la salle.
+     * @param start  Le début de la période (inclus).
+     * @param end    La fin de la période (exclue).
+     * @return Les créneaux réservés, avec leur jour.
+     */
+    List<ScheduledReservation> findScheduledReservations(int hallId, Instant start, Instant end);
+}
@@ -8,7 +8,7 @@ import java.util.List;
 /**
  * Interface pour gérer les opérations de base de données liées aux entités {@link Role}.
  */
-public interface RoleDao {
+public interface RoleDao extends KeysetPageableDao<Role> {
 
     /**
      * Trouve un rôle par son ID.
@@ -20,6 +20,7 @@ public interface RoleDao {
 
     /**
      * Trouve tous les rôles disponibles dans la base de données.
+     * Les rôles retournés sont les instances du cache partagé : ils ne doivent pas être modifiés.
      *
      * @return Une liste de tous les rôles.
      */
@@ -0,0 +1,27 @@
+package be.atc.dao;
+
+import be.atc.dto.BookableSportField;
+import be.atc.dto.ScheduleSportField;
+
+import java.util.List;
+
+/**
+ * Interface pour gérer les opérations de base de données liées aux entités {@link be.atc.entities.SportField}.
+ */
+public interface SportFieldDao {
+
+    /**
+     * Récupère les terrains réservables : sport, terrain et salle actifs.
+     *
+     * @return Les terrains réservables et leur sport, triés par ID.
+     */
+    List<BookableSportField> findBookableSportFields();
+
+    /**
+     * Récupère en une requête les terrains réservables d'une salle active, avec leur sport et le libellé de la salle.
+     *
+     * @param hallId L'ID de la salle.
+     * @return Les terrains de la salle, triés par terrain puis par ID ; vide si la salle n'existe pas ou est inactive.
+     */
+    List<ScheduleSportField> findScheduleSportFields(int hallId);
+}
@@ -0,0 +1,19 @@
+package be.atc.dao;
+
+import be.atc.entities.Subscription;
+
+import java.util.Optional;
+
+/**
+ * Interface pour gérer les opérations de base de données liées aux entités {@link Subscription}.
+ */
+public interface SubscriptionDao {
+
+    /**
+     * Trouve une formule d'abonnement par son ID.
+     *
+     * @param id L'ID de la formule.
+     * @return Un {@link Optional} contenant la formule si elle est trouvée, ou vide sinon.
+     */
+    Optional<Subscription> findSubscriptionById(int id);
+}
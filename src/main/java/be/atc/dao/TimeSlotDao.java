@@ -0,0 +1,19 @@
+package be.atc.dao;
+
+import be.atc.entities.TimeSlot;
+
+import java.util.List;
+
+/**
+ * Interface pour gérer les opérations de base de données liées aux entités {@link TimeSlot}.
+ */
+public interface TimeSlotDao {
+
+    /**
+     * Récupère tous les créneaux horaires.
+     * Les créneaux retournés sont les instances du cache partagé : ils ne doivent pas être modifiés.
+     *
+     * @return Les créneaux horaires, triés par ID.
+     */
+    List<TimeSlot> findAllTimeSlots();
+}
@@ -1,6 +1,11 @@
 package be.atc.dao;
 
+import be.atc.dto.LoginCredentials;
+import be.atc.dto.UserAdminState;
+import be.atc.dto.UserSummary;
 import be.atc.entities.User;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -8,7 +13,7 @@ import java.util.Optional;
  * Interface pour les opérations de base de données liées aux utilisateurs.
  * Fournit des méthodes pour créer, mettre à jour, trouver et supprimer des utilisateurs.
  */
-public interface UserDao {
+public interface UserDao extends KeysetPageableDao<User> {
 
     /**
      * Crée un nouvel utilisateur dans la base de données.
@@ -24,6 +29,14 @@ public interface UserDao {
      */
     void updateUser(User user);
 
+    /**
+     * Remplace le hash du mot de passe d'un utilisateur, sans charger ni fusionner l'entité.
+     *
+     * @param userId       L'ID de l'utilisateur.
+     * @param passwordHash Le nouveau hash du mot de passe.
+     */
+    void updatePassword(int userId, String passwordHash);
+
     /**
      * Trouve un utilisateur par son adresse email.
      *
@@ -33,11 +46,58 @@ public interface UserDao {
     Optional<User> findByEmail(String email);
 
     /**
-     * Récupère tous les utilisateurs dans la base de données.
+     * Charge les informations d'authentification d'un utilisateur (ID, e-mail, hash du mot
+     * de passe, statuts et rôle) en une seule requête, sans charger l'entité complète.
+     *
+     * @param email L'email saisi à la connexion.
+     * @return Un {@link Optional} contenant les informations si l'email existe, ou vide sinon.
+     */
+    Optional<LoginCredentials> findLoginCredentials(String email);
+
+    /**
+     * Récupère le résumé de tous les utilisateurs, sans charger les entités.
+     *
+     * @return Les résumés des utilisateurs, triés par ID.
+     */
+    List<UserSummary> findAll();
+
+    /**
+     * Recherche une page d'utilisateurs dont le prénom, le nom ou l'email commence par la requête donnée.
+     * Le filtrage, le tri par ID et la pagination sont effectués par la base de données.
+     *
+     * @param searchQuery Le préfixe recherché, ou {@code null}/vide pour ne pas filtrer.
+     * @param firstResult L'index du premier utilisateur à retourner.
+     * @param maxResults  Le nombre maximum d'utilisateurs à retourner.
+     * @param fetchPlan   Le graphe chargé pour chaque utilisateur.
+     * @return Une liste d'utilisateurs correspondant à la page demandée.
+     */
+    List<User> search(String searchQuery, int firstResult, int maxResults, UserFetchPlan fetchPlan);
+
+    /**
+     * Compte les utilisateurs dont le prénom, le nom ou l'email commence par la requête donnée.
+     *
+     * @param searchQuery Le préfixe recherché, ou {@code null}/vide pour compter tous les utilisateurs.
+     * @return Le nombre d'utilisateurs correspondants.
+     */
+    long countSearch(String searchQuery);
+
+    /**
+     * Récupère l'état administrable (rôle, actif, liste noire) des utilisateurs donnés,
+     * sans charger les entités complètes.
      *
-     * @return Une liste d'utilisateurs.
+     * @param userIds Les IDs des utilisateurs.
+     * @return La liste des états trouvés.
      */
-    List<User> findAll();
+    List<UserAdminState> findAdminStatesByIds(Collection<Integer> userIds);
+
+    /**
+     * Applique en une seule transaction les nouveaux états administrables donnés,
+     * au moyen de mises à jour JPQL groupées par valeurs identiques.
+     *
+     * @param changes Les nouveaux états à appliquer.
+     * @return Le nombre de lignes modifiées.
+     */
+    int updateAdminStates(List<UserAdminState> changes);
 
     /**
      * Vérifie si un utilisateur avec un email donné existe déjà dans la base de données.
@@ -68,4 +128,13 @@ public interface UserDao {
      * @return Un {@link Optional} contenant l'utilisateur si trouvé, ou vide sinon.
      */
     Optional<User> findById(int id);
+
+    /**
+     * Trouve un utilisateur par son ID, avec le graphe demandé chargé dans la même requête.
+     *
+     * @param id        L'ID de l'utilisateur à rechercher.
+     * @param fetchPlan Le graphe à charger.
+     * @return Un {@link Optional} contenant l'utilisateur si trouvé, ou vide sinon.
+     */
+    Optional<User> findById(int id, UserFetchPlan fetchPlan);
 }
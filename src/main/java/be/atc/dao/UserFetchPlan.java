@@ -0,0 +1,41 @@
+package be.atc.dao;
+
+/**
+ * Plans de chargement des utilisateurs : chaque écran désigne le graphe d'entités qu'il affiche
+ * (graphes nommés déclarés sur {@link be.atc.entities.User}).
+ * <p>
+ * Les attributs simples hors du graphe ne sont pas lus ; les relations du graphe sont chargées
+ * par jointure dans la même requête SQL. Un attribut hors du graphe reste accessible : il est
+ * alors lu à la demande, par une requête supplémentaire.
+ * </p>
+ */
+public enum UserFetchPlan {
+
+    /**
+     * Tableau d'administration : identité, statuts et rôle.
+     */
+    ADMIN_LIST("adminList"),
+
+    /**
+     * Page de profil : tous les champs, le rôle et l'adresse avec sa localité et son pays.
+     */
+    PROFILE_FULL("profileFull"),
+
+    /**
+     * Utilisateur connecté : identité et rôle, de quoi construire un {@link be.atc.dto.UserPrincipal}.
+     */
+    LOGIN_PRINCIPAL("loginPrincipal");
+
+    private final String graphName;
+
+    UserFetchPlan(String graphName) {
+        this.graphName = graphName;
+    }
+
+    /**
+     * @return Le nom du graphe d'entités correspondant.
+     */
+    public String getGraphName() {
+        return graphName;
+    }
+}
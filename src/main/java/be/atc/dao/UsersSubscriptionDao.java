@@ -0,0 +1,31 @@
+package be.atc.dao;
+
+import be.atc.dto.SubscriptionValidity;
+import be.atc.entities.UsersSubscription;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Interface pour gérer les opérations de base de données liées aux entités {@link UsersSubscription}.
+ */
+public interface UsersSubscriptionDao {
+
+    /**
+     * Enregistre un abonnement souscrit par un utilisateur. Si une transaction est déjà active
+     * (requête HTTP en cours), l'abonnement est enregistré dans cette transaction.
+     *
+     * @param usersSubscription L'abonnement à créer.
+     * @param userId            L'ID de l'utilisateur.
+     * @param subscriptionId    L'ID de la formule d'abonnement.
+     */
+    void createUsersSubscription(UsersSubscription usersSubscription, int userId, int subscriptionId);
+
+    /**
+     * Récupère les abonnements encore valides, ou à venir, à une date donnée.
+     *
+     * @param from La date de référence.
+     * @return Les périodes de validité dont la fin est postérieure à {@code from}, triées par utilisateur puis par début.
+     */
+    List<SubscriptionValidity> findValiditiesEndingAfter(Instant from);
+}
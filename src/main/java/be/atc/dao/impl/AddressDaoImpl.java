@@ -1,12 +1,14 @@
 package be.atc.dao.impl;
 
+import be.atc.dao.KeysetPage;
 import be.atc.dao.AddressDao;
+import be.atc.dto.AddressSummary;
 import be.atc.entities.Address;
+import be.atc.entities.Locality;
 import be.atc.util.JpaUtil;
 import org.apache.log4j.Logger;
 
 import javax.persistence.EntityManager;
-import javax.persistence.EntityTransaction;
 import javax.persistence.NoResultException;
 import java.util.List;
 import java.util.Optional;
@@ -21,55 +23,53 @@ public class AddressDaoImpl implements AddressDao {
     /**
      * Crée une nouvelle adresse dans la base de données.
      *
-     * @param address L'adresse à persister.
+     * @param address    L'adresse à persister.
+     * @param localityId L'ID de sa localité.
      * @throws RuntimeException Si une erreur survient lors de la transaction.
      */
     @Override
-    public void createAddress(Address address) {
+    public void createAddress(Address address, int localityId) {
         EntityManager em = JpaUtil.getEntityManager();
-        EntityTransaction transaction = null;
+        boolean ownsTransaction = false;
         try {
-            transaction = em.getTransaction();
-            transaction.begin();
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            address.setFkLocality(em.getReference(Locality.class, localityId));
             em.persist(address);
-            transaction.commit();
+            JpaUtil.commitTransaction(em, ownsTransaction);
             logger.info("Adresse persistée avec succès, ID généré : " + address.getId());
             logger.info("Adresse créée avec succès : " + address.getStreetName());
         } catch (Exception e) {
-            if (transaction != null && transaction.isActive()) {
-                transaction.rollback();
-            }
+            JpaUtil.rollbackTransaction(em, ownsTransaction);
             logger.error("Erreur lors de la création de l'adresse : " + address.getStreetName(), e);
             throw e;
         } finally {
-            em.close();
+            JpaUtil.closeEntityManager(em);
         }
     }
 
     /**
      * Met à jour une adresse existante dans la base de données.
      *
-     * @param address L'adresse à mettre à jour.
+     * @param address    L'adresse à mettre à jour.
+     * @param localityId L'ID de sa localité.
      * @throws RuntimeException Si une erreur survient lors de la transaction.
      */
     @Override
-    public void updateAddress(Address address) {
+    public void updateAddress(Address address, int localityId) {
         EntityManager em = JpaUtil.getEntityManager();
-        EntityTransaction transaction = null;
+        boolean ownsTransaction = false;
         try {
-            transaction = em.getTransaction();
-            transaction.begin();
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            address.setFkLocality(em.getReference(Locality.class, localityId));
             em.merge(address);
-            transaction.commit();
+            JpaUtil.commitTransaction(em, ownsTransaction);
             logger.info("Adresse mise à jour avec succès : " + address.getStreetName());
         } catch (Exception e) {
-            if (transaction != null && transaction.isActive()) {
-                transaction.rollback();
-            }
+            JpaUtil.rollbackTransaction(em, ownsTransaction);
             logger.error("Erreur lors de la mise à jour de l'adresse : " + address.getStreetName(), e);
             throw e;
         } finally {
-            em.close();
+            JpaUtil.closeEntityManager(em);
         }
     }
 
@@ -82,22 +82,19 @@ public class AddressDaoImpl implements AddressDao {
     @Override
     public void deleteAddressById(int id) {
         EntityManager em = JpaUtil.getEntityManager();
-        EntityTransaction transaction = null;
+        boolean ownsTransaction = false;
         try {
-            transaction = em.getTransaction();
-            transaction.begin();
+            ownsTransaction = JpaUtil.beginTransaction(em);
             Optional<Address> addressOpt = findById(id);
-            addressOpt.ifPresent(em::remove);
-            transaction.commit();
+            addressOpt.ifPresent(entity -> em.remove(em.merge(entity))); // Rattachement si l'entité a été chargée hors de la requête
+            JpaUtil.commitTransaction(em, ownsTransaction);
             logger.info("Adresse supprimée avec succès : ID " + id);
         } catch (Exception e) {
-            if (transaction != null && transaction.isActive()) {
-                transaction.rollback();
-            }
+            JpaUtil.rollbackTransaction(em, ownsTransaction);
             logger.error("Erreur lors de la suppression de l'adresse : ID " + id, e);
             throw e;
         } finally {
-            em.close();
+            JpaUtil.closeEntityManager(em);
         }
     }
 
@@ -118,28 +115,29 @@ public class AddressDaoImpl implements AddressDao {
             logger.error("Erreur lors de la recherche de l'adresse : ID " + id, e);
             throw e;
         } finally {
-            em.close();
+            JpaUtil.closeEntityManager(em);
         }
     }
 
     /**
-     * Récupère toutes les adresses présentes dans la base de données.
+     * Récupère toutes les adresses présentes dans la base de données, par une projection :
+     * aucune entité n'est chargée ni suivie par l'EntityManager.
      *
-     * @return Une liste d'adresses.
+     * @return Une liste d'adresses en lecture seule, triées par ID.
      * @throws RuntimeException Si une erreur survient lors de la récupération.
      */
     @Override
-    public List<Address> findAll() {
+    public List<AddressSummary> findAll() {
         EntityManager em = JpaUtil.getEntityManager();
         try {
-            List<Address> addresses = em.createNamedQuery("Address.findAll", Address.class).getResultList();
+            List<AddressSummary> addresses = em.createNamedQuery("Address.findAllSummaries", AddressSummary.class).getResultList();
             logger.debug("Toutes les adresses récupérées");
             return addresses;
         } catch (Exception e) {
             logger.error("Erreur lors de la récupération des adresses", e);
             throw e;
         } finally {
-            em.close();
+            JpaUtil.closeEntityManager(em);
         }
     }
 
@@ -163,7 +161,7 @@ public class AddressDaoImpl implements AddressDao {
             logger.error("Erreur lors de la recherche des adresses avec le nom de rue : " + streetName, e);
             throw e;
         } finally {
-            em.close();
+            JpaUtil.closeEntityManager(em);
         }
     }
 
@@ -187,7 +185,33 @@ public class AddressDaoImpl implements AddressDao {
             logger.error("Erreur lors de la recherche des adresses avec l'ID de la localité : " + localityId, e);
             throw e;
         } finally {
-            em.close();
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Récupère une page d'adresses dont l'ID est supérieur au curseur donné (pagination par clé).
+     *
+     * @param afterId  L'ID du dernier élément de la page précédente.
+     * @param pageSize Le nombre maximum d'adresses à retourner.
+     * @return La page d'adresses et le curseur de la page suivante.
+     */
+    @Override
+    public KeysetPage<Address> findPageAfter(int afterId, int pageSize) {
+        KeysetPage.requireValidPageSize(pageSize);
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            List<Address> rows = em.createNamedQuery("Address.findAfterId", Address.class)
+                    .setParameter("afterId", afterId)
+                    .setMaxResults(pageSize + 1)
+                    .getResultList();
+            logger.debug("Page d'adresses récupérée après l'ID : " + afterId);
+            return KeysetPage.fromRows(rows, pageSize, afterId, Address::getId);
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération de la page d'adresses après l'ID : " + afterId, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
         }
     }
 }
@@ -0,0 +1,114 @@
+package be.atc.dao.impl;
+
+import be.atc.dao.CloseDao;
+import be.atc.dto.ClosePeriod;
+import be.atc.entities.Close;
+import be.atc.entities.SportField;
+import be.atc.util.JpaUtil;
+import org.apache.log4j.Logger;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implémentation de l'interface {@link CloseDao} pour la gestion des entités {@link Close}.
+ */
+public class CloseDaoImpl implements CloseDao {
+
+    private static final Logger logger = Logger.getLogger(CloseDaoImpl.class);
+
+    /**
+     * Trouve une fermeture par son ID.
+     *
+     * @param id L'ID de la fermeture.
+     * @return Un {@link Optional} contenant la fermeture si elle est trouvée, ou vide sinon.
+     */
+    @Override
+    public Optional<Close> findCloseById(int id) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return Optional.ofNullable(em.find(Close.class, id));
+        } catch (Exception e) {
+            logger.error("Erreur lors de la recherche de la fermeture avec l'ID : " + id, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Enregistre une nouvelle fermeture. Le terrain est référencé par son ID, sans être chargé.
+     *
+     * @param close        La fermeture à créer.
+     * @param sportFieldId L'ID du terrain fermé.
+     */
+    @Override
+    public void createClose(Close close, int sportFieldId) {
+        EntityManager em = JpaUtil.getEntityManager();
+        boolean ownsTransaction = false;
+        try {
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            close.setFkSportField(em.getReference(SportField.class, sportFieldId));
+            em.persist(close);
+            JpaUtil.commitTransaction(em, ownsTransaction);
+            logger.info("Fermeture créée : terrain " + sportFieldId + " du " + close.getBeginDate() + " au " + close.getEndDate());
+        } catch (Exception e) {
+            JpaUtil.rollbackTransaction(em, ownsTransaction);
+            logger.error("Erreur lors de la création de la fermeture du terrain " + sportFieldId, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Supprime une fermeture.
+     *
+     * @param id L'ID de la fermeture à supprimer.
+     */
+    @Override
+    public void deleteCloseById(int id) {
+        EntityManager em = JpaUtil.getEntityManager();
+        boolean ownsTransaction = false;
+        try {
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            Close close = em.find(Close.class, id);
+            if (close != null) {
+                em.remove(close);
+                logger.info("Fermeture supprimée avec succès : " + id);
+            } else {
+                logger.warn("Aucune fermeture trouvée avec l'ID : " + id + ", suppression annulée");
+            }
+            JpaUtil.commitTransaction(em, ownsTransaction);
+        } catch (Exception e) {
+            JpaUtil.rollbackTransaction(em, ownsTransaction);
+            logger.error("Erreur lors de la suppression de la fermeture avec l'ID : " + id, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Récupère les fermetures qui ne sont pas terminées à une date donnée, en une seule requête.
+     *
+     * @param from La date de référence.
+     * @return Les périodes de fermeture dont la fin est postérieure à {@code from}.
+     */
+    @Override
+    public List<ClosePeriod> findClosePeriodsEndingAfter(Instant from) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return em.createNamedQuery("Close.findPeriodsEndingAfter", ClosePeriod.class)
+                    .setParameter("from", from)
+                    .getResultList();
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération des fermetures se terminant après " + from, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package be.atc.dao.impl;
+
+import be.atc.dao.EmailOutboxDao;
+import be.atc.entities.EmailOutbox;
+import be.atc.util.JpaUtil;
+import org.apache.log4j.Logger;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implémentation de l'interface {@link EmailOutboxDao} pour la boîte d'envoi des e-mails.
+ */
+public class EmailOutboxDaoImpl implements EmailOutboxDao {
+
+    private static final Logger logger = Logger.getLogger(EmailOutboxDaoImpl.class);
+
+    /**
+     * Longueur maximum du message d'erreur enregistré (taille de la colonne).
+     */
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    /**
+     * Enregistre un e-mail dans la boîte d'envoi.
+     *
+     * @param email L'e-mail à enregistrer.
+     */
+    @Override
+    public void enqueue(EmailOutbox email) {
+        EntityManager em = JpaUtil.getEntityManager();
+        boolean ownsTransaction = false;
+        try {
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            em.persist(email);
+            JpaUtil.commitTransaction(em, ownsTransaction);
+            logger.info("E-mail ajouté à la boîte d'envoi pour : " + email.getRecipient());
+        } catch (Exception e) {
+            JpaUtil.rollbackTransaction(em, ownsTransaction);
+            logger.error("Erreur lors de l'ajout de l'e-mail à la boîte d'envoi pour : " + email.getRecipient(), e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Récupère les e-mails en attente ou dont la réservation a expiré.
+     *
+     * @param now   La date de référence.
+     * @param limit Le nombre maximum d'e-mails à retourner.
+     * @return Les e-mails à envoyer.
+     */
+    @Override
+    public List<EmailOutbox> findDue(Instant now, int limit) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return em.createNamedQuery("EmailOutbox.findDue", EmailOutbox.class)
+                    .setParameter("statuses", Arrays.asList(EmailOutbox.Status.PENDING, EmailOutbox.Status.SENDING))
+                    .setParameter("now", now)
+                    .setMaxResults(limit)
+                    .getResultList();
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération des e-mails à envoyer", e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Réserve un e-mail s'il est toujours dans l'état lu.
+     *
+     * @param id         L'ID de l'e-mail.
+     * @param status     L'état lu.
+     * @param attempts   Le nombre de tentatives lu.
+     * @param leaseUntil La date d'expiration de la réservation.
+     * @return {@code true} si l'e-mail a été réservé.
+     */
+    @Override
+    public boolean claim(int id, EmailOutbox.Status status, int attempts, Instant leaseUntil) {
+        EntityManager em = JpaUtil.getEntityManager();
+        boolean ownsTransaction = false;
+        try {
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            int updated = em.createNamedQuery("EmailOutbox.claim")
+                    .setParameter("sending", EmailOutbox.Status.SENDING)
+                    .setParameter("claimedAttempts", attempts + 1)
+                    .setParameter("leaseUntil", leaseUntil)
+                    .setParameter("id", id)
+                    .setParameter("status", status)
+                    .setParameter("attempts", attempts)
+                    .executeUpdate();
+            JpaUtil.commitTransaction(em, ownsTransaction);
+            return updated == 1;
+        } catch (Exception e) {
+            JpaUtil.rollbackTransaction(em, ownsTransaction);
+            logger.error("Erreur lors de la réservation de l'e-mail : ID " + id, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Marque un e-mail comme envoyé.
+     *
+     * @param id       L'ID de l'e-mail.
+     * @param attempts Le nombre de tentatives effectuées.
+     * @param sentAt   La date d'envoi.
+     */
+    @Override
+    public void markSent(int id, int attempts, Instant sentAt) {
+        EntityManager em = JpaUtil.getEntityManager();
+        boolean ownsTransaction = false;
+        try {
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            em.createNamedQuery("EmailOutbox.markSent")
+                    .setParameter("status", EmailOutbox.Status.SENT)
+                    .setParameter("attempts", attempts)
+                    .setParameter("sentAt", sentAt)
+                    .setParameter("id", id)
+                    .executeUpdate();
+            JpaUtil.commitTransaction(em, ownsTransaction);
+        } catch (Exception e) {
+            JpaUtil.rollbackTransaction(em, ownsTransaction);
+            logger.error("Erreur lors du marquage de l'e-mail comme envoyé : ID " + id, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Enregistre l'échec d'une tentative d'envoi.
+     *
+     * @param id            L'ID de l'e-mail.
+     * @param attempts      Le nombre de tentatives effectuées.
+     * @param status        Le nouvel état de l'e-mail.
+     * @param nextAttemptAt La date de la prochaine tentative.
+     * @param lastError     Le message d'erreur.
+     */
+    @Override
+    public void markAttemptFailed(int id, int attempts, EmailOutbox.Status status, Instant nextAttemptAt, String lastError) {
+        EntityManager em = JpaUtil.getEntityManager();
+        boolean ownsTransaction = false;
+        try {
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            em.createNamedQuery("EmailOutbox.markAttemptFailed")
+                    .setParameter("status", status)
+                    .setParameter("attempts", attempts)
+                    .setParameter("nextAttemptAt", nextAttemptAt)
+                    .setParameter("lastError", truncate(lastError))
+                    .setParameter("id", id)
+                    .executeUpdate();
+            JpaUtil.commitTransaction(em, ownsTransaction);
+        } catch (Exception e) {
+            JpaUtil.rollbackTransaction(em, ownsTransaction);
+            logger.error("Erreur lors de l'enregistrement de l'échec d'envoi de l'e-mail : ID " + id, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Compte les e-mails dans l'état donné.
+     *
+     * @param status L'état recherché.
+     * @return Le nombre d'e-mails dans cet état.
+     */
+    @Override
+    public long countByStatus(EmailOutbox.Status status) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return em.createNamedQuery("EmailOutbox.countByStatus", Long.class)
+                    .setParameter("status", status)
+                    .getSingleResult();
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Tronque le message d'erreur à la taille de la colonne.
+     *
+     * @param message Le message d'erreur.
+     * @return Le message tronqué, ou {@code null}.
+     */
+    private String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -1,6 +1,8 @@
 package be.atc.dao.impl;
 
+import be.atc.dao.KeysetPage;
 import be.atc.dao.LocalityDao;
+import be.atc.dto.LocalitySummary;
 import be.atc.entities.Locality;
 import be.atc.util.JpaUtil;
 import javax.persistence.EntityManager;
@@ -19,51 +21,80 @@ public class LocalityDaoImpl implements LocalityDao {
     private static final Logger logger = Logger.getLogger(LocalityDaoImpl.class);
 
     /**
-     * Recherche une localité par son ID.
+     * Recherche une localité par son ID, par une projection.
      *
      * @param id L'ID de la localité à rechercher.
      * @return Un {@link Optional} contenant la localité si elle est trouvée, ou vide sinon.
      */
     @Override
-    public Optional<Locality> findById(int id) {
+    public Optional<LocalitySummary> findById(int id) {
         EntityManager em = JpaUtil.getEntityManager();
         try {
             logger.info("Recherche de la localité avec l'ID : " + id);
-            Locality locality = em.find(Locality.class, id);
-            if (locality != null) {
+            List<LocalitySummary> localities = em.createNamedQuery("Locality.findSummaryById", LocalitySummary.class)
+                    .setParameter("id", id)
+                    .getResultList();
+            if (!localities.isEmpty()) {
                 logger.info("Localité trouvée avec l'ID : " + id);
             } else {
                 logger.warn("Aucune localité trouvée avec l'ID : " + id);
             }
-            return Optional.ofNullable(locality);
+            return localities.isEmpty() ? Optional.empty() : Optional.of(localities.get(0));
         } catch (Exception e) {
             logger.error("Erreur lors de la recherche de la localité avec l'ID : " + id, e);
             throw e;
         } finally {
-            em.close();
+            JpaUtil.closeEntityManager(em);
             logger.debug("EntityManager fermé après recherche de la localité avec l'ID : " + id);
         }
     }
 
     /**
-     * Récupère toutes les localités de la base de données.
+     * Récupère toutes les localités de la base de données, par une projection :
+     * aucune entité n'est chargée ni suivie par l'EntityManager.
      *
      * @return Une liste de toutes les localités.
      */
     @Override
-    public List<Locality> findAll() {
+    public List<LocalitySummary> findAll() {
         EntityManager em = JpaUtil.getEntityManager();
         try {
             logger.info("Récupération de toutes les localités");
-            List<Locality> localities = em.createNamedQuery("Locality.findAll", Locality.class).getResultList();
+            List<LocalitySummary> localities = em.createNamedQuery("Locality.findAllSummaries", LocalitySummary.class).getResultList();
             logger.info("Nombre de localités récupérées : " + localities.size());
             return localities;
         } catch (Exception e) {
             logger.error("Erreur lors de la récupération de toutes les localités", e);
             throw e;
         } finally {
-            em.close();
+            JpaUtil.closeEntityManager(em);
             logger.debug("EntityManager fermé après récupération de toutes les localités");
         }
     }
+
+    /**
+     * Récupère une page de localités dont l'ID est supérieur au curseur donné (pagination par clé).
+     *
+     * @param afterId  L'ID du dernier élément de la page précédente.
+     * @param pageSize Le nombre maximum de localités à retourner.
+     * @return La page de localités et le curseur de la page suivante.
+     */
+    @Override
+    public KeysetPage<Locality> findPageAfter(int afterId, int pageSize) {
+        KeysetPage.requireValidPageSize(pageSize);
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            List<Locality> rows = em.createNamedQuery("Locality.findAfterId", Locality.class)
+                    .setParameter("afterId", afterId)
+                    .setMaxResults(pageSize + 1)
+                    .getResultList();
+            logger.debug("Page de localités récupérée après l'ID : " + afterId);
+            return KeysetPage.fromRows(rows, pageSize, afterId, Locality::getId);
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération de la page de localités après l'ID : " + afterId, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
 }
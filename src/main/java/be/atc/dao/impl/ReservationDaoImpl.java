@@ -0,0 +1,189 @@
+package be.atc.dao.impl;
+
+import be.atc.dao.ReservationDao;
+import be.atc.dto.ReservedSlot;
+import be.atc.dto.ScheduledReservation;
+import be.atc.entities.Reservation;
+import be.atc.entities.SportField;
+import be.atc.entities.TimeSlot;
+import be.atc.entities.User;
+import be.atc.util.JpaUtil;
+import org.apache.log4j.Logger;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implémentation de l'interface {@link ReservationDao} pour la gestion des entités {@link Reservation}.
+ */
+public class ReservationDaoImpl implements ReservationDao {
+
+    private static final Logger logger = Logger.getLogger(ReservationDaoImpl.class);
+
+    /**
+     * Trouve une réservation par son ID.
+     *
+     * @param id L'ID de la réservation.
+     * @return Un {@link Optional} contenant la réservation si elle est trouvée, ou vide sinon.
+     */
+    @Override
+    public Optional<Reservation> findReservationById(int id) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return Optional.ofNullable(em.find(Reservation.class, id));
+        } catch (Exception e) {
+            logger.error("Erreur lors de la recherche de la réservation avec l'ID : " + id, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Enregistre une nouvelle réservation. L'utilisateur, le terrain et le créneau sont
+     * référencés par leur ID, sans être chargés. Si le créneau est déjà réservé ce jour-là,
+     * la contrainte unique {@code uk_reservations_slot} fait échouer l'insertion.
+     *
+     * @param reservation  La réservation à créer.
+     * @param userId       L'ID de l'utilisateur qui réserve.
+     * @param sportFieldId L'ID du terrain réservé.
+     * @param timeSlotId   L'ID du créneau horaire réservé.
+     */
+    @Override
+    public void createReservation(Reservation reservation, int userId, int sportFieldId, int timeSlotId) {
+        EntityManager em = JpaUtil.getEntityManager();
+        boolean ownsTransaction = false;
+        try {
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            reservation.setFkUser(em.getReference(User.class, userId));
+            reservation.setFkSportField(em.getReference(SportField.class, sportFieldId));
+            reservation.setFkTimeSlot(em.getReference(TimeSlot.class, timeSlotId));
+            em.persist(reservation);
+            JpaUtil.commitTransaction(em, ownsTransaction);
+            logger.info("Réservation créée : terrain " + sportFieldId + ", créneau " + timeSlotId + ", utilisateur " + userId);
+        } catch (Exception e) {
+            JpaUtil.rollbackTransaction(em, ownsTransaction);
+            if (JpaUtil.isUniqueViolation(e, Reservation.SLOT_CONSTRAINT)) {
+                logger.info("Créneau déjà réservé en base : terrain " + sportFieldId + ", créneau " + timeSlotId);
+            } else {
+                logger.error("Erreur lors de la création de la réservation : terrain " + sportFieldId + ", créneau " + timeSlotId, e);
+            }
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Supprime une réservation.
+     *
+     * @param id L'ID de la réservation à supprimer.
+     */
+    @Override
+    public void deleteReservationById(int id) {
+        EntityManager em = JpaUtil.getEntityManager();
+        boolean ownsTransaction = false;
+        try {
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            Reservation reservation = em.find(Reservation.class, id);
+            if (reservation != null) {
+                em.remove(reservation);
+                logger.info("Réservation supprimée avec succès : " + id);
+            } else {
+                logger.warn("Aucune réservation trouvée avec l'ID : " + id + ", suppression annulée");
+            }
+            JpaUtil.commitTransaction(em, ownsTransaction);
+        } catch (Exception e) {
+            JpaUtil.rollbackTransaction(em, ownsTransaction);
+            logger.error("Erreur lors de la suppression de la réservation avec l'ID : " + id, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Récupère les créneaux réservés des terrains donnés sur une période, en une seule requête.
+     *
+     * @param sportFieldIds Les IDs des terrains.
+     * @param start         Le début de la période (inclus).
+     * @param end           La fin de la période (exclue).
+     * @return Les créneaux réservés.
+     */
+    @Override
+    public List<ReservedSlot> findReservedSlots(Collection<Integer> sportFieldIds, Instant start, Instant end) {
+        if (sportFieldIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return em.createNamedQuery("Reservation.findReservedSlots", ReservedSlot.class)
+                    .setParameter("sportFieldIds", new ArrayList<>(sportFieldIds))
+                    .setParameter("start", start)
+                    .setParameter("end", end)
+                    .getResultList();
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération des créneaux réservés des terrains : " + sportFieldIds, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Compte les réservations d'un créneau d'un terrain sur une période.
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @param timeSlotId   L'ID du créneau horaire.
+     * @param start        Le début de la période (inclus).
+     * @param end          La fin de la période (exclue).
+     * @return Le nombre de réservations.
+     */
+    @Override
+    public long countReservations(int sportFieldId, int timeSlotId, Instant start, Instant end) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return em.createNamedQuery("Reservation.countBySlot", Long.class)
+                    .setParameter("sportFieldId", sportFieldId)
+                    .setParameter("timeSlotId", timeSlotId)
+                    .setParameter("start", start)
+                    .setParameter("end", end)
+                    .getSingleResult();
+        } catch (Exception e) {
+            logger.error("Erreur lors du comptage des réservations : terrain " + sportFieldId + ", créneau " + timeSlotId, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Récupère en une requête les créneaux réservés de tous les terrains d'une salle sur une période.
+     *
+     * @param hallId L'ID de la salle.
+     * @param start  Le début de la période (inclus).
+     * @param end    La fin de la période (exclue).
+     * @return Les créneaux réservés, avec leur jour.
+     */
+    @Override
+    public List<ScheduledReservation> findScheduledReservations(int hallId, Instant start, Instant end) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return em.createNamedQuery("Reservation.findScheduleByHall", ScheduledReservation.class)
+                    .setParameter("hallId", hallId)
+                    .setParameter("start", start)
+                    .setParameter("end", end)
+                    .getResultList();
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération des réservations de la salle " + hallId + " du " + start + " au " + end, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package be.atc.dao.impl;
 
+import be.atc.dao.KeysetPage;
 import be.atc.dao.RoleDao;
 import be.atc.entities.Role;
 import be.atc.util.JpaUtil;
 import org.apache.log4j.Logger;
 
 import javax.persistence.EntityManager;
-import javax.persistence.EntityTransaction;
 import javax.persistence.NoResultException;
 import java.util.List;
 import java.util.Optional;
@@ -41,7 +41,7 @@ public class RoleDaoImpl implements RoleDao {
             logger.error("Erreur lors de la recherche du rôle avec l'ID : " + id, e);
             throw e;
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
         }
     }
 
@@ -61,7 +61,7 @@ public class RoleDaoImpl implements RoleDao {
             logger.error("Erreur lors de la récupération des rôles", e);
             throw e;
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
         }
     }
 
@@ -73,21 +73,18 @@ public class RoleDaoImpl implements RoleDao {
     @Override
     public void createRole(Role role) {
         EntityManager em = JpaUtil.getEntityManager();
-        EntityTransaction transaction = null;
+        boolean ownsTransaction = false;
         try {
-            transaction = em.getTransaction();
-            transaction.begin();
+            ownsTransaction = JpaUtil.beginTransaction(em);
             em.persist(role);  // Persiste un nouveau rôle dans la base de données
-            transaction.commit();
+            JpaUtil.commitTransaction(em, ownsTransaction);
             logger.info("Rôle créé avec succès : " + role.getRoleName());
         } catch (Exception e) {
-            if (transaction != null && transaction.isActive()) {
-                transaction.rollback();  // Annule la transaction en cas d'erreur
-            }
+            JpaUtil.rollbackTransaction(em, ownsTransaction);  // Annule la transaction en cas d'erreur
             logger.error("Erreur lors de la création du rôle : " + role.getRoleName(), e);
             throw e;
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
         }
     }
 
@@ -99,10 +96,9 @@ public class RoleDaoImpl implements RoleDao {
     @Override
     public void deleteRoleById(int id) {
         EntityManager em = JpaUtil.getEntityManager();
-        EntityTransaction transaction = null;
+        boolean ownsTransaction = false;
         try {
-            transaction = em.getTransaction();
-            transaction.begin();
+            ownsTransaction = JpaUtil.beginTransaction(em);
             Role role = em.find(Role.class, id);
             if (role != null) {
                 em.remove(role);  // Supprime le rôle de la base de données
@@ -110,15 +106,13 @@ public class RoleDaoImpl implements RoleDao {
             } else {
                 logger.warn("Aucun rôle trouvé avec l'ID : " + id + ", suppression annulée");
             }
-            transaction.commit();
+            JpaUtil.commitTransaction(em, ownsTransaction);
         } catch (Exception e) {
-            if (transaction != null && transaction.isActive()) {
-                transaction.rollback();  // Annule la transaction en cas d'erreur
-            }
+            JpaUtil.rollbackTransaction(em, ownsTransaction);  // Annule la transaction en cas d'erreur
             logger.error("Erreur lors de la suppression du rôle avec l'ID : " + id, e);
             throw e;
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
         }
     }
 
@@ -130,21 +124,44 @@ public class RoleDaoImpl implements RoleDao {
     @Override
     public void updateRole(Role role) {
         EntityManager em = JpaUtil.getEntityManager();
-        EntityTransaction transaction = null;
+        boolean ownsTransaction = false;
         try {
-            transaction = em.getTransaction();
-            transaction.begin();
+            ownsTransaction = JpaUtil.beginTransaction(em);
             em.merge(role);  // Met à jour un rôle existant
-            transaction.commit();
+            JpaUtil.commitTransaction(em, ownsTransaction);
             logger.info("Rôle mis à jour avec succès : " + role.getRoleName());
         } catch (Exception e) {
-            if (transaction != null && transaction.isActive()) {
-                transaction.rollback();  // Annule la transaction en cas d'erreur
-            }
+            JpaUtil.rollbackTransaction(em, ownsTransaction);  // Annule la transaction en cas d'erreur
             logger.error("Erreur lors de la mise à jour du rôle : " + role.getRoleName(), e);
             throw e;
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
+        }
+    }
+
+    /**
+     * Récupère une page de rôles dont l'ID est supérieur au curseur donné (pagination par clé).
+     *
+     * @param afterId  L'ID du dernier élément de la page précédente.
+     * @param pageSize Le nombre maximum de rôles à retourner.
+     * @return La page de rôles et le curseur de la page suivante.
+     */
+    @Override
+    public KeysetPage<Role> findPageAfter(int afterId, int pageSize) {
+        KeysetPage.requireValidPageSize(pageSize);
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            List<Role> rows = em.createNamedQuery("Role.findAfterId", Role.class)
+                    .setParameter("afterId", afterId)
+                    .setMaxResults(pageSize + 1)
+                    .getResultList();
+            logger.debug("Page de rôles récupérée après l'ID : " + afterId);
+            return KeysetPage.fromRows(rows, pageSize, afterId, Role::getId);
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération de la page de rôles après l'ID : " + afterId, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
         }
     }
 }
@@ -0,0 +1,60 @@
+package be.atc.dao.impl;
+
+import be.atc.dao.SportFieldDao;
+import be.atc.dto.BookableSportField;
+import be.atc.dto.ScheduleSportField;
+import be.atc.util.JpaUtil;
+import org.apache.log4j.Logger;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * Implémentation de l'interface {@link SportFieldDao} pour la gestion des entités {@link be.atc.entities.SportField}.
+ */
+public class SportFieldDaoImpl implements SportFieldDao {
+
+    private static final Logger logger = Logger.getLogger(SportFieldDaoImpl.class);
+
+    /**
+     * Récupère les terrains réservables : sport, terrain et salle actifs.
+     *
+     * @return Les terrains réservables et leur sport, triés par ID.
+     */
+    @Override
+    public List<BookableSportField> findBookableSportFields() {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            List<BookableSportField> sportFields = em.createNamedQuery("SportField.findBookable", BookableSportField.class)
+                    .getResultList();
+            logger.debug(sportFields.size() + " terrains réservables récupérés");
+            return sportFields;
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération des terrains réservables", e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Récupère en une requête les terrains réservables d'une salle active, avec leur sport et le libellé de la salle.
+     *
+     * @param hallId L'ID de la salle.
+     * @return Les terrains de la salle, triés par terrain puis par ID.
+     */
+    @Override
+    public List<ScheduleSportField> findScheduleSportFields(int hallId) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return em.createNamedQuery("SportField.findScheduleByHall", ScheduleSportField.class)
+                    .setParameter("hallId", hallId)
+                    .getResultList();
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération des terrains de la salle : " + hallId, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+}
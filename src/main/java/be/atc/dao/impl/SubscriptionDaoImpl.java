@@ -0,0 +1,36 @@
+package be.atc.dao.impl;
+
+import be.atc.dao.SubscriptionDao;
+import be.atc.entities.Subscription;
+import be.atc.util.JpaUtil;
+import org.apache.log4j.Logger;
+
+import javax.persistence.EntityManager;
+import java.util.Optional;
+
+/**
+ * Implémentation de l'interface {@link SubscriptionDao} pour la gestion des entités {@link Subscription}.
+ */
+public class SubscriptionDaoImpl implements SubscriptionDao {
+
+    private static final Logger logger = Logger.getLogger(SubscriptionDaoImpl.class);
+
+    /**
+     * Trouve une formule d'abonnement par son ID.
+     *
+     * @param id L'ID de la formule.
+     * @return Un {@link Optional} contenant la formule si elle est trouvée, ou vide sinon.
+     */
+    @Override
+    public Optional<Subscription> findSubscriptionById(int id) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return Optional.ofNullable(em.find(Subscription.class, id));
+        } catch (Exception e) {
+            logger.error("Erreur lors de la recherche de la formule d'abonnement avec l'ID : " + id, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+}
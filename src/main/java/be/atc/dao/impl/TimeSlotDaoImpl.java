@@ -0,0 +1,37 @@
+package be.atc.dao.impl;
+
+import be.atc.dao.TimeSlotDao;
+import be.atc.entities.TimeSlot;
+import be.atc.util.JpaUtil;
+import org.apache.log4j.Logger;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * Implémentation de l'interface {@link TimeSlotDao} pour la gestion des entités {@link TimeSlot}.
+ */
+public class TimeSlotDaoImpl implements TimeSlotDao {
+
+    private static final Logger logger = Logger.getLogger(TimeSlotDaoImpl.class);
+
+    /**
+     * Récupère tous les créneaux horaires.
+     *
+     * @return Les créneaux horaires, triés par ID.
+     */
+    @Override
+    public List<TimeSlot> findAllTimeSlots() {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            List<TimeSlot> timeSlots = em.createNamedQuery("TimeSlot.findAll", TimeSlot.class).getResultList();
+            logger.debug("Tous les créneaux horaires récupérés");
+            return timeSlots;
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération des créneaux horaires", e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+}
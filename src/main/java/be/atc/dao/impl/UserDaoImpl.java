@@ -1,15 +1,35 @@
 package be.atc.dao.impl;
 
+import be.atc.dao.KeysetPage;
 import be.atc.dao.UserDao;
+import be.atc.dao.UserFetchPlan;
+import be.atc.dto.LoginCredentials;
+import be.atc.dto.UserAdminState;
+import be.atc.dto.UserSummary;
+import be.atc.entities.Role;
 import be.atc.entities.User;
 import be.atc.util.JpaUtil;
 import org.apache.log4j.Logger;
+import org.eclipse.persistence.config.QueryHints;
 
+import javax.persistence.AttributeNode;
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
-import javax.persistence.EntityTransaction;
 import javax.persistence.NoResultException;
+import javax.persistence.Subgraph;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * Implémentation de l'interface {@link UserDao}.
@@ -19,6 +39,11 @@ public class UserDaoImpl implements UserDao {
 
     private static final Logger logger = Logger.getLogger(UserDaoImpl.class);
 
+    /**
+     * Chemins des relations à joindre pour chaque plan, calculés une fois à partir des graphes.
+     */
+    private static final Map<UserFetchPlan, List<String>> JOIN_FETCH_PATHS = new ConcurrentHashMap<>();
+
     /**
      * Crée un nouvel utilisateur dans la base de données.
      *
@@ -27,21 +52,18 @@ public class UserDaoImpl implements UserDao {
     @Override
     public void createUser(User user) {
         EntityManager em = JpaUtil.getEntityManager();
-        EntityTransaction transaction = null;
+        boolean ownsTransaction = false;
         try {
-            transaction = em.getTransaction();
-            transaction.begin();
+            ownsTransaction = JpaUtil.beginTransaction(em);
             em.persist(user);  // Persiste un nouvel utilisateur dans la base de données
-            transaction.commit();
+            JpaUtil.commitTransaction(em, ownsTransaction);
             logger.info("Utilisateur créé avec succès : " + user.getEmail());
         } catch (Exception e) {
-            if (transaction != null && transaction.isActive()) {
-                transaction.rollback();  // Annule la transaction en cas d'erreur
-            }
+            JpaUtil.rollbackTransaction(em, ownsTransaction);  // Annule la transaction en cas d'erreur
             logger.error("Erreur lors de la création de l'utilisateur : " + user.getEmail(), e);
             throw e;
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
         }
     }
 
@@ -53,21 +75,45 @@ public class UserDaoImpl implements UserDao {
     @Override
     public void updateUser(User user) {
         EntityManager em = JpaUtil.getEntityManager();
-        EntityTransaction transaction = null;
+        boolean ownsTransaction = false;
         try {
-            transaction = em.getTransaction();
-            transaction.begin();
+            ownsTransaction = JpaUtil.beginTransaction(em);
             em.merge(user);  // Met à jour un utilisateur existant
-            transaction.commit();
+            JpaUtil.commitTransaction(em, ownsTransaction);
             logger.info("Utilisateur mis à jour avec succès : " + user.getEmail());
         } catch (Exception e) {
-            if (transaction != null && transaction.isActive()) {
-                transaction.rollback();  // Annule la transaction en cas d'erreur
-            }
+            JpaUtil.rollbackTransaction(em, ownsTransaction);  // Annule la transaction en cas d'erreur
             logger.error("Erreur lors de la mise à jour de l'utilisateur : " + user.getEmail(), e);
             throw e;
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
+        }
+    }
+
+    /**
+     * Remplace le hash du mot de passe d'un utilisateur par une requête de mise à jour ciblée.
+     *
+     * @param userId       L'ID de l'utilisateur.
+     * @param passwordHash Le nouveau hash du mot de passe.
+     */
+    @Override
+    public void updatePassword(int userId, String passwordHash) {
+        EntityManager em = JpaUtil.getEntityManager();
+        boolean ownsTransaction = false;
+        try {
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            em.createNamedQuery("User.updatePassword")
+                    .setParameter("password", passwordHash)
+                    .setParameter("id", userId)
+                    .executeUpdate();
+            JpaUtil.commitTransaction(em, ownsTransaction);
+            logger.info("Hash du mot de passe mis à jour pour l'utilisateur ID " + userId);
+        } catch (Exception e) {
+            JpaUtil.rollbackTransaction(em, ownsTransaction);  // Annule la transaction en cas d'erreur
+            logger.error("Erreur lors de la mise à jour du mot de passe de l'utilisateur ID " + userId, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
         }
     }
 
@@ -90,27 +136,199 @@ public class UserDaoImpl implements UserDao {
             logger.warn("Aucun utilisateur trouvé avec l'email : " + email);
             return Optional.empty();
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
         }
     }
 
     /**
-     * Récupère tous les utilisateurs dans la base de données.
+     * Charge les informations d'authentification d'un utilisateur en une seule requête.
      *
-     * @return Une liste d'utilisateurs.
+     * @param email L'email saisi à la connexion.
+     * @return Un {@link Optional} contenant les informations si l'email existe, ou vide sinon.
      */
     @Override
-    public List<User> findAll() {
+    public Optional<LoginCredentials> findLoginCredentials(String email) {
         EntityManager em = JpaUtil.getEntityManager();
         try {
-            List<User> users = em.createNamedQuery("User.findAll", User.class).getResultList();
+            List<LoginCredentials> rows = em.createNamedQuery("User.findLoginCredentials", LoginCredentials.class)
+                    .setParameter("email", email)
+                    .getResultList();
+            if (rows.isEmpty()) {
+                logger.debug("Aucun utilisateur trouvé avec l'email : " + email);
+                return Optional.empty();
+            }
+            return Optional.of(rows.get(0));
+        } catch (Exception e) {
+            logger.error("Erreur lors de la recherche des informations de connexion pour l'email : " + email, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Récupère le résumé de tous les utilisateurs, sans charger les entités.
+     *
+     * @return Les résumés des utilisateurs, triés par ID.
+     */
+    @Override
+    public List<UserSummary> findAll() {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            List<UserSummary> users = em.createNamedQuery("User.findAllSummaries", UserSummary.class).getResultList();
             logger.debug("Tous les utilisateurs récupérés");
             return users;
         } catch (Exception e) {
             logger.error("Erreur lors de la récupération des utilisateurs", e);
             throw e;
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
+        }
+    }
+
+    /**
+     * Recherche une page d'utilisateurs dont le prénom, le nom ou l'email commence par la requête donnée.
+     * La recherche par préfixe permet à MySQL d'utiliser les index des colonnes concernées.
+     *
+     * @param searchQuery Le préfixe recherché, ou {@code null}/vide pour ne pas filtrer.
+     * @param firstResult L'index du premier utilisateur à retourner.
+     * @param maxResults  Le nombre maximum d'utilisateurs à retourner.
+     * @param fetchPlan   Le graphe chargé pour chaque utilisateur.
+     * @return Une liste d'utilisateurs correspondant à la page demandée.
+     */
+    @Override
+    public List<User> search(String searchQuery, int firstResult, int maxResults, UserFetchPlan fetchPlan) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            TypedQuery<User> query;
+            if (searchQuery == null || searchQuery.trim().isEmpty()) {
+                query = em.createNamedQuery("User.findPage", User.class);
+            } else {
+                query = em.createNamedQuery("User.search", User.class)
+                        .setParameter("prefix", toLikePrefix(searchQuery));
+            }
+            List<User> users = withFetchPlan(em, query, fetchPlan)
+                    .setFirstResult(firstResult)
+                    .setMaxResults(maxResults)
+                    .getResultList();
+            logger.debug("Page d'utilisateurs récupérée pour la recherche : " + searchQuery + " (offset " + firstResult + ")");
+            return users;
+        } catch (Exception e) {
+            logger.error("Erreur lors de la recherche des utilisateurs : " + searchQuery, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
+        }
+    }
+
+    /**
+     * Compte les utilisateurs dont le prénom, le nom ou l'email commence par la requête donnée.
+     *
+     * @param searchQuery Le préfixe recherché, ou {@code null}/vide pour compter tous les utilisateurs.
+     * @return Le nombre d'utilisateurs correspondants.
+     */
+    @Override
+    public long countSearch(String searchQuery) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            TypedQuery<Long> query;
+            if (searchQuery == null || searchQuery.trim().isEmpty()) {
+                query = em.createNamedQuery("User.count", Long.class);
+            } else {
+                query = em.createNamedQuery("User.countSearch", Long.class)
+                        .setParameter("prefix", toLikePrefix(searchQuery));
+            }
+            return query.getSingleResult();
+        } catch (Exception e) {
+            logger.error("Erreur lors du comptage des utilisateurs pour la recherche : " + searchQuery, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
+        }
+    }
+
+    /**
+     * Transforme une saisie utilisateur en motif LIKE de préfixe, en échappant les caractères spéciaux.
+     *
+     * @param searchQuery La saisie de l'utilisateur.
+     * @return Le motif LIKE correspondant (caractère d'échappement '!').
+     */
+    private String toLikePrefix(String searchQuery) {
+        String escaped = searchQuery.trim()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return escaped + "%";
+    }
+
+    /**
+     * Récupère l'état administrable (rôle, actif, liste noire) des utilisateurs donnés
+     * au moyen d'une projection, sans charger les entités complètes.
+     *
+     * @param userIds Les IDs des utilisateurs.
+     * @return La liste des états trouvés.
+     */
+    @Override
+    public List<UserAdminState> findAdminStatesByIds(Collection<Integer> userIds) {
+        if (userIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            List<UserAdminState> states = em.createNamedQuery("User.findAdminStatesByIds", UserAdminState.class)
+                    .setParameter("ids", new ArrayList<>(userIds))
+                    .getResultList();
+            logger.debug("États administrables récupérés pour " + states.size() + " utilisateurs");
+            return states;
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération des états administrables des utilisateurs : " + userIds, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
+        }
+    }
+
+    /**
+     * Applique les nouveaux états administrables en une seule transaction. Les changements
+     * sont regroupés par valeurs identiques (rôle, actif, liste noire) : chaque groupe donne
+     * lieu à une seule requête {@code UPDATE ... WHERE id IN (...)}.
+     *
+     * @param changes Les nouveaux états à appliquer.
+     * @return Le nombre de lignes modifiées.
+     */
+    @Override
+    public int updateAdminStates(List<UserAdminState> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        Map<List<Object>, List<Integer>> idsByValues = changes.stream()
+                .collect(Collectors.groupingBy(
+                        change -> Arrays.<Object>asList(change.getRoleId(), change.isActive(), change.isBlacklist()),
+                        Collectors.mapping(UserAdminState::getUserId, Collectors.toList())));
+
+        EntityManager em = JpaUtil.getEntityManager();
+        boolean ownsTransaction = false;
+        try {
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            int updatedRows = 0;
+            for (Map.Entry<List<Object>, List<Integer>> group : idsByValues.entrySet()) {
+                Integer roleId = (Integer) group.getKey().get(0);
+                updatedRows += em.createNamedQuery("User.updateAdminFields")
+                        .setParameter("role", roleId == null ? null : em.getReference(Role.class, roleId))
+                        .setParameter("active", group.getKey().get(1))
+                        .setParameter("blacklist", group.getKey().get(2))
+                        .setParameter("ids", group.getValue())
+                        .executeUpdate();
+            }
+            JpaUtil.commitTransaction(em, ownsTransaction);
+            logger.info("Mise à jour groupée : " + updatedRows + " utilisateurs modifiés en " + idsByValues.size() + " requêtes");
+            return updatedRows;
+        } catch (Exception e) {
+            JpaUtil.rollbackTransaction(em, ownsTransaction);  // Annule la transaction en cas d'erreur
+            logger.error("Erreur lors de la mise à jour groupée des utilisateurs", e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
         }
     }
 
@@ -133,7 +351,7 @@ public class UserDaoImpl implements UserDao {
             logger.error("Erreur lors de la vérification de l'existence de l'email : " + email, e);
             throw e;
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
         }
     }
 
@@ -145,22 +363,19 @@ public class UserDaoImpl implements UserDao {
     @Override
     public void deleteByEmail(String email) {
         EntityManager em = JpaUtil.getEntityManager();
-        EntityTransaction transaction = null;
+        boolean ownsTransaction = false;
         try {
-            transaction = em.getTransaction();
-            transaction.begin();
+            ownsTransaction = JpaUtil.beginTransaction(em);
             Optional<User> userOpt = findByEmail(email);
-            userOpt.ifPresent(em::remove);
-            transaction.commit();
+            userOpt.ifPresent(entity -> em.remove(em.merge(entity))); // Rattachement si l'entité a été chargée hors de la requête
+            JpaUtil.commitTransaction(em, ownsTransaction);
             logger.info("Utilisateur supprimé avec succès : " + email);
         } catch (Exception e) {
-            if (transaction != null && transaction.isActive()) {
-                transaction.rollback();  // Annule la transaction en cas d'erreur
-            }
+            JpaUtil.rollbackTransaction(em, ownsTransaction);  // Annule la transaction en cas d'erreur
             logger.error("Erreur lors de la suppression de l'utilisateur : " + email, e);
             throw e;
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
         }
     }
 
@@ -183,7 +398,7 @@ public class UserDaoImpl implements UserDao {
             logger.warn("Aucun utilisateur trouvé avec l'ID : " + id);
             return Optional.empty();
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
         }
     }
 
@@ -195,10 +410,9 @@ public class UserDaoImpl implements UserDao {
     @Override
     public void deleteById(int id) {
         EntityManager em = JpaUtil.getEntityManager();
-        EntityTransaction transaction = null;
+        boolean ownsTransaction = false;
         try {
-            transaction = em.getTransaction();
-            transaction.begin();
+            ownsTransaction = JpaUtil.beginTransaction(em);
 
             // Récupération de l'utilisateur par ID
             Optional<User> userOpt = findById(id);
@@ -208,15 +422,105 @@ public class UserDaoImpl implements UserDao {
                 logger.info("Utilisateur supprimé avec succès : " + managedUser.getEmail());
             }
 
-            transaction.commit();
+            JpaUtil.commitTransaction(em, ownsTransaction);
         } catch (Exception e) {
-            if (transaction != null && transaction.isActive()) {
-                transaction.rollback();  // Annule la transaction en cas d'erreur
-            }
+            JpaUtil.rollbackTransaction(em, ownsTransaction);  // Annule la transaction en cas d'erreur
             logger.error("Erreur lors de la suppression de l'utilisateur avec ID : " + id, e);
             throw e;
         } finally {
-            em.close();  // Ferme l'EntityManager pour libérer les ressources
+            JpaUtil.closeEntityManager(em);  // Ferme l'EntityManager pour libérer les ressources
+        }
+    }
+
+    /**
+     * Récupère une page d'utilisateurs dont l'ID est supérieur au curseur donné (pagination par clé).
+     *
+     * @param afterId  L'ID du dernier élément de la page précédente.
+     * @param pageSize Le nombre maximum d'utilisateurs à retourner.
+     * @return La page d'utilisateurs et le curseur de la page suivante.
+     */
+    @Override
+    public KeysetPage<User> findPageAfter(int afterId, int pageSize) {
+        KeysetPage.requireValidPageSize(pageSize);
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            List<User> rows = em.createNamedQuery("User.findAfterId", User.class)
+                    .setParameter("afterId", afterId)
+                    .setMaxResults(pageSize + 1)
+                    .getResultList();
+            logger.debug("Page d'utilisateurs récupérée après l'ID : " + afterId);
+            return KeysetPage.fromRows(rows, pageSize, afterId, User::getId);
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération de la page d'utilisateurs après l'ID : " + afterId, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Trouve un utilisateur par son ID, avec le graphe demandé chargé dans la même requête.
+     *
+     * @param id        L'ID de l'utilisateur à rechercher.
+     * @param fetchPlan Le graphe à charger.
+     * @return Un {@link Optional} contenant l'utilisateur si trouvé, ou vide sinon.
+     */
+    @Override
+    public Optional<User> findById(int id, UserFetchPlan fetchPlan) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            List<User> users = withFetchPlan(em, em.createNamedQuery("User.findById", User.class), fetchPlan)
+                    .setParameter("id", id)
+                    .getResultList();
+            return users.isEmpty() ? Optional.empty() : Optional.of(users.get(0));
+        } catch (Exception e) {
+            logger.error("Erreur lors de la recherche de l'utilisateur avec le graphe " + fetchPlan + " : ID " + id, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Applique un plan de chargement à une requête : seuls les attributs du graphe sont lus,
+     * et ses relations sont chargées par jointure externe dans la même requête SQL.
+     *
+     * @param em        L'EntityManager de la requête.
+     * @param query     La requête sur les utilisateurs.
+     * @param fetchPlan Le graphe à charger.
+     * @return La requête, pour chaîner les appels.
+     */
+    private static TypedQuery<User> withFetchPlan(EntityManager em, TypedQuery<User> query, UserFetchPlan fetchPlan) {
+        EntityGraph<?> graph = em.getEntityGraph(fetchPlan.getGraphName());
+        query.setHint(QueryHints.JPA_FETCH_GRAPH, graph);
+        for (String path : JOIN_FETCH_PATHS.computeIfAbsent(fetchPlan, plan -> joinFetchPaths(em, graph))) {
+            query.setHint(QueryHints.LEFT_FETCH, path);
+        }
+        return query;
+    }
+
+    /**
+     * Liste les chemins des relations d'un graphe ({@code u.fkAddresse}, {@code u.fkAddresse.fkLocality}...),
+     * dans l'ordre où elles doivent être jointes.
+     */
+    private static List<String> joinFetchPaths(EntityManager em, EntityGraph<?> graph) {
+        List<String> paths = new ArrayList<>();
+        collectJoinFetchPaths(em.getMetamodel().entity(User.class), "u", graph.getAttributeNodes(), paths);
+        return Collections.unmodifiableList(paths);
+    }
+
+    private static void collectJoinFetchPaths(ManagedType<?> type, String prefix, List<AttributeNode<?>> nodes, List<String> paths) {
+        for (AttributeNode<?> node : nodes) {
+            Attribute<?, ?> attribute = type.getAttribute(node.getAttributeName());
+            if (!attribute.isAssociation() || attribute.isCollection()) {
+                continue;
+            }
+            String path = prefix + "." + node.getAttributeName();
+            paths.add(path);
+            ManagedType<?> target = (ManagedType<?>) ((SingularAttribute<?, ?>) attribute).getType();
+            for (Subgraph<?> subgraph : node.getSubgraphs().values()) {
+                collectJoinFetchPaths(target, path, subgraph.getAttributeNodes(), paths);
+            }
         }
     }
 }
@@ -0,0 +1,70 @@
+package be.atc.dao.impl;
+
+import be.atc.dao.UsersSubscriptionDao;
+import be.atc.dto.SubscriptionValidity;
+import be.atc.entities.Subscription;
+import be.atc.entities.User;
+import be.atc.entities.UsersSubscription;
+import be.atc.util.JpaUtil;
+import org.apache.log4j.Logger;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Implémentation de l'interface {@link UsersSubscriptionDao} pour la gestion des entités {@link UsersSubscription}.
+ */
+public class UsersSubscriptionDaoImpl implements UsersSubscriptionDao {
+
+    private static final Logger logger = Logger.getLogger(UsersSubscriptionDaoImpl.class);
+
+    /**
+     * Enregistre un abonnement souscrit par un utilisateur. L'utilisateur et la formule sont
+     * référencés par leur ID, sans être chargés.
+     *
+     * @param usersSubscription L'abonnement à créer.
+     * @param userId            L'ID de l'utilisateur.
+     * @param subscriptionId    L'ID de la formule d'abonnement.
+     */
+    @Override
+    public void createUsersSubscription(UsersSubscription usersSubscription, int userId, int subscriptionId) {
+        EntityManager em = JpaUtil.getEntityManager();
+        boolean ownsTransaction = false;
+        try {
+            ownsTransaction = JpaUtil.beginTransaction(em);
+            usersSubscription.setFkUser(em.getReference(User.class, userId));
+            usersSubscription.setFkSubscription(em.getReference(Subscription.class, subscriptionId));
+            em.persist(usersSubscription);
+            JpaUtil.commitTransaction(em, ownsTransaction);
+            logger.info("Abonnement créé : utilisateur " + userId + ", formule " + subscriptionId);
+        } catch (Exception e) {
+            JpaUtil.rollbackTransaction(em, ownsTransaction);
+            logger.error("Erreur lors de la création de l'abonnement : utilisateur " + userId + ", formule " + subscriptionId, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    /**
+     * Récupère en une requête les abonnements encore valides, ou à venir, à une date donnée.
+     *
+     * @param from La date de référence.
+     * @return Les périodes de validité dont la fin est postérieure à {@code from}.
+     */
+    @Override
+    public List<SubscriptionValidity> findValiditiesEndingAfter(Instant from) {
+        EntityManager em = JpaUtil.getEntityManager();
+        try {
+            return em.createNamedQuery("UsersSubscription.findValiditiesEndingAfter", SubscriptionValidity.class)
+                    .setParameter("from", from)
+                    .getResultList();
+        } catch (Exception e) {
+            logger.error("Erreur lors de la récupération des abonnements valides après " + from, e);
+            throw e;
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package be.atc.dto;
+
+/**
+ * Adresse en lecture seule, pour les listes et les recherches.
+ * <p>
+ * Projection immuable chargée par une requête JPQL {@code SELECT NEW} : la localité est
+ * représentée par son ID, et la liste des utilisateurs de l'adresse n'est pas chargée.
+ * </p>
+ */
+public class AddressSummary {
+
+    private final int id;
+    private final String streetName;
+    private final String number;
+    private final String boxNumber;
+    private final Integer localityId;
+
+    /**
+     * Construit une adresse.
+     * Ce constructeur est aussi utilisé par les requêtes JPQL {@code SELECT NEW}.
+     *
+     * @param id         L'ID de l'adresse.
+     * @param streetName Le nom de la rue.
+     * @param number     Le numéro.
+     * @param boxNumber  Le numéro de boîte, ou {@code null}.
+     * @param localityId L'ID de la localité, ou {@code null}.
+     */
+    public AddressSummary(int id, String streetName, String number, String boxNumber, Integer localityId) {
+        this.id = id;
+        this.streetName = streetName;
+        this.number = number;
+        this.boxNumber = boxNumber;
+        this.localityId = localityId;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getStreetName() {
+        return streetName;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public String getBoxNumber() {
+        return boxNumber;
+    }
+
+    public Integer getLocalityId() {
+        return localityId;
+    }
+
+    @Override
+    public String toString() {
+        return "AddressSummary{id=" + id + ", streetName='" + streetName + "', number='" + number
+                + "', boxNumber='" + boxNumber + "', localityId=" + localityId + "}";
+    }
+}
@@ -0,0 +1,40 @@
+package be.atc.dto;
+
+/**
+ * Terrain réservable pour un sport : association sport-terrain active, dont le sport,
+ * le terrain et la salle sont actifs.
+ * <p>
+ * Projection immuable chargée par une requête JPQL {@code SELECT NEW}, sans charger
+ * les entités {@link be.atc.entities.SportField} ni leurs relations.
+ * </p>
+ */
+public class BookableSportField {
+
+    private final int sportFieldId;
+    private final int sportId;
+
+    /**
+     * Construit un terrain réservable.
+     * Ce constructeur est aussi utilisé par les requêtes JPQL {@code SELECT NEW}.
+     *
+     * @param sportFieldId L'ID de l'association sport-terrain.
+     * @param sportId      L'ID du sport.
+     */
+    public BookableSportField(int sportFieldId, int sportId) {
+        this.sportFieldId = sportFieldId;
+        this.sportId = sportId;
+    }
+
+    public int getSportFieldId() {
+        return sportFieldId;
+    }
+
+    public int getSportId() {
+        return sportId;
+    }
+
+    @Override
+    public String toString() {
+        return "BookableSportField{sportFieldId=" + sportFieldId + ", sportId=" + sportId + "}";
+    }
+}
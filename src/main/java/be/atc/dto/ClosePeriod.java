@@ -0,0 +1,55 @@
+package be.atc.dto;
+
+import java.time.Instant;
+
+/**
+ * Période de fermeture d'un terrain (maintenance), de {@code begin} inclus à {@code end} exclu.
+ * <p>
+ * Projection immuable chargée par une requête JPQL {@code SELECT NEW} pour construire
+ * l'index des fermetures, sans charger les entités {@link be.atc.entities.Close} ni leurs relations.
+ * </p>
+ */
+public class ClosePeriod {
+
+    private final int closeId;
+    private final int sportFieldId;
+    private final Instant begin;
+    private final Instant end;
+
+    /**
+     * Construit une période de fermeture.
+     * Ce constructeur est aussi utilisé par les requêtes JPQL {@code SELECT NEW}.
+     *
+     * @param closeId      L'ID de la fermeture.
+     * @param sportFieldId L'ID du terrain fermé (association sport-terrain).
+     * @param begin        Le début de la fermeture (inclus).
+     * @param end          La fin de la fermeture (exclue).
+     */
+    public ClosePeriod(int closeId, int sportFieldId, Instant begin, Instant end) {
+        this.closeId = closeId;
+        this.sportFieldId = sportFieldId;
+        this.begin = begin;
+        this.end = end;
+    }
+
+    public int getCloseId() {
+        return closeId;
+    }
+
+    public int getSportFieldId() {
+        return sportFieldId;
+    }
+
+    public Instant getBegin() {
+        return begin;
+    }
+
+    public Instant getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return "ClosePeriod{closeId=" + closeId + ", sportFieldId=" + sportFieldId + ", begin=" + begin + ", end=" + end + "}";
+    }
+}
@@ -0,0 +1,36 @@
+package be.atc.dto;
+
+import java.util.List;
+
+/**
+ * Disponibilités d'un terrain pour une journée : les créneaux horaires encore libres.
+ */
+public class FieldAvailability {
+
+    private final int sportFieldId;
+    private final List<Integer> freeTimeSlotIds;
+
+    /**
+     * Construit les disponibilités d'un terrain.
+     *
+     * @param sportFieldId    L'ID de l'association sport-terrain.
+     * @param freeTimeSlotIds Les IDs des créneaux libres, triés par ID.
+     */
+    public FieldAvailability(int sportFieldId, List<Integer> freeTimeSlotIds) {
+        this.sportFieldId = sportFieldId;
+        this.freeTimeSlotIds = freeTimeSlotIds;
+    }
+
+    public int getSportFieldId() {
+        return sportFieldId;
+    }
+
+    public List<Integer> getFreeTimeSlotIds() {
+        return freeTimeSlotIds;
+    }
+
+    @Override
+    public String toString() {
+        return "FieldAvailability{sportFieldId=" + sportFieldId + ", freeTimeSlotIds=" + freeTimeSlotIds + "}";
+    }
+}
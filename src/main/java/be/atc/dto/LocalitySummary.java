@@ -0,0 +1,76 @@
+package be.atc.dto;
+
+/**
+ * Localité en lecture seule : les colonnes affichées par l'autocomplétion et le formulaire d'adresse.
+ * <p>
+ * Projection immuable chargée par une requête JPQL {@code SELECT NEW}, sans entité gérée ni
+ * collection d'adresses : c'est la forme conservée par {@link be.atc.cache.LocalityCache}.
+ * Les noms des accesseurs sont ceux de l'entité {@link be.atc.entities.Locality}.
+ * </p>
+ */
+public class LocalitySummary {
+
+    private final int id;
+    private final String postalCode;
+    private final String town;
+    private final String subTown;
+    private final String maintown;
+    private final String province;
+    private final int countryId;
+
+    /**
+     * Construit une localité.
+     * Ce constructeur est aussi utilisé par les requêtes JPQL {@code SELECT NEW}.
+     *
+     * @param id         L'ID de la localité.
+     * @param postalCode Le code postal.
+     * @param town       Le nom de la ville.
+     * @param subTown    Le numéro de section de commune, ou {@code null}.
+     * @param maintown   Le nom de la commune principale.
+     * @param province   La province.
+     * @param countryId  L'ID du pays.
+     */
+    public LocalitySummary(int id, String postalCode, String town, String subTown, String maintown, String province,
+                           int countryId) {
+        this.id = id;
+        this.postalCode = postalCode;
+        this.town = town;
+        this.subTown = subTown;
+        this.maintown = maintown;
+        this.province = province;
+        this.countryId = countryId;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getPostalCode() {
+        return postalCode;
+    }
+
+    public String getTown() {
+        return town;
+    }
+
+    public String getSubTown() {
+        return subTown;
+    }
+
+    public String getMaintown() {
+        return maintown;
+    }
+
+    public String getProvince() {
+        return province;
+    }
+
+    public int getCountryId() {
+        return countryId;
+    }
+
+    @Override
+    public String toString() {
+        return "LocalitySummary{id=" + id + ", postalCode='" + postalCode + "', town='" + town + "', province='" + province + "'}";
+    }
+}
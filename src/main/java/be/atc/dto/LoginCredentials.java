@@ -0,0 +1,90 @@
+package be.atc.dto;
+
+/**
+ * Informations nécessaires à l'authentification d'un utilisateur.
+ * <p>
+ * Projection immuable chargée en une seule requête sur l'index unique de l'e-mail,
+ * avec le rôle en jointure, sans charger l'entité {@link be.atc.entities.User}
+ * complète ni ses relations paresseuses.
+ * </p>
+ */
+public class LoginCredentials {
+
+    private final int userId;
+    private final String email;
+    private final String passwordHash;
+    private final boolean active;
+    private final boolean blacklist;
+    private final Integer roleId;
+    private final String roleName;
+
+    /**
+     * Construit les informations d'authentification d'un utilisateur.
+     * Ce constructeur est aussi utilisé par les requêtes JPQL {@code SELECT NEW}.
+     *
+     * @param userId       L'ID de l'utilisateur.
+     * @param email        L'adresse e-mail de l'utilisateur.
+     * @param passwordHash Le hash BCrypt du mot de passe.
+     * @param active       {@code true} si l'utilisateur est actif.
+     * @param blacklist    {@code true} si l'utilisateur est blacklisté.
+     * @param roleId       L'ID du rôle, ou {@code null} si l'utilisateur n'a pas de rôle.
+     * @param roleName     Le nom du rôle, ou {@code null} si l'utilisateur n'a pas de rôle.
+     */
+    public LoginCredentials(int userId, String email, String passwordHash, boolean active, boolean blacklist,
+                            Integer roleId, String roleName) {
+        this.userId = userId;
+        this.email = email;
+        this.passwordHash = passwordHash;
+        this.active = active;
+        this.blacklist = blacklist;
+        this.roleId = roleId;
+        this.roleName = roleName;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPasswordHash() {
+        return passwordHash;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean isBlacklist() {
+        return blacklist;
+    }
+
+    public Integer getRoleId() {
+        return roleId;
+    }
+
+    public String getRoleName() {
+        return roleName;
+    }
+
+    /**
+     * Retourne une copie portant un nouveau hash de mot de passe (après recalcul du hash).
+     *
+     * @param newPasswordHash Le nouveau hash BCrypt.
+     * @return Les informations d'authentification mises à jour.
+     */
+    public LoginCredentials withPasswordHash(String newPasswordHash) {
+        return new LoginCredentials(userId, email, newPasswordHash, active, blacklist, roleId, roleName);
+    }
+
+    /**
+     * Le hash du mot de passe n'apparaît jamais dans les journaux.
+     */
+    @Override
+    public String toString() {
+        return "LoginCredentials{userId=" + userId + ", email=" + email + ", active=" + active
+                + ", blacklist=" + blacklist + ", roleId=" + roleId + ", roleName=" + roleName + "}";
+    }
+}
@@ -0,0 +1,40 @@
+package be.atc.dto;
+
+/**
+ * Créneau occupé par une réservation : terrain et créneau horaire.
+ * <p>
+ * Projection immuable chargée par une requête JPQL {@code SELECT NEW} pour construire
+ * les disponibilités d'une journée, sans charger les entités
+ * {@link be.atc.entities.Reservation} ni leurs relations.
+ * </p>
+ */
+public class ReservedSlot {
+
+    private final int sportFieldId;
+    private final int timeSlotId;
+
+    /**
+     * Construit un créneau occupé.
+     * Ce constructeur est aussi utilisé par les requêtes JPQL {@code SELECT NEW}.
+     *
+     * @param sportFieldId L'ID du terrain (association sport-terrain).
+     * @param timeSlotId   L'ID du créneau horaire.
+     */
+    public ReservedSlot(int sportFieldId, int timeSlotId) {
+        this.sportFieldId = sportFieldId;
+        this.timeSlotId = timeSlotId;
+    }
+
+    public int getSportFieldId() {
+        return sportFieldId;
+    }
+
+    public int getTimeSlotId() {
+        return timeSlotId;
+    }
+
+    @Override
+    public String toString() {
+        return "ReservedSlot{sportFieldId=" + sportFieldId + ", timeSlotId=" + timeSlotId + "}";
+    }
+}
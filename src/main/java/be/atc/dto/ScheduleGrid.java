@@ -0,0 +1,154 @@
+package be.atc.dto;
+
+import be.atc.util.JsonUtil;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Grille hebdomadaire d'une salle : état de chaque créneau de chaque terrain, du lundi au dimanche.
+ * <p>
+ * Les états sont stockés dans un seul tableau d'octets, indexé par terrain, jour puis créneau
+ * horaire ({@link #getState(int, int, int)}). La grille est immuable : elle est partagée par
+ * toutes les requêtes tant qu'aucune réservation de la semaine ne change, et sa représentation
+ * JSON n'est construite qu'une fois.
+ * </p>
+ */
+public class ScheduleGrid {
+
+    /**
+     * Nombre de jours d'une grille.
+     */
+    public static final int DAYS = 7;
+
+    public static final byte FREE = 0;
+    public static final byte BOOKED = 1;
+    public static final byte CLOSED = 2;
+
+    /**
+     * Caractère représentant chaque état dans le JSON, indexé par état.
+     */
+    private static final char[] STATE_CODES = {'F', 'B', 'C'};
+
+    private final int hallId;
+    private final String hallLabel;
+    private final LocalDate weekStart;
+    private final int[] timeSlotIds;
+    private final String[] timeSlotLabels;
+    private final List<ScheduleSportField> sportFields;
+    private final byte[] states;
+
+    private volatile String json;
+
+    /**
+     * Construit une grille.
+     *
+     * @param hallId         L'ID de la salle.
+     * @param hallLabel      Le libellé de la salle.
+     * @param weekStart      Le lundi de la semaine.
+     * @param timeSlotIds    Les IDs des créneaux horaires, dans l'ordre des colonnes.
+     * @param timeSlotLabels Les libellés des créneaux horaires, dans le même ordre.
+     * @param sportFields    Les terrains, dans l'ordre des lignes.
+     * @param states         Les états, indexés par {@code (terrain * DAYS + jour) * créneaux + créneau}.
+     */
+    public ScheduleGrid(int hallId, String hallLabel, LocalDate weekStart, int[] timeSlotIds, String[] timeSlotLabels,
+                        List<ScheduleSportField> sportFields, byte[] states) {
+        this.hallId = hallId;
+        this.hallLabel = hallLabel;
+        this.weekStart = weekStart;
+        this.timeSlotIds = timeSlotIds;
+        this.timeSlotLabels = timeSlotLabels;
+        this.sportFields = sportFields;
+        this.states = states;
+    }
+
+    /**
+     * @return L'index d'une case dans le tableau des états.
+     */
+    public static int indexOf(int sportFieldIndex, int day, int timeSlotIndex, int timeSlotCount) {
+        return (sportFieldIndex * DAYS + day) * timeSlotCount + timeSlotIndex;
+    }
+
+    public int getHallId() {
+        return hallId;
+    }
+
+    public String getHallLabel() {
+        return hallLabel;
+    }
+
+    public LocalDate getWeekStart() {
+        return weekStart;
+    }
+
+    public List<ScheduleSportField> getSportFields() {
+        return sportFields;
+    }
+
+    /**
+     * @return Les IDs des créneaux horaires, dans l'ordre des colonnes.
+     */
+    public int[] getTimeSlotIds() {
+        return Arrays.copyOf(timeSlotIds, timeSlotIds.length);
+    }
+
+    /**
+     * Retourne l'état d'une case.
+     *
+     * @param sportFieldIndex La position du terrain dans {@link #getSportFields()}.
+     * @param day             Le jour, de 0 (lundi) à 6 (dimanche).
+     * @param timeSlotIndex   La position du créneau dans {@link #getTimeSlotIds()}.
+     * @return {@link #FREE}, {@link #BOOKED} ou {@link #CLOSED}.
+     */
+    public byte getState(int sportFieldIndex, int day, int timeSlotIndex) {
+        return states[indexOf(sportFieldIndex, day, timeSlotIndex, timeSlotIds.length)];
+    }
+
+    /**
+     * Sérialise la grille en JSON. L'état des créneaux d'un terrain pour un jour est une chaîne
+     * d'un caractère par créneau : F (libre), B (réservé) ou C (fermé).
+     *
+     * @return La représentation JSON de la grille.
+     */
+    public String toJson() {
+        String current = json;
+        if (current == null) {
+            current = buildJson();
+            json = current;
+        }
+        return current;
+    }
+
+    private String buildJson() {
+        StringBuilder builder = new StringBuilder(256 + sportFields.size() * (64 + DAYS * (timeSlotIds.length + 4)));
+        builder.append(String.format("{\"hallId\": %d, \"hall\": \"%s\", \"weekStart\": \"%s\", \"legend\": "
+                        + "{\"F\": \"free\", \"B\": \"booked\", \"C\": \"closed\"}, \"days\": [",
+                hallId, JsonUtil.escape(hallLabel), weekStart));
+        for (int day = 0; day < DAYS; day++) {
+            builder.append(day > 0 ? ", " : "").append('"').append(weekStart.plusDays(day)).append('"');
+        }
+        builder.append("], \"timeSlots\": [");
+        for (int slot = 0; slot < timeSlotIds.length; slot++) {
+            builder.append(slot > 0 ? ", " : "")
+                    .append(String.format("{\"id\": %d, \"label\": \"%s\"}", timeSlotIds[slot], JsonUtil.escape(timeSlotLabels[slot])));
+        }
+        builder.append("], \"fields\": [");
+        for (int row = 0; row < sportFields.size(); row++) {
+            ScheduleSportField sportField = sportFields.get(row);
+            builder.append(row > 0 ? ", " : "")
+                    .append(String.format("{\"sportFieldId\": %d, \"field\": \"%s\", \"sport\": \"%s\", \"states\": [",
+                            sportField.getSportFieldId(), JsonUtil.escape(sportField.getFieldLabel()), JsonUtil.escape(sportField.getSportLabel())));
+            for (int day = 0; day < DAYS; day++) {
+                builder.append(day > 0 ? ", \"" : "\"");
+                int offset = indexOf(row, day, 0, timeSlotIds.length);
+                for (int slot = 0; slot < timeSlotIds.length; slot++) {
+                    builder.append(STATE_CODES[states[offset + slot]]);
+                }
+                builder.append('"');
+            }
+            builder.append("]}");
+        }
+        return builder.append("]}").toString();
+    }
+}
@@ -0,0 +1,62 @@
+package be.atc.dto;
+
+/**
+ * Ligne de la grille hebdomadaire d'une salle : un terrain réservable, son sport et sa salle.
+ * <p>
+ * Projection immuable chargée par une requête JPQL {@code SELECT NEW} qui joint salle,
+ * terrain et sport en une fois, sans parcourir les collections
+ * {@link be.atc.entities.Hall#getFields()} ni {@link be.atc.entities.Field#getSportFields()}.
+ * </p>
+ */
+public class ScheduleSportField {
+
+    private final int sportFieldId;
+    private final int fieldId;
+    private final String fieldLabel;
+    private final String sportLabel;
+    private final String hallLabel;
+
+    /**
+     * Construit une ligne de la grille.
+     * Ce constructeur est aussi utilisé par les requêtes JPQL {@code SELECT NEW}.
+     *
+     * @param sportFieldId L'ID du terrain (association sport-terrain).
+     * @param fieldId      L'ID du terrain physique.
+     * @param fieldLabel   Le libellé du terrain.
+     * @param sportLabel   Le libellé du sport.
+     * @param hallLabel    Le libellé de la salle.
+     */
+    public ScheduleSportField(int sportFieldId, int fieldId, String fieldLabel, String sportLabel, String hallLabel) {
+        this.sportFieldId = sportFieldId;
+        this.fieldId = fieldId;
+        this.fieldLabel = fieldLabel;
+        this.sportLabel = sportLabel;
+        this.hallLabel = hallLabel;
+    }
+
+    public int getSportFieldId() {
+        return sportFieldId;
+    }
+
+    public int getFieldId() {
+        return fieldId;
+    }
+
+    public String getFieldLabel() {
+        return fieldLabel;
+    }
+
+    public String getSportLabel() {
+        return sportLabel;
+    }
+
+    public String getHallLabel() {
+        return hallLabel;
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduleSportField{sportFieldId=" + sportFieldId + ", fieldId=" + fieldId + ", fieldLabel='" + fieldLabel
+                + "', sportLabel='" + sportLabel + "'}";
+    }
+}
@@ -0,0 +1,48 @@
+package be.atc.dto;
+
+import java.time.Instant;
+
+/**
+ * Créneau occupé un jour donné : terrain, créneau horaire et jour réservé.
+ * <p>
+ * Projection immuable chargée par une requête JPQL {@code SELECT NEW} pour construire
+ * la grille hebdomadaire d'une salle, sans charger les entités {@link be.atc.entities.Reservation}.
+ * </p>
+ */
+public class ScheduledReservation {
+
+    private final int sportFieldId;
+    private final int timeSlotId;
+    private final Instant date;
+
+    /**
+     * Construit un créneau occupé.
+     * Ce constructeur est aussi utilisé par les requêtes JPQL {@code SELECT NEW}.
+     *
+     * @param sportFieldId L'ID du terrain (association sport-terrain).
+     * @param timeSlotId   L'ID du créneau horaire.
+     * @param date         Le jour réservé (début de la journée dans le fuseau du centre).
+     */
+    public ScheduledReservation(int sportFieldId, int timeSlotId, Instant date) {
+        this.sportFieldId = sportFieldId;
+        this.timeSlotId = timeSlotId;
+        this.date = date;
+    }
+
+    public int getSportFieldId() {
+        return sportFieldId;
+    }
+
+    public int getTimeSlotId() {
+        return timeSlotId;
+    }
+
+    public Instant getDate() {
+        return date;
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduledReservation{sportFieldId=" + sportFieldId + ", timeSlotId=" + timeSlotId + ", date=" + date + "}";
+    }
+}
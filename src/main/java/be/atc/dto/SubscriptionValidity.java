@@ -0,0 +1,63 @@
+package be.atc.dto;
+
+import java.time.Instant;
+
+/**
+ * Période de validité d'un abonnement d'un utilisateur pour un sport, de {@code begin} inclus à {@code end} exclu.
+ * <p>
+ * Projection immuable chargée par une requête JPQL {@code SELECT NEW} pour construire l'index
+ * des abonnements, sans charger les entités {@link be.atc.entities.UsersSubscription} ni leurs relations.
+ * </p>
+ */
+public class SubscriptionValidity {
+
+    private final int userSubscriptionId;
+    private final int userId;
+    private final int sportId;
+    private final Instant begin;
+    private final Instant end;
+
+    /**
+     * Construit une période de validité.
+     * Ce constructeur est aussi utilisé par les requêtes JPQL {@code SELECT NEW}.
+     *
+     * @param userSubscriptionId L'ID de l'abonnement de l'utilisateur.
+     * @param userId             L'ID de l'utilisateur.
+     * @param sportId            L'ID du sport couvert par l'abonnement.
+     * @param begin              Le début de validité (inclus).
+     * @param end                La fin de validité (exclue).
+     */
+    public SubscriptionValidity(int userSubscriptionId, int userId, int sportId, Instant begin, Instant end) {
+        this.userSubscriptionId = userSubscriptionId;
+        this.userId = userId;
+        this.sportId = sportId;
+        this.begin = begin;
+        this.end = end;
+    }
+
+    public int getUserSubscriptionId() {
+        return userSubscriptionId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public int getSportId() {
+        return sportId;
+    }
+
+    public Instant getBegin() {
+        return begin;
+    }
+
+    public Instant getEnd() {
+        return end;
+    }
+
+    @Override
+    public String toString() {
+        return "SubscriptionValidity{userSubscriptionId=" + userSubscriptionId + ", userId=" + userId + ", sportId=" + sportId
+                + ", begin=" + begin + ", end=" + end + "}";
+    }
+}
@@ -0,0 +1,66 @@
+package be.atc.dto;
+
+import java.util.Objects;
+
+/**
+ * État administrable d'un utilisateur : rôle, statut actif et liste noire.
+ * <p>
+ * Objet immuable utilisé pour comparer les valeurs soumises depuis le panneau
+ * d'administration avec celles enregistrées en base, sans charger l'entité
+ * {@link be.atc.entities.User} complète.
+ * </p>
+ */
+public class UserAdminState {
+
+    private final int userId;
+    private final Integer roleId;
+    private final boolean active;
+    private final boolean blacklist;
+
+    /**
+     * Construit l'état administrable d'un utilisateur.
+     * Ce constructeur est aussi utilisé par les requêtes JPQL {@code SELECT NEW}.
+     *
+     * @param userId    L'ID de l'utilisateur.
+     * @param roleId    L'ID du rôle, ou {@code null} si l'utilisateur n'a pas de rôle.
+     * @param active    {@code true} si l'utilisateur est actif.
+     * @param blacklist {@code true} si l'utilisateur est blacklisté.
+     */
+    public UserAdminState(int userId, Integer roleId, boolean active, boolean blacklist) {
+        this.userId = userId;
+        this.roleId = roleId;
+        this.active = active;
+        this.blacklist = blacklist;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public Integer getRoleId() {
+        return roleId;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean isBlacklist() {
+        return blacklist;
+    }
+
+    /**
+     * Indique si les champs administrables diffèrent de ceux d'un autre état.
+     *
+     * @param other L'état de référence.
+     * @return {@code true} si le rôle, le statut actif ou la liste noire diffère.
+     */
+    public boolean differsFrom(UserAdminState other) {
+        return !Objects.equals(roleId, other.roleId) || active != other.active || blacklist != other.blacklist;
+    }
+
+    @Override
+    public String toString() {
+        return "UserAdminState{userId=" + userId + ", roleId=" + roleId + ", active=" + active + ", blacklist=" + blacklist + "}";
+    }
+}
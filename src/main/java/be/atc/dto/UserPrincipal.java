@@ -0,0 +1,105 @@
+package be.atc.dto;
+
+import be.atc.entities.Role;
+import be.atc.entities.User;
+
+import java.io.Serializable;
+
+/**
+ * Utilisateur connecté, tel qu'il est conservé dans la session HTTP (attribut "user").
+ * <p>
+ * Objet immuable et sérialisable limité aux informations utilisées à chaque requête :
+ * identifiant, e-mail, nom affiché et rôle. L'entité {@link User} complète (adresse,
+ * commandes, réservations, abonnements) n'est plus stockée en session : elle est
+ * rechargée à la demande par son identifiant. La session reste ainsi petite et peut
+ * être persistée ou répliquée à faible coût.
+ * </p>
+ */
+public final class UserPrincipal implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int userId;
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+    private final Integer roleId;
+    private final String roleName;
+
+    /**
+     * Construit le principal d'un utilisateur connecté.
+     *
+     * @param userId    L'ID de l'utilisateur.
+     * @param email     L'adresse e-mail de l'utilisateur.
+     * @param firstName Le prénom de l'utilisateur.
+     * @param lastName  Le nom de famille de l'utilisateur.
+     * @param roleId    L'ID du rôle, ou {@code null} si l'utilisateur n'a pas de rôle.
+     * @param roleName  Le nom du rôle, ou {@code null} si l'utilisateur n'a pas de rôle.
+     */
+    public UserPrincipal(int userId, String email, String firstName, String lastName, Integer roleId, String roleName) {
+        this.userId = userId;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.roleId = roleId;
+        this.roleName = roleName;
+    }
+
+    /**
+     * Construit le principal à partir de l'entité utilisateur (à la connexion ou après une mise à jour du profil).
+     *
+     * @param user L'utilisateur, avec son rôle chargé.
+     * @return Le principal correspondant.
+     */
+    public static UserPrincipal fromUser(User user) {
+        Role role = user.getFkRole();
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName(),
+                role == null ? null : role.getId(), role == null ? null : role.getRoleName());
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public Integer getRoleId() {
+        return roleId;
+    }
+
+    public String getRoleName() {
+        return roleName;
+    }
+
+    /**
+     * @return Le nom affiché de l'utilisateur ("Prénom Nom").
+     */
+    public String getDisplayName() {
+        return firstName + " " + lastName;
+    }
+
+    /**
+     * Indique si l'utilisateur possède le rôle donné.
+     *
+     * @param expectedRoleId L'ID du rôle attendu.
+     * @return {@code true} si l'utilisateur possède ce rôle.
+     */
+    public boolean hasRole(int expectedRoleId) {
+        return roleId != null && roleId == expectedRoleId;
+    }
+
+    @Override
+    public String toString() {
+        return "UserPrincipal{userId=" + userId + ", email=" + email + ", roleId=" + roleId + "}";
+    }
+}
@@ -0,0 +1,77 @@
+package be.atc.dto;
+
+/**
+ * Utilisateur en lecture seule, pour les listes : identité, statuts et rôle.
+ * <p>
+ * Projection immuable chargée par une requête JPQL {@code SELECT NEW} : ni mot de passe,
+ * ni relations, ni collections. Les noms des accesseurs sont ceux de l'entité
+ * {@link be.atc.entities.User}, le rôle étant représenté par son ID.
+ * </p>
+ */
+public class UserSummary {
+
+    private final int id;
+    private final String email;
+    private final String firstName;
+    private final String lastName;
+    private final boolean active;
+    private final boolean blacklist;
+    private final Integer roleId;
+
+    /**
+     * Construit un utilisateur.
+     * Ce constructeur est aussi utilisé par les requêtes JPQL {@code SELECT NEW}.
+     *
+     * @param id        L'ID de l'utilisateur.
+     * @param email     L'adresse e-mail.
+     * @param firstName Le prénom.
+     * @param lastName  Le nom de famille.
+     * @param active    {@code true} si le compte est actif.
+     * @param blacklist {@code true} si l'utilisateur est sur liste noire.
+     * @param roleId    L'ID du rôle, ou {@code null}.
+     */
+    public UserSummary(int id, String email, String firstName, String lastName, boolean active, boolean blacklist,
+                       Integer roleId) {
+        this.id = id;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.active = active;
+        this.blacklist = blacklist;
+        this.roleId = roleId;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean isBlacklist() {
+        return blacklist;
+    }
+
+    public Integer getRoleId() {
+        return roleId;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSummary{id=" + id + ", email='" + email + "', firstName='" + firstName + "', lastName='" + lastName
+                + "', active=" + active + ", blacklist=" + blacklist + ", roleId=" + roleId + "}";
+    }
+}
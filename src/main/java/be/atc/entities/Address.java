@@ -11,10 +11,12 @@ import java.util.Set;
 @Entity
 @Table(name = "addresses")
 @NamedQueries({
-        @NamedQuery(name = "Address.findAll", query = "SELECT a FROM Address a"),
+        @NamedQuery(name = "Address.findAllSummaries", query = "SELECT NEW be.atc.dto.AddressSummary(a.id, a.streetName, " +
+                "a.number, a.boxNumber, l.id) FROM Address a LEFT JOIN a.fkLocality l ORDER BY a.id"),
         @NamedQuery(name = "Address.findById", query = "SELECT a FROM Address a WHERE a.id = :id"),
         @NamedQuery(name = "Address.findByStreetName", query = "SELECT a FROM Address a WHERE a.streetName = :streetName"),
-        @NamedQuery(name = "Address.findByLocalityId", query = "SELECT a FROM Address a WHERE a.fkLocality.id = :localityId")
+        @NamedQuery(name = "Address.findByLocalityId", query = "SELECT a FROM Address a WHERE a.fkLocality.id = :localityId"),
+        @NamedQuery(name = "Address.findAfterId", query = "SELECT a FROM Address a WHERE a.id > :afterId ORDER BY a.id")
 })
 public class Address {
 
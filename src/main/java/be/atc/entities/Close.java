@@ -5,15 +5,24 @@ import java.time.Instant;
 
 @Entity
 @Table(name = "closes")
+@NamedQueries({
+        @NamedQuery(name = "Close.findPeriodsEndingAfter", query = "SELECT NEW be.atc.dto.ClosePeriod(c.id, c.fkSportField.id, c.beginDate, c.endDate) " +
+                "FROM Close c WHERE c.endDate > :from ORDER BY c.fkSportField.id, c.beginDate")
+})
 public class Close {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "close_id", nullable = false)
     private int id;
 
+    @Convert(converter = InstantConverter.class)
     @Column(name = "begin_date", nullable = false)
     private Instant beginDate;
 
+    /**
+     * Fin de la fermeture (exclue).
+     */
+    @Convert(converter = InstantConverter.class)
     @Column(name = "end_date", nullable = false)
     private Instant endDate;
 
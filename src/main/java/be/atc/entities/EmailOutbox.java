@@ -0,0 +1,216 @@
+package be.atc.entities;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Représente un e-mail en attente d'envoi (boîte d'envoi transactionnelle).
+ * Cette entité est mappée à la table "email_outbox" de la base de données.
+ * <p>
+ * Un e-mail est enregistré dans la même transaction que l'opération qui le
+ * déclenche (par exemple l'inscription d'un utilisateur), puis envoyé en
+ * arrière-plan par {@code EmailOutboxDispatcher}. Il n'est donc jamais perdu si
+ * le serveur SMTP est lent ou indisponible, et jamais envoyé si la transaction
+ * est annulée.
+ * </p>
+ */
+@Entity
+@Table(name = "email_outbox", indexes = @Index(name = "idx_email_outbox_due", columnList = "status, next_attempt_at"))
+@NamedQueries({
+        @NamedQuery(name = "EmailOutbox.findDue", query = "SELECT e FROM EmailOutbox e WHERE e.status IN :statuses " +
+                "AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt, e.id"),
+        @NamedQuery(name = "EmailOutbox.claim", query = "UPDATE EmailOutbox e SET e.status = :sending, e.attempts = :claimedAttempts, " +
+                "e.nextAttemptAt = :leaseUntil WHERE e.id = :id AND e.status = :status AND e.attempts = :attempts"),
+        @NamedQuery(name = "EmailOutbox.markSent", query = "UPDATE EmailOutbox e SET e.status = :status, e.attempts = :attempts, " +
+                "e.sentAt = :sentAt, e.lastError = NULL WHERE e.id = :id"),
+        @NamedQuery(name = "EmailOutbox.markAttemptFailed", query = "UPDATE EmailOutbox e SET e.status = :status, e.attempts = :attempts, " +
+                "e.nextAttemptAt = :nextAttemptAt, e.lastError = :lastError WHERE e.id = :id"),
+        @NamedQuery(name = "EmailOutbox.countByStatus", query = "SELECT COUNT(e) FROM EmailOutbox e WHERE e.status = :status")
+})
+public class EmailOutbox {
+
+    /**
+     * États possibles d'un e-mail de la boîte d'envoi.
+     */
+    public enum Status {
+        /** En attente d'envoi ou de nouvelle tentative. */
+        PENDING,
+        /** Réservé par un répartiteur, envoi en cours ; repris après {@code nextAttemptAt} si l'envoi ne s'est jamais terminé. */
+        SENDING,
+        /** Envoyé avec succès. */
+        SENT,
+        /** Abandonné après le nombre maximum de tentatives. */
+        FAILED
+    }
+
+    /**
+     * Identifiant unique de l'e-mail.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "email_outbox_id", nullable = false)
+    private int id;
+
+    /**
+     * Adresse e-mail du destinataire.
+     */
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    /**
+     * Sujet de l'e-mail.
+     */
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    /**
+     * Contenu de l'e-mail.
+     */
+    @Lob
+    @Column(name = "body", nullable = false)
+    private String body;
+
+    /**
+     * État de l'e-mail.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    private Status status = Status.PENDING;
+
+    /**
+     * Nombre de tentatives d'envoi effectuées.
+     */
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    /**
+     * Date à partir de laquelle la prochaine tentative peut avoir lieu.
+     */
+    @Convert(converter = InstantConverter.class)
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    /**
+     * Date d'enregistrement de l'e-mail.
+     */
+    @Convert(converter = InstantConverter.class)
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Date d'envoi effectif de l'e-mail.
+     */
+    @Convert(converter = InstantConverter.class)
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    /**
+     * Message de la dernière erreur d'envoi.
+     */
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /**
+     * Constructeur par défaut requis par JPA.
+     */
+    public EmailOutbox() {
+    }
+
+    /**
+     * Crée un e-mail à envoyer dès que possible.
+     *
+     * @param recipient L'adresse e-mail du destinataire.
+     * @param subject   Le sujet de l'e-mail.
+     * @param body      Le contenu de l'e-mail.
+     */
+    public EmailOutbox(String recipient, String subject, String body) {
+        Instant now = Instant.now();
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.createdAt = now;
+        this.nextAttemptAt = now;
+    }
+
+    // Getters et Setters
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(Instant nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getSentAt() {
+        return sentAt;
+    }
+
+    public void setSentAt(Instant sentAt) {
+        this.sentAt = sentAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+}
@@ -0,0 +1,27 @@
+package be.atc.entities;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Convertit un {@link Instant} en colonne {@code TIMESTAMP}.
+ * <p>
+ * EclipseLink 2.7 ne connaît pas {@link Instant} et le sérialise sinon en BLOB,
+ * ce qui empêche toute comparaison ou indexation de la colonne en SQL.
+ * </p>
+ */
+@Converter
+public class InstantConverter implements AttributeConverter<Instant, Timestamp> {
+
+    @Override
+    public Timestamp convertToDatabaseColumn(Instant instant) {
+        return instant == null ? null : Timestamp.from(instant);
+    }
+
+    @Override
+    public Instant convertToEntityAttribute(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toInstant();
+    }
+}
@@ -11,12 +11,16 @@ import java.util.Set;
 @Entity
 @Table(name = "localities")
 @NamedQueries({
-        @NamedQuery(name = "Locality.findAll", query = "SELECT l FROM Locality l"),
+        @NamedQuery(name = "Locality.findAllSummaries", query = "SELECT NEW be.atc.dto.LocalitySummary(l.id, l.postalCode, " +
+                "l.town, l.subTown, l.maintown, l.province, c.id) FROM Locality l JOIN l.fkCountry c"),
+        @NamedQuery(name = "Locality.findSummaryById", query = "SELECT NEW be.atc.dto.LocalitySummary(l.id, l.postalCode, " +
+                "l.town, l.subTown, l.maintown, l.province, c.id) FROM Locality l JOIN l.fkCountry c WHERE l.id = :id"),
         @NamedQuery(name = "Locality.findById", query = "SELECT l FROM Locality l WHERE l.id = :id"),
         @NamedQuery(name = "Locality.findByPostalCode", query = "SELECT l FROM Locality l WHERE l.postalCode = :postalCode"),
         @NamedQuery(name = "Locality.findByTown", query = "SELECT l FROM Locality l WHERE l.town = :town"),
         @NamedQuery(name = "Locality.findByProvince", query = "SELECT l FROM Locality l WHERE l.province = :province"),
-        @NamedQuery(name = "Locality.findByCountry", query = "SELECT l FROM Locality l WHERE l.fkCountry.id = :countryId")
+        @NamedQuery(name = "Locality.findByCountry", query = "SELECT l FROM Locality l WHERE l.fkCountry.id = :countryId"),
+        @NamedQuery(name = "Locality.findAfterId", query = "SELECT l FROM Locality l WHERE l.id > :afterId ORDER BY l.id")
 })
 public class Locality {
 
@@ -5,8 +5,24 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", uniqueConstraints = {
+        // Un créneau d'un terrain ne peut être réservé qu'une fois par jour (date normalisée au début de la journée)
+        @UniqueConstraint(name = Reservation.SLOT_CONSTRAINT, columnNames = {"fk_sport_field_id", "date", "fk_time_slot_id"})
+})
+@NamedQueries({
+        @NamedQuery(name = "Reservation.findReservedSlots", query = "SELECT NEW be.atc.dto.ReservedSlot(r.fkSportField.id, r.fkTimeSlot.id) " +
+                "FROM Reservation r WHERE r.fkSportField.id IN :sportFieldIds AND r.date >= :start AND r.date < :end"),
+        @NamedQuery(name = "Reservation.countBySlot", query = "SELECT COUNT(r) FROM Reservation r WHERE r.fkSportField.id = :sportFieldId " +
+                "AND r.fkTimeSlot.id = :timeSlotId AND r.date >= :start AND r.date < :end"),
+        @NamedQuery(name = "Reservation.findScheduleByHall", query = "SELECT NEW be.atc.dto.ScheduledReservation(r.fkSportField.id, r.fkTimeSlot.id, r.date) " +
+                "FROM Reservation r WHERE r.fkSportField.fkField.fkHall.id = :hallId AND r.date >= :start AND r.date < :end")
+})
 public class Reservation {
+    /**
+     * Nom de la contrainte unique (terrain, jour, créneau), reconnu dans les erreurs de la base.
+     */
+    public static final String SLOT_CONSTRAINT = "uk_reservations_slot";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "reservation_id", nullable = false)
@@ -22,6 +38,10 @@ public class Reservation {
     @Column(name = "statut_payement")
     private String statutPayement;
 
+    /**
+     * Jour réservé : début de la journée dans le fuseau du centre (voir {@link be.atc.cache.SlotAvailabilityCache#CENTRE_ZONE}).
+     */
+    @Convert(converter = InstantConverter.class)
     @Column(name = "date", nullable = false)
     private Instant date;
 
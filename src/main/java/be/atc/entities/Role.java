@@ -1,5 +1,8 @@
 package be.atc.entities;
 
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
+
 import javax.persistence.*;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -13,7 +16,11 @@ import java.util.Set;
 @NamedQueries({
         @NamedQuery(name = "Role.findById", query = "SELECT r FROM Role r WHERE r.id = :id"),
         @NamedQuery(name = "Role.findByName", query = "SELECT r FROM Role r WHERE r.roleName = :roleName"),
-        @NamedQuery(name = "Role.findAll", query = "SELECT r FROM Role r") // NamedQuery pour findAll
+        // NamedQuery pour findAll, servie par le cache de requêtes en instances partagées non modifiables
+        @NamedQuery(name = "Role.findAll", query = "SELECT r FROM Role r", hints = {
+                @QueryHint(name = QueryHints.QUERY_RESULTS_CACHE, value = HintValues.TRUE),
+                @QueryHint(name = QueryHints.READ_ONLY, value = HintValues.TRUE)}),
+        @NamedQuery(name = "Role.findAfterId", query = "SELECT r FROM Role r WHERE r.id > :afterId ORDER BY r.id")
 })
 public class Role {
 
@@ -6,6 +6,14 @@ import java.util.Set;
 
 @Entity
 @Table(name = "sport_field")
+@NamedQueries({
+        @NamedQuery(name = "SportField.findBookable", query = "SELECT NEW be.atc.dto.BookableSportField(sf.id, sf.fkSport.id) " +
+                "FROM SportField sf WHERE sf.fkSport.active = true AND sf.fkField.active = true AND sf.fkField.fkHall.active = true " +
+                "ORDER BY sf.id"),
+        @NamedQuery(name = "SportField.findScheduleByHall", query = "SELECT NEW be.atc.dto.ScheduleSportField(sf.id, f.id, f.labelField, s.sportLabel, h.labelHall) " +
+                "FROM SportField sf JOIN sf.fkField f JOIN f.fkHall h JOIN sf.fkSport s " +
+                "WHERE h.id = :hallId AND h.active = true AND f.active = true AND s.active = true ORDER BY f.id, sf.id")
+})
 public class SportField {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
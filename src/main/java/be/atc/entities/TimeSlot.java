@@ -1,11 +1,20 @@
 package be.atc.entities;
 
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
+
 import javax.persistence.*;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
 @Entity
 @Table(name = "time_slots")
+@NamedQueries({
+        // Résultat servi par le cache de requêtes, en instances partagées non modifiables
+        @NamedQuery(name = "TimeSlot.findAll", query = "SELECT t FROM TimeSlot t ORDER BY t.id", hints = {
+                @QueryHint(name = QueryHints.QUERY_RESULTS_CACHE, value = HintValues.TRUE),
+                @QueryHint(name = QueryHints.READ_ONLY, value = HintValues.TRUE)})
+})
 public class TimeSlot {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
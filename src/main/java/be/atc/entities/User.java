@@ -13,10 +13,46 @@ import java.util.Set;
 @Table(name = "users")
 @NamedQueries({
         @NamedQuery(name = "User.findByEmail", query = "select u from User u where u.email = :email"),
-        @NamedQuery(name = "User.findAll", query = "select u from User u"),
+        @NamedQuery(name = "User.findAllSummaries", query = "SELECT NEW be.atc.dto.UserSummary(u.id, u.email, u.firstName, " +
+                "u.lastName, u.active, u.blacklist, r.id) FROM User u LEFT JOIN u.fkRole r ORDER BY u.id"),
         @NamedQuery(name = "User.existsByEmail", query = "select count(u) from User u where u.email = :email"),
         @NamedQuery(name = "User.deleteByEmail", query = "delete from User u where u.email = :email"),
-        @NamedQuery(name = "User.findById", query = "SELECT u FROM User u WHERE u.id = :id")
+        @NamedQuery(name = "User.findById", query = "SELECT u FROM User u WHERE u.id = :id"),
+        @NamedQuery(name = "User.findLoginCredentials", query = "SELECT NEW be.atc.dto.LoginCredentials(u.id, u.email, u.password, " +
+                "u.active, u.blacklist, r.id, r.roleName) FROM User u LEFT JOIN u.fkRole r WHERE u.email = :email"),
+        @NamedQuery(name = "User.search", query = "SELECT u FROM User u WHERE u.firstName LIKE :prefix ESCAPE '!' " +
+                "OR u.lastName LIKE :prefix ESCAPE '!' OR u.email LIKE :prefix ESCAPE '!' ORDER BY u.id"),
+        @NamedQuery(name = "User.countSearch", query = "SELECT COUNT(u) FROM User u WHERE u.firstName LIKE :prefix ESCAPE '!' " +
+                "OR u.lastName LIKE :prefix ESCAPE '!' OR u.email LIKE :prefix ESCAPE '!'"),
+        @NamedQuery(name = "User.findPage", query = "SELECT u FROM User u ORDER BY u.id"),
+        @NamedQuery(name = "User.count", query = "SELECT COUNT(u) FROM User u"),
+        @NamedQuery(name = "User.findAfterId", query = "SELECT u FROM User u WHERE u.id > :afterId ORDER BY u.id"),
+        @NamedQuery(name = "User.findAdminStatesByIds", query = "SELECT NEW be.atc.dto.UserAdminState(u.id, r.id, u.active, u.blacklist) " +
+                "FROM User u LEFT JOIN u.fkRole r WHERE u.id IN :ids"),
+        @NamedQuery(name = "User.updateAdminFields", query = "UPDATE User u SET u.fkRole = :role, u.active = :active, u.blacklist = :blacklist " +
+                "WHERE u.id IN :ids"),
+        @NamedQuery(name = "User.updatePassword", query = "UPDATE User u SET u.password = :password WHERE u.id = :id")
+})
+// Graphes chargés par écran (voir be.atc.dao.UserFetchPlan)
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = "adminList", attributeNodes = {
+                @NamedAttributeNode("email"), @NamedAttributeNode("firstName"), @NamedAttributeNode("lastName"),
+                @NamedAttributeNode("active"), @NamedAttributeNode("blacklist"), @NamedAttributeNode("fkRole")}),
+        @NamedEntityGraph(name = "profileFull", attributeNodes = {
+                @NamedAttributeNode("email"), @NamedAttributeNode("firstName"), @NamedAttributeNode("lastName"),
+                @NamedAttributeNode("birthdate"), @NamedAttributeNode("gender"), @NamedAttributeNode("phone"),
+                @NamedAttributeNode("active"), @NamedAttributeNode("blacklist"), @NamedAttributeNode("fkRole"),
+                @NamedAttributeNode(value = "fkAddresse", subgraph = "address")},
+                subgraphs = {
+                        @NamedSubgraph(name = "address", attributeNodes = {
+                                @NamedAttributeNode("streetName"), @NamedAttributeNode("number"), @NamedAttributeNode("boxNumber"),
+                                @NamedAttributeNode(value = "fkLocality", subgraph = "locality")}),
+                        @NamedSubgraph(name = "locality", attributeNodes = {
+                                @NamedAttributeNode("postalCode"), @NamedAttributeNode("town"), @NamedAttributeNode("subTown"),
+                                @NamedAttributeNode("maintown"), @NamedAttributeNode("province"), @NamedAttributeNode("fkCountry")})}),
+        @NamedEntityGraph(name = "loginPrincipal", attributeNodes = {
+                @NamedAttributeNode("email"), @NamedAttributeNode("firstName"), @NamedAttributeNode("lastName"),
+                @NamedAttributeNode("active"), @NamedAttributeNode("blacklist"), @NamedAttributeNode("fkRole")})
 })
 public class User {
 
@@ -35,8 +71,11 @@ public class User {
     private String email;
 
     /**
-     * Mot de passe de l'utilisateur.
+     * Mot de passe de l'utilisateur (hash BCrypt).
+     * Hors du groupe de chargement par défaut : il n'est lu qu'au premier accès,
+     * l'authentification passant par {@code User.findLoginCredentials}.
      */
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "password", nullable = false)
     private String password;
 
@@ -5,15 +5,25 @@ import java.time.Instant;
 
 @Entity
 @Table(name = "users_subscriptions")
+@NamedQueries({
+        @NamedQuery(name = "UsersSubscription.findValiditiesEndingAfter", query = "SELECT NEW be.atc.dto.SubscriptionValidity(us.id, us.fkUser.id, " +
+                "us.fkSubscription.fkSport.id, us.beginDateSubscription, us.endDateSubscription) " +
+                "FROM UsersSubscription us WHERE us.endDateSubscription > :from ORDER BY us.fkUser.id, us.beginDateSubscription")
+})
 public class UsersSubscription {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "user_subscription_id", nullable = false)
     private int id;
 
+    @Convert(converter = InstantConverter.class)
     @Column(name = "begin_date_subscription", nullable = false)
     private Instant beginDateSubscription;
 
+    /**
+     * Fin de validité de l'abonnement (exclue).
+     */
+    @Convert(converter = InstantConverter.class)
     @Column(name = "end_date_subscription", nullable = false)
     private Instant endDateSubscription;
 
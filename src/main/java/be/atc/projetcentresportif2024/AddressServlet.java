@@ -1,7 +1,8 @@
 package be.atc.projetcentresportif2024;
 
+import be.atc.dao.UserFetchPlan;
+import be.atc.dto.LocalitySummary;
 import be.atc.entities.Address;
-import be.atc.entities.Locality;
 import be.atc.entities.User;
 import be.atc.services.UserService;
 import be.atc.services.AddressService;
@@ -9,6 +10,8 @@ import be.atc.services.LocalityService;
 import be.atc.services.impl.AddressServiceImpl;
 import be.atc.services.impl.LocalityServiceImpl;
 import be.atc.services.impl.UserServiceImpl;
+import be.atc.util.JpaUtil;
+import be.atc.util.JsonUtil;
 import org.apache.log4j.Logger;
 
 import javax.servlet.ServletException;
@@ -31,10 +34,16 @@ public class AddressServlet extends HttpServlet {
     private static final Logger logger = Logger.getLogger(AddressServlet.class);
 
     // Constantes pour les attributs de session et de requête
-    private static final String CURRENT_EDIT_USER = "currentEditUser";
+    private static final String CURRENT_EDIT_USER = ProfileServlet.CURRENT_EDIT_USER;
+    private static final String CURRENT_EDIT_USER_ID = ProfileServlet.CURRENT_EDIT_USER_ID;
     private static final String ERROR_MESSAGE = "errorMessage";
     private static final String SUCCESS_MESSAGE = "successMessage";
 
+    // Autocomplétion des localités
+    private static final String PARAM_LOCALITY_QUERY = "localityQuery";
+    private static final int DEFAULT_SUGGESTIONS = 20;
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final AddressService addressService;
     private final LocalityService localityService;
     private final UserService userService;
@@ -50,7 +59,8 @@ public class AddressServlet extends HttpServlet {
 
     /**
      * Méthode doGet pour gérer les requêtes GET.
-     * Charge les localités ou traite les requêtes AJAX pour récupérer les détails d'une localité spécifique.
+     * Affiche la page de profil ou traite les requêtes AJAX : détails d'une localité
+     * ({@code localityId}) ou autocomplétion des localités ({@code localityQuery}).
      *
      * @param request  L'objet HttpServletRequest contenant la requête du client.
      * @param response L'objet HttpServletResponse contenant la réponse envoyée au client.
@@ -62,14 +72,14 @@ public class AddressServlet extends HttpServlet {
         setRequestEncoding(request, response); // UFT-8
         logger.info("Entrée dans doGet de AddressServlet");
 
-        HttpSession session = validateSession(request, response);
-        if (session == null) return;
-
         String localityIdStr = request.getParameter("localityId");
+        String localityQuery = request.getParameter(PARAM_LOCALITY_QUERY);
         if (localityIdStr != null) {
             handleAjaxRequest(localityIdStr, response);
+        } else if (localityQuery != null) {
+            handleAutocompleteRequest(localityQuery, request.getParameter("limit"), response);
         } else {
-            loadLocalitiesAndForward(request, response);
+            forwardToProfile(request, response);
         }
     }
 
@@ -83,10 +93,10 @@ public class AddressServlet extends HttpServlet {
     private void handleAjaxRequest(String localityIdStr, HttpServletResponse response) throws IOException {
         try {
             int localityId = Integer.parseInt(localityIdStr);
-            Optional<Locality> localityOpt = localityService.findById(localityId);
+            Optional<LocalitySummary> localityOpt = localityService.findById(localityId);
 
             if (localityOpt.isPresent()) {
-                Locality locality = localityOpt.get();
+                LocalitySummary locality = localityOpt.get();
                 String jsonResponse = createJsonResponse(locality);
 
                 response.setContentType("application/json");
@@ -102,46 +112,118 @@ public class AddressServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Gère les requêtes AJAX d'autocomplétion des localités.
+     * <p>
+     * Les localités sont recherchées par préfixe (code postal ou ville) dans le cache
+     * des localités ; seules les {@code limit} premières sont renvoyées, au format
+     * attendu par Select2 : {@code {"results": [{"id": 1, "text": "..."}]}}.
+     * </p>
+     *
+     * @param query    La saisie de l'utilisateur.
+     * @param limitStr Le nombre maximum de suggestions demandé (optionnel).
+     * @param response L'objet HttpServletResponse contenant la réponse envoyée au client.
+     * @throws IOException Si une erreur d'entrée/sortie survient.
+     */
+    private void handleAutocompleteRequest(String query, String limitStr, HttpServletResponse response) throws IOException {
+        int limit = parseLimit(limitStr);
+        List<LocalitySummary> localities = localityService.searchByPrefix(query, limit);
+
+        StringBuilder json = new StringBuilder("{\"results\": [");
+        for (int i = 0; i < localities.size(); i++) {
+            LocalitySummary locality = localities.get(i);
+            if (i > 0) {
+                json.append(", ");
+            }
+            json.append(String.format("{\"id\": %d, \"text\": \"%s\"}", locality.getId(), JsonUtil.escape(formatLocality(locality))));
+        }
+        json.append("]}");
+
+        response.setContentType("application/json");
+        response.getWriter().write(json.toString());
+        logger.debug("Autocomplétion des localités pour '" + query + "' : " + localities.size() + " résultat(s)");
+    }
+
+    /**
+     * Convertit le paramètre "limit" en nombre de suggestions, borné à {@link #MAX_SUGGESTIONS}.
+     *
+     * @param limitStr Le paramètre "limit".
+     * @return Le nombre de suggestions à renvoyer.
+     */
+    private int parseLimit(String limitStr) {
+        if (limitStr == null || limitStr.trim().isEmpty()) {
+            return DEFAULT_SUGGESTIONS;
+        }
+        try {
+            return Math.max(1, Math.min(Integer.parseInt(limitStr.trim()), MAX_SUGGESTIONS));
+        } catch (NumberFormatException e) {
+            logger.warn("Paramètre limit invalide : " + limitStr);
+            return DEFAULT_SUGGESTIONS;
+        }
+    }
+
+    /**
+     * Formate une localité pour l'affichage dans la liste de sélection.
+     *
+     * @param locality La localité à formater.
+     * @return Le libellé "code postal - ville (province)".
+     */
+    private String formatLocality(LocalitySummary locality) {
+        return locality.getPostalCode() + " - " + locality.getTown() + " (" + locality.getProvince() + ")";
+    }
+
     /**
      * Crée une réponse JSON contenant les détails d'une localité.
      *
-     * @param locality L'objet Locality à convertir en JSON.
+     * @param locality La localité à convertir en JSON.
      * @return La chaîne JSON représentant la localité.
      */
-    private String createJsonResponse(Locality locality) {
+    private String createJsonResponse(LocalitySummary locality) {
         return String.format(
                 "{\"postalCode\": \"%s\", \"town\": \"%s\", \"province\": \"%s\", \"maintown\": \"%s\"}",
-                locality.getPostalCode(),
-                locality.getTown(),
-                locality.getProvince(),
-                locality.getMaintown()
+                JsonUtil.escape(locality.getPostalCode()),
+                JsonUtil.escape(locality.getTown()),
+                JsonUtil.escape(locality.getProvince()),
+                JsonUtil.escape(locality.getMaintown())
         );
     }
 
     /**
-     * Charge la liste des localités et redirige vers la page de profil.
+     * Redirige vers la page de profil. La liste des localités n'est plus incluse dans
+     * la page : elle est proposée par autocomplétion ({@code localityQuery}).
+     * L'utilisateur en cours d'édition est rechargé par son ID et transmis à la page
+     * comme attribut de requête.
      *
      * @param request  L'objet HttpServletRequest contenant la requête du client.
      * @param response L'objet HttpServletResponse contenant la réponse envoyée au client.
      * @throws ServletException Si une erreur survient lors du traitement de la requête.
      * @throws IOException      Si une erreur d'entrée/sortie survient.
      */
-    private void loadLocalitiesAndForward(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        HttpSession session = validateSession(request, response);
-        if (session == null) return;
-
-        List<Locality> localities = localityService.findAll();
-        request.setAttribute("localities", localities);
-
-        if (localities != null && !localities.isEmpty()) {
-            logger.info("Nombre de localités récupérées : " + localities.size());
-        } else {
-            logger.warn("Aucune localité trouvée ou la liste des localités est vide.");
+    private void forwardToProfile(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        Optional<User> userToEdit = loadUserToEdit(request);
+        if (!userToEdit.isPresent()) {
+            logger.warn("Utilisateur à éditer introuvable, redirection vers la page de connexion");
+            response.sendRedirect(request.getContextPath() + "/main?action=login");
+            return;
         }
-
+        request.setAttribute(CURRENT_EDIT_USER, userToEdit.get());
         request.getRequestDispatcher("/WEB-INF/jsp/profile.jsp").forward(request, response);
     }
 
+    /**
+     * Recharge l'utilisateur en cours d'édition (par défaut, l'utilisateur connecté).
+     *
+     * @param request L'objet HttpServletRequest contenant la requête du client.
+     * @return L'utilisateur à éditer, ou vide s'il n'existe plus.
+     */
+    private Optional<User> loadUserToEdit(HttpServletRequest request) {
+        Integer userId = (Integer) request.getSession().getAttribute(CURRENT_EDIT_USER_ID);
+        if (userId == null) {
+            userId = AuthorizationFilter.currentUser(request).getUserId();
+        }
+        return userService.findById(userId, UserFetchPlan.PROFILE_FULL);
+    }
+
     /**
      * Méthode doPost pour gérer les requêtes POST.
      * Met à jour l'adresse de l'utilisateur.
@@ -156,38 +238,23 @@ public class AddressServlet extends HttpServlet {
         setRequestEncoding(request, response); // UFT-8
         logger.info("Entrée dans doPost de AddressServlet");
 
-        HttpSession session = validateSession(request, response);
-        if (session == null) return;
-
-        User user = (User) session.getAttribute(CURRENT_EDIT_USER);
+        HttpSession session = request.getSession();
+        Optional<User> user = loadUserToEdit(request);
+        if (!user.isPresent()) {
+            logger.warn("Utilisateur à éditer introuvable, redirection vers la page de connexion");
+            response.sendRedirect(request.getContextPath() + "/main?action=login");
+            return;
+        }
 
         try {
-            updateUserAddress(request, user);
-            session.setAttribute(CURRENT_EDIT_USER, user);
+            updateUserAddress(request, user.get());
             session.setAttribute(SUCCESS_MESSAGE, "Adresse mise à jour avec succès.");
         } catch (Exception e) {
             handlePostError(request, response, e);
+            return;
         }
 
-        loadLocalitiesAndForward(request, response);
-    }
-
-    /**
-     * Valide la session utilisateur. Si la session est invalide, redirige vers la page de connexion.
-     *
-     * @param request  L'objet HttpServletRequest contenant la requête du client.
-     * @param response L'objet HttpServletResponse contenant la réponse envoyée au client.
-     * @return La session utilisateur valide, ou null si la session est invalide.
-     * @throws IOException Si une erreur d'entrée/sortie survient.
-     */
-    private HttpSession validateSession(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        HttpSession session = request.getSession(false);
-        if (session == null || session.getAttribute("user") == null) {
-            logger.warn("Aucune session valide, redirection vers la page de connexion");
-            response.sendRedirect(request.getContextPath() + "/main?action=login");
-            return null;
-        }
-        return session;
+        forwardToProfile(request, response);
     }
 
     /**
@@ -206,17 +273,18 @@ public class AddressServlet extends HttpServlet {
         logger.debug("Données reçues : streetName=" + streetName + ", number=" + number + ", boxNumber=" + boxNumber + ", localityId=" + localityIdStr);
 
         int localityId = Integer.parseInt(localityIdStr);
-        Locality locality = localityService.findById(localityId)
-                .orElseThrow(() -> new IllegalArgumentException("INVALID_LOCALITY"));
+        if (!localityService.findById(localityId).isPresent()) {
+            throw new IllegalArgumentException("INVALID_LOCALITY");
+        }
 
         Address address = getAddress(user);
-        updateAddressFields(address, streetName, number, boxNumber, locality);
+        updateAddressFields(address, streetName, number, boxNumber);
 
         if (address.getId() == 0) {
-            addressService.createAddress(address);
+            addressService.createAddress(address, localityId);
             logger.info("Nouvelle adresse créée pour l'utilisateur : " + user.getEmail());
         } else {
-            addressService.updateAddress(address);
+            addressService.updateAddress(address, localityId);
             logger.info("Adresse mise à jour pour l'utilisateur : " + user.getEmail());
         }
 
@@ -246,13 +314,11 @@ public class AddressServlet extends HttpServlet {
      * @param streetName Le nom de la rue.
      * @param number     Le numéro de la rue.
      * @param boxNumber  Le numéro de boîte.
-     * @param locality   La localité associée à l'adresse.
      */
-    private void updateAddressFields(Address address, String streetName, String number, String boxNumber, Locality locality) {
+    private void updateAddressFields(Address address, String streetName, String number, String boxNumber) {
         address.setStreetName(streetName);
         address.setNumber(number);
         address.setBoxNumber(boxNumber);
-        address.setFkLocality(locality);
     }
 
     /**
@@ -264,6 +330,8 @@ public class AddressServlet extends HttpServlet {
      * @throws IOException Si une erreur d'entrée/sortie survient.
      */
     private void handlePostError(HttpServletRequest request, HttpServletResponse response, Exception e) throws IOException {
+        // L'adresse gérée a pu être modifiée avant l'erreur : rien ne doit être enregistré
+        JpaUtil.setRollbackOnly();
         HttpSession session = request.getSession();
         if (e instanceof IllegalArgumentException) {
             logger.error("Erreur lors de la mise à jour de l'adresse : " + e.getMessage());
@@ -1,5 +1,6 @@
 package be.atc.projetcentresportif2024;
 
+import be.atc.dto.UserAdminState;
 import be.atc.entities.User;
 import be.atc.services.UserService;
 import be.atc.services.impl.UserServiceImpl;
@@ -12,24 +13,30 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import java.io.IOException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Servlet pour gérer le panneau d'administration des utilisateurs.
  * Permet de rechercher, modifier, et supprimer des utilisateurs.
+ * L'accès est réservé aux administrateurs (voir {@link AuthorizationFilter}).
  */
 @WebServlet(name = "AdminPanelServlet", value = "/AdminPanelServlet")
 public class AdminPanelServlet extends HttpServlet {
     private static final long serialVersionUID = 1L;
     private static final Logger logger = Logger.getLogger(AdminPanelServlet.class);
 
-    // Constantes pour les rôles et les paramètres de requête
-    private static final int ADMIN_ROLE_ID = 3;
+    // Constantes pour les paramètres de requête
     private static final String ACTION_UPDATE_USERS = "updateUsers";
     private static final String PARAM_SEARCH_QUERY = "searchQuery";
     private static final String PARAM_PAGE = "page";
     private static final String PARAM_ACTION = "action";
     private static final String PARAM_DELETE_USER = "deleteUser";
+    private static final int USERS_PER_PAGE = 10;
+
+    private static final String PARAM_USER_IDS = "userIds";
+    private static final String SUCCESS_MESSAGE = "successMessage";
 
     private final UserService userService;
 
@@ -42,7 +49,7 @@ public class AdminPanelServlet extends HttpServlet {
 
     /**
      * Méthode doGet pour gérer les requêtes GET.
-     * Vérifie si l'utilisateur est un administrateur, applique la pagination et affiche la liste des utilisateurs.
+     * Applique la pagination et affiche la liste des utilisateurs.
      *
      * @param request  L'objet HttpServletRequest contenant la requête du client.
      * @param response L'objet HttpServletResponse contenant la réponse envoyée au client.
@@ -53,58 +60,61 @@ public class AdminPanelServlet extends HttpServlet {
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         logger.info("Entrée dans doGet de AdminPanelServlet");
 
-        HttpSession session = request.getSession(false);
-        if (session == null || !isUserAdmin(session)) {
-            if (session == null || session.getAttribute("user") == null) {
-                logger.warn("Aucune session valide. Redirection vers la page de connexion.");
-                response.sendRedirect(request.getContextPath() + "/main?action=login");
-            } else {
-                logger.warn("Utilisateur non autorisé. Redirection vers la page d'accueil.");
-                response.sendRedirect(request.getContextPath() + "/main?action=home"); // Redirection vers une page appropriée
-            }
-            return;
+        HttpSession session = request.getSession();
+
+        // Transfert du message de succès éventuel de la session vers la requête
+        Object successMessage = session.getAttribute(SUCCESS_MESSAGE);
+        if (successMessage != null) {
+            request.setAttribute(SUCCESS_MESSAGE, successMessage);
+            session.removeAttribute(SUCCESS_MESSAGE);
         }
 
         String searchQuery = request.getParameter(PARAM_SEARCH_QUERY);
-        String pageParam = request.getParameter(PARAM_PAGE);
-        int currentPage = (pageParam != null) ? Integer.parseInt(pageParam) : 1;
-        int usersPerPage = 10;
+        int currentPage = parsePage(request.getParameter(PARAM_PAGE));
 
-        List<User> filteredUsers = userService.filterUsers(userService.findAll(), searchQuery);
-        paginateUsers(request, filteredUsers, currentPage, usersPerPage);
+        paginateUsers(request, searchQuery, currentPage, USERS_PER_PAGE);
 
         request.getRequestDispatcher("/WEB-INF/jsp/adminPanel.jsp").forward(request, response);
     }
 
     /**
-     * Vérifie si l'utilisateur actuel est un administrateur.
+     * Lit le numéro de page demandé, avec la page 1 par défaut.
      *
-     * @param session La session HTTP actuelle.
-     * @return true si l'utilisateur est un administrateur, sinon false.
+     * @param pageParam Le paramètre de page de la requête.
+     * @return Le numéro de page, au minimum 1.
      */
-    private boolean isUserAdmin(HttpSession session) {
-        User user = (User) session.getAttribute("user");
-        return user != null && user.getFkRole().getId() == ADMIN_ROLE_ID;
+    private int parsePage(String pageParam) {
+        if (pageParam == null) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Integer.parseInt(pageParam));
+        } catch (NumberFormatException e) {
+            logger.warn("Numéro de page invalide : " + pageParam);
+            return 1;
+        }
     }
 
     /**
-     * Applique la pagination sur la liste des utilisateurs filtrés.
+     * Charge la page d'utilisateurs demandée. Le filtrage, le comptage et la pagination
+     * sont effectués par la base de données : seule la page affichée est chargée.
      *
      * @param request      L'objet HttpServletRequest contenant la requête du client.
-     * @param filteredUsers La liste des utilisateurs filtrés.
+     * @param searchQuery  La requête de recherche.
      * @param currentPage  La page actuelle.
      * @param usersPerPage Le nombre d'utilisateurs par page.
      */
-    private void paginateUsers(HttpServletRequest request, List<User> filteredUsers, int currentPage, int usersPerPage) {
-        int totalUsers = filteredUsers.size();
+    private void paginateUsers(HttpServletRequest request, String searchQuery, int currentPage, int usersPerPage) {
+        long totalUsers = userService.countUsers(searchQuery);
         int totalPages = (int) Math.ceil((double) totalUsers / usersPerPage);
-        int startIndex = (currentPage - 1) * usersPerPage;
-        int endIndex = Math.min(startIndex + usersPerPage, totalUsers);
+        int page = Math.min(currentPage, Math.max(totalPages, 1));
+
+        List<User> users = userService.searchUsers(searchQuery, page, usersPerPage);
 
-        request.setAttribute("users", filteredUsers.subList(startIndex, endIndex));
+        request.setAttribute("users", users);
         request.setAttribute("totalPages", totalPages);
-        request.setAttribute("currentPage", currentPage);
-        request.setAttribute(PARAM_SEARCH_QUERY, request.getParameter(PARAM_SEARCH_QUERY));
+        request.setAttribute("currentPage", page);
+        request.setAttribute(PARAM_SEARCH_QUERY, searchQuery);
     }
 
     /**
@@ -128,40 +138,66 @@ public class AdminPanelServlet extends HttpServlet {
             handleUserDeletion(request);
         }
 
-        response.sendRedirect(request.getContextPath() + "/AdminPanelServlet");
+        response.sendRedirect(buildReturnUrl(request));
     }
 
     /**
-     * Gère la mise à jour des utilisateurs en fonction des données envoyées dans la requête.
+     * Construit l'URL de retour vers la page et la recherche affichées avant la soumission.
      *
      * @param request L'objet HttpServletRequest contenant la requête du client.
+     * @return L'URL de redirection vers le panneau d'administration.
+     * @throws IOException Si l'encodage de l'URL échoue.
      */
-    private void handleUserUpdates(HttpServletRequest request) {
-        List<User> allUsers = userService.findAll();
-
-        for (User user : allUsers) {
-            updateUserFields(request, user);
-            userService.updateUser(user);
-            logger.info("Utilisateur ID " + user.getId() + " mis à jour.");
+    private String buildReturnUrl(HttpServletRequest request) throws IOException {
+        StringBuilder url = new StringBuilder(request.getContextPath()).append("/AdminPanelServlet?")
+                .append(PARAM_PAGE).append('=').append(parsePage(request.getParameter(PARAM_PAGE)));
+        String searchQuery = request.getParameter(PARAM_SEARCH_QUERY);
+        if (searchQuery != null && !searchQuery.isEmpty()) {
+            url.append('&').append(PARAM_SEARCH_QUERY).append('=').append(URLEncoder.encode(searchQuery, "UTF-8"));
         }
+        return url.toString();
+    }
+
+    /**
+     * Gère la mise à jour des utilisateurs affichés sur la page. Seuls les utilisateurs dont
+     * le rôle, le statut actif ou la liste noire a réellement changé sont mis à jour, en une
+     * seule transaction.
+     *
+     * @param request L'objet HttpServletRequest contenant la requête du client.
+     */
+    private void handleUserUpdates(HttpServletRequest request) {
+        List<UserAdminState> submittedStates = extractSubmittedStates(request);
+        int updatedUsers = userService.updateAdminStates(submittedStates);
+        logger.info(updatedUsers + " utilisateurs mis à jour.");
+        request.getSession().setAttribute(SUCCESS_MESSAGE, updatedUsers + " utilisateur(s) mis à jour.");
     }
 
     /**
-     * Met à jour les champs d'un utilisateur en fonction des paramètres de la requête.
+     * Extrait l'état administrable soumis pour chaque utilisateur affiché sur la page.
      *
      * @param request L'objet HttpServletRequest contenant la requête du client.
-     * @param user    L'utilisateur à mettre à jour.
+     * @return La liste des états soumis.
      */
-    private void updateUserFields(HttpServletRequest request, User user) {
-        String roleParam = request.getParameter("roles_" + user.getId());
-        String activeParam = request.getParameter("active_" + user.getId());
-        String blacklistParam = request.getParameter("blacklist_" + user.getId());
+    private List<UserAdminState> extractSubmittedStates(HttpServletRequest request) {
+        List<UserAdminState> submittedStates = new ArrayList<>();
+        String[] userIds = request.getParameterValues(PARAM_USER_IDS);
+        if (userIds == null) {
+            return submittedStates;
+        }
 
-        if (roleParam != null) {
-            user.getFkRole().setId(Integer.parseInt(roleParam));
+        for (String userIdStr : userIds) {
+            try {
+                int userId = Integer.parseInt(userIdStr);
+                String roleParam = request.getParameter("roles_" + userId);
+                Integer roleId = roleParam != null ? Integer.valueOf(roleParam) : null;
+                boolean active = request.getParameter("active_" + userId) != null;
+                boolean blacklist = request.getParameter("blacklist_" + userId) != null;
+                submittedStates.add(new UserAdminState(userId, roleId, active, blacklist));
+            } catch (NumberFormatException e) {
+                logger.error("Valeur invalide pour l'utilisateur : " + userIdStr, e);
+            }
         }
-        user.setActive(activeParam != null);
-        user.setBlacklist(blacklistParam != null);
+        return submittedStates;
     }
 
     /**
@@ -0,0 +1,81 @@
+package be.atc.projetcentresportif2024;
+
+import be.atc.cache.ClosureIndex;
+import be.atc.cache.LocalityCache;
+import be.atc.cache.RoleCache;
+import be.atc.cache.SlotAvailabilityCache;
+import be.atc.cache.SubscriptionIndex;
+import be.atc.util.EmailOutboxDispatcher;
+import be.atc.util.EmailUtil;
+import be.atc.util.JpaUtil;
+import be.atc.util.PasswordHasher;
+import org.apache.log4j.Logger;
+
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Écouteur du cycle de vie de l'application.
+ * Précharge les caches de données de référence et démarre l'envoi des e-mails
+ * en arrière-plan au démarrage ; arrête l'envoi et libère l'EntityManagerFactory
+ * et le pool de connexions lors de l'arrêt de l'application.
+ */
+@WebListener
+public class AppContextListener implements ServletContextListener {
+    private static final Logger logger = Logger.getLogger(AppContextListener.class);
+
+    /**
+     * Appelée au démarrage de l'application. Précharge le cache des localités, la table des rôles
+     * et les créneaux réservables (en cas d'échec, ils seront chargés au premier accès) et démarre
+     * la boîte d'envoi.
+     *
+     * @param sce L'événement de contexte de servlet.
+     */
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        logger.info("Démarrage de l'application");
+        try {
+            LocalityCache.getInstance().warmUp();
+        } catch (RuntimeException e) {
+            logger.error("Préchargement du cache des localités impossible", e);
+        }
+        try {
+            RoleCache.getInstance().warmUp();
+        } catch (RuntimeException e) {
+            logger.error("Préchargement de la table des rôles impossible", e);
+        }
+        try {
+            ClosureIndex.getInstance().warmUp();
+        } catch (RuntimeException e) {
+            logger.error("Préchargement de l'index des fermetures impossible", e);
+        }
+        try {
+            SlotAvailabilityCache.getInstance().warmUp();
+        } catch (RuntimeException e) {
+            logger.error("Préchargement de l'index des créneaux impossible", e);
+        }
+        try {
+            SubscriptionIndex.getInstance().warmUp();
+        } catch (RuntimeException e) {
+            logger.error("Préchargement de l'index des abonnements impossible", e);
+        }
+        EmailOutboxDispatcher.getInstance().start();
+    }
+
+    /**
+     * Appelée à l'arrêt de l'application. Arrête l'envoi des e-mails, ferme les
+     * connexions SMTP et le pool de hachage, puis ferme
+     * l'EntityManagerFactory et le pool de connexions.
+     *
+     * @param sce L'événement de contexte de servlet.
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        logger.info("Arrêt de l'application, fermeture de l'EntityManagerFactory");
+        EmailOutboxDispatcher.getInstance().stop();
+        EmailUtil.shutdown();
+        PasswordHasher.getInstance().shutdown();
+        JpaUtil.closeEntityManagerFactory();
+    }
+}
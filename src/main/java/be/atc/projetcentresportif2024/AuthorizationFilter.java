@@ -0,0 +1,166 @@
+package be.atc.projetcentresportif2024;
+
+import be.atc.cache.RoleCache;
+import be.atc.dto.UserPrincipal;
+import org.apache.log4j.Logger;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Filtre qui contrôle l'accès aux pages réservées aux utilisateurs connectés.
+ * <p>
+ * Chaque page protégée exige une session contenant un {@link UserPrincipal} et,
+ * pour certaines, un rôle précis. Le rôle est vérifié dans la table des rôles en
+ * mémoire ({@link RoleCache}) : aucune requête SQL n'est faite, et un rôle supprimé
+ * n'accorde plus aucun droit. L'utilisateur autorisé est transmis aux servlets par
+ * l'attribut de requête {@link #CURRENT_USER}.
+ * </p>
+ * <p>
+ * Un visiteur non connecté est redirigé vers la page de connexion, un utilisateur
+ * sans le rôle requis vers la page d'accueil. Les points d'accès JSON répondent
+ * par le code HTTP 403 dans les deux cas.
+ * </p>
+ */
+@WebFilter(filterName = "AuthorizationFilter", urlPatterns = {
+        "/AddressServlet", "/AdminPanelServlet", "/DashboardServlet", "/MetricsServlet", "/ProfileServlet", "/ScheduleServlet"})
+public class AuthorizationFilter implements Filter {
+    private static final Logger logger = Logger.getLogger(AuthorizationFilter.class);
+
+    /**
+     * ID du rôle administrateur.
+     */
+    public static final int ADMIN_ROLE_ID = 3;
+
+    /**
+     * Attribut de requête contenant l'utilisateur connecté et autorisé.
+     */
+    public static final String CURRENT_USER = "currentUser";
+
+    /**
+     * Règles d'accès par chemin de servlet. Un chemin protégé absent de la table
+     * n'exige qu'un utilisateur connecté.
+     */
+    private static final Map<String, AccessRule> RULES;
+
+    static {
+        Map<String, AccessRule> rules = new HashMap<>();
+        rules.put("/AdminPanelServlet", new AccessRule(ADMIN_ROLE_ID, false));
+        rules.put("/MetricsServlet", new AccessRule(ADMIN_ROLE_ID, true));
+        rules.put("/ScheduleServlet", new AccessRule(null, true));
+        RULES = Collections.unmodifiableMap(rules);
+    }
+
+    private static final AccessRule AUTHENTICATED = new AccessRule(null, false);
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        logger.info("Initialisation de AuthorizationFilter");
+    }
+
+    /**
+     * Vérifie que l'utilisateur est connecté et possède le rôle exigé par la page demandée.
+     *
+     * @param request  La requête du client.
+     * @param response La réponse envoyée au client.
+     * @param chain    La chaîne de filtres.
+     * @throws IOException      Si une erreur d'entrée/sortie survient.
+     * @throws ServletException Si une erreur survient lors du traitement de la requête.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        AccessRule rule = RULES.getOrDefault(httpRequest.getServletPath(), AUTHENTICATED);
+
+        HttpSession session = httpRequest.getSession(false);
+        UserPrincipal user = session == null ? null : (UserPrincipal) session.getAttribute("user");
+        if (user == null) {
+            logger.warn("Aucune session valide pour " + httpRequest.getServletPath() + ", accès refusé");
+            deny(httpRequest, httpResponse, rule, "/main?action=login");
+            return;
+        }
+        if (rule.requiredRoleId != null && !hasRole(user, rule.requiredRoleId)) {
+            logger.warn("Utilisateur " + user.getUserId() + " non autorisé pour " + httpRequest.getServletPath());
+            deny(httpRequest, httpResponse, rule, "/main?action=home");
+            return;
+        }
+
+        request.setAttribute(CURRENT_USER, user);
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * Indique si l'utilisateur possède le rôle donné, ce rôle existant toujours dans la table des rôles.
+     *
+     * @param user   L'utilisateur connecté.
+     * @param roleId L'ID du rôle attendu.
+     * @return {@code true} si l'utilisateur possède ce rôle.
+     */
+    public static boolean hasRole(UserPrincipal user, int roleId) {
+        return user.hasRole(roleId) && RoleCache.getInstance().exists(roleId);
+    }
+
+    /**
+     * Retourne l'utilisateur connecté, déposé dans la requête par le filtre.
+     *
+     * @param request La requête d'une page protégée.
+     * @return L'utilisateur connecté.
+     */
+    public static UserPrincipal currentUser(HttpServletRequest request) {
+        return (UserPrincipal) request.getAttribute(CURRENT_USER);
+    }
+
+    /**
+     * Refuse l'accès : code 403 pour un point d'accès JSON, redirection sinon.
+     *
+     * @param request  La requête du client.
+     * @param response La réponse envoyée au client.
+     * @param rule     La règle d'accès de la page demandée.
+     * @param target   La page de redirection, relative au contexte.
+     * @throws IOException Si une erreur d'entrée/sortie survient lors de la redirection.
+     */
+    private void deny(HttpServletRequest request, HttpServletResponse response, AccessRule rule, String target) throws IOException {
+        if (rule.api) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN); // SC_FORBIDDEN = Code statut HTTP 403
+        } else {
+            response.sendRedirect(request.getContextPath() + target);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        logger.info("Destruction de AuthorizationFilter");
+    }
+
+    /**
+     * Règle d'accès d'une page : rôle exigé et mode de refus.
+     */
+    private static final class AccessRule {
+        /**
+         * ID du rôle exigé, ou {@code null} si un utilisateur connecté suffit.
+         */
+        private final Integer requiredRoleId;
+        /**
+         * {@code true} pour un point d'accès JSON (refus par code HTTP plutôt que par redirection).
+         */
+        private final boolean api;
+
+        private AccessRule(Integer requiredRoleId, boolean api) {
+            this.requiredRoleId = requiredRoleId;
+            this.api = api;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package be.atc.projetcentresportif2024;
 
-import be.atc.entities.User;
+import be.atc.dto.UserPrincipal;
 import org.apache.log4j.Logger;
 
 import javax.servlet.ServletException;
@@ -8,7 +8,6 @@ import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.servlet.http.HttpSession;
 import java.io.IOException;
 
 /**
@@ -21,8 +20,7 @@ public class DashboardServlet extends HttpServlet {
 
     /**
      * Gère les requêtes GET pour afficher le tableau de bord.
-     * Vérifie si une session est active et si un utilisateur est connecté.
-     * Si l'utilisateur n'est pas connecté, redirige vers la page de connexion.
+     * L'accès est réservé aux utilisateurs connectés (voir {@link AuthorizationFilter}).
      *
      * @param request  L'objet HttpServletRequest contenant la requête du client.
      * @param response L'objet HttpServletResponse contenant la réponse envoyée au client.
@@ -33,20 +31,7 @@ public class DashboardServlet extends HttpServlet {
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         logger.info("Entrée dans doGet de DashboardServlet");
 
-        HttpSession session = request.getSession(false);
-        if (session == null) {
-            logger.warn("Aucune session active trouvée, redirection vers la page de connexion");
-            response.sendRedirect(request.getContextPath() + "/main?action=login");
-            return;
-        }
-
-        User user = (User) session.getAttribute("user");
-        if (user == null) {
-            logger.warn("Aucun utilisateur trouvé dans la session, redirection vers la page de connexion");
-            response.sendRedirect(request.getContextPath() + "/main?action=login");
-            return;
-        }
-
+        UserPrincipal user = AuthorizationFilter.currentUser(request);
         logger.info("Utilisateur trouvé dans la session : " + user.getEmail());
         logger.info("Redirection vers le tableau de bord commun");
 
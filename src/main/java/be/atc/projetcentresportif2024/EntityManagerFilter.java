@@ -0,0 +1,66 @@
+package be.atc.projetcentresportif2024;
+
+import be.atc.util.JpaUtil;
+import org.apache.log4j.Logger;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import java.io.IOException;
+
+/**
+ * Filtre qui délimite une unité de travail JPA par requête HTTP.
+ * <p>
+ * Tous les DAO appelés pendant la requête partagent le même EntityManager et
+ * la même transaction (voir {@link JpaUtil#getEntityManager()}). La transaction
+ * est validée une seule fois à la fin de la requête, ou annulée si le traitement
+ * a échoué ou si un DAO l'a marquée pour annulation. L'EntityManager n'est créé
+ * qu'au premier accès aux données : les ressources statiques n'ouvrent aucune connexion.
+ * </p>
+ */
+@WebFilter(filterName = "EntityManagerFilter", urlPatterns = "/*")
+public class EntityManagerFilter implements Filter {
+    private static final Logger logger = Logger.getLogger(EntityManagerFilter.class);
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        logger.info("Initialisation de EntityManagerFilter");
+    }
+
+    /**
+     * Ouvre la portée de requête, exécute la chaîne de filtres puis valide ou annule la transaction.
+     *
+     * @param request  La requête du client.
+     * @param response La réponse envoyée au client.
+     * @param chain    La chaîne de filtres.
+     * @throws IOException      Si une erreur d'entrée/sortie survient.
+     * @throws ServletException Si une erreur survient lors du traitement de la requête.
+     */
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        JpaUtil.openRequestScope();
+        boolean success = false;
+        try {
+            chain.doFilter(request, response);
+            success = true;
+        } finally {
+            try {
+                JpaUtil.closeRequestScope(success);
+            } catch (RuntimeException e) {
+                logger.error("Erreur lors de la validation de la transaction de la requête", e);
+                if (success) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        logger.info("Destruction de EntityManagerFilter");
+    }
+}
@@ -1,5 +1,7 @@
 package be.atc.projetcentresportif2024;
 
+import be.atc.dto.UserPrincipal;
+import be.atc.entities.Role;
 import be.atc.entities.User;
 import be.atc.services.UserService;
 import be.atc.services.impl.UserServiceImpl;
@@ -70,6 +72,8 @@ public class LoginServlet extends HttpServlet {
             handleLogin(request, response, email, password);
         } catch (IllegalArgumentException e) {
             handleLoginException(request, response, e, email);
+        } catch (IllegalStateException e) {
+            handleServiceBusy(request, response, e, email);
         }
     }
 
@@ -105,7 +109,7 @@ public class LoginServlet extends HttpServlet {
         logger.info("Connexion réussie pour l'utilisateur : " + user.getEmail());
 
         HttpSession session = request.getSession();
-        session.setAttribute("user", user);
+        session.setAttribute("user", UserPrincipal.fromUser(user));
 
         // Logger debug, inspection de la variable session
         logUserDetails(user);
@@ -154,6 +158,28 @@ public class LoginServlet extends HttpServlet {
         forwardToLogin(request, response);
     }
 
+    /**
+     * Gère la saturation du service de hachage des mots de passe : la connexion est
+     * refusée avec le statut 503 plutôt que d'occuper un thread de requête.
+     *
+     * @param request  L'objet HttpServletRequest contenant la requête du client.
+     * @param response L'objet HttpServletResponse contenant la réponse envoyée au client.
+     * @param e        L'exception levée lors de la tentative de connexion.
+     * @param email    L'adresse e-mail de l'utilisateur.
+     * @throws ServletException Si une erreur survient lors du traitement de la requête.
+     * @throws IOException      Si une erreur d'entrée/sortie survient.
+     */
+    private void handleServiceBusy(HttpServletRequest request, HttpServletResponse response, IllegalStateException e, String email) throws ServletException, IOException {
+        if (!"PASSWORD_HASHING_BUSY".equals(e.getMessage())) {
+            throw e;
+        }
+        logger.warn("Connexion refusée, service de hachage saturé : " + email);
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE); // SC_SERVICE_UNAVAILABLE = Code statut HTTP 503
+        response.setHeader("Retry-After", "2");
+        request.setAttribute("loginError", "Le service est momentanément surchargé. Veuillez réessayer dans quelques instants.");
+        forwardToLogin(request, response);
+    }
+
     /**
      * Redirige l'utilisateur vers la page de connexion.
      *
@@ -168,10 +194,15 @@ public class LoginServlet extends HttpServlet {
 
     /**
      * Enregistre les détails de l'utilisateur connecté dans les logs.
+     * Le rôle est chargé avec l'utilisateur lors de l'authentification : aucune requête n'est émise ici.
      *
      * @param user L'utilisateur authentifié.
      */
     private void logUserDetails(User user) {
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
+        Role role = user.getFkRole();
         logger.debug("Détails de l'utilisateur enregistré dans la session : " +
                 "ID=" + user.getId() +
                 ", Email=" + user.getEmail() +
@@ -182,8 +213,8 @@ public class LoginServlet extends HttpServlet {
                 ", Genre=" + user.getGender() +
                 ", Blackliste=" + user.getBlacklist() +
                 ", Actif=" + user.getActive() +
-                ", Role ID=" + user.getFkRole().getId() +
-                ", Role Nom=" + user.getFkRole().getRoleName());
+                ", Role ID=" + (role == null ? null : role.getId()) +
+                ", Role Nom=" + (role == null ? null : role.getRoleName()));
     }
 
     /**
@@ -0,0 +1,56 @@
+package be.atc.projetcentresportif2024;
+
+import be.atc.cache.ClosureIndex;
+import be.atc.cache.LocalityCache;
+import be.atc.cache.LoginCache;
+import be.atc.cache.RoleCache;
+import be.atc.cache.ScheduleGridCache;
+import be.atc.cache.SlotAvailabilityCache;
+import be.atc.cache.SubscriptionIndex;
+import be.atc.util.EmailOutboxDispatcher;
+import be.atc.util.JpaUtil;
+import be.atc.util.PasswordHasher;
+import org.apache.log4j.Logger;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Servlet exposant les métriques techniques de l'application au format JSON.
+ * Réservée aux administrateurs (voir {@link AuthorizationFilter}), elle permet notamment de dimensionner le pool de connexions
+ * et de suivre l'efficacité des caches.
+ */
+@WebServlet(name = "MetricsServlet", value = "/MetricsServlet")
+public class MetricsServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = Logger.getLogger(MetricsServlet.class);
+
+    /**
+     * Gère les requêtes GET et renvoie les métriques courantes.
+     *
+     * @param request  L'objet HttpServletRequest contenant la requête du client.
+     * @param response L'objet HttpServletResponse contenant la réponse envoyée au client.
+     * @throws ServletException Si une erreur survient lors du traitement de la requête.
+     * @throws IOException      Si une erreur d'entrée/sortie survient.
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        logger.debug("Métriques demandées par l'utilisateur " + AuthorizationFilter.currentUser(request).getUserId());
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType("application/json");
+        response.getWriter().write("{\"connectionPool\": " + JpaUtil.getPoolStats().toJson()
+                + ", \"localityCache\": " + LocalityCache.getInstance().getStats().toJson()
+                + ", \"loginCache\": " + LoginCache.getInstance().getStats().toJson()
+                + ", \"roleCache\": " + RoleCache.getInstance().getStats().toJson()
+                + ", \"slotAvailability\": " + SlotAvailabilityCache.getInstance().getStats().toJson()
+                + ", \"closureIndex\": " + ClosureIndex.getInstance().getStats().toJson()
+                + ", \"scheduleGrid\": " + ScheduleGridCache.getInstance().getStats().toJson()
+                + ", \"subscriptionIndex\": " + SubscriptionIndex.getInstance().getStats().toJson()
+                + ", \"emailOutbox\": " + EmailOutboxDispatcher.getInstance().toJson()
+                + ", \"passwordHashing\": " + PasswordHasher.getInstance().toJson() + "}");
+    }
+}
@@ -1,8 +1,11 @@
 package be.atc.projetcentresportif2024;
 
+import be.atc.dao.UserFetchPlan;
+import be.atc.dto.UserPrincipal;
 import be.atc.entities.User;
 import be.atc.services.UserService;
 import be.atc.services.impl.UserServiceImpl;
+import be.atc.util.JpaUtil;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -16,12 +19,24 @@ import java.util.Optional;
 
 /**
  * Servlet responsable de la gestion du profil utilisateur.
- * Permet la visualisation et la mise à jour des informations de l'utilisateur connecté ou d'un utilisateur sélectionné.
+ * Permet la visualisation et la mise à jour des informations de l'utilisateur connecté ou, pour un administrateur,
+ * d'un utilisateur sélectionné. L'accès est réservé aux utilisateurs connectés (voir {@link AuthorizationFilter}).
  */
 @WebServlet(name = "ProfileServlet", value = "/ProfileServlet")
 public class ProfileServlet extends HttpServlet {
     private static final long serialVersionUID = 1L;
     private static final Logger logger = Logger.getLogger(ProfileServlet.class);
+
+    /**
+     * Attribut de session contenant l'ID de l'utilisateur en cours d'édition (l'entité est rechargée à chaque requête).
+     */
+    static final String CURRENT_EDIT_USER_ID = "currentEditUserId";
+
+    /**
+     * Attribut de requête contenant l'utilisateur affiché par la page de profil.
+     */
+    static final String CURRENT_EDIT_USER = "currentEditUser";
+
     private final UserService userService;
 
     /**
@@ -33,7 +48,7 @@ public class ProfileServlet extends HttpServlet {
 
     /**
      * Gère les requêtes GET pour afficher le profil utilisateur.
-     * Vérifie la session, charge l'utilisateur à éditer et redirige vers la page de profil.
+     * Détermine l'utilisateur à éditer et redirige vers la page de profil.
      *
      * @param request  L'objet HttpServletRequest contenant la requête du client.
      * @param response L'objet HttpServletResponse contenant la réponse envoyée au client.
@@ -45,19 +60,17 @@ public class ProfileServlet extends HttpServlet {
         setRequestEncoding(request, response); // UFT-8
         logger.info("Entrée dans doGet de ProfileServlet");
 
-        // Vérification de la session
-        HttpSession session = validateSession(request, response);
-        if (session == null) return;
+        HttpSession session = request.getSession();
 
         // Gérer les messages de la session
         manageSessionMessages(request, session);
 
-        User currentUser = (User) session.getAttribute("user");
-        User userToEdit = getUserToEdit(request, response, session, currentUser);
-        if (userToEdit == null) return;
+        UserPrincipal currentUser = AuthorizationFilter.currentUser(request);
+        Integer userToEditId = getUserToEditId(request, response, session, currentUser);
+        if (userToEditId == null) return;
 
-        // Stocker l'utilisateur à modifier dans la session sous l'attribut 'currentEditUser'
-        session.setAttribute("currentEditUser", userToEdit);
+        // Seul l'ID de l'utilisateur à modifier est conservé en session ; l'entité est rechargée à la demande
+        session.setAttribute(CURRENT_EDIT_USER_ID, userToEditId);
 
         // Redirection vers AddressServlet pour charger les localités et afficher la page de profil
         response.sendRedirect(request.getContextPath() + "/AddressServlet");
@@ -77,18 +90,20 @@ public class ProfileServlet extends HttpServlet {
         setRequestEncoding(request, response);
         logger.info("Entrée dans doPost de ProfileServlet");
 
-        HttpSession session = validateSession(request, response);
-        if (session == null) return;
+        HttpSession session = request.getSession();
+        UserPrincipal currentUser = AuthorizationFilter.currentUser(request);
 
-        User userToEdit = (User) session.getAttribute("currentEditUser");
-        if (userToEdit == null) {
+        Integer userToEditId = (Integer) session.getAttribute(CURRENT_EDIT_USER_ID);
+        Optional<User> userToEditOptional = userToEditId == null ? Optional.empty() : userService.findById(userToEditId, UserFetchPlan.PROFILE_FULL);
+        if (!userToEditOptional.isPresent()) {
             logger.warn("Utilisateur non trouvé pour la modification, redirection vers la page de connexion");
             response.sendRedirect(request.getContextPath() + "/main?action=login");
             return;
         }
+        User userToEdit = userToEditOptional.get();
 
         try {
-            User updatedUser = updateUserFromRequest(request, session, userToEdit);
+            User updatedUser = updateUserFromRequest(request, currentUser, userToEdit);
 
             // Ajout de la méthode updateUser pour persister les changements
             logger.debug("Tentative de mise à jour de l'utilisateur : " + updatedUser.getId());
@@ -96,83 +111,69 @@ public class ProfileServlet extends HttpServlet {
             logger.debug("Mise à jour effectuée pour l'utilisateur : " + updatedUser.getId());
 
             // Nouvelle vérification : si l'utilisateur modifié est celui connecté, mettre à jour la session
-            User currentUser = (User) session.getAttribute("user");
-            if (currentUser != null && currentUser.getId() == updatedUser.getId()) {
-                session.setAttribute("user", updatedUser);
+            if (currentUser.getUserId() == updatedUser.getId()) {
+                session.setAttribute("user", UserPrincipal.fromUser(updatedUser));
                 logger.info("Session mise à jour pour l'utilisateur connecté : " + updatedUser.getEmail());
             }
 
-            session.setAttribute("currentEditUser", updatedUser);
             session.setAttribute("successMessage", "Profil mis à jour avec succès.");
             response.sendRedirect(request.getContextPath() + "/AddressServlet");
         } catch (IllegalArgumentException e) {
+            // L'entité gérée a pu être modifiée avant l'échec de la validation : rien ne doit être enregistré
+            JpaUtil.setRollbackOnly();
             handleUserUpdateError(request, response, e.getMessage());
+        } catch (IllegalStateException e) {
+            JpaUtil.setRollbackOnly();
+            handleServiceBusy(request, response, e, userToEdit);
         }
     }
 
     /**
-     * Valide la session en cours. Si elle est invalide, redirige vers la page de connexion.
-     *
-     * @param request  L'objet HttpServletRequest contenant la requête du client.
-     * @param response L'objet HttpServletResponse contenant la réponse envoyée au client.
-     * @return La session valide, ou null si la session est invalide.
-     * @throws IOException Si une erreur d'entrée/sortie survient lors de la redirection.
-     */
-    private HttpSession validateSession(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        HttpSession session = request.getSession(false);
-        if (session == null || session.getAttribute("user") == null) {
-            logger.warn("Aucune session valide, redirection vers la page de connexion");
-            response.sendRedirect(request.getContextPath() + "/main?action=login");
-            return null;
-        }
-        return session;
-    }
-
-    /**
-     * Récupère l'utilisateur à éditer en fonction des paramètres de la requête et de la session.
+     * Détermine l'ID de l'utilisateur à éditer en fonction des paramètres de la requête et de la session.
+     * Seul un administrateur peut éditer un autre utilisateur que lui-même.
      *
      * @param request      L'objet HttpServletRequest contenant la requête du client.
      * @param response     L'objet HttpServletResponse contenant la réponse envoyée au client.
      * @param session      La session HTTP en cours.
      * @param currentUser  L'utilisateur actuellement connecté.
-     * @return L'utilisateur à éditer, ou null si l'utilisateur n'est pas trouvé.
+     * @return L'ID de l'utilisateur à éditer, ou null si l'utilisateur n'est pas trouvé.
      * @throws IOException Si une erreur d'entrée/sortie survient lors de la redirection.
      */
-    private User getUserToEdit(HttpServletRequest request, HttpServletResponse response, HttpSession session, User currentUser) throws IOException {
+    private Integer getUserToEditId(HttpServletRequest request, HttpServletResponse response, HttpSession session, UserPrincipal currentUser) throws IOException {
         String userIdStr = request.getParameter("userId");
-        User userToEdit = currentUser;
-
-        if (userIdStr != null) {
-            try {
-                int userId = Integer.parseInt(userIdStr);
-                Optional<User> userOptional = userService.findById(userId);
-                if (userOptional.isPresent()) {
-                    userToEdit = userOptional.get();
-                } else {
-                    logger.warn("Utilisateur avec l'ID " + userId + " non trouvé.");
-                    session.setAttribute("errorMessage", "Utilisateur non trouvé.");
-                    response.sendRedirect(request.getContextPath() + "/AdminPanelServlet");
-                    return null;
-                }
-            } catch (NumberFormatException e) {
-                logger.error("ID utilisateur invalide: " + userIdStr);
-                session.setAttribute("errorMessage", "ID utilisateur invalide.");
-                response.sendRedirect(request.getContextPath() + "/AdminPanelServlet");
+        if (userIdStr == null) {
+            return currentUser.getUserId();
+        }
+
+        try {
+            int userId = Integer.parseInt(userIdStr);
+            if (userId != currentUser.getUserId() && !AuthorizationFilter.hasRole(currentUser, AuthorizationFilter.ADMIN_ROLE_ID)) {
+                logger.warn("Utilisateur " + currentUser.getUserId() + " non autorisé à éditer l'utilisateur " + userId);
+                response.sendRedirect(request.getContextPath() + "/main?action=home");
                 return null;
             }
+            if (userService.findById(userId).isPresent()) {
+                return userId;
+            }
+            logger.warn("Utilisateur avec l'ID " + userId + " non trouvé.");
+            session.setAttribute("errorMessage", "Utilisateur non trouvé.");
+        } catch (NumberFormatException e) {
+            logger.error("ID utilisateur invalide: " + userIdStr);
+            session.setAttribute("errorMessage", "ID utilisateur invalide.");
         }
-        return userToEdit;
+        response.sendRedirect(request.getContextPath() + "/AdminPanelServlet");
+        return null;
     }
 
     /**
      * Met à jour les informations de l'utilisateur à partir des paramètres de la requête.
      *
      * @param request     L'objet HttpServletRequest contenant la requête du client.
-     * @param session     La session HTTP en cours.
+     * @param currentUser L'utilisateur connecté.
      * @param userToEdit  L'utilisateur à modifier.
      * @return L'utilisateur avec les informations mises à jour.
      */
-    private User updateUserFromRequest(HttpServletRequest request, HttpSession session, User userToEdit) {
+    private User updateUserFromRequest(HttpServletRequest request, UserPrincipal currentUser, User userToEdit) {
         String newEmail = request.getParameter("email");
         String confirmEmail = request.getParameter("confirmEmail");
         String newPassword = request.getParameter("password");
@@ -186,7 +187,7 @@ public class ProfileServlet extends HttpServlet {
         String active = request.getParameter("active");
         String fkRole = request.getParameter("fkRole");
 
-        boolean isAdmin = ((User) session.getAttribute("user")).getFkRole().getId() == 3;
+        boolean isAdmin = AuthorizationFilter.hasRole(currentUser, AuthorizationFilter.ADMIN_ROLE_ID);
 
         return userService.validateAndPrepareUserForUpdate(userToEdit, newEmail, confirmEmail, newPassword, confirmPassword, phone, gender, birthdate, firstName, lastName, blacklist, active, fkRole, isAdmin);
     }
@@ -220,6 +221,30 @@ public class ProfileServlet extends HttpServlet {
         response.sendRedirect(request.getContextPath() + "/AddressServlet");
     }
 
+    /**
+     * Répond 503 avec un en-tête {@code Retry-After} lorsque le hachage du nouveau mot de passe
+     * est refusé faute de capacité, et réaffiche le profil avec les valeurs saisies.
+     * La page est rendue directement : une redirection ne pourrait pas porter le statut 503.
+     *
+     * @param request    L'objet HttpServletRequest contenant la requête du client.
+     * @param response   L'objet HttpServletResponse contenant la réponse envoyée au client.
+     * @param e          L'exception levée par la mise à jour.
+     * @param userToEdit L'utilisateur en cours de modification.
+     * @throws ServletException Si une erreur survient lors du traitement de la requête.
+     * @throws IOException      Si une erreur d'entrée/sortie survient.
+     */
+    private void handleServiceBusy(HttpServletRequest request, HttpServletResponse response, IllegalStateException e, User userToEdit) throws ServletException, IOException {
+        if (!"PASSWORD_HASHING_BUSY".equals(e.getMessage())) {
+            throw e;
+        }
+        logger.warn("Mise à jour du profil refusée, service de hachage saturé : " + userToEdit.getId());
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE); // SC_SERVICE_UNAVAILABLE = Code statut HTTP 503
+        response.setHeader("Retry-After", "2");
+        request.setAttribute("errorMessage", "Le service est momentanément surchargé. Veuillez réessayer dans quelques instants.");
+        request.setAttribute(CURRENT_EDIT_USER, userToEdit);
+        request.getRequestDispatcher("/WEB-INF/jsp/profile.jsp").forward(request, response);
+    }
+
     /**
      * Retourne un message d'erreur approprié en fonction du code d'erreur fourni.
      *
@@ -238,7 +263,8 @@ public class ProfileServlet extends HttpServlet {
             case "INVALID_BIRTHDATE": return "La date de naissance est invalide.";
             case "EMAIL_ALREADY_EXISTS": return "Cet email est déjà utilisé.";
             case "EMAILS_DO_NOT_MATCH": return "Les emails ne correspondent pas.";
-            case "INVALID_ROLE": return "Le rôle sélectionné est invalide.";
+            case "INVALID_ROLE":
+            case "INVALID_ROLE_ID": return "Le rôle sélectionné est invalide.";
             default: return "Une erreur est survenue lors de la mise à jour du profil.";
         }
     }
@@ -86,6 +86,8 @@ public class RegisterServlet extends HttpServlet {
 
         } catch (IllegalArgumentException e) {
             handleRegistrationError(request, response, e, user);
+        } catch (IllegalStateException e) {
+            handleServiceBusy(request, response, e, user);
         } catch (Exception e) {
             handleUnexpectedError(request, response, e);
         }
@@ -152,6 +154,35 @@ public class RegisterServlet extends HttpServlet {
         request.getRequestDispatcher("/WEB-INF/jsp/register.jsp").forward(request, response);
     }
 
+    /**
+     * Répond 503 avec un en-tête {@code Retry-After} lorsque le hachage du mot de passe est
+     * refusé faute de capacité, et réaffiche le formulaire prérempli. Toute autre erreur
+     * d'état est traitée comme une erreur inattendue.
+     *
+     * @param request  L'objet HttpServletRequest contenant la requête du client.
+     * @param response L'objet HttpServletResponse contenant la réponse envoyée au client.
+     * @param e        L'exception qui a été lancée.
+     * @param user     L'utilisateur en cours de création.
+     * @throws ServletException Si une erreur survient lors du traitement de la requête.
+     * @throws IOException      Si une erreur d'entrée/sortie survient.
+     */
+    private void handleServiceBusy(HttpServletRequest request, HttpServletResponse response, IllegalStateException e, User user) throws ServletException, IOException {
+        if (!"PASSWORD_HASHING_BUSY".equals(e.getMessage())) {
+            handleUnexpectedError(request, response, e);
+            return;
+        }
+        logger.warn("Inscription refusée, service de hachage saturé : " + user.getEmail());
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE); // SC_SERVICE_UNAVAILABLE = Code statut HTTP 503
+        response.setHeader("Retry-After", "2");
+
+        request.setAttribute("email", user.getEmail());
+        request.setAttribute("firstName", user.getFirstName());
+        request.setAttribute("lastName", user.getLastName());
+        request.setAttribute("generalError", "Le service est momentanément surchargé. Veuillez réessayer dans quelques instants.");
+
+        request.getRequestDispatcher("/WEB-INF/jsp/register.jsp").forward(request, response);
+    }
+
     /**
      * Gère les erreurs spécifiques en fonction du code d'erreur fourni.
      *
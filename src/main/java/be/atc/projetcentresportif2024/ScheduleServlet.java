@@ -0,0 +1,74 @@
+package be.atc.projetcentresportif2024;
+
+import be.atc.cache.SlotAvailabilityCache;
+import be.atc.dto.ScheduleGrid;
+import be.atc.services.ScheduleService;
+import be.atc.services.impl.ScheduleServiceImpl;
+import org.apache.log4j.Logger;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Servlet exposant le planning hebdomadaire d'une salle au format JSON.
+ * <p>
+ * Paramètres : {@code hallId} (obligatoire) et {@code date}, un jour de la semaine voulue au
+ * format AAAA-MM-JJ (par défaut, la semaine courante). Réservée aux utilisateurs connectés
+ * (voir {@link AuthorizationFilter}).
+ * </p>
+ */
+@WebServlet(name = "ScheduleServlet", value = "/ScheduleServlet")
+public class ScheduleServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+    private static final Logger logger = Logger.getLogger(ScheduleServlet.class);
+
+    private final ScheduleService scheduleService;
+
+    /**
+     * Constructeur par défaut qui initialise le service de planning.
+     */
+    public ScheduleServlet() {
+        this.scheduleService = new ScheduleServiceImpl();
+    }
+
+    /**
+     * Gère les requêtes GET et renvoie la grille de la semaine demandée.
+     *
+     * @param request  L'objet HttpServletRequest contenant la requête du client.
+     * @param response L'objet HttpServletResponse contenant la réponse envoyée au client.
+     * @throws ServletException Si une erreur survient lors du traitement de la requête.
+     * @throws IOException      Si une erreur d'entrée/sortie survient.
+     */
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        response.setCharacterEncoding("UTF-8");
+        String hallIdStr = request.getParameter("hallId");
+        String dateStr = request.getParameter("date");
+
+        int hallId;
+        LocalDate date;
+        try {
+            hallId = Integer.parseInt(hallIdStr);
+            date = dateStr == null || dateStr.isEmpty() ? LocalDate.now(SlotAvailabilityCache.CENTRE_ZONE) : LocalDate.parse(dateStr);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST); // SC_BAD_REQUEST = Code statut HTTP 400
+            logger.warn("Paramètres de planning invalides : hallId=" + hallIdStr + ", date=" + dateStr);
+            return;
+        }
+
+        try {
+            ScheduleGrid grid = scheduleService.findWeekSchedule(hallId, date);
+            response.setContentType("application/json");
+            response.getWriter().write(grid.toJson());
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND); // SC_NOT_FOUND = Code statut HTTP 404
+            logger.warn("Planning introuvable pour la salle " + hallId + " : " + e.getMessage());
+        }
+    }
+}
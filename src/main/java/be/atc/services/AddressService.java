@@ -1,5 +1,7 @@
 package be.atc.services;
 
+import be.atc.dao.KeysetPage;
+import be.atc.dto.AddressSummary;
 import be.atc.entities.Address;
 
 import java.util.List;
@@ -13,16 +15,18 @@ public interface AddressService {
     /**
      * Crée une nouvelle adresse dans le système.
      *
-     * @param address L'adresse à créer.
+     * @param address    L'adresse à créer.
+     * @param localityId L'ID de sa localité.
      */
-    void createAddress(Address address);
+    void createAddress(Address address, int localityId);
 
     /**
      * Met à jour une adresse existante.
      *
-     * @param address L'adresse à mettre à jour.
+     * @param address    L'adresse à mettre à jour.
+     * @param localityId L'ID de sa localité.
      */
-    void updateAddress(Address address);
+    void updateAddress(Address address, int localityId);
 
     /**
      * Supprime une adresse en fonction de son identifiant.
@@ -40,11 +44,11 @@ public interface AddressService {
     Optional<Address> findById(int id);
 
     /**
-     * Récupère toutes les adresses du système.
+     * Récupère toutes les adresses du système, en lecture seule.
      *
      * @return Une liste de toutes les adresses.
      */
-    List<Address> findAll();
+    List<AddressSummary> findAll();
 
     /**
      * Recherche des adresses en fonction du nom de la rue.
@@ -61,4 +65,13 @@ public interface AddressService {
      * @return Une liste d'adresses correspondant à l'identifiant de la localité spécifiée.
      */
     List<Address> findByLocalityId(int localityId);
+
+    /**
+     * Récupère une page d'adresses après le curseur donné, triée par ID (pagination par clé).
+     *
+     * @param afterId  L'ID du dernier élément de la page précédente, ou 0 pour la première page.
+     * @param pageSize Le nombre maximum d'éléments à retourner.
+     * @return La page d'adresses et le curseur de la page suivante.
+     */
+    KeysetPage<Address> findPageAfter(int afterId, int pageSize);
 }
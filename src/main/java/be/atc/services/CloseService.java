@@ -0,0 +1,42 @@
+package be.atc.services;
+
+import be.atc.dto.ClosePeriod;
+import be.atc.entities.Close;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Interface définissant les opérations de service pour les fermetures des terrains (maintenance).
+ */
+public interface CloseService {
+
+    /**
+     * Ferme un terrain pendant une période : ses créneaux qui la chevauchent ne sont plus
+     * proposés ni réservables. Les réservations déjà enregistrées ne sont pas modifiées.
+     *
+     * @param sportFieldId L'ID du terrain (association sport-terrain).
+     * @param begin        Le début de la fermeture (inclus).
+     * @param end          La fin de la fermeture (exclue).
+     * @return La fermeture créée.
+     * @throws IllegalArgumentException Si la période est invalide ("INVALID_CLOSE_PERIOD")
+     *                                  ou si le terrain n'existe pas ("SPORT_FIELD_NOT_FOUND").
+     */
+    Close createClose(int sportFieldId, Instant begin, Instant end);
+
+    /**
+     * Supprime une fermeture : le terrain redevient réservable pendant cette période.
+     *
+     * @param closeId L'ID de la fermeture.
+     * @throws IllegalArgumentException Si la fermeture n'existe pas ("CLOSE_NOT_FOUND").
+     */
+    void deleteClose(int closeId);
+
+    /**
+     * Retourne les fermetures en cours ou à venir d'un terrain.
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @return Les périodes de fermeture, triées par date de début.
+     */
+    List<ClosePeriod> findClosePeriods(int sportFieldId);
+}
@@ -0,0 +1,24 @@
+package be.atc.services;
+
+/**
+ * Interface définissant les opérations de service pour la boîte d'envoi des e-mails.
+ */
+public interface EmailOutboxService {
+
+    /**
+     * Ajoute un e-mail à la boîte d'envoi. Il sera envoyé en arrière-plan,
+     * une fois la transaction en cours validée.
+     *
+     * @param toAddress L'adresse e-mail du destinataire.
+     * @param subject   Le sujet de l'e-mail.
+     * @param message   Le contenu de l'e-mail.
+     */
+    void enqueue(String toAddress, String subject, String message);
+
+    /**
+     * Ajoute l'e-mail de bienvenue d'un nouvel utilisateur à la boîte d'envoi.
+     *
+     * @param toAddress L'adresse e-mail du nouvel utilisateur.
+     */
+    void enqueueWelcomeEmail(String toAddress);
+}
@@ -1,5 +1,7 @@
 package be.atc.services;
 
+import be.atc.dao.KeysetPage;
+import be.atc.dto.LocalitySummary;
 import be.atc.entities.Locality;
 import java.util.List;
 import java.util.Optional;
@@ -15,12 +17,49 @@ public interface LocalityService {
      * @param id L'identifiant de la localité à rechercher.
      * @return Un {@link Optional} contenant la localité si elle est trouvée, sinon un {@link Optional} vide.
      */
-    Optional<Locality> findById(int id);
+    Optional<LocalitySummary> findById(int id);
 
     /**
      * Récupère toutes les localités du système.
      *
      * @return Une liste de toutes les localités.
      */
-    List<Locality> findAll();
+    List<LocalitySummary> findAll();
+
+    /**
+     * Recherche les localités dont le code postal commence par le préfixe donné.
+     *
+     * @param prefix Le début du code postal.
+     * @param limit  Le nombre maximum de localités à retourner.
+     * @return Les localités correspondantes, triées par code postal.
+     */
+    List<LocalitySummary> findByPostalCodePrefix(String prefix, int limit);
+
+    /**
+     * Recherche les localités dont le nom de ville commence par le préfixe donné.
+     *
+     * @param prefix Le début du nom de la ville (casse et accents ignorés).
+     * @param limit  Le nombre maximum de localités à retourner.
+     * @return Les localités correspondantes, triées par ville.
+     */
+    List<LocalitySummary> findByTownPrefix(String prefix, int limit);
+
+    /**
+     * Recherche les localités pour l'autocomplétion : par code postal si la saisie
+     * commence par un chiffre, sinon par nom de ville.
+     *
+     * @param query La saisie de l'utilisateur.
+     * @param limit Le nombre maximum de localités à retourner.
+     * @return Les premières localités correspondantes, ou une liste vide si la saisie est vide.
+     */
+    List<LocalitySummary> searchByPrefix(String query, int limit);
+
+    /**
+     * Récupère une page de localités après le curseur donné, triée par ID (pagination par clé).
+     *
+     * @param afterId  L'ID du dernier élément de la page précédente, ou 0 pour la première page.
+     * @param pageSize Le nombre maximum d'éléments à retourner.
+     * @return La page de localités et le curseur de la page suivante.
+     */
+    KeysetPage<Locality> findPageAfter(int afterId, int pageSize);
 }
@@ -0,0 +1,86 @@
+package be.atc.services;
+
+import be.atc.dto.FieldAvailability;
+import be.atc.entities.Reservation;
+import be.atc.entities.TimeSlot;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Interface définissant les opérations de service pour la réservation des terrains.
+ */
+public interface ReservationService {
+
+    /**
+     * Récupère tous les créneaux horaires.
+     *
+     * @return Les créneaux horaires, triés par ID.
+     */
+    List<TimeSlot> findTimeSlots();
+
+    /**
+     * Indique si un créneau d'un terrain est libre.
+     *
+     * @param sportFieldId L'ID du terrain (association sport-terrain).
+     * @param date         Le jour.
+     * @param timeSlotId   L'ID du créneau horaire.
+     * @return {@code true} si le terrain est réservable, ouvert et le créneau libre.
+     */
+    boolean isSlotAvailable(int sportFieldId, LocalDate date, int timeSlotId);
+
+    /**
+     * Retourne les créneaux libres d'un terrain pour un jour.
+     *
+     * @param sportFieldId L'ID du terrain.
+     * @param date         Le jour.
+     * @return Les IDs des créneaux libres, hors fermetures du terrain, triés par ID.
+     */
+    List<Integer> findFreeTimeSlotIds(int sportFieldId, LocalDate date);
+
+    /**
+     * Retourne les créneaux libres de chaque terrain d'un sport pour un jour.
+     *
+     * @param sportId L'ID du sport.
+     * @param date    Le jour.
+     * @return Les disponibilités des terrains du sport.
+     */
+    List<FieldAvailability> findAvailabilityBySport(int sportId, LocalDate date);
+
+    /**
+     * Réserve un créneau d'un terrain. Deux réservations concurrentes du même créneau
+     * ne peuvent pas réussir toutes les deux.
+     *
+     * @param userId          L'ID de l'utilisateur qui réserve.
+     * @param sportFieldId    L'ID du terrain.
+     * @param date            Le jour.
+     * @param timeSlotId      L'ID du créneau horaire.
+     * @param nameReservation Le nom de la réservation.
+     * @param price           Le prix de la réservation.
+     * @return La réservation créée.
+     * @throws IllegalArgumentException Si le terrain ou le créneau est inconnu, si le jour est passé ou au-delà
+     *                                  de l'horizon de réservation ("INVALID_RESERVATION_DATE"),
+     *                                  si le terrain est fermé ("SPORT_FIELD_CLOSED")
+     *                                  ou si le créneau est déjà réservé ("SLOT_ALREADY_BOOKED").
+     */
+    Reservation bookReservation(int userId, int sportFieldId, LocalDate date, int timeSlotId,
+                                String nameReservation, BigDecimal price);
+
+    /**
+     * Annule une réservation et libère son créneau.
+     *
+     * @param reservationId L'ID de la réservation.
+     * @throws IllegalArgumentException Si la réservation n'existe pas ("RESERVATION_NOT_FOUND").
+     */
+    void cancelReservation(int reservationId);
+
+    /**
+     * Recherche une réservation par son ID.
+     *
+     * @param reservationId L'ID de la réservation.
+     * @return Un {@link Optional} contenant la réservation si elle est trouvée, sinon vide.
+     */
+    Optional<Reservation> findReservationById(int reservationId);
+}
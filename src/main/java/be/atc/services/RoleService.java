@@ -1,5 +1,6 @@
 package be.atc.services;
 
+import be.atc.dao.KeysetPage;
 import be.atc.entities.Role;
 import java.util.List;
 import java.util.Optional;
@@ -44,4 +45,13 @@ public interface RoleService {
      * @param role Le rôle à mettre à jour.
      */
     void updateRole(Role role);
+
+    /**
+     * Récupère une page de rôles après le curseur donné, triée par ID (pagination par clé).
+     *
+     * @param afterId  L'ID du dernier élément de la page précédente, ou 0 pour la première page.
+     * @param pageSize Le nombre maximum d'éléments à retourner.
+     * @return La page de rôles et le curseur de la page suivante.
+     */
+    KeysetPage<Role> findPageAfter(int afterId, int pageSize);
 }
@@ -0,0 +1,23 @@
+package be.atc.services;
+
+import be.atc.dto.ScheduleGrid;
+
+import java.time.LocalDate;
+
+/**
+ * Interface définissant les opérations de service pour le planning hebdomadaire des salles.
+ */
+public interface ScheduleService {
+
+    /**
+     * Retourne la grille d'une salle pour une semaine : état (libre, réservé, fermé) de chaque
+     * créneau de chaque terrain, du lundi au dimanche.
+     *
+     * @param hallId L'ID de la salle.
+     * @param date   Un jour de la semaine voulue.
+     * @return La grille de la semaine.
+     * @throws IllegalArgumentException Si le jour est absent ("INVALID_DATE") ou si la salle n'existe pas,
+     *                                  est inactive ou n'a aucun terrain réservable ("HALL_NOT_FOUND").
+     */
+    ScheduleGrid findWeekSchedule(int hallId, LocalDate date);
+}
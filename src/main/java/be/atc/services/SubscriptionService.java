@@ -0,0 +1,46 @@
+package be.atc.services;
+
+import be.atc.dto.SubscriptionValidity;
+import be.atc.entities.UsersSubscription;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Interface définissant les opérations de service pour les abonnements des utilisateurs.
+ */
+public interface SubscriptionService {
+
+    /**
+     * Enregistre la souscription d'un abonnement par un utilisateur.
+     *
+     * @param userId         L'ID de l'utilisateur.
+     * @param subscriptionId L'ID de la formule d'abonnement.
+     * @param begin          Le début de validité (inclus).
+     * @param end            La fin de validité (exclue).
+     * @return L'abonnement créé.
+     * @throws IllegalArgumentException Si la période est invalide ("INVALID_SUBSCRIPTION_PERIOD"),
+     *                                  si la formule n'existe pas ("SUBSCRIPTION_NOT_FOUND")
+     *                                  ou si elle n'est liée à aucun sport ("SUBSCRIPTION_WITHOUT_SPORT").
+     */
+    UsersSubscription purchaseSubscription(int userId, int subscriptionId, Instant begin, Instant end);
+
+    /**
+     * Indique si un utilisateur a un abonnement valide pour un sport à un instant donné.
+     * Appel sans requête SQL ni verrou, utilisable à chaque requête.
+     *
+     * @param userId  L'ID de l'utilisateur.
+     * @param sportId L'ID du sport.
+     * @param at      L'instant vérifié.
+     * @return {@code true} si l'utilisateur est abonné à ce sport à cet instant.
+     */
+    boolean hasValidSubscription(int userId, int sportId, Instant at);
+
+    /**
+     * Retourne les abonnements en cours ou à venir d'un utilisateur.
+     *
+     * @param userId L'ID de l'utilisateur.
+     * @return Les périodes de validité, triées par sport puis par début.
+     */
+    List<SubscriptionValidity> findValidities(int userId);
+}
@@ -1,5 +1,9 @@
 package be.atc.services;
 
+import be.atc.dao.KeysetPage;
+import be.atc.dao.UserFetchPlan;
+import be.atc.dto.UserAdminState;
+import be.atc.dto.UserSummary;
 import be.atc.entities.User;
 
 import java.util.List;
@@ -60,11 +64,11 @@ public interface UserService {
     Optional<User> findByEmail(String email);
 
     /**
-     * Récupère tous les utilisateurs du système.
+     * Récupère le résumé de tous les utilisateurs du système.
      *
-     * @return Une liste de tous les utilisateurs.
+     * @return Les résumés de tous les utilisateurs.
      */
-    List<User> findAll();
+    List<UserSummary> findAll();
 
     /**
      * Vérifie si un email existe déjà dans le système.
@@ -98,7 +102,34 @@ public interface UserService {
      * @param searchQuery La requête de recherche à utiliser pour le filtrage.
      * @return Une liste d'utilisateurs filtrés correspondant à la requête de recherche.
      */
-    List<User> filterUsers(List<User> users, String searchQuery);
+    List<UserSummary> filterUsers(List<UserSummary> users, String searchQuery);
+
+    /**
+     * Recherche une page d'utilisateurs dont le prénom, le nom ou l'email commence par la requête donnée.
+     *
+     * @param searchQuery La requête de recherche, ou {@code null}/vide pour tous les utilisateurs.
+     * @param page        Le numéro de page (à partir de 1).
+     * @param pageSize    Le nombre d'utilisateurs par page.
+     * @return Les utilisateurs de la page demandée.
+     */
+    List<User> searchUsers(String searchQuery, int page, int pageSize);
+
+    /**
+     * Compte les utilisateurs correspondant à une requête de recherche.
+     *
+     * @param searchQuery La requête de recherche, ou {@code null}/vide pour tous les utilisateurs.
+     * @return Le nombre d'utilisateurs correspondants.
+     */
+    long countUsers(String searchQuery);
+
+    /**
+     * Applique les états administrables soumis (rôle, actif, liste noire), en ne modifiant
+     * que les utilisateurs dont au moins une valeur a réellement changé.
+     *
+     * @param submittedStates Les états soumis depuis le panneau d'administration.
+     * @return Le nombre d'utilisateurs modifiés.
+     */
+    int updateAdminStates(List<UserAdminState> submittedStates);
 
     /**
      * Recherche un utilisateur par son identifiant.
@@ -108,10 +139,29 @@ public interface UserService {
      */
     Optional<User> findById(int id);
 
+    /**
+     * Recherche un utilisateur par son identifiant, avec le graphe affiché par l'écran appelant
+     * chargé en une seule requête.
+     *
+     * @param id        L'identifiant de l'utilisateur à rechercher.
+     * @param fetchPlan Le graphe à charger.
+     * @return Un {@link Optional} contenant l'utilisateur s'il est trouvé, sinon un {@link Optional} vide.
+     */
+    Optional<User> findById(int id, UserFetchPlan fetchPlan);
+
     /**
      * Supprime un utilisateur par son identifiant.
      *
      * @param id L'identifiant de l'utilisateur à supprimer.
      */
     void deleteById(int id);
+
+    /**
+     * Récupère une page d'utilisateurs après le curseur donné, triée par ID (pagination par clé).
+     *
+     * @param afterId  L'ID du dernier élément de la page précédente, ou 0 pour la première page.
+     * @param pageSize Le nombre maximum d'éléments à retourner.
+     * @return La page d'utilisateurs et le curseur de la page suivante.
+     */
+    KeysetPage<User> findPageAfter(int afterId, int pageSize);
 }
@@ -1,7 +1,9 @@
 package be.atc.services.impl;
 
+import be.atc.dao.KeysetPage;
 import be.atc.dao.AddressDao;
 import be.atc.dao.impl.AddressDaoImpl;
+import be.atc.dto.AddressSummary;
 import be.atc.entities.Address;
 import be.atc.services.AddressService;
 import org.apache.log4j.Logger;
@@ -28,14 +30,15 @@ public class AddressServiceImpl implements AddressService {
     /**
      * Crée une nouvelle adresse.
      *
-     * @param address L'adresse à créer.
+     * @param address    L'adresse à créer.
+     * @param localityId L'ID de sa localité.
      * @throws RuntimeException Si une erreur survient lors de la création de l'adresse.
      */
     @Override
-    public void createAddress(Address address) {
+    public void createAddress(Address address, int localityId) {
         logger.info("Début de la création de l'adresse pour la rue : " + address.getStreetName());
         try {
-            addressDao.createAddress(address);
+            addressDao.createAddress(address, localityId);
             logger.info("Adresse créée avec succès pour la rue : " + address.getStreetName());
         } catch (Exception e) {
             logger.error("Erreur lors de la création de l'adresse pour la rue : " + address.getStreetName(), e);
@@ -46,14 +49,15 @@ public class AddressServiceImpl implements AddressService {
     /**
      * Met à jour une adresse existante.
      *
-     * @param address L'adresse à mettre à jour.
+     * @param address    L'adresse à mettre à jour.
+     * @param localityId L'ID de sa localité.
      * @throws RuntimeException Si une erreur survient lors de la mise à jour de l'adresse.
      */
     @Override
-    public void updateAddress(Address address) {
+    public void updateAddress(Address address, int localityId) {
         logger.info("Début de la mise à jour de l'adresse avec l'ID : " + address.getId());
         try {
-            addressDao.updateAddress(address);
+            addressDao.updateAddress(address, localityId);
             logger.info("Adresse mise à jour avec succès pour l'ID : " + address.getId());
         } catch (Exception e) {
             logger.error("Erreur lors de la mise à jour de l'adresse avec l'ID : " + address.getId(), e);
@@ -109,10 +113,10 @@ public class AddressServiceImpl implements AddressService {
      * @throws RuntimeException Si une erreur survient lors de la récupération des adresses.
      */
     @Override
-    public List<Address> findAll() {
+    public List<AddressSummary> findAll() {
         logger.info("Récupération de toutes les adresses");
         try {
-            List<Address> addresses = addressDao.findAll();
+            List<AddressSummary> addresses = addressDao.findAll();
             logger.info("Nombre d'adresses récupérées : " + addresses.size());
             return addresses;
         } catch (Exception e) {
@@ -160,4 +164,17 @@ public class AddressServiceImpl implements AddressService {
             throw e;
         }
     }
+
+    /**
+     * Récupère une page d'adresses après le curseur donné (pagination par clé).
+     *
+     * @param afterId  L'ID du dernier élément de la page précédente, ou 0 pour la première page.
+     * @param pageSize Le nombre maximum d'éléments à retourner.
+     * @return La page d'adresses et le curseur de la page suivante.
+     */
+    @Override
+    public KeysetPage<Address> findPageAfter(int afterId, int pageSize) {
+        logger.debug("Récupération de la page d'adresses après l'ID : " + afterId);
+        return addressDao.findPageAfter(afterId, pageSize);
+    }
 }
@@ -0,0 +1,96 @@
+package be.atc.services.impl;
+
+import be.atc.cache.ClosureIndex;
+import be.atc.cache.ScheduleGridCache;
+import be.atc.cache.SlotAvailabilityCache;
+import be.atc.dao.CloseDao;
+import be.atc.dao.impl.CloseDaoImpl;
+import be.atc.dto.ClosePeriod;
+import be.atc.entities.Close;
+import be.atc.services.CloseService;
+import be.atc.util.JpaUtil;
+import org.apache.log4j.Logger;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Implémentation du service des fermetures de terrains.
+ * <p>
+ * Chaque modification est reportée dans l'index mémoire {@link ClosureIndex} après la
+ * validation de la transaction, fermeture par fermeture, sans recharger l'index.
+ * </p>
+ */
+public class CloseServiceImpl implements CloseService {
+
+    private static final Logger logger = Logger.getLogger(CloseServiceImpl.class);
+
+    private final CloseDao closeDao;
+    private final ClosureIndex closureIndex;
+    private final SlotAvailabilityCache slotAvailability;
+    private final ScheduleGridCache scheduleGrids;
+
+    /**
+     * Constructeur par défaut qui initialise le DAO des fermetures et les index partagés.
+     */
+    public CloseServiceImpl() {
+        this(new CloseDaoImpl(), ClosureIndex.getInstance(), SlotAvailabilityCache.getInstance(), ScheduleGridCache.getInstance());
+    }
+
+    /**
+     * Constructeur qui permet l'injection du DAO et des index.
+     *
+     * @param closeDao         DAO à injecter pour l'accès aux fermetures.
+     * @param closureIndex     Index des fermetures à mettre à jour.
+     * @param slotAvailability Index des créneaux, utilisé pour vérifier les terrains.
+     * @param scheduleGrids    Cache des grilles hebdomadaires à invalider après chaque modification.
+     */
+    public CloseServiceImpl(CloseDao closeDao, ClosureIndex closureIndex, SlotAvailabilityCache slotAvailability,
+                            ScheduleGridCache scheduleGrids) {
+        this.closeDao = closeDao;
+        this.closureIndex = closureIndex;
+        this.slotAvailability = slotAvailability;
+        this.scheduleGrids = scheduleGrids;
+    }
+
+    @Override
+    public Close createClose(int sportFieldId, Instant begin, Instant end) {
+        if (begin == null || end == null || !begin.isBefore(end)) {
+            throw new IllegalArgumentException("INVALID_CLOSE_PERIOD");
+        }
+        if (!slotAvailability.isBookable(sportFieldId)) {
+            throw new IllegalArgumentException("SPORT_FIELD_NOT_FOUND");
+        }
+        Close close = new Close();
+        close.setBeginDate(begin);
+        close.setEndDate(end);
+        closeDao.createClose(close, sportFieldId);
+
+        ClosePeriod period = new ClosePeriod(close.getId(), sportFieldId, begin, end);
+        JpaUtil.runAfterCommit(() -> {
+            closureIndex.add(period);
+            scheduleGrids.invalidateSportField(sportFieldId);
+        });
+        logger.info("Terrain " + sportFieldId + " fermé du " + begin + " au " + end);
+        return close;
+    }
+
+    @Override
+    public void deleteClose(int closeId) {
+        Close close = closeDao.findCloseById(closeId)
+                .orElseThrow(() -> new IllegalArgumentException("CLOSE_NOT_FOUND"));
+        int sportFieldId = close.getFkSportField().getId();
+
+        closeDao.deleteCloseById(closeId);
+        JpaUtil.runAfterCommit(() -> {
+            closureIndex.remove(sportFieldId, closeId);
+            scheduleGrids.invalidateSportField(sportFieldId);
+        });
+        logger.info("Fermeture " + closeId + " du terrain " + sportFieldId + " supprimée");
+    }
+
+    @Override
+    public List<ClosePeriod> findClosePeriods(int sportFieldId) {
+        return closureIndex.findClosePeriods(sportFieldId);
+    }
+}
@@ -0,0 +1,48 @@
+package be.atc.services.impl;
+
+import be.atc.dao.EmailOutboxDao;
+import be.atc.dao.impl.EmailOutboxDaoImpl;
+import be.atc.entities.EmailOutbox;
+import be.atc.services.EmailOutboxService;
+import be.atc.util.EmailUtil;
+import org.apache.log4j.Logger;
+
+/**
+ * Implémentation du service de boîte d'envoi des e-mails.
+ * Les e-mails sont enregistrés en base de données puis envoyés par {@code EmailOutboxDispatcher}.
+ */
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private static final Logger logger = Logger.getLogger(EmailOutboxServiceImpl.class);
+    private final EmailOutboxDao emailOutboxDao;
+
+    /**
+     * Constructeur par défaut qui initialise le DAO de la boîte d'envoi.
+     */
+    public EmailOutboxServiceImpl() {
+        this.emailOutboxDao = new EmailOutboxDaoImpl();
+    }
+
+    /**
+     * Ajoute un e-mail à la boîte d'envoi.
+     *
+     * @param toAddress L'adresse e-mail du destinataire.
+     * @param subject   Le sujet de l'e-mail.
+     * @param message   Le contenu de l'e-mail.
+     */
+    @Override
+    public void enqueue(String toAddress, String subject, String message) {
+        logger.info("Mise en file d'un e-mail pour : " + toAddress);
+        emailOutboxDao.enqueue(new EmailOutbox(toAddress, subject, message));
+    }
+
+    /**
+     * Ajoute l'e-mail de bienvenue d'un nouvel utilisateur à la boîte d'envoi.
+     *
+     * @param toAddress L'adresse e-mail du nouvel utilisateur.
+     */
+    @Override
+    public void enqueueWelcomeEmail(String toAddress) {
+        enqueue(toAddress, EmailUtil.WELCOME_SUBJECT, EmailUtil.WELCOME_MESSAGE);
+    }
+}
@@ -1,27 +1,34 @@
 package be.atc.services.impl;
 
+import be.atc.cache.LocalityCache;
+import be.atc.dao.KeysetPage;
 import be.atc.dao.LocalityDao;
 import be.atc.dao.impl.LocalityDaoImpl;
+import be.atc.dto.LocalitySummary;
 import be.atc.entities.Locality;
 import be.atc.services.LocalityService;
 import org.apache.log4j.Logger;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * Implémentation du service pour gérer les localités.
- * Cette classe utilise un DAO pour interagir avec la base de données.
+ * Les lectures par identifiant et la liste complète sont servies par le
+ * {@link LocalityCache} ; la pagination interroge directement le DAO.
  */
 public class LocalityServiceImpl implements LocalityService {
 
     private static final Logger logger = Logger.getLogger(LocalityServiceImpl.class);
     private final LocalityDao localityDao;
+    private final LocalityCache localityCache;
 
     /**
-     * Constructeur par défaut qui initialise le DAO pour les localités.
+     * Constructeur par défaut qui initialise le DAO et le cache des localités.
      */
     public LocalityServiceImpl() {
         this.localityDao = new LocalityDaoImpl();
+        this.localityCache = LocalityCache.getInstance();
     }
 
     /**
@@ -31,9 +38,9 @@ public class LocalityServiceImpl implements LocalityService {
      * @return Un {@link Optional} contenant la localité si elle est trouvée, sinon un {@link Optional} vide.
      */
     @Override
-    public Optional<Locality> findById(int id) {
-        logger.info("Recherche de la localité avec l'ID : " + id);
-        return localityDao.findById(id);
+    public Optional<LocalitySummary> findById(int id) {
+        logger.debug("Recherche de la localité avec l'ID : " + id);
+        return localityCache.findById(id);
     }
 
     /**
@@ -42,8 +49,65 @@ public class LocalityServiceImpl implements LocalityService {
      * @return Une liste contenant toutes les localités.
      */
     @Override
-    public List<Locality> findAll() {
-        logger.info("Récupération de toutes les localités");
-        return localityDao.findAll();
+    public List<LocalitySummary> findAll() {
+        logger.debug("Récupération de toutes les localités");
+        return localityCache.findAll();
+    }
+
+    /**
+     * Recherche les localités dont le code postal commence par le préfixe donné.
+     *
+     * @param prefix Le début du code postal.
+     * @param limit  Le nombre maximum de localités à retourner.
+     * @return Les localités correspondantes, triées par code postal.
+     */
+    @Override
+    public List<LocalitySummary> findByPostalCodePrefix(String prefix, int limit) {
+        return localityCache.findByPostalCodePrefix(prefix, limit);
+    }
+
+    /**
+     * Recherche les localités dont le nom de ville commence par le préfixe donné.
+     *
+     * @param prefix Le début du nom de la ville (casse et accents ignorés).
+     * @param limit  Le nombre maximum de localités à retourner.
+     * @return Les localités correspondantes, triées par ville.
+     */
+    @Override
+    public List<LocalitySummary> findByTownPrefix(String prefix, int limit) {
+        return localityCache.findByTownPrefix(prefix, limit);
+    }
+
+    /**
+     * Recherche les localités pour l'autocomplétion : par code postal si la saisie
+     * commence par un chiffre, sinon par nom de ville.
+     *
+     * @param query La saisie de l'utilisateur.
+     * @param limit Le nombre maximum de localités à retourner.
+     * @return Les premières localités correspondantes, ou une liste vide si la saisie est vide.
+     */
+    @Override
+    public List<LocalitySummary> searchByPrefix(String query, int limit) {
+        String prefix = query == null ? "" : query.trim();
+        if (prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (Character.isDigit(prefix.charAt(0))) {
+            return localityCache.findByPostalCodePrefix(prefix, limit);
+        }
+        return localityCache.findByTownPrefix(prefix, limit);
+    }
+
+    /**
+     * Récupère une page de localités après le curseur donné (pagination par clé).
+     *
+     * @param afterId  L'ID du dernier élément de la page précédente, ou 0 pour la première page.
+     * @param pageSize Le nombre maximum d'éléments à retourner.
+     * @return La page de localités et le curseur de la page suivante.
+     */
+    @Override
+    public KeysetPage<Locality> findPageAfter(int afterId, int pageSize) {
+        logger.debug("Récupération de la page de localités après l'ID : " + afterId);
+        return localityDao.findPageAfter(afterId, pageSize);
     }
 }
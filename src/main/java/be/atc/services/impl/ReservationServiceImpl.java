@@ -0,0 +1,180 @@
+package be.atc.services.impl;
+
+import be.atc.cache.ScheduleGridCache;
+import be.atc.cache.SlotAvailabilityCache;
+import be.atc.dao.ReservationDao;
+import be.atc.dao.impl.ReservationDaoImpl;
+import be.atc.dto.FieldAvailability;
+import be.atc.entities.Reservation;
+import be.atc.entities.TimeSlot;
+import be.atc.services.ReservationService;
+import be.atc.util.JpaUtil;
+import org.apache.log4j.Logger;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implémentation du service de réservation des terrains.
+ * <p>
+ * Les disponibilités sont lues dans l'index mémoire {@link SlotAvailabilityCache}, sans requête
+ * sur la table des réservations ; les créneaux qui chevauchent une fermeture du terrain n'y sont
+ * jamais libres. Une réservation prend d'abord son créneau dans l'index par
+ * compare-and-set, ce qui départage les réservations concurrentes du même créneau sans verrou
+ * et sans ralentir celles des autres terrains. La réservation est ensuite insérée sans relecture
+ * préalable : la contrainte unique de la table des réservations rejette un créneau déjà pris en
+ * base (autre instance de l'application, saisie directe). La prise est confirmée après la
+ * validation de la transaction, ou rendue si elle est annulée.
+ * </p>
+ */
+public class ReservationServiceImpl implements ReservationService {
+
+    private static final Logger logger = Logger.getLogger(ReservationServiceImpl.class);
+
+    private final ReservationDao reservationDao;
+    private final SlotAvailabilityCache slotAvailability;
+    private final ScheduleGridCache scheduleGrids;
+
+    /**
+     * Constructeur par défaut qui initialise le DAO des réservations, l'index des créneaux et le cache des grilles.
+     */
+    public ReservationServiceImpl() {
+        this(new ReservationDaoImpl(), SlotAvailabilityCache.getInstance(), ScheduleGridCache.getInstance());
+    }
+
+    /**
+     * Constructeur qui permet l'injection du DAO, de l'index des créneaux et du cache des grilles.
+     *
+     * @param reservationDao   DAO à injecter pour l'accès aux réservations.
+     * @param slotAvailability Index des créneaux à utiliser.
+     * @param scheduleGrids    Cache des grilles hebdomadaires à invalider après chaque modification.
+     */
+    public ReservationServiceImpl(ReservationDao reservationDao, SlotAvailabilityCache slotAvailability,
+                                  ScheduleGridCache scheduleGrids) {
+        this.reservationDao = reservationDao;
+        this.slotAvailability = slotAvailability;
+        this.scheduleGrids = scheduleGrids;
+    }
+
+    @Override
+    public List<TimeSlot> findTimeSlots() {
+        return slotAvailability.findTimeSlots();
+    }
+
+    @Override
+    public boolean isSlotAvailable(int sportFieldId, LocalDate date, int timeSlotId) {
+        return slotAvailability.isFree(sportFieldId, date, timeSlotId);
+    }
+
+    @Override
+    public List<Integer> findFreeTimeSlotIds(int sportFieldId, LocalDate date) {
+        return slotAvailability.findFreeTimeSlotIds(sportFieldId, date);
+    }
+
+    @Override
+    public List<FieldAvailability> findAvailabilityBySport(int sportId, LocalDate date) {
+        return slotAvailability.findFreeTimeSlotsBySport(sportId, date);
+    }
+
+    /**
+     * Réserve un créneau d'un terrain.
+     *
+     * @param userId          L'ID de l'utilisateur qui réserve.
+     * @param sportFieldId    L'ID du terrain.
+     * @param date            Le jour.
+     * @param timeSlotId      L'ID du créneau horaire.
+     * @param nameReservation Le nom de la réservation.
+     * @param price           Le prix de la réservation.
+     * @return La réservation créée.
+     * @throws IllegalArgumentException Si la réservation est impossible.
+     */
+    @Override
+    public Reservation bookReservation(int userId, int sportFieldId, LocalDate date, int timeSlotId,
+                                       String nameReservation, BigDecimal price) {
+        validateBooking(sportFieldId, date, timeSlotId);
+
+        if (!slotAvailability.tryClaim(sportFieldId, date, timeSlotId)) {
+            logger.info("Créneau déjà réservé : terrain " + sportFieldId + ", " + date + ", créneau " + timeSlotId);
+            throw new IllegalArgumentException("SLOT_ALREADY_BOOKED");
+        }
+
+        Reservation reservation = new Reservation();
+        reservation.setNameReservation(nameReservation);
+        reservation.setPrice(price);
+        reservation.setDate(SlotAvailabilityCache.startOfDay(date));
+        reservation.setActive(true);
+        try {
+            reservationDao.createReservation(reservation, userId, sportFieldId, timeSlotId);
+        } catch (RuntimeException e) {
+            if (JpaUtil.isUniqueViolation(e, Reservation.SLOT_CONSTRAINT)) {
+                // Réservé en base mais libre dans l'index : le créneau reste pris. Toute autre
+                // erreur (clé étrangère, colonne non nulle...) libère le créneau réclamé.
+                slotAvailability.confirmClaim(sportFieldId, date, timeSlotId);
+                scheduleGrids.invalidate(sportFieldId, date);
+                logger.warn("Créneau réservé en base mais libre dans l'index : terrain " + sportFieldId + ", " + date
+                        + ", créneau " + timeSlotId);
+                throw new IllegalArgumentException("SLOT_ALREADY_BOOKED");
+            }
+            slotAvailability.releaseClaim(sportFieldId, date, timeSlotId);
+            throw e;
+        }
+
+        JpaUtil.runAfterCommit(() -> {
+            slotAvailability.confirmClaim(sportFieldId, date, timeSlotId);
+            scheduleGrids.invalidate(sportFieldId, date);
+        });
+        JpaUtil.runAfterRollback(() -> slotAvailability.releaseClaim(sportFieldId, date, timeSlotId));
+        logger.info("Réservation " + reservation.getId() + " enregistrée pour l'utilisateur " + userId);
+        return reservation;
+    }
+
+    /**
+     * Vérifie qu'une réservation porte sur un terrain réservable, un créneau connu et un jour à venir
+     * dans l'horizon de réservation, en dehors des fermetures du terrain.
+     *
+     * @throws IllegalArgumentException Si la réservation est impossible.
+     */
+    private void validateBooking(int sportFieldId, LocalDate date, int timeSlotId) {
+        if (date == null || !SlotAvailabilityCache.isWithinBookingHorizon(date)) {
+            throw new IllegalArgumentException("INVALID_RESERVATION_DATE");
+        }
+        if (!slotAvailability.isBookable(sportFieldId)) {
+            throw new IllegalArgumentException("SPORT_FIELD_NOT_FOUND");
+        }
+        if (!slotAvailability.isKnownTimeSlot(timeSlotId)) {
+            throw new IllegalArgumentException("TIME_SLOT_NOT_FOUND");
+        }
+        if (slotAvailability.isClosed(sportFieldId, date, timeSlotId)) {
+            throw new IllegalArgumentException("SPORT_FIELD_CLOSED");
+        }
+    }
+
+    /**
+     * Annule une réservation. Le créneau est libéré dans l'index après la validation de la suppression.
+     *
+     * @param reservationId L'ID de la réservation.
+     * @throws IllegalArgumentException Si la réservation n'existe pas.
+     */
+    @Override
+    public void cancelReservation(int reservationId) {
+        Reservation reservation = reservationDao.findReservationById(reservationId)
+                .orElseThrow(() -> new IllegalArgumentException("RESERVATION_NOT_FOUND"));
+        int sportFieldId = reservation.getFkSportField().getId();
+        int timeSlotId = reservation.getFkTimeSlot().getId();
+        LocalDate date = reservation.getDate().atZone(SlotAvailabilityCache.CENTRE_ZONE).toLocalDate();
+
+        reservationDao.deleteReservationById(reservationId);
+        JpaUtil.runAfterCommit(() -> {
+            slotAvailability.markFree(sportFieldId, date, timeSlotId);
+            scheduleGrids.invalidate(sportFieldId, date);
+        });
+        logger.info("Réservation " + reservationId + " annulée");
+    }
+
+    @Override
+    public Optional<Reservation> findReservationById(int reservationId) {
+        return reservationDao.findReservationById(reservationId);
+    }
+}
@@ -1,9 +1,12 @@
 package be.atc.services.impl;
 
+import be.atc.cache.RoleCache;
+import be.atc.dao.KeysetPage;
 import be.atc.dao.RoleDao;
 import be.atc.dao.impl.RoleDaoImpl;
 import be.atc.entities.Role;
 import be.atc.services.RoleService;
+import be.atc.util.JpaUtil;
 import org.apache.log4j.Logger;
 
 import java.util.List;
@@ -11,12 +14,14 @@ import java.util.Optional;
 
 /**
  * Implémentation du service pour gérer les rôles.
- * Cette classe utilise un DAO pour interagir avec la base de données.
+ * Cette classe utilise un DAO pour interagir avec la base de données
+ * et tient à jour la table des rôles en mémoire ({@link RoleCache}).
  */
 public class RoleServiceImpl implements RoleService {
 
     private static final Logger logger = Logger.getLogger(RoleServiceImpl.class);
     private final RoleDao roleDao;
+    private final RoleCache roleCache = RoleCache.getInstance();
 
     /**
      * Constructeur par défaut qui initialise le DAO pour les rôles.
@@ -66,6 +71,7 @@ public class RoleServiceImpl implements RoleService {
     public void createRole(Role role) {
         logger.info("Création d'un nouveau rôle : " + role.getRoleName());
         roleDao.createRole(role);
+        invalidateRoleCache();
     }
 
     /**
@@ -77,6 +83,7 @@ public class RoleServiceImpl implements RoleService {
     public void updateRole(Role role) {
         logger.info("Mise à jour du rôle : " + role.getRoleName());
         roleDao.updateRole(role);
+        invalidateRoleCache();
     }
 
     /**
@@ -88,5 +95,31 @@ public class RoleServiceImpl implements RoleService {
     public void deleteRoleById(int id) {
         logger.info("Suppression du rôle avec l'ID : " + id);
         roleDao.deleteRoleById(id);
+        invalidateRoleCache();
+    }
+
+    /**
+     * Invalide la table des rôles immédiatement puis après la fin de la transaction de la requête,
+     * pour qu'un rechargement concurrent ne conserve pas l'état antérieur à la validation.
+     * Une fois la modification validée, les rôles sont aussi retirés du cache partagé d'EclipseLink,
+     * où ils sont conservés sans expiration.
+     */
+    private void invalidateRoleCache() {
+        roleCache.invalidate();
+        JpaUtil.runAfterCompletion(roleCache::invalidate);
+        JpaUtil.runAfterCommit(() -> JpaUtil.evictFromSharedCache(Role.class));
+    }
+
+    /**
+     * Récupère une page de rôles après le curseur donné (pagination par clé).
+     *
+     * @param afterId  L'ID du dernier élément de la page précédente, ou 0 pour la première page.
+     * @param pageSize Le nombre maximum d'éléments à retourner.
+     * @return La page de rôles et le curseur de la page suivante.
+     */
+    @Override
+    public KeysetPage<Role> findPageAfter(int afterId, int pageSize) {
+        logger.debug("Récupération de la page de rôles après l'ID : " + afterId);
+        return roleDao.findPageAfter(afterId, pageSize);
     }
 }
@@ -0,0 +1,45 @@
+package be.atc.services.impl;
+
+import be.atc.cache.ScheduleGridCache;
+import be.atc.dto.ScheduleGrid;
+import be.atc.services.ScheduleService;
+import org.apache.log4j.Logger;
+
+import java.time.LocalDate;
+
+/**
+ * Implémentation du service de planning hebdomadaire, servi par le cache {@link ScheduleGridCache}.
+ */
+public class ScheduleServiceImpl implements ScheduleService {
+
+    private static final Logger logger = Logger.getLogger(ScheduleServiceImpl.class);
+
+    private final ScheduleGridCache scheduleGrids;
+
+    /**
+     * Constructeur par défaut qui utilise le cache partagé des grilles.
+     */
+    public ScheduleServiceImpl() {
+        this(ScheduleGridCache.getInstance());
+    }
+
+    /**
+     * Constructeur qui permet l'injection du cache des grilles.
+     *
+     * @param scheduleGrids Cache des grilles à utiliser.
+     */
+    public ScheduleServiceImpl(ScheduleGridCache scheduleGrids) {
+        this.scheduleGrids = scheduleGrids;
+    }
+
+    @Override
+    public ScheduleGrid findWeekSchedule(int hallId, LocalDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("INVALID_DATE");
+        }
+        return scheduleGrids.findWeek(hallId, date).orElseThrow(() -> {
+            logger.warn("Planning demandé pour une salle introuvable ou sans terrain : " + hallId);
+            return new IllegalArgumentException("HALL_NOT_FOUND");
+        });
+    }
+}
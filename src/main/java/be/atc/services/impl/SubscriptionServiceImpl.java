@@ -0,0 +1,86 @@
+package be.atc.services.impl;
+
+import be.atc.cache.SubscriptionIndex;
+import be.atc.dao.SubscriptionDao;
+import be.atc.dao.UsersSubscriptionDao;
+import be.atc.dao.impl.SubscriptionDaoImpl;
+import be.atc.dao.impl.UsersSubscriptionDaoImpl;
+import be.atc.dto.SubscriptionValidity;
+import be.atc.entities.Subscription;
+import be.atc.entities.UsersSubscription;
+import be.atc.services.SubscriptionService;
+import be.atc.util.JpaUtil;
+import org.apache.log4j.Logger;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Implémentation du service des abonnements.
+ * <p>
+ * Les vérifications de validité sont servies par l'index mémoire {@link SubscriptionIndex} ;
+ * chaque souscription y est ajoutée après la validation de la transaction.
+ * </p>
+ */
+public class SubscriptionServiceImpl implements SubscriptionService {
+
+    private static final Logger logger = Logger.getLogger(SubscriptionServiceImpl.class);
+
+    private final SubscriptionDao subscriptionDao;
+    private final UsersSubscriptionDao usersSubscriptionDao;
+    private final SubscriptionIndex subscriptionIndex;
+
+    /**
+     * Constructeur par défaut qui initialise les DAO et l'index des abonnements.
+     */
+    public SubscriptionServiceImpl() {
+        this(new SubscriptionDaoImpl(), new UsersSubscriptionDaoImpl(), SubscriptionIndex.getInstance());
+    }
+
+    /**
+     * Constructeur qui permet l'injection des DAO et de l'index des abonnements.
+     *
+     * @param subscriptionDao      DAO à injecter pour l'accès aux formules d'abonnement.
+     * @param usersSubscriptionDao DAO à injecter pour l'accès aux abonnements des utilisateurs.
+     * @param subscriptionIndex    Index des abonnements à utiliser.
+     */
+    public SubscriptionServiceImpl(SubscriptionDao subscriptionDao, UsersSubscriptionDao usersSubscriptionDao,
+                                   SubscriptionIndex subscriptionIndex) {
+        this.subscriptionDao = subscriptionDao;
+        this.usersSubscriptionDao = usersSubscriptionDao;
+        this.subscriptionIndex = subscriptionIndex;
+    }
+
+    @Override
+    public UsersSubscription purchaseSubscription(int userId, int subscriptionId, Instant begin, Instant end) {
+        if (begin == null || end == null || !begin.isBefore(end)) {
+            throw new IllegalArgumentException("INVALID_SUBSCRIPTION_PERIOD");
+        }
+        Subscription subscription = subscriptionDao.findSubscriptionById(subscriptionId)
+                .orElseThrow(() -> new IllegalArgumentException("SUBSCRIPTION_NOT_FOUND"));
+        if (subscription.getFkSport() == null) {
+            throw new IllegalArgumentException("SUBSCRIPTION_WITHOUT_SPORT");
+        }
+        int sportId = subscription.getFkSport().getId();
+
+        UsersSubscription usersSubscription = new UsersSubscription();
+        usersSubscription.setBeginDateSubscription(begin);
+        usersSubscription.setEndDateSubscription(end);
+        usersSubscriptionDao.createUsersSubscription(usersSubscription, userId, subscriptionId);
+
+        SubscriptionValidity validity = new SubscriptionValidity(usersSubscription.getId(), userId, sportId, begin, end);
+        JpaUtil.runAfterCommit(() -> subscriptionIndex.add(validity));
+        logger.info("Abonnement " + subscriptionId + " souscrit par l'utilisateur " + userId + " du " + begin + " au " + end);
+        return usersSubscription;
+    }
+
+    @Override
+    public boolean hasValidSubscription(int userId, int sportId, Instant at) {
+        return subscriptionIndex.isValid(userId, sportId, at);
+    }
+
+    @Override
+    public List<SubscriptionValidity> findValidities(int userId) {
+        return subscriptionIndex.findValidities(userId);
+    }
+}
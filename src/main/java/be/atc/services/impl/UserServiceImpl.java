@@ -1,22 +1,31 @@
 package be.atc.services.impl;
 
+import be.atc.cache.LoginCache;
+import be.atc.cache.RoleCache;
 import be.atc.entities.User;
 import be.atc.entities.Role;
+import be.atc.dao.KeysetPage;
 import be.atc.dao.UserDao;
+import be.atc.dao.UserFetchPlan;
 import be.atc.dao.impl.UserDaoImpl;
+import be.atc.dto.LoginCredentials;
+import be.atc.dto.UserAdminState;
+import be.atc.dto.UserSummary;
+import be.atc.services.EmailOutboxService;
 import be.atc.services.UserService;
+import be.atc.util.JpaUtil;
+import be.atc.util.PasswordHasher;
 import be.atc.util.ValidationUtil;
 import org.apache.log4j.Logger;
-import org.mindrot.jbcrypt.BCrypt;
 
-import be.atc.util.EmailUtil;
-import javax.mail.MessagingException;
 
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -27,12 +36,21 @@ public class UserServiceImpl implements UserService {
 
     private static final Logger logger = Logger.getLogger(UserServiceImpl.class);
     private final UserDao userDao;
+    private final EmailOutboxService emailOutboxService;
+    private final PasswordHasher passwordHasher;
+    private final LoginCache loginCache;
+    private final RoleCache roleCache;
 
     /**
-     * Constructeur par défaut qui initialise le DAO pour les utilisateurs.
+     * Constructeur par défaut qui initialise le DAO pour les utilisateurs, la boîte d'envoi des e-mails,
+     * le service de hachage des mots de passe, le cache d'authentification et la table des rôles.
      */
     public UserServiceImpl() {
         this.userDao = new UserDaoImpl();
+        this.emailOutboxService = new EmailOutboxServiceImpl();
+        this.passwordHasher = PasswordHasher.getInstance();
+        this.loginCache = LoginCache.getInstance();
+        this.roleCache = RoleCache.getInstance();
     }
 
     /**
@@ -59,8 +77,9 @@ public class UserServiceImpl implements UserService {
         userDao.createUser(user);
         logger.info("Utilisateur créé avec succès : " + user.getEmail());
 
-        // Envoyer un e-mail de bienvenue après la création réussie de l'utilisateur
-        sendWelcomeEmailWithFallback(user.getEmail());
+        // L'e-mail de bienvenue est enregistré dans la même transaction que l'utilisateur et envoyé en arrière-plan
+        emailOutboxService.enqueueWelcomeEmail(user.getEmail());
+        invalidateLoginCache(user.getId(), user.getEmail());
     }
 
     /**
@@ -71,29 +90,11 @@ public class UserServiceImpl implements UserService {
      * @throws IllegalArgumentException Si une des validations échoue.
      */
     private void validateUserData(User user, String confirmPassword) {
-        if (!ValidationUtil.isValidEmail(user.getEmail())) {
-            logger.error("Format de l'email invalide pour : " + user.getEmail());
-            throw new IllegalArgumentException("INVALID_EMAIL_FORMAT");
-        }
-
-        if (!ValidationUtil.isValidFirstName(user.getFirstName())) {
-            logger.error("Prénom invalide : " + user.getFirstName());
-            throw new IllegalArgumentException("INVALID_FIRST_NAME");
-        }
-
-        if (!ValidationUtil.isValidLastName(user.getLastName())) {
-            logger.error("Nom de famille invalide : " + user.getLastName());
-            throw new IllegalArgumentException("INVALID_LAST_NAME");
-        }
-
-        if (!user.getPassword().equals(confirmPassword)) {
-            logger.error("Les mots de passe ne correspondent pas pour l'email : " + user.getEmail());
-            throw new IllegalArgumentException("PASSWORDS_DO_NOT_MATCH");
-        }
-
-        if (!ValidationUtil.isValidPassword(user.getPassword())) {
-            logger.error("Format de mot de passe invalide pour l'utilisateur avec l'email : " + user.getEmail());
-            throw new IllegalArgumentException("INVALID_PASSWORD_FORMAT");
+        List<String> errors = ValidationUtil.validateRegistration(user.getEmail(), user.getFirstName(),
+                user.getLastName(), user.getPassword(), confirmPassword);
+        if (!errors.isEmpty()) {
+            logger.error("Données d'inscription invalides pour l'email " + user.getEmail() + " : " + errors);
+            throw new IllegalArgumentException(errors.get(0));
         }
     }
 
@@ -164,7 +165,7 @@ public class UserServiceImpl implements UserService {
     private void validateAndUpdateBasicInfo(User user, String firstName, String lastName, String newEmail, String confirmEmail) {
         // Validation du prénom
         if (firstName != null && !firstName.isEmpty()) {
-            firstName = firstName.trim().replaceAll("\\s+", " ");
+            firstName = ValidationUtil.normalizeWhitespace(firstName);
             if (!ValidationUtil.isValidFirstName(firstName)) {
                 logger.error("Prénom invalide pour : " + firstName);
                 throw new IllegalArgumentException("INVALID_FIRST_NAME");
@@ -175,7 +176,7 @@ public class UserServiceImpl implements UserService {
 
         // Validation du nom de famille
         if (lastName != null && !lastName.isEmpty()) {
-            lastName = lastName.trim().replaceAll("\\s+", " ");
+            lastName = ValidationUtil.normalizeWhitespace(lastName);
             if (!ValidationUtil.isValidLastName(lastName)) {
                 logger.error("Nom de famille invalide pour : " + lastName);
                 throw new IllegalArgumentException("INVALID_LAST_NAME");
@@ -301,7 +302,7 @@ public class UserServiceImpl implements UserService {
      * @param blacklist Indicateur si l'utilisateur doit être blacklisté.
      * @param active    Indicateur si l'utilisateur doit être activé.
      * @param fkRole    Rôle à attribuer à l'utilisateur.
-     * @throws IllegalArgumentException Si l'ID de rôle est invalide.
+     * @throws IllegalArgumentException Si l'ID de rôle est invalide ou inconnu.
      */
     private void updateAdminFields(User user, String blacklist, String active, String fkRole) {
         user.setBlacklist(blacklist != null);
@@ -313,6 +314,10 @@ public class UserServiceImpl implements UserService {
         if (fkRole != null && !fkRole.isEmpty()) {
             try {
                 int roleId = Integer.parseInt(fkRole);
+                if (!roleCache.exists(roleId)) {
+                    logger.error("Rôle inconnu : " + roleId);
+                    throw new IllegalArgumentException("INVALID_ROLE_ID");
+                }
                 Role role = new Role();
                 role.setId(roleId);
                 user.setFkRole(role);
@@ -333,6 +338,7 @@ public class UserServiceImpl implements UserService {
     public void updateUser(User user) {
         logger.info("Mise à jour de l'utilisateur avec l'email : " + user.getEmail());
         userDao.updateUser(user);
+        invalidateLoginCache(user.getId(), user.getEmail());
         logger.info("Utilisateur mis à jour avec succès : " + user.getEmail());
     }
 
@@ -355,14 +361,14 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * Récupère tous les utilisateurs.
+     * Récupère le résumé de tous les utilisateurs.
      *
-     * @return Une liste de tous les utilisateurs.
+     * @return Les résumés de tous les utilisateurs.
      */
     @Override
-    public List<User> findAll() {
+    public List<UserSummary> findAll() {
         logger.debug("Récupération de tous les utilisateurs");
-        List<User> users = userDao.findAll();
+        List<UserSummary> users = userDao.findAll();
         logger.info("Nombre d'utilisateurs récupérés : " + users.size());
         return users;
     }
@@ -390,11 +396,18 @@ public class UserServiceImpl implements UserService {
     public void deleteByEmail(String email) {
         logger.info("Suppression de l'utilisateur avec l'email : " + email);
         userDao.deleteByEmail(email);
+        invalidateLoginCache(0, email);
         logger.info("Utilisateur supprimé avec succès : " + email);
     }
 
     /**
      * Authentifie un utilisateur avec son email et son mot de passe.
+     * <p>
+     * Les informations de connexion sont lues par une projection (voir {@link LoginCache}) :
+     * une tentative échouée ne charge jamais l'entité complète et les tentatives répétées
+     * sont servies par le cache. L'utilisateur complet, avec son rôle, n'est chargé
+     * qu'après la vérification du mot de passe.
+     * </p>
      *
      * @param email    L'email de l'utilisateur.
      * @param password Le mot de passe de l'utilisateur.
@@ -404,17 +417,24 @@ public class UserServiceImpl implements UserService {
     @Override
     public User authenticateUser(String email, String password) {
         logger.info("Tentative d'authentification pour l'utilisateur avec l'email : " + email);
-        Optional<User> userOptional = userDao.findByEmail(email);
+        Optional<LoginCredentials> credentialsOptional = loginCache.get(email, userDao::findLoginCredentials);
 
-        if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            if (!user.getActive()) {
+        if (credentialsOptional.isPresent()) {
+            LoginCredentials credentials = credentialsOptional.get();
+            if (!credentials.isActive()) {
                 logger.warn("Échec de l'authentification : utilisateur désactivé avec l'email : " + email);
                 throw new IllegalArgumentException("USER_NOT_ACTIVE");
             }
-            if (checkPassword(password, user.getPassword())) {
+            if (checkPassword(password, credentials.getPasswordHash())) {
                 logger.info("Authentification réussie pour l'utilisateur avec l'email : " + email);
-                return user;
+                rehashPasswordIfNeeded(email, credentials, password);
+                Optional<User> user = userDao.findById(credentials.getUserId(), UserFetchPlan.LOGIN_PRINCIPAL);
+                if (user.isPresent()) {
+                    return user.get();
+                }
+                // Supprimé entre la lecture en cache et le chargement
+                logger.warn("Échec de l'authentification : utilisateur supprimé entre-temps, ID " + credentials.getUserId());
+                loginCache.invalidateUser(credentials.getUserId(), email);
             } else {
                 logger.warn("Échec de l'authentification : mot de passe incorrect pour l'email : " + email);
             }
@@ -434,7 +454,23 @@ public class UserServiceImpl implements UserService {
     @Override
     public Optional<User> findById(int id) {
         logger.debug("Recherche de l'utilisateur avec l'ID : " + id);
-        Optional<User> user = userDao.findById(id);
+        return logFound(id, userDao.findById(id));
+    }
+
+    /**
+     * Recherche un utilisateur par son ID, avec le graphe affiché par l'écran appelant.
+     *
+     * @param id        L'ID de l'utilisateur à rechercher.
+     * @param fetchPlan Le graphe à charger.
+     * @return Un {@link Optional} contenant l'utilisateur trouvé, ou vide s'il n'existe pas.
+     */
+    @Override
+    public Optional<User> findById(int id, UserFetchPlan fetchPlan) {
+        logger.debug("Recherche de l'utilisateur avec l'ID : " + id + " (" + fetchPlan + ")");
+        return logFound(id, userDao.findById(id, fetchPlan));
+    }
+
+    private Optional<User> logFound(int id, Optional<User> user) {
         if (user.isPresent()) {
             logger.info("Utilisateur trouvé avec l'ID : " + id);
         } else {
@@ -452,18 +488,59 @@ public class UserServiceImpl implements UserService {
     public void deleteById(int id) {
         logger.info("Suppression de l'utilisateur avec l'ID : " + id);
         userDao.deleteById(id);
+        invalidateLoginCache(id, null);
         logger.info("Utilisateur supprimé avec succès : ID " + id);
     }
 
     /**
-     * Hache un mot de passe en utilisant BCrypt.
+     * Recalcule le hash du mot de passe avec le coût BCrypt configuré s'il a été produit
+     * avec un autre coût. Le mot de passe en clair n'est connu qu'à la connexion.
+     * Un échec n'empêche pas la connexion : le hash sera recalculé à la connexion suivante.
+     *
+     * @param email       L'email saisi à la connexion.
+     * @param credentials Les informations de connexion de l'utilisateur authentifié.
+     * @param password    Le mot de passe en clair, déjà vérifié.
+     */
+    private void rehashPasswordIfNeeded(String email, LoginCredentials credentials, String password) {
+        if (!passwordHasher.needsRehash(credentials.getPasswordHash())) {
+            return;
+        }
+        int userId = credentials.getUserId();
+        try {
+            String newHash = hashPassword(password);
+            userDao.updatePassword(userId, newHash);
+            LoginCredentials updated = credentials.withPasswordHash(newHash);
+            JpaUtil.runAfterCompletion(() -> loginCache.refresh(email, updated));
+            passwordHasher.recordRehash();
+            logger.info("Hash du mot de passe recalculé avec le coût " + passwordHasher.getCost() + " pour l'utilisateur ID " + userId);
+        } catch (RuntimeException e) {
+            logger.warn("Impossible de recalculer le hash du mot de passe pour l'utilisateur ID " + userId, e);
+        }
+    }
+
+    /**
+     * Retire un utilisateur du cache d'authentification, immédiatement puis à nouveau
+     * après la fin de la transaction : une connexion concurrente ne peut ainsi pas
+     * remettre en cache les valeurs antérieures à la modification.
+     *
+     * @param userId L'ID de l'utilisateur, ou 0 s'il n'est pas connu.
+     * @param email  L'email de l'utilisateur, ou {@code null} s'il n'est pas connu.
+     */
+    private void invalidateLoginCache(int userId, String email) {
+        loginCache.invalidateUser(userId, email);
+        JpaUtil.runAfterCompletion(() -> loginCache.invalidateUser(userId, email));
+    }
+
+    /**
+     * Hache un mot de passe en utilisant BCrypt, sur le pool de hachage dédié.
      *
      * @param password Le mot de passe en clair.
      * @return Le mot de passe haché.
+     * @throws IllegalStateException Si le pool de hachage est saturé ("PASSWORD_HASHING_BUSY").
      */
     private String hashPassword(String password) {
         logger.debug("Hachage du mot de passe");
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+        return passwordHasher.hash(password);
     }
 
     /**
@@ -472,10 +549,11 @@ public class UserServiceImpl implements UserService {
      * @param plainPassword  Le mot de passe en clair.
      * @param hashedPassword Le mot de passe haché.
      * @return {@code true} si le mot de passe correspond, {@code false} sinon.
+     * @throws IllegalStateException Si le pool de hachage est saturé ("PASSWORD_HASHING_BUSY").
      */
     public boolean checkPassword(String plainPassword, String hashedPassword) {
         logger.debug("Vérification du mot de passe haché");
-        return BCrypt.checkpw(plainPassword, hashedPassword);
+        return passwordHasher.verify(plainPassword, hashedPassword);
     }
 
     /**
@@ -485,7 +563,7 @@ public class UserServiceImpl implements UserService {
      * @param searchQuery La requête de recherche.
      * @return Une liste d'utilisateurs correspondant à la requête de recherche.
      */
-    public List<User> filterUsers(List<User> users, String searchQuery) {
+    public List<UserSummary> filterUsers(List<UserSummary> users, String searchQuery) {
         if (searchQuery == null || searchQuery.isEmpty()) {
             return users;
         }
@@ -500,23 +578,101 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * Envoie un e-mail de bienvenue à l'adresse e-mail spécifiée.
-     * <p>
-     * Cette méthode tente d'envoyer un e-mail de bienvenue à l'utilisateur après une inscription réussie.
-     * En cas d'échec (par exemple, si une exception {@link javax.mail.MessagingException} est lancée),
-     * l'erreur est capturée et un message est enregistré dans les logs. L'inscription de l'utilisateur
-     * n'est pas affectée par l'échec de l'envoi de l'e-mail.
-     * </p>
+     * Recherche une page d'utilisateurs par préfixe, la pagination étant déléguée à la base de données.
      *
-     * @param email L'adresse e-mail de l'utilisateur à qui envoyer l'e-mail de bienvenue.
+     * @param searchQuery La requête de recherche, ou {@code null}/vide pour tous les utilisateurs.
+     * @param page        Le numéro de page (à partir de 1).
+     * @param pageSize    Le nombre d'utilisateurs par page.
+     * @return Les utilisateurs de la page demandée.
      */
-    private void sendWelcomeEmailWithFallback(String email) {
-        try {
-            EmailUtil.sendWelcomeEmail(email);
-            logger.info("E-mail de bienvenue envoyé avec succès à : " + email);
-        } catch (MessagingException e) {
-            logger.error("Erreur lors de l'envoi de l'e-mail de bienvenue à : " + email, e);
-            // Permet des opérations de fallback, des actions supplémentaires au besoin. Ex : Alerte administrateur, logs, etc
+    @Override
+    public List<User> searchUsers(String searchQuery, int page, int pageSize) {
+        int firstResult = (Math.max(page, 1) - 1) * pageSize;
+        logger.debug("Recherche des utilisateurs : " + searchQuery + ", page " + page);
+        return userDao.search(searchQuery, firstResult, pageSize, UserFetchPlan.ADMIN_LIST);
+    }
+
+    /**
+     * Compte les utilisateurs correspondant à une requête de recherche.
+     *
+     * @param searchQuery La requête de recherche, ou {@code null}/vide pour tous les utilisateurs.
+     * @return Le nombre d'utilisateurs correspondants.
+     */
+    @Override
+    public long countUsers(String searchQuery) {
+        return userDao.countSearch(searchQuery);
+    }
+
+    /**
+     * Applique les états administrables soumis. Les valeurs actuelles sont lues par une
+     * projection unique, puis seuls les utilisateurs dont une valeur a changé sont mis à jour,
+     * en une seule transaction.
+     *
+     * @param submittedStates Les états soumis depuis le panneau d'administration.
+     * @return Le nombre d'utilisateurs modifiés.
+     */
+    @Override
+    public int updateAdminStates(List<UserAdminState> submittedStates) {
+        Map<Integer, UserAdminState> currentStates = userDao.findAdminStatesByIds(
+                        submittedStates.stream().map(UserAdminState::getUserId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.toMap(UserAdminState::getUserId, Function.identity()));
+
+        List<UserAdminState> changes = submittedStates.stream()
+                .filter(submitted -> currentStates.containsKey(submitted.getUserId()))
+                .map(submitted -> keepCurrentRoleIfMissing(submitted, currentStates.get(submitted.getUserId())))
+                .filter(this::hasKnownRole)
+                .filter(submitted -> submitted.differsFrom(currentStates.get(submitted.getUserId())))
+                .collect(Collectors.toList());
+
+        logger.info(changes.size() + " utilisateurs modifiés sur " + submittedStates.size() + " soumis");
+        int updated = userDao.updateAdminStates(changes);
+        if (!changes.isEmpty()) {
+            List<Integer> changedIds = changes.stream().map(UserAdminState::getUserId).collect(Collectors.toList());
+            loginCache.invalidateUsers(changedIds);
+            JpaUtil.runAfterCompletion(() -> loginCache.invalidateUsers(changedIds));
+        }
+        return updated;
+    }
+
+    /**
+     * Écarte un état soumis dont le rôle n'existe pas dans la table des rôles.
+     *
+     * @param submitted L'état soumis.
+     * @return {@code true} si le rôle soumis existe (ou si l'utilisateur n'a pas de rôle).
+     */
+    private boolean hasKnownRole(UserAdminState submitted) {
+        if (submitted.getRoleId() == null || roleCache.exists(submitted.getRoleId())) {
+            return true;
         }
+        logger.warn("Rôle inconnu " + submitted.getRoleId() + " ignoré pour l'utilisateur " + submitted.getUserId());
+        return false;
+    }
+
+    /**
+     * Conserve le rôle actuel lorsqu'aucun rôle n'a été soumis pour l'utilisateur.
+     *
+     * @param submitted L'état soumis.
+     * @param current   L'état actuel en base.
+     * @return L'état soumis, complété du rôle actuel si nécessaire.
+     */
+    private UserAdminState keepCurrentRoleIfMissing(UserAdminState submitted, UserAdminState current) {
+        if (submitted.getRoleId() != null) {
+            return submitted;
+        }
+        return new UserAdminState(submitted.getUserId(), current.getRoleId(), submitted.isActive(), submitted.isBlacklist());
+    }
+
+    /**
+     * Récupère une page d'utilisateurs après le curseur donné (pagination par clé).
+     *
+     * @param afterId  L'ID du dernier élément de la page précédente, ou 0 pour la première page.
+     * @param pageSize Le nombre maximum d'éléments à retourner.
+     * @return La page d'utilisateurs et le curseur de la page suivante.
+     */
+    @Override
+    public KeysetPage<User> findPageAfter(int afterId, int pageSize) {
+        logger.debug("Récupération de la page d'utilisateurs après l'ID : " + afterId);
+        return userDao.findPageAfter(afterId, pageSize);
     }
 }
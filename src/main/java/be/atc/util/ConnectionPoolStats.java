@@ -0,0 +1,95 @@
+package be.atc.util;
+
+import java.util.Locale;
+
+/**
+ * Instantané immuable des statistiques du pool de connexions JDBC.
+ * <p>
+ * Les valeurs sont lues au moment de la création de l'objet et ne sont
+ * pas mises à jour par la suite.
+ * </p>
+ */
+public class ConnectionPoolStats {
+
+    private final int activeConnections;
+    private final int idleConnections;
+    private final int totalConnections;
+    private final int maxPoolSize;
+    private final int waitingThreads;
+    private final long acquisitionTimeouts;
+    private final double p99WaitMillis;
+    private final double maxWaitMillis;
+
+    /**
+     * Construit un instantané des statistiques du pool.
+     *
+     * @param activeConnections   Nombre de connexions actuellement empruntées.
+     * @param idleConnections     Nombre de connexions inactives disponibles.
+     * @param totalConnections    Nombre total de connexions ouvertes.
+     * @param maxPoolSize         Taille maximum configurée du pool.
+     * @param waitingThreads      Nombre de threads en attente d'une connexion.
+     * @param acquisitionTimeouts Nombre d'emprunts ayant échoué par dépassement du délai.
+     * @param p99WaitMillis       99e percentile du temps d'attente d'une connexion (ms).
+     * @param maxWaitMillis       Temps d'attente maximum observé (ms).
+     */
+    public ConnectionPoolStats(int activeConnections, int idleConnections, int totalConnections, int maxPoolSize,
+                               int waitingThreads, long acquisitionTimeouts, double p99WaitMillis, double maxWaitMillis) {
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.totalConnections = totalConnections;
+        this.maxPoolSize = maxPoolSize;
+        this.waitingThreads = waitingThreads;
+        this.acquisitionTimeouts = acquisitionTimeouts;
+        this.p99WaitMillis = p99WaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public int getTotalConnections() {
+        return totalConnections;
+    }
+
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public int getWaitingThreads() {
+        return waitingThreads;
+    }
+
+    public long getAcquisitionTimeouts() {
+        return acquisitionTimeouts;
+    }
+
+    public double getP99WaitMillis() {
+        return p99WaitMillis;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    /**
+     * Retourne une représentation JSON de l'instantané.
+     *
+     * @return La chaîne JSON représentant les statistiques du pool.
+     */
+    public String toJson() {
+        return String.format(Locale.ROOT,
+                "{\"active\": %d, \"idle\": %d, \"total\": %d, \"max\": %d, \"waiters\": %d, \"timeouts\": %d, \"p99WaitMs\": %.3f, \"maxWaitMs\": %.3f}",
+                activeConnections, idleConnections, totalConnections, maxPoolSize,
+                waitingThreads, acquisitionTimeouts, p99WaitMillis, maxWaitMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStats" + toJson();
+    }
+}
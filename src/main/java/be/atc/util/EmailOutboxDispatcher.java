@@ -0,0 +1,283 @@
+package be.atc.util;
+
+import be.atc.dao.EmailOutboxDao;
+import be.atc.dao.impl.EmailOutboxDaoImpl;
+import be.atc.entities.EmailOutbox;
+import org.apache.log4j.Logger;
+
+import javax.mail.MessagingException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Envoie en arrière-plan les e-mails de la boîte d'envoi ({@link EmailOutbox}).
+ * <p>
+ * Un thread de scrutation lit périodiquement les e-mails dont l'envoi est dû et
+ * les confie à un pool de threads d'envoi de taille fixe ({@code outbox.workers}).
+ * Chaque e-mail est d'abord réservé en base ({@link EmailOutboxDao#claim}) : une lecture
+ * périmée, ou un autre répartiteur qui a lu le même e-mail, ne peut donc pas l'envoyer une
+ * seconde fois. Un e-mail réservé dont l'envoi ne s'est jamais terminé (arrêt brutal) est
+ * repris après {@code outbox.claimTimeoutMs}.
+ * </p>
+ * <p>
+ * En cas d'échec, la tentative suivante est planifiée avec un délai exponentiel
+ * ({@code outbox.initialBackoffMs} doublé à chaque échec, plafonné à
+ * {@code outbox.maxBackoffMs}, avec ±20 % d'aléa) ; après {@code outbox.maxAttempts}
+ * tentatives, l'e-mail passe à l'état {@link EmailOutbox.Status#FAILED}.
+ * </p>
+ * <p>
+ * Démarré et arrêté par {@code AppContextListener}.
+ * </p>
+ */
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = Logger.getLogger(EmailOutboxDispatcher.class);
+
+    private static final EmailOutboxDispatcher INSTANCE = new EmailOutboxDispatcher(new EmailOutboxDaoImpl(), EmailUtil.getConfiguration());
+
+    private final EmailOutboxDao emailOutboxDao;
+    private final Sender sender;
+
+    private final int workerCount;
+    private final long pollIntervalMillis;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final long claimTimeoutMillis;
+
+    /**
+     * Identifiants des e-mails confiés au pool et dont la tentative n'est pas terminée.
+     */
+    private final Set<Integer> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private ScheduledExecutorService poller;
+    private ExecutorService workers;
+
+    /**
+     * Envoi d'un e-mail, par défaut {@link EmailUtil#sendEmail(String, String, String)}.
+     */
+    interface Sender {
+        void send(String recipient, String subject, String body) throws MessagingException;
+    }
+
+    /**
+     * Construit un répartiteur à partir de la configuration {@code outbox.*}.
+     *
+     * @param emailOutboxDao Le DAO de la boîte d'envoi.
+     * @param configuration  La configuration (voir {@code mail.properties}).
+     */
+    EmailOutboxDispatcher(EmailOutboxDao emailOutboxDao, Properties configuration) {
+        this(emailOutboxDao, configuration, EmailUtil::sendEmail);
+    }
+
+    /**
+     * Construit un répartiteur qui envoie les e-mails par {@code sender}.
+     *
+     * @param emailOutboxDao Le DAO de la boîte d'envoi.
+     * @param configuration  La configuration (voir {@code mail.properties}).
+     * @param sender         L'envoi d'un e-mail.
+     */
+    EmailOutboxDispatcher(EmailOutboxDao emailOutboxDao, Properties configuration, Sender sender) {
+        this.emailOutboxDao = emailOutboxDao;
+        this.sender = sender;
+        this.workerCount = Math.max(1, intProperty(configuration, "outbox.workers", 2));
+        this.pollIntervalMillis = intProperty(configuration, "outbox.pollIntervalMs", 2000);
+        this.batchSize = Math.max(1, intProperty(configuration, "outbox.batchSize", 20));
+        this.maxAttempts = Math.max(1, intProperty(configuration, "outbox.maxAttempts", 6));
+        this.initialBackoffMillis = intProperty(configuration, "outbox.initialBackoffMs", 30000);
+        this.maxBackoffMillis = intProperty(configuration, "outbox.maxBackoffMs", 3600000);
+        this.claimTimeoutMillis = intProperty(configuration, "outbox.claimTimeoutMs", 300000);
+    }
+
+    /**
+     * @return L'instance partagée du répartiteur.
+     */
+    public static EmailOutboxDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Démarre le thread de scrutation et le pool d'envoi.
+     */
+    public synchronized void start() {
+        if (poller != null) {
+            return;
+        }
+        workers = Executors.newFixedThreadPool(workerCount, namedDaemonThreads("email-outbox-worker"));
+        poller = Executors.newSingleThreadScheduledExecutor(namedDaemonThreads("email-outbox-poller"));
+        poller.scheduleWithFixedDelay(this::poll, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Boîte d'envoi démarrée : " + workerCount + " thread(s) d'envoi, scrutation toutes les " + pollIntervalMillis + " ms");
+    }
+
+    /**
+     * Arrête la scrutation et attend la fin des envois en cours (au plus 10 secondes).
+     * Les e-mails non envoyés restent en base et seront repris au prochain démarrage.
+     */
+    public synchronized void stop() {
+        if (poller == null) {
+            return;
+        }
+        poller.shutdownNow();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        poller = null;
+        workers = null;
+        logger.info("Boîte d'envoi arrêtée : " + toJson());
+    }
+
+    /**
+     * Lit les e-mails dus, les réserve et les confie au pool d'envoi, dans la limite des places libres.
+     * Un e-mail qui a changé depuis la lecture (envoyé, ou réservé par un autre répartiteur) est ignoré.
+     */
+    private void poll() {
+        try {
+            int capacity = batchSize - inFlight.size();
+            if (capacity <= 0) {
+                return;
+            }
+            List<EmailOutbox> due = emailOutboxDao.findDue(Instant.now(), capacity + inFlight.size());
+            for (EmailOutbox email : due) {
+                if (!inFlight.add(email.getId())) {
+                    continue;
+                }
+                boolean submitted = false;
+                try {
+                    Instant leaseUntil = Instant.now().plusMillis(claimTimeoutMillis);
+                    if (emailOutboxDao.claim(email.getId(), email.getStatus(), email.getAttempts(), leaseUntil)) {
+                        workers.execute(() -> deliver(email));
+                        submitted = true;
+                    }
+                } finally {
+                    if (!submitted) {
+                        inFlight.remove(email.getId());
+                    }
+                }
+            }
+        } catch (Exception e) {
+            // Une erreur ne doit pas arrêter la scrutation planifiée
+            logger.error("Erreur lors de la scrutation de la boîte d'envoi", e);
+        }
+    }
+
+    /**
+     * Effectue une tentative d'envoi et enregistre son résultat.
+     *
+     * @param email L'e-mail à envoyer, tel que lu avant sa réservation.
+     */
+    private void deliver(EmailOutbox email) {
+        int attempts = email.getAttempts() + 1; // Tentative comptée par la réservation
+        try {
+            sender.send(email.getRecipient(), email.getSubject(), email.getBody());
+            emailOutboxDao.markSent(email.getId(), attempts, Instant.now());
+            sent.increment();
+        } catch (Exception e) {
+            recordFailure(email, attempts, e);
+        } finally {
+            inFlight.remove(email.getId());
+        }
+    }
+
+    /**
+     * Planifie une nouvelle tentative, ou abandonne l'e-mail si le maximum est atteint.
+     *
+     * @param email    L'e-mail dont l'envoi a échoué.
+     * @param attempts Le nombre de tentatives effectuées.
+     * @param error    L'erreur rencontrée.
+     */
+    private void recordFailure(EmailOutbox email, int attempts, Exception error) {
+        try {
+            if (attempts >= maxAttempts) {
+                emailOutboxDao.markAttemptFailed(email.getId(), attempts, EmailOutbox.Status.FAILED, Instant.now(), error.toString());
+                failed.increment();
+                logger.error("Envoi abandonné après " + attempts + " tentative(s) pour : " + email.getRecipient(), error);
+            } else {
+                Instant nextAttemptAt = Instant.now().plusMillis(backoffMillis(attempts));
+                emailOutboxDao.markAttemptFailed(email.getId(), attempts, EmailOutbox.Status.PENDING, nextAttemptAt, error.toString());
+                retried.increment();
+                logger.warn("Échec de l'envoi à " + email.getRecipient() + " (tentative " + attempts + "), nouvelle tentative à " + nextAttemptAt);
+            }
+        } catch (Exception e) {
+            // L'e-mail reste dû : il sera repris à la prochaine scrutation
+            logger.error("Impossible d'enregistrer l'échec d'envoi de l'e-mail : ID " + email.getId(), e);
+        }
+    }
+
+    /**
+     * Calcule le délai avant la tentative suivante.
+     *
+     * @param attempts Le nombre de tentatives déjà effectuées (au moins 1).
+     * @return Le délai en millisecondes.
+     */
+    long backoffMillis(int attempts) {
+        long delay = initialBackoffMillis << Math.min(attempts - 1, 20);
+        delay = Math.min(delay, maxBackoffMillis);
+        double jitter = ThreadLocalRandom.current().nextDouble(0.8, 1.2);
+        return (long) (delay * jitter);
+    }
+
+    /**
+     * Retourne une représentation JSON de l'état de la boîte d'envoi.
+     *
+     * @return La chaîne JSON (e-mails en attente, réservés et échoués en base, compteurs depuis le démarrage).
+     */
+    public String toJson() {
+        return String.format(Locale.ROOT,
+                "{\"pending\": %d, \"sending\": %d, \"failed\": %d, \"inFlight\": %d, \"sentSinceStart\": %d, \"retriesSinceStart\": %d, \"failuresSinceStart\": %d}",
+                emailOutboxDao.countByStatus(EmailOutbox.Status.PENDING),
+                emailOutboxDao.countByStatus(EmailOutbox.Status.SENDING),
+                emailOutboxDao.countByStatus(EmailOutbox.Status.FAILED),
+                inFlight.size(), sent.sum(), retried.sum(), failed.sum());
+    }
+
+    /**
+     * Crée une fabrique de threads démons nommés.
+     *
+     * @param prefix Le préfixe du nom des threads.
+     * @return La fabrique de threads.
+     */
+    private static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Lit une propriété entière, avec une valeur par défaut si elle est absente.
+     *
+     * @param properties   Les propriétés à lire.
+     * @param key          La clé de la propriété.
+     * @param defaultValue La valeur par défaut.
+     * @return La valeur de la propriété.
+     */
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
@@ -0,0 +1,51 @@
+package be.atc.util;
+
+import javax.mail.Message;
+
+/**
+ * Résultat de l'envoi d'un message par {@link EmailUtil#sendAll(java.util.List)}.
+ */
+public class EmailSendResult {
+
+    private final int index;
+    private final Message message;
+    private final Exception error;
+
+    /**
+     * Construit le résultat de l'envoi d'un message.
+     *
+     * @param index   La position du message dans la liste envoyée.
+     * @param message Le message concerné.
+     * @param error   L'erreur rencontrée, ou {@code null} si l'envoi a réussi.
+     */
+    public EmailSendResult(int index, Message message, Exception error) {
+        this.index = index;
+        this.message = message;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Message getMessage() {
+        return message;
+    }
+
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * @return {@code true} si le message a été accepté par le serveur SMTP.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "EmailSendResult{index=" + index + ", success=" + isSuccess()
+                + (error == null ? "" : ", error=" + error.getMessage()) + "}";
+    }
+}
@@ -5,7 +5,18 @@ import org.apache.log4j.Logger;
 import javax.mail.*;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * La classe {@code EmailUtil} fournit des méthodes utilitaires pour envoyer des e-mails.
@@ -14,40 +25,96 @@ import java.util.Properties;
  *
  * <p>
  * Cette classe utilise la bibliothèque JavaMail pour gérer la création et l'envoi
- * des messages e-mails. Elle nécessite une configuration correcte des propriétés
- * SMTP pour fonctionner.
+ * des messages e-mails. La configuration SMTP est lue une seule fois dans le fichier
+ * {@code mail.properties} ; elle peut pointer vers un serveur SMTP local sans
+ * authentification ({@code mail.smtp.auth=false}).
+ * </p>
+ * <p>
+ * L'envoi est bloquant : il ne doit pas être appelé pendant le traitement d'une
+ * requête HTTP. Les e-mails applicatifs passent par la boîte d'envoi
+ * ({@code EmailOutboxService}) et sont envoyés par {@link EmailOutboxDispatcher}.
  * </p>
- *
  */
 public class EmailUtil {
 
     private static final Logger logger = Logger.getLogger(EmailUtil.class);
 
     /**
-     * Envoie un e-mail à l'utilisateur spécifié avec le sujet et le message donnés.
-     *
-     * @param toAddress L'adresse e-mail du destinataire.
-     * @param subject   Le sujet de l'e-mail.
-     * @param message   Le contenu de l'e-mail.
-     * @throws MessagingException Si une erreur survient lors de l'envoi de l'e-mail.
+     * Fichier de configuration SMTP et de la boîte d'envoi.
      */
-    public static void sendEmail(String toAddress, String subject, String message) throws MessagingException {
-        logger.info("Préparation de l'envoi de l'e-mail à : " + toAddress);
+    private static final String MAIL_PROPERTIES = "/mail.properties";
 
-        // Paramètres SMTP. Utilisation du service Mailtrap spécialisé dans le test d'envoi d'email.
-        String host = "sandbox.smtp.mailtrap.io"; // Remplacez par votre serveur SMTP
-        String port = "587"; // Le port SMTP, 587 pour TLS
-        final String username = ""; // Votre adresse e-mail
-        final String password = ""; // Votre mot de passe
+    /**
+     * Sujet de l'e-mail de bienvenue.
+     */
+    public static final String WELCOME_SUBJECT = "Bienvenue sur notre site !";
+
+    /**
+     * Contenu de l'e-mail de bienvenue.
+     */
+    public static final String WELCOME_MESSAGE = "Cher utilisateur,\n\nMerci de vous être inscrit sur notre site. Nous sommes heureux de vous accueillir parmi nous !\n\nCordialement,\nL'équipe PGCS";
+
+    /**
+     * Configuration lue dans {@code mail.properties}.
+     */
+    private static final Properties configuration = loadConfiguration();
+
+    /**
+     * Session JavaMail partagée, créée à partir de la configuration.
+     */
+    private static final Session session = createSession(configuration);
+
+    /**
+     * Pool des connexions SMTP réutilisables.
+     */
+    private static final SmtpTransportPool transportPool = new SmtpTransportPool(session,
+            Math.max(1, intProperty("mail.pool.maxConnections", 4)),
+            Math.max(1, intProperty("mail.pool.maxMessagesPerConnection", 100)),
+            intProperty("mail.pool.idleTimeoutMs", 30000),
+            intProperty("mail.pool.borrowTimeoutMs", 10000));
 
-        // Définir les propriétés de connexion
+    /**
+     * Threads utilisés par {@link #sendAll(List)}, un par connexion du pool au maximum.
+     */
+    private static final ExecutorService batchExecutor = Executors.newFixedThreadPool(transportPool.getMaxConnections(), senderThreads());
+
+    /**
+     * Charge la configuration SMTP depuis le classpath. Les valeurs par défaut
+     * correspondent au service Mailtrap utilisé pour le développement.
+     *
+     * @return La configuration SMTP et de la boîte d'envoi.
+     */
+    private static Properties loadConfiguration() {
         Properties properties = new Properties();
-        properties.put("mail.smtp.host", host);
-        properties.put("mail.smtp.port", port);
-        properties.put("mail.smtp.auth", "true");
-        properties.put("mail.smtp.starttls.enable", "true");
+        properties.setProperty("mail.smtp.host", "sandbox.smtp.mailtrap.io");
+        properties.setProperty("mail.smtp.port", "587"); // Le port SMTP, 587 pour TLS
+        properties.setProperty("mail.smtp.auth", "true");
+        properties.setProperty("mail.smtp.starttls.enable", "true");
+        try (InputStream input = EmailUtil.class.getResourceAsStream(MAIL_PROPERTIES)) {
+            if (input != null) {
+                properties.load(input);
+            } else {
+                logger.warn("Fichier " + MAIL_PROPERTIES + " introuvable, configuration SMTP par défaut utilisée");
+            }
+        } catch (IOException e) {
+            logger.error("Erreur lors de la lecture de " + MAIL_PROPERTIES, e);
+        }
+        return properties;
+    }
+
+    /**
+     * Crée la session JavaMail, avec authentification si {@code mail.smtp.auth} est activé.
+     *
+     * @param properties La configuration SMTP.
+     * @return La session JavaMail.
+     */
+    private static Session createSession(Properties properties) {
+        final String username = properties.getProperty("mail.user", "");
+        final String password = properties.getProperty("mail.password", "");
 
-        logger.debug("Propriétés SMTP définies.");
+        if (!Boolean.parseBoolean(properties.getProperty("mail.smtp.auth"))) {
+            return Session.getInstance(properties);
+        }
 
         // Créer une session avec authentification
         Authenticator auth = new Authenticator() {
@@ -55,24 +122,187 @@ public class EmailUtil {
                 return new PasswordAuthentication(username, password);
             }
         };
+        return Session.getInstance(properties, auth);
+    }
+
+    /**
+     * @return Une fabrique de threads démons nommés "smtp-sender-N".
+     */
+    private static ThreadFactory senderThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "smtp-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
 
-        Session session = Session.getInstance(properties, auth);
+    /**
+     * Lit une propriété entière de la configuration, avec une valeur par défaut si elle est absente.
+     *
+     * @param key          La clé de la propriété.
+     * @param defaultValue La valeur par défaut.
+     * @return La valeur de la propriété.
+     */
+    private static int intProperty(String key, int defaultValue) {
+        String value = configuration.getProperty(key);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : Integer.parseInt(value.trim());
+    }
 
-        // Créer un e-mail
+    /**
+     * Retourne la configuration lue dans {@code mail.properties}.
+     *
+     * @return Une copie de la configuration.
+     */
+    public static Properties getConfiguration() {
+        Properties copy = new Properties();
+        copy.putAll(configuration);
+        return copy;
+    }
+
+    /**
+     * @return L'adresse de l'expéditeur : {@code mail.from}, ou à défaut {@code mail.user}.
+     */
+    private static String senderAddress() {
+        String from = configuration.getProperty("mail.from", "").trim();
+        return from.isEmpty() ? configuration.getProperty("mail.user", "") : from;
+    }
+
+    /**
+     * Crée un message texte prêt à être envoyé.
+     *
+     * @param toAddress L'adresse e-mail du destinataire.
+     * @param subject   Le sujet de l'e-mail.
+     * @param message   Le contenu de l'e-mail.
+     * @return Le message.
+     * @throws MessagingException Si une adresse est invalide.
+     */
+    public static Message createMessage(String toAddress, String subject, String message) throws MessagingException {
         Message msg = new MimeMessage(session);
-        msg.setFrom(new InternetAddress(username));
+        msg.setFrom(new InternetAddress(senderAddress()));
         InternetAddress[] toAddresses = { new InternetAddress(toAddress) };
         msg.setRecipients(Message.RecipientType.TO, toAddresses);
         msg.setSubject(subject);
         msg.setSentDate(new java.util.Date());
         msg.setText(message);
+        return msg;
+    }
+
+    /**
+     * Envoie un e-mail à l'utilisateur spécifié avec le sujet et le message donnés.
+     *
+     * @param toAddress L'adresse e-mail du destinataire.
+     * @param subject   Le sujet de l'e-mail.
+     * @param message   Le contenu de l'e-mail.
+     * @throws MessagingException Si une erreur survient lors de l'envoi de l'e-mail.
+     */
+    public static void sendEmail(String toAddress, String subject, String message) throws MessagingException {
+        logger.info("Préparation de l'envoi de l'e-mail à : " + toAddress);
+        send(createMessage(toAddress, subject, message));
+        logger.info("E-mail envoyé avec succès à : " + toAddress);
+    }
+
+    /**
+     * Envoie un message sur une connexion du pool.
+     * <p>
+     * Si l'envoi échoue sur une connexion déjà utilisée (le serveur a pu la couper),
+     * il est retenté une fois sur une connexion nouvellement ouverte, et non sur une autre
+     * connexion inactive du pool qui pourrait avoir été coupée elle aussi. Un refus de destinataire
+     * ({@link SendFailedException}) n'est pas retenté.
+     * </p>
+     *
+     * @param message Le message à envoyer.
+     * @throws MessagingException Si l'envoi échoue.
+     */
+    public static void send(Message message) throws MessagingException {
+        SmtpTransportPool.PooledTransport transport = transportPool.borrow();
+        try {
+            transport.send(message);
+            transportPool.release(transport, false);
+        } catch (MessagingException e) {
+            transportPool.release(transport, true);
+            if (e instanceof SendFailedException || !transport.hasBeenUsed()) {
+                throw e;
+            }
+            logger.debug("Connexion SMTP réutilisée invalide, nouvelle tentative sur une nouvelle connexion", e);
+            SmtpTransportPool.PooledTransport fresh = transportPool.borrowNew();
+            boolean broken = true;
+            try {
+                fresh.send(message);
+                broken = false;
+            } finally {
+                transportPool.release(fresh, broken);
+            }
+        }
+    }
 
-        logger.info("E-mail prêt à être envoyé à : " + toAddress);
+    /**
+     * Envoie un lot de messages en réutilisant les connexions du pool.
+     * <p>
+     * Les messages sont répartis sur au plus {@code mail.pool.maxConnections}
+     * connexions envoyant en parallèle ; chaque connexion envoie sa part des
+     * messages à la suite. L'échec d'un message n'interrompt pas le lot.
+     * </p>
+     *
+     * @param messages Les messages à envoyer.
+     * @return Le résultat de chaque message, dans l'ordre de la liste fournie.
+     */
+    public static List<EmailSendResult> sendAll(List<Message> messages) {
+        int size = messages.size();
+        EmailSendResult[] results = new EmailSendResult[size];
+        int lanes = Math.min(size, transportPool.getMaxConnections());
+        List<Future<?>> futures = new ArrayList<>(lanes);
+        for (int lane = 0; lane < lanes; lane++) {
+            final int first = lane;
+            futures.add(batchExecutor.submit(() -> {
+                for (int i = first; i < size; i += lanes) {
+                    results[i] = sendQuietly(i, messages.get(i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                logger.error("Erreur inattendue lors de l'envoi d'un lot d'e-mails", e.getCause());
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (results[i] == null) {
+                results[i] = new EmailSendResult(i, messages.get(i), new MessagingException("Envoi non effectué"));
+            }
+        }
+        long failures = Arrays.stream(results).filter(result -> !result.isSuccess()).count();
+        logger.info("Lot d'e-mails envoyé : " + (size - failures) + "/" + size + " message(s) accepté(s)");
+        return Arrays.asList(results);
+    }
 
-        // Envoyer l'e-mail
-        Transport.send(msg);
+    /**
+     * Envoie un message du lot et capture l'éventuelle erreur.
+     *
+     * @param index   La position du message dans le lot.
+     * @param message Le message à envoyer.
+     * @return Le résultat de l'envoi.
+     */
+    private static EmailSendResult sendQuietly(int index, Message message) {
+        try {
+            send(message);
+            return new EmailSendResult(index, message, null);
+        } catch (Exception e) {
+            logger.warn("Échec de l'envoi du message " + index + " du lot : " + e.getMessage());
+            return new EmailSendResult(index, message, e);
+        }
+    }
 
-        logger.info("E-mail envoyé avec succès à : " + toAddress);
+    /**
+     * Ferme les connexions SMTP et les threads d'envoi (appelée à l'arrêt de l'application).
+     */
+    public static void shutdown() {
+        batchExecutor.shutdown();
+        transportPool.close();
     }
 
     /**
@@ -82,10 +312,7 @@ public class EmailUtil {
      * @throws MessagingException Si une erreur survient lors de l'envoi de l'e-mail.
      */
     public static void sendWelcomeEmail(String toAddress) throws MessagingException {
-        String subject = "Bienvenue sur notre site !";
-        String message = "Cher utilisateur,\n\nMerci de vous être inscrit sur notre site. Nous sommes heureux de vous accueillir parmi nous !\n\nCordialement,\nL'équipe PGCS";
-
         logger.info("Envoi d'un e-mail de bienvenue à l'utilisateur à l'adresse : " + toAddress);
-        sendEmail(toAddress, subject, message);
+        sendEmail(toAddress, WELCOME_SUBJECT, WELCOME_MESSAGE);
     }
 }
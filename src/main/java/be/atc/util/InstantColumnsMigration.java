@@ -0,0 +1,133 @@
+package be.atc.util;
+
+import org.apache.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+
+/**
+ * Migration V3 : convertit en {@code DATETIME} les colonnes {@link Instant} que les entités
+ * enregistraient en LONGBLOB (objet Java sérialisé) avant {@link be.atc.entities.InstantConverter}.
+ * <p>
+ * Le SQL ne sait pas relire un objet sérialisé : pour chaque colonne, une colonne temporaire
+ * {@code DATETIME} est ajoutée et remplie ligne par ligne à partir de la valeur désérialisée,
+ * puis remplace l'ancienne. Une colonne déjà temporelle (base créée à la main) est laissée telle quelle.
+ * </p>
+ */
+public class InstantColumnsMigration implements SchemaMigrator.JavaMigration {
+
+    private static final Logger logger = Logger.getLogger(InstantColumnsMigration.class);
+
+    /**
+     * Colonnes converties : table, clé primaire, colonne.
+     */
+    private static final String[][] COLUMNS = {
+            {"reservations", "reservation_id", "date"},
+            {"closes", "close_id", "begin_date"},
+            {"closes", "close_id", "end_date"},
+            {"users_subscriptions", "user_subscription_id", "begin_date_subscription"},
+            {"users_subscriptions", "user_subscription_id", "end_date_subscription"}
+    };
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Connection connection) throws SQLException {
+        for (String[] column : COLUMNS) {
+            convert(connection, column[0], column[1], column[2]);
+        }
+    }
+
+    private void convert(Connection connection, String table, String idColumn, String column) throws SQLException {
+        if (!isBinary(connection, table, column)) {
+            logger.info("Colonne " + table + "." + column + " déjà temporelle, non convertie");
+            return;
+        }
+        String converted = column + "_datetime";
+        int rows = 0;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ADD COLUMN " + converted + " DATETIME");
+            try (ResultSet values = statement.executeQuery("SELECT " + idColumn + ", " + column + " FROM " + table);
+                 PreparedStatement update = connection.prepareStatement(
+                         "UPDATE " + table + " SET " + converted + " = ? WHERE " + idColumn + " = ?")) {
+                while (values.next()) {
+                    int id = values.getInt(1);
+                    update.setTimestamp(1, Timestamp.from(deserialize(values.getBytes(2), table, column, id)));
+                    update.setInt(2, id);
+                    update.addBatch();
+                    if (++rows % BATCH_SIZE == 0) {
+                        update.executeBatch();
+                    }
+                }
+                update.executeBatch();
+            }
+            statement.execute("ALTER TABLE " + table + " DROP COLUMN " + column);
+            statement.execute("ALTER TABLE " + table + " CHANGE " + converted + " " + column + " DATETIME");
+            // En mode MySQL, H2 ignore la contrainte NOT NULL d'un CHANGE : elle est posée à part
+            statement.execute("ALTER TABLE " + table + " MODIFY " + column + " DATETIME NOT NULL");
+        }
+        logger.info("Colonne " + table + "." + column + " convertie en DATETIME : " + rows + " lignes");
+    }
+
+    /**
+     * Indique si la colonne est binaire (BLOB), quelle que soit la casse retenue par la base pour les noms.
+     */
+    private boolean isBinary(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String[] names : new String[][]{{table, column}, {table.toUpperCase(), column.toUpperCase()}}) {
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(), names[0], names[1])) {
+                if (columns.next()) {
+                    int type = columns.getInt("DATA_TYPE");
+                    return type == Types.BLOB || type == Types.LONGVARBINARY || type == Types.VARBINARY || type == Types.BINARY;
+                }
+            }
+        }
+        throw new SQLException("Colonne introuvable : " + table + "." + column);
+    }
+
+    /**
+     * Relit un {@link Instant} sérialisé. Seules les classes de la sérialisation d'un Instant sont acceptées.
+     */
+    private Instant deserialize(byte[] bytes, String table, String column, int id) throws SQLException {
+        if (bytes == null) {
+            throw new SQLException("Valeur absente : " + table + "." + column + " pour l'ID " + id);
+        }
+        try (ObjectInputStream input = new InstantInputStream(new ByteArrayInputStream(bytes))) {
+            return (Instant) input.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new SQLException("Valeur illisible : " + table + "." + column + " pour l'ID " + id, e);
+        }
+    }
+
+    /**
+     * Flux d'objets limité à un {@link Instant} (sérialisé par la classe interne {@code java.time.Ser}).
+     */
+    private static final class InstantInputStream extends ObjectInputStream {
+
+        private InstantInputStream(InputStream input) throws IOException {
+            super(input);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+            String name = description.getName();
+            if (!name.equals("java.time.Ser") && !name.equals(Instant.class.getName())) {
+                throw new InvalidClassException(name, "classe inattendue dans une colonne Instant");
+            }
+            return super.resolveClass(description);
+        }
+    }
+}
@@ -1,8 +1,25 @@
 package be.atc.util;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.apache.log4j.Logger;
+import org.eclipse.persistence.jpa.JpaHelper;
+
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
 import javax.persistence.Persistence;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Supplier;
 
 /**
  * Utilitaire pour la gestion de l'EntityManager et de l'EntityManagerFactory.
@@ -11,36 +28,526 @@ import javax.persistence.Persistence;
  * d'une EntityManagerFactory et pour fermer l'EntityManagerFactory lors de
  * l'arrêt de l'application.
  * </p>
+ * <p>
+ * Les connexions JDBC sont fournies par un pool HikariCP borné, configuré
+ * à partir du fichier {@code database.properties}. Le pool est transmis à
+ * EclipseLink comme DataSource non-JTA, ce qui remplace la gestion interne
+ * des connexions d'EclipseLink.
+ * </p>
+ * <p>
+ * Avant la création de l'EntityManagerFactory, le schéma est mis à jour par les scripts
+ * de migration versionnés ({@link SchemaMigrator}) ; EclipseLink ne génère ni ne modifie
+ * les tables. Les migrations peuvent être désactivées avec {@code db.migrations.enabled=false}.
+ * </p>
+ * <p>
+ * Pendant le traitement d'une requête HTTP (voir {@code EntityManagerFilter}),
+ * un seul EntityManager et une seule transaction sont partagés par tous les DAO
+ * du thread courant : l'unité de travail est validée une seule fois en fin de requête.
+ * En dehors d'une requête, chaque appel obtient son propre EntityManager.
+ * </p>
  */
 public class JpaUtil {
 
+    private static final Logger logger = Logger.getLogger(JpaUtil.class);
+
     /**
      * Nom de l'unité de persistance définie dans persistence.xml.
      */
     private static final String PERSISTENCE_UNIT_NAME = "projetCentreSportifPU";
 
+    /**
+     * Fichier de configuration de la connexion et du pool.
+     */
+    private static final String DATABASE_PROPERTIES = "/database.properties";
+
+    /**
+     * Nom du pool, visible dans les logs et via JMX.
+     */
+    private static final String POOL_NAME = "centreSportifPool";
+
+    /**
+     * Code d'erreur MySQL d'une clé unique en double (ER_DUP_ENTRY).
+     */
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+
     /**
      * Singleton pour l'EntityManagerFactory.
      */
     private static EntityManagerFactory entityManagerFactory;
 
-    // Initialisation de l'EntityManagerFactory
+    /**
+     * Pool de connexions JDBC utilisé par l'EntityManagerFactory.
+     */
+    private static HikariDataSource dataSource;
+
+    /**
+     * Métriques d'attente collectées sur le pool.
+     */
+    private static final ConnectionPoolMetrics poolMetrics = new ConnectionPoolMetrics();
+
+    /**
+     * Indique si le thread courant traite une requête HTTP.
+     */
+    private static final ThreadLocal<Boolean> requestScope = new ThreadLocal<>();
+
+    /**
+     * EntityManager partagé par la requête HTTP en cours, créé à la première utilisation.
+     */
+    private static final ThreadLocal<EntityManager> requestEntityManager = new ThreadLocal<>();
+
+    /**
+     * Actions à exécuter à la fin de la transaction de la requête HTTP en cours.
+     */
+    private static final ThreadLocal<List<Runnable>> afterCompletionActions = new ThreadLocal<>();
+
+    /**
+     * Actions à exécuter seulement si la transaction de la requête HTTP en cours est validée.
+     */
+    private static final ThreadLocal<List<Runnable>> afterCommitActions = new ThreadLocal<>();
+
+    /**
+     * Actions à exécuter seulement si la transaction de la requête HTTP en cours est annulée.
+     */
+    private static final ThreadLocal<List<Runnable>> afterRollbackActions = new ThreadLocal<>();
+
+    // Initialisation du pool, migration du schéma puis création de l'EntityManagerFactory
     static {
         try {
-            entityManagerFactory = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME);
+            long start = System.nanoTime();
+            Properties databaseProperties = loadDatabaseProperties();
+            dataSource = createDataSource(databaseProperties);
+            if (booleanProperty(databaseProperties, "db.migrations.enabled", true)) {
+                new SchemaMigrator(dataSource).migrate();
+            }
+
+            Map<String, Object> properties = new HashMap<>();
+            properties.putAll(persistenceOverrides(databaseProperties));
+            properties.put("javax.persistence.nonJtaDataSource", dataSource);
+            entityManagerFactory = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME, properties);
+            logger.info("Accès à la base de données initialisé en " + (System.nanoTime() - start) / 1_000_000 + " ms");
         } catch (Exception e) {
             e.printStackTrace();
+            if (dataSource != null) {
+                dataSource.close();
+            }
             throw new ExceptionInInitializerError("Initialisation de l'EntityManagerFactory a échoué");
         }
     }
 
+    /**
+     * Charge les propriétés de connexion depuis le classpath.
+     *
+     * @return Les propriétés de connexion et du pool.
+     * @throws IOException Si le fichier ne peut pas être lu.
+     */
+    private static Properties loadDatabaseProperties() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream input = JpaUtil.class.getResourceAsStream(DATABASE_PROPERTIES)) {
+            if (input == null) {
+                throw new IOException("Fichier de configuration introuvable : " + DATABASE_PROPERTIES);
+            }
+            properties.load(input);
+        }
+        return properties;
+    }
+
+    /**
+     * Extrait les propriétés JPA ({@code eclipselink.*}, {@code javax.persistence.*}) de
+     * {@code database.properties}. Elles remplacent celles de persistence.xml, ce qui
+     * permet par exemple aux benchmarks de viser une base H2 en mémoire.
+     *
+     * @param properties Les propriétés de connexion et du pool.
+     * @return Les propriétés à transmettre à l'EntityManagerFactory.
+     */
+    private static Map<String, Object> persistenceOverrides(Properties properties) {
+        Map<String, Object> overrides = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith("eclipselink.") || key.startsWith("javax.persistence.")) {
+                overrides.put(key, properties.getProperty(key));
+            }
+        }
+        return overrides;
+    }
+
+    /**
+     * Construit le pool de connexions à partir des propriétés fournies.
+     * <p>
+     * HikariCP valide une connexion à l'emprunt ({@code Connection.isValid}) dès
+     * qu'elle est restée inactive plus de 500 ms, dans la limite de
+     * {@code pool.validationTimeoutMs}. Une connexion non rendue au-delà de
+     * {@code pool.leakDetectionThresholdMs} est signalée dans les logs avec la
+     * pile d'appel de l'emprunteur.
+     * </p>
+     *
+     * @param properties Les propriétés de connexion et du pool.
+     * @return Le pool de connexions initialisé.
+     */
+    private static HikariDataSource createDataSource(Properties properties) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(POOL_NAME);
+        config.setDriverClassName(properties.getProperty("db.driver"));
+        config.setJdbcUrl(properties.getProperty("db.url"));
+        config.setUsername(properties.getProperty("db.user"));
+        config.setPassword(properties.getProperty("db.password", ""));
+
+        config.setMinimumIdle(intProperty(properties, "pool.minIdle", 5));
+        config.setMaximumPoolSize(intProperty(properties, "pool.maxSize", 20));
+        config.setConnectionTimeout(intProperty(properties, "pool.connectionTimeoutMs", 3000));
+        config.setValidationTimeout(intProperty(properties, "pool.validationTimeoutMs", 1000));
+        config.setLeakDetectionThreshold(intProperty(properties, "pool.leakDetectionThresholdMs", 10000));
+        config.setIdleTimeout(intProperty(properties, "pool.idleTimeoutMs", 600000));
+        config.setMaxLifetime(intProperty(properties, "pool.maxLifetimeMs", 1800000));
+
+        config.setMetricsTrackerFactory(poolMetrics);
+        config.setRegisterMbeans(true);
+
+        logger.info("Initialisation du pool de connexions : min=" + config.getMinimumIdle()
+                + ", max=" + config.getMaximumPoolSize()
+                + ", timeout=" + config.getConnectionTimeout() + " ms");
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * Lit une propriété entière, avec une valeur par défaut si elle est absente.
+     *
+     * @param properties   Les propriétés à lire.
+     * @param key          La clé de la propriété.
+     * @param defaultValue La valeur par défaut.
+     * @return La valeur de la propriété.
+     */
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Lit une propriété booléenne, avec une valeur par défaut si elle est absente.
+     *
+     * @param properties   Les propriétés à lire.
+     * @param key          La clé de la propriété.
+     * @param defaultValue La valeur par défaut.
+     * @return La valeur de la propriété.
+     */
+    private static boolean booleanProperty(Properties properties, String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
     /**
      * Obtient un EntityManager à partir de l'EntityManagerFactory.
+     * <p>
+     * Pendant une requête HTTP, retourne l'EntityManager de la requête (créé et
+     * placé en transaction au premier appel). Sinon, retourne un nouvel EntityManager
+     * qui doit être libéré avec {@link #closeEntityManager(EntityManager)}.
+     * </p>
      *
-     * @return Un nouvel EntityManager.
+     * @return L'EntityManager de la requête en cours, ou un nouvel EntityManager.
      */
     public static EntityManager getEntityManager() {
-        return entityManagerFactory.createEntityManager();
+        if (!Boolean.TRUE.equals(requestScope.get())) {
+            return entityManagerFactory.createEntityManager();
+        }
+        EntityManager em = requestEntityManager.get();
+        if (em == null) {
+            em = entityManagerFactory.createEntityManager();
+            em.getTransaction().begin();
+            requestEntityManager.set(em);
+        }
+        return em;
+    }
+
+    /**
+     * Ferme un EntityManager, sauf s'il appartient à la requête HTTP en cours
+     * (il sera alors fermé en fin de requête).
+     *
+     * @param em L'EntityManager à libérer.
+     */
+    public static void closeEntityManager(EntityManager em) {
+        if (em != requestEntityManager.get() && em.isOpen()) {
+            em.close();
+        }
+    }
+
+    /**
+     * Démarre une transaction sur l'EntityManager, ou rejoint celle déjà active.
+     *
+     * @param em L'EntityManager concerné.
+     * @return {@code true} si la transaction a été démarrée par l'appelant, {@code false} si elle a été rejointe.
+     */
+    public static boolean beginTransaction(EntityManager em) {
+        EntityTransaction transaction = em.getTransaction();
+        if (transaction.isActive()) {
+            return false;
+        }
+        transaction.begin();
+        return true;
+    }
+
+    /**
+     * Valide la transaction si elle a été démarrée par l'appelant. Si elle a été
+     * rejointe, les modifications sont seulement envoyées à la base (flush) afin
+     * que les erreurs SQL et les identifiants générés soient connus immédiatement ;
+     * la validation aura lieu en fin de requête.
+     *
+     * @param em               L'EntityManager concerné.
+     * @param ownsTransaction  Valeur retournée par {@link #beginTransaction(EntityManager)}.
+     */
+    public static void commitTransaction(EntityManager em, boolean ownsTransaction) {
+        if (ownsTransaction) {
+            em.getTransaction().commit();
+        } else {
+            em.flush();
+        }
+    }
+
+    /**
+     * Annule la transaction si elle a été démarrée par l'appelant, ou la marque
+     * pour annulation en fin de requête si elle a été rejointe.
+     *
+     * @param em               L'EntityManager concerné.
+     * @param ownsTransaction  Valeur retournée par {@link #beginTransaction(EntityManager)}.
+     */
+    public static void rollbackTransaction(EntityManager em, boolean ownsTransaction) {
+        EntityTransaction transaction = em.getTransaction();
+        if (!transaction.isActive()) {
+            return;
+        }
+        if (ownsTransaction) {
+            transaction.rollback();
+        } else {
+            transaction.setRollbackOnly();
+        }
+    }
+
+    /**
+     * Ouvre la portée de requête pour le thread courant. L'EntityManager de la
+     * requête n'est créé qu'au premier accès aux données.
+     */
+    public static void openRequestScope() {
+        requestScope.set(Boolean.TRUE);
+    }
+
+    /**
+     * Ferme la portée de requête du thread courant : valide la transaction de la
+     * requête (ou l'annule en cas d'échec) puis ferme son EntityManager.
+     *
+     * @param success {@code false} si le traitement de la requête a échoué, la transaction est alors annulée.
+     */
+    public static void closeRequestScope(boolean success) {
+        EntityManager em = requestEntityManager.get();
+        List<Runnable> actions = afterCompletionActions.get();
+        List<Runnable> commitActions = afterCommitActions.get();
+        List<Runnable> rollbackActions = afterRollbackActions.get();
+        requestEntityManager.remove();
+        requestScope.remove();
+        afterCompletionActions.remove();
+        afterCommitActions.remove();
+        afterRollbackActions.remove();
+        if (em == null) {
+            runAll(success ? commitActions : rollbackActions);
+            runAll(actions);
+            return;
+        }
+        boolean committed = false;
+        try {
+            EntityTransaction transaction = em.getTransaction();
+            if (transaction.isActive()) {
+                if (success && !transaction.getRollbackOnly()) {
+                    transaction.commit();
+                    committed = true;
+                } else {
+                    transaction.rollback();
+                    logger.warn("Transaction de la requête annulée");
+                }
+            }
+        } finally {
+            em.close();
+            runAll(committed ? commitActions : rollbackActions);
+            runAll(actions);
+        }
+    }
+
+    /**
+     * Exécute une action comme en dehors de toute requête HTTP : chaque accès aux données obtient
+     * son propre EntityManager, fermé par le DAO, au lieu de celui de la requête. Les entités lues
+     * ne restent donc pas gérées (et en mémoire) jusqu'à la fin de la requête.
+     *
+     * @param action L'action à exécuter.
+     * @param <T>    Le type du résultat.
+     * @return Le résultat de l'action.
+     */
+    public static <T> T callOutsideRequestScope(Supplier<T> action) {
+        Boolean scope = requestScope.get();
+        EntityManager em = requestEntityManager.get();
+        requestScope.remove();
+        requestEntityManager.remove();
+        try {
+            return action.get();
+        } finally {
+            if (scope != null) {
+                requestScope.set(scope);
+            }
+            if (em != null) {
+                requestEntityManager.set(em);
+            }
+        }
+    }
+
+    /**
+     * Marque la transaction de la requête HTTP en cours pour annulation, par exemple
+     * lorsqu'une validation échoue après la modification d'une entité gérée : les
+     * modifications partielles ne seront pas validées en fin de requête.
+     */
+    public static void setRollbackOnly() {
+        EntityManager em = requestEntityManager.get();
+        if (em != null && em.getTransaction().isActive()) {
+            em.getTransaction().setRollbackOnly();
+        }
+    }
+
+    /**
+     * Exécute une action une fois la transaction de la requête HTTP en cours terminée
+     * (validée ou annulée), par exemple pour invalider un cache applicatif : l'invalider
+     * avant la validation laisserait une autre requête y replacer l'ancienne valeur.
+     * Hors requête HTTP, l'action est exécutée immédiatement.
+     *
+     * @param action L'action à exécuter.
+     */
+    public static void runAfterCompletion(Runnable action) {
+        if (!Boolean.TRUE.equals(requestScope.get())) {
+            action.run();
+            return;
+        }
+        register(afterCompletionActions, action);
+    }
+
+    /**
+     * Exécute une action seulement si la transaction de la requête HTTP en cours est validée,
+     * par exemple pour publier dans un cache une modification désormais visible en base.
+     * Hors requête HTTP, le DAO a déjà validé sa propre transaction : l'action est exécutée immédiatement.
+     *
+     * @param action L'action à exécuter.
+     */
+    public static void runAfterCommit(Runnable action) {
+        if (!Boolean.TRUE.equals(requestScope.get())) {
+            action.run();
+            return;
+        }
+        register(afterCommitActions, action);
+    }
+
+    /**
+     * Exécute une action seulement si la transaction de la requête HTTP en cours est annulée
+     * (échec de la requête, annulation demandée ou échec de la validation), par exemple pour
+     * défaire une réservation faite en mémoire. Hors requête HTTP, le DAO a déjà validé ou annulé
+     * sa propre transaction et l'appelant traite l'exception : l'action est ignorée.
+     *
+     * @param action L'action à exécuter.
+     */
+    public static void runAfterRollback(Runnable action) {
+        if (Boolean.TRUE.equals(requestScope.get())) {
+            register(afterRollbackActions, action);
+        }
+    }
+
+    /**
+     * Indique si une exception de persistance provient de la violation de la contrainte
+     * unique nommée, à l'exclusion de toute autre contrainte d'intégrité (clé étrangère,
+     * colonne non nulle, autre clé unique). Le doublon est reconnu par le code d'erreur
+     * MySQL 1062 ou par l'état SQL standard 23505 (H2), et la contrainte par son nom dans
+     * le message de la base.
+     *
+     * @param e          L'exception levée lors d'une écriture.
+     * @param constraint Le nom de la contrainte unique.
+     * @return {@code true} si la base a rejeté l'écriture comme doublon de cette contrainte.
+     */
+    public static boolean isUniqueViolation(Throwable e, String constraint) {
+        String name = constraint.toLowerCase(Locale.ROOT);
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                SQLException sqlException = (SQLException) cause;
+                boolean duplicate = sqlException.getErrorCode() == MYSQL_DUPLICATE_ENTRY
+                        || "23505".equals(sqlException.getSQLState());
+                if (duplicate && sqlException.getMessage() != null
+                        && sqlException.getMessage().toLowerCase(Locale.ROOT).contains(name)) {
+                    return true;
+                }
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retire des entités du cache partagé d'EclipseLink, ainsi que les résultats de requêtes
+     * mis en cache qui les concernent : elles seront relues en base au prochain accès.
+     * <p>
+     * Les modifications faites par l'unité de persistance mettent déjà ce cache à jour ; cette
+     * méthode sert après une modification faite hors de l'application (script SQL, autre instance)
+     * ou par une opération d'administration, via {@link #runAfterCommit(Runnable)}.
+     * </p>
+     *
+     * @param entityClasses Les classes d'entités à retirer du cache.
+     */
+    public static void evictFromSharedCache(Class<?>... entityClasses) {
+        for (Class<?> entityClass : entityClasses) {
+            entityManagerFactory.getCache().evict(entityClass);
+            JpaHelper.getServerSession(entityManagerFactory).getIdentityMapAccessor().invalidateQueryCache(entityClass);
+            logger.info("Cache partagé vidé pour l'entité " + entityClass.getSimpleName());
+        }
+    }
+
+    /**
+     * Ajoute une action à la liste de la requête HTTP en cours.
+     *
+     * @param actions La liste d'actions concernée.
+     * @param action  L'action à ajouter.
+     */
+    private static void register(ThreadLocal<List<Runnable>> actions, Runnable action) {
+        List<Runnable> list = actions.get();
+        if (list == null) {
+            list = new ArrayList<>(2);
+            actions.set(list);
+        }
+        list.add(action);
+    }
+
+    /**
+     * Exécute les actions de fin de transaction ; une action en échec n'empêche pas les suivantes.
+     *
+     * @param actions Les actions enregistrées, ou {@code null}.
+     */
+    private static void runAll(List<Runnable> actions) {
+        if (actions == null) {
+            return;
+        }
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                logger.error("Erreur lors d'une action de fin de transaction", e);
+            }
+        }
+    }
+
+    /**
+     * Retourne un instantané des statistiques du pool de connexions.
+     *
+     * @return Les statistiques courantes du pool (connexions actives, inactives, threads en attente, p99 d'attente).
+     */
+    public static ConnectionPoolStats getPoolStats() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return new ConnectionPoolStats(
+                pool.getActiveConnections(),
+                pool.getIdleConnections(),
+                pool.getTotalConnections(),
+                dataSource.getMaximumPoolSize(),
+                pool.getThreadsAwaitingConnection(),
+                poolMetrics.getTimeoutCount(),
+                poolMetrics.getWaitPercentileMillis(99),
+                poolMetrics.getMaxWaitMillis());
     }
 
     /**
@@ -48,12 +555,16 @@ public class JpaUtil {
      * <p>
      * Cette méthode doit être appelée pour libérer les ressources allouées par
      * l'EntityManagerFactory. Elle doit être invoquée lorsque l'application est
-     * en cours d'arrêt.
+     * en cours d'arrêt. Le pool de connexions est fermé à la suite.
      * </p>
      */
     public static void closeEntityManagerFactory() {
         if (entityManagerFactory != null && entityManagerFactory.isOpen()) {
             entityManagerFactory.close();
         }
+        if (dataSource != null && !dataSource.isClosed()) {
+            logger.info("Fermeture du pool de connexions : " + getPoolStats());
+            dataSource.close();
+        }
     }
 }
@@ -0,0 +1,72 @@
+package be.atc.util;
+
+/**
+ * Classe utilitaire pour la construction manuelle de réponses JSON.
+ * <p>
+ * Les réponses JSON de l'application (autocomplétion des localités, grille des réservations)
+ * sont écrites directement dans un {@link StringBuilder}, sans bibliothèque de sérialisation.
+ * Toute chaîne issue de la base doit passer par {@link #escape(String)} avant d'y être insérée.
+ * </p>
+ */
+public class JsonUtil {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private JsonUtil() {
+    }
+
+    /**
+     * Échappe une chaîne pour l'inclure entre guillemets dans du JSON : guillemet, barre oblique
+     * inverse, caractères de contrôle (U+0000 à U+001F), ainsi que les séparateurs de ligne et de
+     * paragraphe U+2028 et U+2029, valides en JSON mais pas dans une chaîne JavaScript.
+     *
+     * @param value La chaîne à échapper, éventuellement {@code null}.
+     * @return La chaîne échappée, vide si {@code value} est {@code null}.
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = replacement(c);
+            if (replacement == null) {
+                if (escaped != null) {
+                    escaped.append(c);
+                }
+                continue;
+            }
+            if (escaped == null) {
+                escaped = new StringBuilder(value.length() + 16).append(value, 0, i);
+            }
+            escaped.append(replacement);
+        }
+        return escaped == null ? value : escaped.toString();
+    }
+
+    /**
+     * @return La séquence d'échappement du caractère, ou {@code null} s'il peut être écrit tel quel.
+     */
+    private static String replacement(char c) {
+        switch (c) {
+            case '"': return "\\\"";
+            case '\\': return "\\\\";
+            case '\n': return "\\n";
+            case '\r': return "\\r";
+            case '\t': return "\\t";
+            case '\b': return "\\b";
+            case '\f': return "\\f";
+            case '\u2028':
+            case '\u2029':
+                return unicodeEscape(c);
+            default:
+                return c < 0x20 ? unicodeEscape(c) : null;
+        }
+    }
+
+    private static String unicodeEscape(char c) {
+        return new String(new char[]{'\\', 'u',
+                HEX_DIGITS[(c >> 12) & 0xF], HEX_DIGITS[(c >> 8) & 0xF], HEX_DIGITS[(c >> 4) & 0xF], HEX_DIGITS[c & 0xF]});
+    }
+}
@@ -0,0 +1,69 @@
+package be.atc.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tampon circulaire de durées, de taille fixe, pour calculer des percentiles sur
+ * les dernières mesures sans allocation ni verrou sur le chemin critique.
+ */
+public class LatencySamples {
+
+    /**
+     * Nombre d'échantillons conservés (puissance de 2).
+     */
+    private static final int SAMPLE_SIZE = 1024;
+
+    private final AtomicLongArray samplesNanos = new AtomicLongArray(SAMPLE_SIZE);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Enregistre une durée.
+     *
+     * @param nanos La durée en nanosecondes.
+     */
+    public void record(long nanos) {
+        long index = count.getAndIncrement();
+        samplesNanos.set((int) (index & (SAMPLE_SIZE - 1)), nanos);
+        long currentMax;
+        do {
+            currentMax = maxNanos.get();
+        } while (nanos > currentMax && !maxNanos.compareAndSet(currentMax, nanos));
+    }
+
+    /**
+     * @return Le nombre total de durées enregistrées.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Calcule le percentile demandé sur les dernières durées enregistrées.
+     *
+     * @param percentile Le percentile souhaité, entre 0 et 100.
+     * @return La durée correspondante en millisecondes, ou 0 si aucun échantillon.
+     */
+    public double getPercentileMillis(double percentile) {
+        int size = (int) Math.min(count.get(), SAMPLE_SIZE);
+        if (size == 0) {
+            return 0;
+        }
+        long[] samples = new long[size];
+        for (int i = 0; i < size; i++) {
+            samples[i] = samplesNanos.get(i);
+        }
+        Arrays.sort(samples);
+        int rank = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return samples[Math.max(0, Math.min(rank, size - 1))] / 1_000_000.0;
+    }
+
+    /**
+     * @return La durée maximum observée en millisecondes.
+     */
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+}
@@ -0,0 +1,269 @@
+package be.atc.util;
+
+import org.apache.log4j.Logger;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hachage et vérification des mots de passe BCrypt sur un pool de threads dédié.
+ * <p>
+ * BCrypt est volontairement coûteux en CPU (plusieurs dizaines de millisecondes par
+ * opération). Exécuté sur les threads du conteneur, un pic de connexions occupe tous
+ * les threads de requête. Les opérations sont donc confiées à un pool borné de
+ * {@code hashing.threads} threads, précédé d'une file de {@code hashing.queueCapacity}
+ * places. Lorsque le pool et la file sont pleins, l'appelant attend une place au plus
+ * {@code hashing.admissionTimeoutMs} ms, puis l'opération est refusée avec
+ * {@code IllegalStateException("PASSWORD_HASHING_BUSY")}.
+ * </p>
+ * <p>
+ * Le coût BCrypt est configuré par {@code bcrypt.cost} (borné entre {@value #MIN_COST}
+ * et {@value #MAX_COST}). {@link #needsRehash(String)} indique si un hash existant a
+ * été produit avec un autre coût, afin de le recalculer lors de la connexion suivante.
+ * </p>
+ */
+public class PasswordHasher {
+
+    private static final Logger logger = Logger.getLogger(PasswordHasher.class);
+
+    /**
+     * Fichier de configuration du hachage.
+     */
+    private static final String SECURITY_PROPERTIES = "/security.properties";
+
+    /**
+     * Coût minimum accepté (valeur minimum de BCrypt).
+     */
+    public static final int MIN_COST = 4;
+
+    /**
+     * Coût maximum accepté : au-delà, une opération dépasse la seconde.
+     */
+    public static final int MAX_COST = 14;
+
+    private static final PasswordHasher INSTANCE = new PasswordHasher(loadConfiguration());
+
+    private final int cost;
+    private final long admissionTimeoutMillis;
+    private final Semaphore admission;
+    private final ThreadPoolExecutor executor;
+
+    private final LatencySamples hashLatency = new LatencySamples();
+    private final LatencySamples verifyLatency = new LatencySamples();
+    private final LatencySamples queueWait = new LatencySamples();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+
+    /**
+     * Construit le service de hachage à partir de la configuration.
+     *
+     * @param configuration La configuration (voir {@code security.properties}).
+     */
+    PasswordHasher(Properties configuration) {
+        int requestedCost = intProperty(configuration, "bcrypt.cost", 10);
+        this.cost = Math.max(MIN_COST, Math.min(requestedCost, MAX_COST));
+        if (cost != requestedCost) {
+            logger.warn("bcrypt.cost=" + requestedCost + " hors limites, coût utilisé : " + cost);
+        }
+        int threads = Math.max(1, intProperty(configuration, "hashing.threads", Runtime.getRuntime().availableProcessors()));
+        int queueCapacity = Math.max(0, intProperty(configuration, "hashing.queueCapacity", 32));
+        this.admissionTimeoutMillis = intProperty(configuration, "hashing.admissionTimeoutMs", 2000);
+
+        // Le sémaphore est la seule borne : il limite les tâches admises à threads + file. La file de
+        // l'exécuteur n'est pas bornée, car un appelant rend sa place dès que son résultat est prêt,
+        // avant que le thread libéré n'ait pris la tâche suivante dans la file.
+        this.admission = new Semaphore(threads + queueCapacity, true);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Hachage des mots de passe : coût BCrypt " + cost + ", " + threads + " thread(s), file de " + queueCapacity);
+    }
+
+    /**
+     * @return L'instance partagée du service de hachage.
+     */
+    public static PasswordHasher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return Le coût BCrypt utilisé pour les nouveaux hash.
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Hache un mot de passe avec le coût configuré.
+     *
+     * @param password Le mot de passe en clair.
+     * @return Le mot de passe haché.
+     * @throws IllegalStateException Si le pool de hachage est saturé ("PASSWORD_HASHING_BUSY").
+     */
+    public String hash(String password) {
+        return execute(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)), hashLatency);
+    }
+
+    /**
+     * Vérifie si un mot de passe correspond à son hash.
+     *
+     * @param plainPassword  Le mot de passe en clair.
+     * @param hashedPassword Le mot de passe haché.
+     * @return {@code true} si le mot de passe correspond, {@code false} sinon.
+     * @throws IllegalStateException Si le pool de hachage est saturé ("PASSWORD_HASHING_BUSY").
+     */
+    public boolean verify(String plainPassword, String hashedPassword) {
+        return execute(() -> BCrypt.checkpw(plainPassword, hashedPassword), verifyLatency);
+    }
+
+    /**
+     * Indique si un hash a été produit avec un coût différent du coût configuré.
+     *
+     * @param hashedPassword Le mot de passe haché ("$2a$10$...").
+     * @return {@code true} si le hash doit être recalculé.
+     */
+    public boolean needsRehash(String hashedPassword) {
+        if (hashedPassword == null || hashedPassword.length() < 7 || hashedPassword.charAt(0) != '$') {
+            return false;
+        }
+        int costStart = hashedPassword.indexOf('$', 1) + 1;
+        try {
+            return Integer.parseInt(hashedPassword.substring(costStart, costStart + 2)) != cost;
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Enregistre qu'un hash a été recalculé avec le coût courant.
+     */
+    public void recordRehash() {
+        rehashed.increment();
+    }
+
+    /**
+     * Exécute une opération sur le pool dédié et attend son résultat.
+     *
+     * @param task    L'opération BCrypt.
+     * @param latency Les mesures de durée à alimenter (attente comprise).
+     * @param <T>     Le type du résultat.
+     * @return Le résultat de l'opération.
+     */
+    private <T> T execute(Callable<T> task, LatencySamples latency) {
+        long start = System.nanoTime();
+        try {
+            if (!admission.tryAcquire(admissionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                logger.warn("Pool de hachage saturé, opération refusée après " + admissionTimeoutMillis + " ms");
+                throw new IllegalStateException("PASSWORD_HASHING_BUSY");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("PASSWORD_HASHING_BUSY", e);
+        }
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - start);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            // Exécuteur arrêté : l'opération est refusée comme en cas de saturation
+            admission.release();
+            rejected.increment();
+            logger.warn("Pool de hachage indisponible, opération refusée");
+            throw new IllegalStateException("PASSWORD_HASHING_BUSY", e);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("PASSWORD_HASHING_INTERRUPTED", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause; // Ex. : hash invalide (IllegalArgumentException de BCrypt)
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            admission.release();
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Retourne une représentation JSON des métriques de hachage.
+     *
+     * @return La chaîne JSON (débit cumulé, latences p50/p99/max, attente en file, refus).
+     */
+    public String toJson() {
+        return String.format(Locale.ROOT,
+                "{\"cost\": %d, \"threads\": %d, \"active\": %d, \"queued\": %d, "
+                        + "\"hashes\": %d, \"hashP50Ms\": %.3f, \"hashP99Ms\": %.3f, \"hashMaxMs\": %.3f, "
+                        + "\"verifications\": %d, \"verifyP50Ms\": %.3f, \"verifyP99Ms\": %.3f, \"verifyMaxMs\": %.3f, "
+                        + "\"queueWaitP99Ms\": %.3f, \"rejected\": %d, \"rehashed\": %d}",
+                cost, executor.getMaximumPoolSize(), executor.getActiveCount(), executor.getQueue().size(),
+                hashLatency.getCount(), hashLatency.getPercentileMillis(50), hashLatency.getPercentileMillis(99), hashLatency.getMaxMillis(),
+                verifyLatency.getCount(), verifyLatency.getPercentileMillis(50), verifyLatency.getPercentileMillis(99), verifyLatency.getMaxMillis(),
+                queueWait.getPercentileMillis(99), rejected.sum(), rehashed.sum());
+    }
+
+    /**
+     * Arrête le pool de hachage (appelée à l'arrêt de l'application).
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Charge la configuration depuis le classpath ; les valeurs par défaut s'appliquent si le fichier est absent.
+     *
+     * @return La configuration du hachage.
+     */
+    private static Properties loadConfiguration() {
+        Properties properties = new Properties();
+        try (InputStream input = PasswordHasher.class.getResourceAsStream(SECURITY_PROPERTIES)) {
+            if (input != null) {
+                properties.load(input);
+            } else {
+                logger.warn("Fichier " + SECURITY_PROPERTIES + " introuvable, configuration par défaut utilisée");
+            }
+        } catch (IOException e) {
+            logger.error("Erreur lors de la lecture de " + SECURITY_PROPERTIES, e);
+        }
+        return properties;
+    }
+
+    /**
+     * Lit une propriété entière, avec une valeur par défaut si elle est absente.
+     *
+     * @param properties   Les propriétés à lire.
+     * @param key          La clé de la propriété.
+     * @param defaultValue La valeur par défaut.
+     * @return La valeur de la propriété.
+     */
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : Integer.parseInt(value.trim());
+    }
+}
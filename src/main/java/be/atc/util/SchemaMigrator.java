@@ -0,0 +1,580 @@
+package be.atc.util;
+
+import org.apache.log4j.Logger;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransactionRollbackException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Applique au démarrage les scripts SQL de migration du schéma, chacun une seule fois.
+ * <p>
+ * Les scripts sont lus dans le classpath ({@code db/migration}), dans l'ordre de
+ * {@code migrations.list}, et nommés {@code V<version>__<description>.sql}. Chaque script
+ * appliqué est enregistré dans la table {@value #HISTORY_TABLE} avec sa somme de contrôle
+ * (CRC32) : au démarrage suivant, il est ignoré, et l'application refuse de démarrer si
+ * son contenu a changé depuis.
+ * </p>
+ * <p>
+ * Une migration que le SQL seul ne peut pas exprimer (conversion de données sérialisées par
+ * Java...) est une classe {@link JavaMigration}, déclarée dans {@code migrations.list} par
+ * {@code V<version>__<description>=<classe>}. Sa somme de contrôle porte sur cette déclaration.
+ * </p>
+ * <p>
+ * Une base créée avant les migrations (à la main ou par la génération du schéma d'EclipseLink)
+ * n'a pas de table d'historique : elle est considérée comme étant à la version 1, dont le
+ * script n'est alors pas exécuté, puis les versions suivantes lui sont appliquées. Elle doit
+ * contenir toutes les tables créées par la version 1 et aucune de celles créées par les
+ * versions suivantes ; sinon l'application refuse de démarrer plutôt que d'enregistrer la
+ * version 1 sur un schéma qui n'y correspond pas.
+ * </p>
+ * <p>
+ * Plusieurs instances démarrées en même temps ne doivent pas appliquer deux fois la même
+ * migration : toute la séquence (lecture de l'historique, application, enregistrement) est
+ * exécutée sous un verrou de base de données. Sur MySQL, c'est un verrou nommé
+ * ({@code GET_LOCK}), lié à la connexion et donc insensible aux validations implicites du DDL.
+ * Sur les autres bases (H2 pour les mesures de performance), c'est la ligne de la table
+ * {@value #LOCK_TABLE}, verrouillée ({@code SELECT ... FOR UPDATE}) par une seconde connexion
+ * dont la transaction reste ouverte. Dans les deux cas, le verrou est rendu à la fin de la
+ * migration, ou par la base si l'instance s'arrête brutalement.
+ * </p>
+ * <p>
+ * MySQL valide implicitement chaque instruction DDL : un script interrompu par une erreur peut
+ * être partiellement appliqué. Il n'est pas enregistré et doit être corrigé à la main avant
+ * le démarrage suivant.
+ * </p>
+ */
+public class SchemaMigrator {
+
+    private static final Logger logger = Logger.getLogger(SchemaMigrator.class);
+
+    /**
+     * Table d'historique des migrations appliquées.
+     */
+    public static final String HISTORY_TABLE = "schema_version";
+
+    /**
+     * Table contenant la ligne verrouillée pendant la migration, sur les bases autres que MySQL.
+     */
+    public static final String LOCK_TABLE = "schema_version_lock";
+
+    /**
+     * Nom du verrou MySQL, suivi du nom de la base : {@code GET_LOCK} porte sur tout le serveur.
+     */
+    private static final String LOCK_NAME = "schema_migrator.";
+
+    /**
+     * Attente maximum du verrou, le temps qu'une autre instance termine ses migrations.
+     */
+    private static final int LOCK_TIMEOUT_SECONDS = 600;
+
+    /**
+     * Délai entre deux tentatives de verrouillage de la ligne de {@value #LOCK_TABLE}.
+     */
+    private static final long LOCK_RETRY_MILLIS = 500;
+
+    /**
+     * Emplacement des scripts dans le classpath.
+     */
+    private static final String MIGRATIONS_LOCATION = "/db/migration/";
+
+    /**
+     * Liste ordonnée des scripts à appliquer.
+     */
+    private static final String MIGRATIONS_INDEX = MIGRATIONS_LOCATION + "migrations.list";
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+    /**
+     * Déclaration d'une migration Java : {@code V<version>__<description>=<classe>}.
+     */
+    private static final Pattern JAVA_MIGRATION = Pattern.compile("V(\\d+)__(\\w+)\\s*=\\s*([\\w.$]+)");
+
+    /**
+     * Création de table dans un script, pour vérifier le schéma d'une base existante.
+     */
+    private static final Pattern CREATE_TABLE = Pattern.compile("CREATE TABLE (?:IF NOT EXISTS )?(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Fin d'instruction : un point-virgule en fin de ligne.
+     */
+    private static final Pattern STATEMENT_END = Pattern.compile(";\\s*(\\n|$)");
+
+    /**
+     * Table présente dans toute base créée avant les migrations.
+     */
+    private static final String BASELINE_TABLE = "users";
+
+    /**
+     * Verrou de migration, rendu par {@link #close()}.
+     */
+    private interface MigrationLock extends AutoCloseable {
+        @Override
+        void close() throws SQLException;
+    }
+
+    /**
+     * Migration écrite en Java, pour ce que le SQL seul ne peut pas exprimer.
+     * Elle est exécutée dans la transaction de la migration, comme un script.
+     */
+    public interface JavaMigration {
+
+        /**
+         * Applique la migration.
+         *
+         * @param connection La connexion à la base, sans validation automatique.
+         * @throws SQLException Si la migration échoue.
+         */
+        void migrate(Connection connection) throws SQLException;
+    }
+
+    private final DataSource dataSource;
+
+    /**
+     * Construit un outil de migration pour la base fournie.
+     *
+     * @param dataSource La source des connexions à la base à migrer.
+     */
+    public SchemaMigrator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Applique, dans l'ordre, les migrations qui ne l'ont pas encore été.
+     *
+     * @return Le nombre de migrations appliquées.
+     * @throws IllegalStateException Si un script est introuvable, mal nommé, modifié après son application,
+     *                               plus ancien que la dernière version appliquée, si son exécution échoue,
+     *                               si une base existante sans historique ne correspond pas à la version 1,
+     *                               ou si une autre instance garde le verrou de migration trop longtemps.
+     */
+    public int migrate() {
+        long start = System.nanoTime();
+        List<Migration> migrations = loadMigrations();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            try (MigrationLock ignored = lock(connection)) {
+                return migrate(connection, migrations, start);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Migration du schéma impossible", e);
+        }
+    }
+
+    /**
+     * Applique les migrations manquantes ; appelée sous le verrou de migration.
+     *
+     * @return Le nombre de migrations appliquées.
+     */
+    private int migrate(Connection connection, List<Migration> migrations, long start) throws SQLException {
+        createHistoryTable(connection);
+        Map<Integer, Long> applied = findApplied(connection);
+        if (applied.isEmpty() && tableExists(connection, BASELINE_TABLE)) {
+            Migration baseline = migrations.get(0);
+            verifyBaseline(connection, migrations);
+            record(connection, baseline, 0);
+            applied.put(baseline.version, baseline.checksum);
+            logger.warn("Schéma existant sans historique : version " + baseline.version + " enregistrée sans exécuter "
+                    + baseline.script);
+        }
+        int latestApplied = applied.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+
+        int count = 0;
+        for (Migration migration : migrations) {
+            Long checksum = applied.get(migration.version);
+            if (checksum != null) {
+                if (checksum != migration.checksum) {
+                    throw new IllegalStateException("Migration " + migration.script + " modifiée après son application"
+                            + " (somme de contrôle " + checksum + " en base, " + migration.checksum + " dans le script)");
+                }
+                continue;
+            }
+            if (migration.version < latestApplied) {
+                throw new IllegalStateException("Migration " + migration.script + " plus ancienne que la version "
+                        + latestApplied + " déjà appliquée");
+            }
+            apply(connection, migration);
+            count++;
+        }
+        int latestKnown = migrations.get(migrations.size() - 1).version;
+        if (latestApplied > latestKnown) {
+            logger.warn("La base est à la version " + latestApplied + ", plus récente que les scripts (" + latestKnown + ")");
+        }
+        logger.info("Schéma à jour (version " + Math.max(latestApplied, latestKnown) + ", " + count
+                + " migration(s) appliquée(s)) en " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return count;
+    }
+
+    /**
+     * Lit la liste des scripts et leur contenu.
+     *
+     * @return Les migrations, par version croissante.
+     */
+    private List<Migration> loadMigrations() {
+        List<Migration> migrations = new ArrayList<>();
+        for (String script : readResource(MIGRATIONS_INDEX).split("\n")) {
+            script = script.trim();
+            if (script.isEmpty() || script.startsWith("#")) {
+                continue;
+            }
+            Migration migration;
+            Matcher matcher = SCRIPT_NAME.matcher(script);
+            Matcher javaMatcher = JAVA_MIGRATION.matcher(script);
+            if (matcher.matches()) {
+                migration = new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '),
+                        script, readResource(MIGRATIONS_LOCATION + script), null);
+            } else if (javaMatcher.matches()) {
+                migration = new Migration(Integer.parseInt(javaMatcher.group(1)), javaMatcher.group(2).replace('_', ' '),
+                        javaMatcher.group(3), script, instantiate(javaMatcher.group(3)));
+            } else {
+                throw new IllegalStateException("Nom de migration invalide : " + script);
+            }
+            if (!migrations.isEmpty() && migration.version <= migrations.get(migrations.size() - 1).version) {
+                throw new IllegalStateException("Migrations mal ordonnées dans " + MIGRATIONS_INDEX + " : " + script);
+            }
+            migrations.add(migration);
+        }
+        if (migrations.isEmpty()) {
+            throw new IllegalStateException("Aucune migration dans " + MIGRATIONS_INDEX);
+        }
+        return migrations;
+    }
+
+    /**
+     * Instancie une migration Java par le nom de sa classe.
+     */
+    private static JavaMigration instantiate(String className) {
+        try {
+            return Class.forName(className).asSubclass(JavaMigration.class).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalStateException("Migration Java invalide : " + className, e);
+        }
+    }
+
+    /**
+     * Lit une ressource texte, avec des fins de ligne normalisées pour que la somme de
+     * contrôle ne dépende pas du système sur lequel le script a été édité.
+     */
+    private static String readResource(String path) {
+        try (InputStream input = SchemaMigrator.class.getResourceAsStream(path)) {
+            if (input == null) {
+                throw new IllegalStateException("Script de migration introuvable : " + path);
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+                return reader.lines().collect(Collectors.joining("\n"));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Lecture impossible : " + path, e);
+        }
+    }
+
+    /**
+     * Prend le verrou de migration, en attendant au plus {@value #LOCK_TIMEOUT_SECONDS} secondes
+     * qu'une autre instance le rende : verrou nommé sur MySQL, ligne de {@value #LOCK_TABLE} ailleurs.
+     *
+     * @param connection La connexion de la migration.
+     * @return Le verrou, à rendre par {@link MigrationLock#close()}.
+     */
+    private MigrationLock lock(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        if ("MySQL".equalsIgnoreCase(product) || "MariaDB".equalsIgnoreCase(product)) {
+            return lockByName(connection);
+        }
+        return lockRow();
+    }
+
+    /**
+     * Prend le verrou nommé MySQL de la base, lié à la connexion de la migration.
+     */
+    private MigrationLock lockByName(Connection connection) throws SQLException {
+        String name = LOCK_NAME + connection.getCatalog();
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            statement.setString(1, name);
+            statement.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet result = statement.executeQuery()) {
+                // 1 : verrou obtenu ; 0 : délai dépassé ; NULL : erreur
+                if (!result.next() || result.getInt(1) != 1) {
+                    throw new IllegalStateException("Verrou de migration " + name + " non obtenu en "
+                            + LOCK_TIMEOUT_SECONDS + " s : une autre instance migre le schéma");
+                }
+            }
+        }
+        logger.debug("Verrou de migration " + name + " obtenu");
+        return () -> {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                statement.setString(1, name);
+                statement.executeQuery().close();
+            }
+        };
+    }
+
+    /**
+     * Verrouille la ligne de {@value #LOCK_TABLE} par une connexion dédiée, dont la transaction reste
+     * ouverte jusqu'à la fin de la migration : le DDL de la migration ne la valide pas.
+     */
+    private MigrationLock lockRow() throws SQLException {
+        Connection lockConnection = dataSource.getConnection();
+        try {
+            lockConnection.setAutoCommit(true);
+            createLockTable(lockConnection);
+            lockConnection.setAutoCommit(false);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(LOCK_TIMEOUT_SECONDS);
+            while (!tryLockRow(lockConnection)) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Verrou de migration (" + LOCK_TABLE + ") non obtenu en "
+                            + LOCK_TIMEOUT_SECONDS + " s : une autre instance migre le schéma");
+                }
+                Thread.sleep(LOCK_RETRY_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lockConnection.close();
+            throw new IllegalStateException("Attente du verrou de migration interrompue", e);
+        } catch (SQLException | RuntimeException e) {
+            lockConnection.close();
+            throw e;
+        }
+        logger.debug("Verrou de migration (" + LOCK_TABLE + ") obtenu");
+        return () -> {
+            try {
+                lockConnection.rollback();
+            } finally {
+                lockConnection.close();
+            }
+        };
+    }
+
+    /**
+     * Crée la table du verrou et sa ligne unique si elles n'existent pas encore.
+     */
+    private void createLockTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + LOCK_TABLE + " (id INTEGER NOT NULL, PRIMARY KEY (id))");
+            try (ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM " + LOCK_TABLE)) {
+                if (rows.next() && rows.getLong(1) > 0) {
+                    return;
+                }
+            }
+            try {
+                statement.executeUpdate("INSERT INTO " + LOCK_TABLE + " (id) VALUES (1)");
+            } catch (SQLException e) {
+                // Une autre instance vient d'insérer la ligne : seule son absence est une erreur
+                try (ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM " + LOCK_TABLE)) {
+                    if (!rows.next() || rows.getLong(1) == 0) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Tente de verrouiller la ligne de {@value #LOCK_TABLE}.
+     *
+     * @return {@code false} si la base a abandonné l'attente (délai de verrouillage dépassé).
+     */
+    private boolean tryLockRow(Connection lockConnection) throws SQLException {
+        try (Statement statement = lockConnection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT id FROM " + LOCK_TABLE + " WHERE id = 1 FOR UPDATE")) {
+            return rows.next();
+        } catch (SQLTimeoutException | SQLTransactionRollbackException e) {
+            lockConnection.rollback();
+            return false;
+        }
+    }
+
+    private void createHistoryTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS " + HISTORY_TABLE + " ("
+                    + "version INTEGER NOT NULL, "
+                    + "description VARCHAR(200) NOT NULL, "
+                    + "script VARCHAR(200) NOT NULL, "
+                    + "checksum BIGINT NOT NULL, "
+                    + "installed_on DATETIME NOT NULL, "
+                    + "execution_ms INTEGER NOT NULL, "
+                    + "PRIMARY KEY (version))");
+        }
+    }
+
+    /**
+     * @return La somme de contrôle de chaque version appliquée, par version.
+     */
+    private Map<Integer, Long> findApplied(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new LinkedHashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT version, checksum FROM " + HISTORY_TABLE + " ORDER BY version")) {
+            while (rows.next()) {
+                applied.put(rows.getInt(1), rows.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Vérifie qu'une base existante sans historique correspond à la version 1 avant de l'enregistrer
+     * comme telle : toutes les tables créées par la version 1 doivent exister, et aucune de celles
+     * créées par les versions suivantes (une migration interrompue, une base générée par une version
+     * plus récente des entités...).
+     *
+     * @throws IllegalStateException Si le schéma ne correspond pas.
+     */
+    private void verifyBaseline(Connection connection, List<Migration> migrations) throws SQLException {
+        List<String> missing = new ArrayList<>();
+        for (String table : migrations.get(0).createdTables()) {
+            if (!tableExists(connection, table)) {
+                missing.add(table);
+            }
+        }
+        List<String> unexpected = new ArrayList<>();
+        for (Migration migration : migrations.subList(1, migrations.size())) {
+            for (String table : migration.createdTables()) {
+                if (tableExists(connection, table)) {
+                    unexpected.add(table + " (" + migration.script + ")");
+                }
+            }
+        }
+        if (!missing.isEmpty() || !unexpected.isEmpty()) {
+            throw new IllegalStateException("Schéma existant sans historique différent de la version " + migrations.get(0).version
+                    + " : tables manquantes " + missing + ", tables des versions suivantes déjà présentes " + unexpected
+                    + ". Compléter le schéma ou remplir la table " + HISTORY_TABLE + " à la main.");
+        }
+    }
+
+    /**
+     * Indique si une table existe dans le schéma de la connexion (et non dans les schémas
+     * système, qui peuvent contenir une table de même nom), quelle que soit la casse retenue
+     * par la base pour son nom.
+     */
+    private boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String name : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), name, new String[]{"TABLE"})) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Exécute les instructions d'un script (ou la migration Java) puis l'enregistre, dans une transaction.
+     */
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        String current = null;
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            if (migration.javaMigration != null) {
+                migration.javaMigration.migrate(connection);
+            }
+            for (String sql : migration.statements()) {
+                current = sql;
+                statement.execute(sql);
+            }
+            current = null;
+            record(connection, migration, (int) ((System.nanoTime() - start) / 1_000_000));
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            logger.error("Échec de la migration " + migration.script + (current == null ? "" : " sur : " + current), e);
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        logger.info("Migration " + migration.script + " appliquée en " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private void record(Connection connection, Migration migration, int executionMs) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + HISTORY_TABLE
+                + " (version, description, script, checksum, installed_on, execution_ms) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, ?)")) {
+            insert.setInt(1, migration.version);
+            insert.setString(2, migration.description);
+            insert.setString(3, migration.script);
+            insert.setLong(4, migration.checksum);
+            insert.setInt(5, executionMs);
+            insert.executeUpdate();
+        }
+    }
+
+    /**
+     * Script de migration lu depuis le classpath, ou migration Java.
+     */
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final String script;
+        /**
+         * Contenu du script, ou déclaration de la migration Java dans {@code migrations.list}.
+         */
+        private final String content;
+        private final long checksum;
+        private final JavaMigration javaMigration;
+
+        private Migration(int version, String description, String script, String content, JavaMigration javaMigration) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.content = content;
+            this.javaMigration = javaMigration;
+            CRC32 crc = new CRC32();
+            crc.update(content.getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+
+        /**
+         * @return Les instructions du script, sans les lignes de commentaire (aucune pour une migration Java).
+         */
+        private List<String> statements() {
+            if (javaMigration != null) {
+                return Collections.emptyList();
+            }
+            String code = Arrays.stream(content.split("\n"))
+                    .filter(line -> !line.trim().startsWith("--"))
+                    .collect(Collectors.joining("\n"));
+            List<String> statements = new ArrayList<>();
+            for (String sql : STATEMENT_END.split(code)) {
+                if (!sql.trim().isEmpty()) {
+                    statements.add(sql.trim());
+                }
+            }
+            return statements;
+        }
+
+        /**
+         * @return Les tables créées par le script.
+         */
+        private List<String> createdTables() {
+            List<String> tables = new ArrayList<>();
+            for (String sql : statements()) {
+                Matcher matcher = CREATE_TABLE.matcher(sql);
+                if (matcher.lookingAt()) {
+                    tables.add(matcher.group(1));
+                }
+            }
+            return tables;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package be.atc.util;
+
+import org.apache.log4j.Logger;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool borné de connexions SMTP ({@link Transport}) réutilisables.
+ * <p>
+ * Une connexion ouverte (TCP, STARTTLS et authentification) est conservée et
+ * réutilisée pour les envois suivants. Au plus {@code maxConnections} connexions
+ * sont empruntées simultanément ; les appelants suivants attendent qu'une
+ * connexion soit rendue, au plus {@code borrowTimeoutMillis}.
+ * </p>
+ * <p>
+ * Une connexion est fermée et remplacée lorsqu'elle a envoyé
+ * {@code maxMessagesPerConnection} messages, lorsqu'elle est restée inactive plus
+ * de {@code idleTimeoutMillis} (les serveurs SMTP coupent les connexions inactives)
+ * ou lorsqu'un envoi a échoué.
+ * </p>
+ */
+public class SmtpTransportPool {
+
+    private static final Logger logger = Logger.getLogger(SmtpTransportPool.class);
+
+    private final Session session;
+    private final int maxConnections;
+    private final int maxMessagesPerConnection;
+    private final long idleTimeoutMillis;
+    private final long borrowTimeoutMillis;
+
+    private final Semaphore permits;
+    private final BlockingQueue<PooledTransport> idle;
+
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+
+    private volatile boolean closed;
+
+    /**
+     * Crée un pool de connexions SMTP pour la session donnée.
+     *
+     * @param session                  La session JavaMail (hôte, port, authentification).
+     * @param maxConnections           Le nombre maximum de connexions simultanées.
+     * @param maxMessagesPerConnection Le nombre de messages envoyés avant de renouveler une connexion.
+     * @param idleTimeoutMillis        La durée d'inactivité au-delà de laquelle une connexion est renouvelée.
+     * @param borrowTimeoutMillis      Le délai maximum d'attente d'une connexion libre.
+     */
+    public SmtpTransportPool(Session session, int maxConnections, int maxMessagesPerConnection,
+                             long idleTimeoutMillis, long borrowTimeoutMillis) {
+        this.session = session;
+        this.maxConnections = maxConnections;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.permits = new Semaphore(maxConnections, true);
+        this.idle = new ArrayBlockingQueue<>(maxConnections);
+    }
+
+    /**
+     * @return Le nombre maximum de connexions simultanées.
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Emprunte une connexion SMTP ouverte. Elle doit être rendue avec
+     * {@link #release(PooledTransport, boolean)}.
+     *
+     * @return Une connexion prête à envoyer.
+     * @throws MessagingException Si aucune connexion n'est disponible dans le délai ou si la connexion échoue.
+     */
+    public PooledTransport borrow() throws MessagingException {
+        return borrow(true);
+    }
+
+    /**
+     * Emprunte une connexion SMTP nouvellement ouverte, sans reprendre une connexion inactive
+     * du pool : par exemple pour retenter un envoi après l'échec d'une connexion réutilisée,
+     * les autres connexions inactives ayant pu être coupées en même temps par le serveur.
+     * Elle doit être rendue avec {@link #release(PooledTransport, boolean)}.
+     *
+     * @return Une nouvelle connexion prête à envoyer.
+     * @throws MessagingException Si aucune connexion n'est disponible dans le délai ou si la connexion échoue.
+     */
+    public PooledTransport borrowNew() throws MessagingException {
+        return borrow(false);
+    }
+
+    private PooledTransport borrow(boolean reuseIdle) throws MessagingException {
+        if (closed) {
+            throw new MessagingException("Pool SMTP fermé");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("Aucune connexion SMTP libre après " + borrowTimeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Attente d'une connexion SMTP interrompue", e);
+        }
+
+        try {
+            PooledTransport pooled;
+            while (reuseIdle && (pooled = idle.poll()) != null) {
+                if (pooled.isReusable()) {
+                    return pooled;
+                }
+                pooled.close();
+            }
+            return open();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Rend une connexion au pool.
+     *
+     * @param pooled La connexion empruntée.
+     * @param broken {@code true} si un envoi a échoué : la connexion est alors fermée.
+     */
+    public void release(PooledTransport pooled, boolean broken) {
+        try {
+            if (broken || closed || !pooled.isReusable() || !idle.offer(pooled)) {
+                pooled.close();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Ferme toutes les connexions inactives ; les connexions empruntées seront fermées à leur retour.
+     */
+    public void close() {
+        closed = true;
+        PooledTransport pooled;
+        while ((pooled = idle.poll()) != null) {
+            pooled.close();
+        }
+        logger.info("Pool SMTP fermé : " + connectionsOpened.sum() + " connexion(s) ouverte(s) pour " + messagesSent.sum() + " message(s)");
+    }
+
+    /**
+     * @return Le nombre de connexions SMTP ouvertes depuis le démarrage.
+     */
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    /**
+     * @return Le nombre de messages envoyés par le pool depuis le démarrage.
+     */
+    public long getMessagesSent() {
+        return messagesSent.sum();
+    }
+
+    /**
+     * Ouvre une nouvelle connexion SMTP.
+     *
+     * @return La connexion ouverte.
+     * @throws MessagingException Si la connexion ou l'authentification échoue.
+     */
+    private PooledTransport open() throws MessagingException {
+        Transport transport = session.getTransport("smtp");
+        transport.connect();
+        connectionsOpened.increment();
+        logger.debug("Nouvelle connexion SMTP ouverte");
+        return new PooledTransport(transport);
+    }
+
+    /**
+     * Connexion SMTP empruntée au pool.
+     */
+    public final class PooledTransport {
+        private final Transport transport;
+        private int messageCount;
+        private long lastUsedMillis = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        /**
+         * @return {@code true} si cette connexion a déjà servi (elle a pu être coupée par le serveur depuis).
+         */
+        public boolean hasBeenUsed() {
+            return messageCount > 0;
+        }
+
+        /**
+         * Envoie un message sur cette connexion.
+         *
+         * @param message Le message à envoyer (ses en-têtes sont finalisés ici).
+         * @throws MessagingException Si l'envoi échoue.
+         */
+        public void send(Message message) throws MessagingException {
+            message.saveChanges();
+            transport.sendMessage(message, message.getAllRecipients());
+            messageCount++;
+            lastUsedMillis = System.currentTimeMillis();
+            messagesSent.increment();
+        }
+
+        /**
+         * {@code Transport.isConnected()} n'est pas utilisé : il envoie une commande NOOP
+         * au serveur. Une connexion coupée par le serveur est détectée à l'envoi.
+         */
+        private boolean isReusable() {
+            return messageCount < maxMessagesPerConnection
+                    && System.currentTimeMillis() - lastUsedMillis < idleTimeoutMillis;
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                logger.debug("Erreur lors de la fermeture d'une connexion SMTP", e);
+            }
+        }
+    }
+}
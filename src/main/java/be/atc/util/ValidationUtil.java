@@ -1,6 +1,7 @@
 package be.atc.util;
 
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Classe utilitaire pour la validation des données utilisateur.
@@ -10,74 +11,120 @@ import java.util.regex.Pattern;
  * les mots de passe, les numéros de téléphone, les prénoms, les noms
  * de famille et les genres.
  * </p>
+ * <p>
+ * Les formats sont vérifiés par des analyseurs écrits à la main, en un seul
+ * parcours de la chaîne et sans allocation : le temps de validation est
+ * linéaire quelle que soit l'entrée, contrairement aux expressions régulières
+ * (lookaheads, groupes imbriqués) qui étaient recompilées à chaque appel.
+ * Chaque analyseur accepte exactement le même langage que l'expression
+ * régulière qu'il remplace, rappelée dans sa documentation. Une valeur
+ * {@code null} est simplement considérée comme invalide.
+ * </p>
  */
 public class ValidationUtil {
 
     /**
-     * Expression régulière pour valider les adresses e-mail.
-     * <p>
-     * Cette expression vérifie que l'e-mail est conforme au format standard
-     * avec des caractères alphanumériques, des points, des tirets ou des
-     * underscores avant le symbole '@', suivi par un nom de domaine valide.
-     * </p>
+     * Longueur minimum d'un mot de passe.
      */
-    private static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$";
+    private static final int PASSWORD_MIN_LENGTH = 8;
 
     /**
-     * Expression régulière pour valider les mots de passe.
-     * <p>
-     * Cette expression exige que le mot de passe contienne au moins 8 caractères,
-     * une lettre majuscule et un chiffre.
-     * </p>
+     * Longueur minimum d'un numéro de téléphone.
      */
-    private static final String PASSWORD_REGEX = "^(?=.*[A-Z])(?=.*\\d).{8,}$";
+    private static final int PHONE_MIN_LENGTH = 9;
 
     /**
-     * Expression régulière pour valider les numéros de téléphone.
-     * <p>
-     * Cette expression permet des numéros de téléphone composés de chiffres,
-     * de tirets et de signes plus, avec une longueur de 9 à 20 caractères.
-     * </p>
+     * Longueur maximum d'un numéro de téléphone.
      */
-    private static final String PHONE_REGEX = "^[0-9\\-\\+]{9,20}$";
+    private static final int PHONE_MAX_LENGTH = 20;
 
     /**
-     * Expression régulière pour valider les prénoms et noms de famille.
+     * Valide une adresse e-mail.
      * <p>
-     * Cette expression autorise les lettres, les espaces, les apostrophes
-     * et les tirets, tout en permettant plusieurs mots pour les noms composés.
+     * Équivalent de {@code ^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$} : des caractères
+     * alphanumériques, des points, des tirets, des plus ou des underscores avant
+     * un unique symbole '@', suivi par un nom de domaine non vide.
      * </p>
-     */
-    private static final String NAME_REGEX = "^[A-Za-zÀ-ÖØ-öø-ÿ\\'\\-]+(\\s[A-Za-zÀ-ÖØ-öø-ÿ\\'\\-]+)*$";
-
-    /**
-     * Valide une adresse e-mail.
      *
      * @param email L'adresse e-mail à valider.
      * @return {@code true} si l'e-mail est valide, {@code false} sinon.
      */
     public static boolean isValidEmail(String email) {
-        return Pattern.matches(EMAIL_REGEX, email);
+        if (email == null) {
+            return false;
+        }
+        int length = email.length();
+        int at = -1;
+        for (int i = 0; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                if (at >= 0) {
+                    return false;
+                }
+                at = i;
+            } else if (!isAsciiLetterOrDigit(c) && c != '.' && c != '-' && (at >= 0 || (c != '+' && c != '_'))) {
+                return false;
+            }
+        }
+        return at > 0 && at < length - 1;
     }
 
     /**
      * Valide un mot de passe.
+     * <p>
+     * Équivalent de {@code ^(?=.*[A-Z])(?=.*\d).{8,}$} : au moins 8 caractères,
+     * une lettre majuscule et un chiffre, sans retour à la ligne.
+     * </p>
      *
      * @param password Le mot de passe à valider.
      * @return {@code true} si le mot de passe est valide, {@code false} sinon.
      */
     public static boolean isValidPassword(String password) {
-        return Pattern.matches(PASSWORD_REGEX, password);
+        if (password == null || password.length() < PASSWORD_MIN_LENGTH) {
+            return false;
+        }
+        boolean hasUpperCase = false;
+        boolean hasDigit = false;
+        int codePoints = 0;
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (isLineTerminator(c)) {
+                return false;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                hasUpperCase = true;
+            } else if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            }
+            // Une paire de substitution ne compte que pour un caractère
+            if (!Character.isLowSurrogate(c) || i == 0 || !Character.isHighSurrogate(password.charAt(i - 1))) {
+                codePoints++;
+            }
+        }
+        return hasUpperCase && hasDigit && codePoints >= PASSWORD_MIN_LENGTH;
     }
 
     /**
      * Valide un numéro de téléphone.
+     * <p>
+     * Équivalent de {@code ^[0-9\-\+]{9,20}$} : des chiffres, des tirets et des
+     * signes plus, avec une longueur de 9 à 20 caractères.
+     * </p>
      *
      * @param phone Le numéro de téléphone à valider.
      * @return {@code true} si le numéro de téléphone est valide, {@code false} sinon.
      */
     public static boolean isValidPhone(String phone) {
-        return Pattern.matches(PHONE_REGEX, phone);
+        if (phone == null || phone.length() < PHONE_MIN_LENGTH || phone.length() > PHONE_MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if ((c < '0' || c > '9') && c != '-' && c != '+') {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -85,9 +132,10 @@ public class ValidationUtil {
      *
      * @param firstName Le prénom à valider.
      * @return {@code true} si le prénom est valide, {@code false} sinon.
+     * @see #isValidName(String)
      */
     public static boolean isValidFirstName(String firstName) {
-        return Pattern.matches(NAME_REGEX, firstName);
+        return isValidName(firstName);
     }
 
     /**
@@ -95,9 +143,10 @@ public class ValidationUtil {
      *
      * @param lastName Le nom de famille à valider.
      * @return {@code true} si le nom de famille est valide, {@code false} sinon.
+     * @see #isValidName(String)
      */
     public static boolean isValidLastName(String lastName) {
-        return Pattern.matches(NAME_REGEX, lastName);
+        return isValidName(lastName);
     }
 
     /**
@@ -113,4 +162,141 @@ public class ValidationUtil {
     public static boolean isValidGender(String gender) {
         return "Male".equals(gender) || "Female".equals(gender) || "Other".equals(gender);
     }
+
+    /**
+     * Valide en un seul passage l'ensemble d'un formulaire d'inscription.
+     * <p>
+     * Toutes les règles sont évaluées, dans l'ordre de présentation des erreurs
+     * à l'utilisateur, et tous les codes d'erreur sont retournés au lieu de
+     * s'arrêter à la première erreur.
+     * </p>
+     *
+     * @param email           L'adresse e-mail.
+     * @param firstName       Le prénom.
+     * @param lastName        Le nom de famille.
+     * @param password        Le mot de passe.
+     * @param confirmPassword La confirmation du mot de passe.
+     * @return Les codes d'erreur (par exemple {@code INVALID_EMAIL_FORMAT}), vide si le formulaire est valide.
+     */
+    public static List<String> validateRegistration(String email, String firstName, String lastName,
+                                                    String password, String confirmPassword) {
+        List<String> errors = new ArrayList<>(2);
+        if (!isValidEmail(email)) {
+            errors.add("INVALID_EMAIL_FORMAT");
+        }
+        if (!isValidFirstName(firstName)) {
+            errors.add("INVALID_FIRST_NAME");
+        }
+        if (!isValidLastName(lastName)) {
+            errors.add("INVALID_LAST_NAME");
+        }
+        if (password == null || !password.equals(confirmPassword)) {
+            errors.add("PASSWORDS_DO_NOT_MATCH");
+        }
+        if (!isValidPassword(password)) {
+            errors.add("INVALID_PASSWORD_FORMAT");
+        }
+        return errors;
+    }
+
+    /**
+     * Supprime les espaces de début et de fin et remplace chaque suite d'espaces
+     * internes par un seul espace.
+     * <p>
+     * Équivalent de {@code value.trim().replaceAll("\\s+", " ")}, sans compiler
+     * d'expression régulière ; la chaîne d'origine est retournée telle quelle si
+     * elle est déjà normalisée.
+     * </p>
+     *
+     * @param value La chaîne à normaliser.
+     * @return La chaîne normalisée, ou {@code null} si {@code value} est {@code null}.
+     */
+    public static String normalizeWhitespace(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        int length = trimmed.length();
+        StringBuilder builder = null;
+        for (int i = 0; i < length; i++) {
+            char c = trimmed.charAt(i);
+            if (!isRegexWhitespace(c)) {
+                if (builder != null) {
+                    builder.append(c);
+                }
+                continue;
+            }
+            // trim() a retiré les espaces de fin : une suite d'espaces est toujours suivie d'un autre caractère
+            int end = i + 1;
+            while (isRegexWhitespace(trimmed.charAt(end))) {
+                end++;
+            }
+            if (builder == null && (c != ' ' || end - i > 1)) {
+                builder = new StringBuilder(length).append(trimmed, 0, i);
+            }
+            if (builder != null) {
+                builder.append(' ');
+            }
+            i = end - 1;
+        }
+        return builder == null ? trimmed : builder.toString();
+    }
+
+    /**
+     * Valide un prénom ou un nom de famille.
+     * <p>
+     * Équivalent de {@code ^[A-Za-zÀ-ÖØ-öø-ÿ'-]+(\s[A-Za-zÀ-ÖØ-öø-ÿ'-]+)*$} : des
+     * mots composés de lettres (accentuées comprises), d'apostrophes et de tirets,
+     * séparés par un seul espace.
+     * </p>
+     *
+     * @param name Le nom à valider.
+     * @return {@code true} si le nom est valide, {@code false} sinon.
+     */
+    private static boolean isValidName(String name) {
+        if (name == null || name.isEmpty()) {
+            return false;
+        }
+        boolean previousIsSeparator = true;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (isNameCharacter(c)) {
+                previousIsSeparator = false;
+            } else if (isRegexWhitespace(c) && !previousIsSeparator) {
+                previousIsSeparator = true;
+            } else {
+                return false;
+            }
+        }
+        return !previousIsSeparator;
+    }
+
+    /**
+     * Indique si le caractère est autorisé dans un mot d'un nom : {@code [A-Za-zÀ-ÖØ-öø-ÿ'-]}.
+     */
+    private static boolean isNameCharacter(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || c == '\'' || c == '-'
+                || (c >= 'À' && c <= 'ÿ' && c != '×' && c != '÷');
+    }
+
+    /**
+     * Indique si le caractère est une lettre ASCII ou un chiffre : {@code [A-Za-z0-9]}.
+     */
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * Indique si le caractère est un espace au sens de {@code \s} : {@code [ \t\n\x0B\f\r]}.
+     */
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Indique si le caractère est une fin de ligne, que {@code .} ne reconnaît pas.
+     */
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
 }
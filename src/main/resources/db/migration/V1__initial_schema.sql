@@ -0,0 +1,175 @@
+-- Schéma initial : celui des bases créées avant les migrations, tel qu'EclipseLink le génère à partir des
+-- entités de cette époque. Les Instant y sont sérialisés en LONGBLOB (convertis par V3).
+-- Une base existante sans historique des migrations est considérée comme étant à cette version (voir SchemaMigrator).
+
+CREATE TABLE countries (
+    country_id INTEGER AUTO_INCREMENT NOT NULL,
+    country_name VARCHAR(255) NOT NULL,
+    iso_alpha3 VARCHAR(3) NOT NULL,
+    PRIMARY KEY (country_id)
+);
+
+CREATE TABLE localities (
+    locality_id INTEGER AUTO_INCREMENT NOT NULL,
+    main_town VARCHAR(50),
+    postal_code VARCHAR(4),
+    province VARCHAR(19),
+    sub_town VARCHAR(3),
+    town VARCHAR(50),
+    fk_country_id INTEGER NOT NULL,
+    PRIMARY KEY (locality_id)
+);
+
+CREATE TABLE addresses (
+    address_id INTEGER AUTO_INCREMENT NOT NULL,
+    box_number VARCHAR(11),
+    number VARCHAR(255),
+    street_name VARCHAR(255) NOT NULL,
+    fk_locality_id INTEGER,
+    PRIMARY KEY (address_id)
+);
+
+CREATE TABLE roles (
+    role_id INTEGER AUTO_INCREMENT NOT NULL,
+    role_name LONGTEXT NOT NULL,
+    PRIMARY KEY (role_id)
+);
+
+CREATE TABLE users (
+    user_id INTEGER AUTO_INCREMENT NOT NULL,
+    active TINYINT(1) DEFAULT 0 NOT NULL,
+    birthdate DATE,
+    blacklist TINYINT(1) DEFAULT 0 NOT NULL,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    first_name VARCHAR(90) NOT NULL,
+    gender LONGTEXT,
+    last_name VARCHAR(90) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    phone VARCHAR(20),
+    fk_addresse_id INTEGER,
+    fk_role_id INTEGER,
+    PRIMARY KEY (user_id)
+);
+
+CREATE TABLE halls (
+    hall_id INTEGER AUTO_INCREMENT NOT NULL,
+    active TINYINT(1) DEFAULT 0 NOT NULL,
+    label_hall VARCHAR(255) NOT NULL,
+    PRIMARY KEY (hall_id)
+);
+
+CREATE TABLE fields (
+    field_id INTEGER AUTO_INCREMENT NOT NULL,
+    active TINYINT(1) DEFAULT 0 NOT NULL,
+    label_field VARCHAR(255) NOT NULL,
+    fk_hall_id INTEGER NOT NULL,
+    PRIMARY KEY (field_id)
+);
+
+CREATE TABLE sports (
+    sport_id INTEGER AUTO_INCREMENT NOT NULL,
+    active TINYINT(1) DEFAULT 0 NOT NULL,
+    sport_label VARCHAR(255) NOT NULL,
+    PRIMARY KEY (sport_id)
+);
+
+CREATE TABLE sport_field (
+    sport_field_id INTEGER AUTO_INCREMENT NOT NULL,
+    fk_field_id INTEGER NOT NULL,
+    fk_sport_id INTEGER NOT NULL,
+    PRIMARY KEY (sport_field_id)
+);
+
+CREATE TABLE time_slots (
+    time_slot_id INTEGER AUTO_INCREMENT NOT NULL,
+    time_slot LONGTEXT NOT NULL,
+    PRIMARY KEY (time_slot_id)
+);
+
+CREATE TABLE reservations (
+    reservation_id INTEGER AUTO_INCREMENT NOT NULL,
+    active TINYINT(1) DEFAULT 0 NOT NULL,
+    date LONGBLOB NOT NULL,
+    name_reservation VARCHAR(255) NOT NULL,
+    price DECIMAL(10) NOT NULL,
+    statut_payement LONGTEXT,
+    fk_sport_field_id INTEGER NOT NULL,
+    fk_time_slot_id INTEGER NOT NULL,
+    fk_user_id INTEGER NOT NULL,
+    PRIMARY KEY (reservation_id)
+);
+
+CREATE TABLE closes (
+    close_id INTEGER AUTO_INCREMENT NOT NULL,
+    begin_date LONGBLOB NOT NULL,
+    end_date LONGBLOB NOT NULL,
+    fk_sport_field_id INTEGER NOT NULL,
+    PRIMARY KEY (close_id)
+);
+
+CREATE TABLE subscriptions (
+    subscription_id INTEGER AUTO_INCREMENT NOT NULL,
+    label VARCHAR(255) NOT NULL,
+    price INTEGER NOT NULL,
+    fk_sport_id INTEGER,
+    PRIMARY KEY (subscription_id)
+);
+
+CREATE TABLE users_subscriptions (
+    user_subscription_id INTEGER AUTO_INCREMENT NOT NULL,
+    begin_date_subscription LONGBLOB NOT NULL,
+    end_date_subscription LONGBLOB NOT NULL,
+    fk_subscription_id INTEGER,
+    fk_user_id INTEGER,
+    PRIMARY KEY (user_subscription_id)
+);
+
+CREATE TABLE discounts (
+    discount_id INTEGER AUTO_INCREMENT NOT NULL,
+    discount_label VARCHAR(255) NOT NULL,
+    percent DECIMAL(5,2) NOT NULL,
+    PRIMARY KEY (discount_id)
+);
+
+CREATE TABLE orders (
+    order_id INTEGER AUTO_INCREMENT NOT NULL,
+    date LONGBLOB NOT NULL,
+    price DECIMAL(10,2) NOT NULL,
+    statut LONGTEXT NOT NULL,
+    fk_user_id INTEGER NOT NULL,
+    PRIMARY KEY (order_id)
+);
+
+CREATE TABLE orders_discounts (
+    order_discount_id INTEGER NOT NULL,
+    fk_discount_id INTEGER NOT NULL,
+    fk_order_id INTEGER NOT NULL,
+    PRIMARY KEY (order_discount_id)
+);
+
+CREATE TABLE orders_subscriptions (
+    order_subscription_id INTEGER NOT NULL,
+    fk_order_id INTEGER NOT NULL,
+    fk_subscription_id INTEGER NOT NULL,
+    PRIMARY KEY (order_subscription_id)
+);
+
+ALTER TABLE localities ADD CONSTRAINT FK_localities_fk_country_id FOREIGN KEY (fk_country_id) REFERENCES countries (country_id);
+ALTER TABLE addresses ADD CONSTRAINT FK_addresses_fk_locality_id FOREIGN KEY (fk_locality_id) REFERENCES localities (locality_id);
+ALTER TABLE users ADD CONSTRAINT FK_users_fk_addresse_id FOREIGN KEY (fk_addresse_id) REFERENCES addresses (address_id);
+ALTER TABLE users ADD CONSTRAINT FK_users_fk_role_id FOREIGN KEY (fk_role_id) REFERENCES roles (role_id);
+ALTER TABLE fields ADD CONSTRAINT FK_fields_fk_hall_id FOREIGN KEY (fk_hall_id) REFERENCES halls (hall_id);
+ALTER TABLE sport_field ADD CONSTRAINT FK_sport_field_fk_field_id FOREIGN KEY (fk_field_id) REFERENCES fields (field_id);
+ALTER TABLE sport_field ADD CONSTRAINT FK_sport_field_fk_sport_id FOREIGN KEY (fk_sport_id) REFERENCES sports (sport_id);
+ALTER TABLE reservations ADD CONSTRAINT FK_reservations_fk_sport_field_id FOREIGN KEY (fk_sport_field_id) REFERENCES sport_field (sport_field_id);
+ALTER TABLE reservations ADD CONSTRAINT FK_reservations_fk_time_slot_id FOREIGN KEY (fk_time_slot_id) REFERENCES time_slots (time_slot_id);
+ALTER TABLE reservations ADD CONSTRAINT FK_reservations_fk_user_id FOREIGN KEY (fk_user_id) REFERENCES users (user_id);
+ALTER TABLE closes ADD CONSTRAINT FK_closes_fk_sport_field_id FOREIGN KEY (fk_sport_field_id) REFERENCES sport_field (sport_field_id);
+ALTER TABLE subscriptions ADD CONSTRAINT FK_subscriptions_fk_sport_id FOREIGN KEY (fk_sport_id) REFERENCES sports (sport_id);
+ALTER TABLE users_subscriptions ADD CONSTRAINT FK_users_subscriptions_fk_subscription_id FOREIGN KEY (fk_subscription_id) REFERENCES subscriptions (subscription_id);
+ALTER TABLE users_subscriptions ADD CONSTRAINT FK_users_subscriptions_fk_user_id FOREIGN KEY (fk_user_id) REFERENCES users (user_id);
+ALTER TABLE orders ADD CONSTRAINT FK_orders_fk_user_id FOREIGN KEY (fk_user_id) REFERENCES users (user_id);
+ALTER TABLE orders_discounts ADD CONSTRAINT FK_orders_discounts_fk_order_id FOREIGN KEY (fk_order_id) REFERENCES orders (order_id);
+ALTER TABLE orders_discounts ADD CONSTRAINT FK_orders_discounts_fk_discount_id FOREIGN KEY (fk_discount_id) REFERENCES discounts (discount_id);
+ALTER TABLE orders_subscriptions ADD CONSTRAINT FK_orders_subscriptions_fk_order_id FOREIGN KEY (fk_order_id) REFERENCES orders (order_id);
+ALTER TABLE orders_subscriptions ADD CONSTRAINT FK_orders_subscriptions_fk_subscription_id FOREIGN KEY (fk_subscription_id) REFERENCES subscriptions (subscription_id);
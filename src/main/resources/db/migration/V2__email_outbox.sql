@@ -0,0 +1,18 @@
+-- File d'attente des e-mails (EmailOutbox), envoyés en arrière-plan par EmailOutboxDispatcher.
+
+CREATE TABLE email_outbox (
+    email_outbox_id INTEGER AUTO_INCREMENT NOT NULL,
+    attempts INTEGER NOT NULL,
+    body LONGTEXT NOT NULL,
+    created_at DATETIME NOT NULL,
+    last_error VARCHAR(500),
+    next_attempt_at DATETIME NOT NULL,
+    recipient VARCHAR(255) NOT NULL,
+    sent_at DATETIME,
+    status VARCHAR(10) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    PRIMARY KEY (email_outbox_id)
+);
+
+-- Recherche des e-mails à envoyer (EmailOutbox.findDue)
+CREATE INDEX idx_email_outbox_due ON email_outbox (status, next_attempt_at);
@@ -0,0 +1,18 @@
+-- Index des requêtes de l'application.
+-- Les clés étrangères sont déjà indexées par InnoDB ; l'email est couvert par sa contrainte unique.
+
+-- Un créneau ne peut être réservé qu'une fois. L'index couvre aussi les recherches de réservations
+-- par terrain et période (Reservation.findReservedSlots, countBySlot, findScheduleByHall).
+-- Les doublons éventuels d'une base existante doivent être supprimés avant cette migration.
+ALTER TABLE reservations ADD CONSTRAINT uk_reservations_slot UNIQUE (fk_sport_field_id, date, fk_time_slot_id);
+
+-- Recherche d'utilisateurs par préfixe du prénom, du nom ou de l'email (User.search, User.countSearch)
+CREATE INDEX idx_users_first_name ON users (first_name);
+CREATE INDEX idx_users_last_name ON users (last_name);
+
+-- Chargement des fermetures et des abonnements en cours ou à venir (ClosureIndex, SubscriptionIndex), sur les colonnes converties par V3
+CREATE INDEX idx_closes_end_date ON closes (end_date);
+CREATE INDEX idx_users_subscriptions_end ON users_subscriptions (end_date_subscription);
+
+-- Recherche d'adresses par rue (Address.findByStreetName)
+CREATE INDEX idx_addresses_street_name ON addresses (street_name);
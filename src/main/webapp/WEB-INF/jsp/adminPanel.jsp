@@ -9,6 +9,12 @@
 <div class="container mt-4">
   <h1>Panneau d'administration</h1>
 
+  <c:if test="${not empty successMessage}">
+    <div class="alert alert-success" role="alert">
+        ${successMessage}
+    </div>
+  </c:if>
+
   <!-- Barre de recherche -->
   <form method="get" action="AdminPanelServlet">
     <div class="input-group mb-3">
@@ -21,6 +27,8 @@
 
   <!-- Tableau des utilisateurs -->
   <form method="post" action="AdminPanelServlet">
+    <input type="hidden" name="page" value="${currentPage}">
+    <input type="hidden" name="searchQuery" value="<c:out value='${searchQuery}'/>">
     <table class="table table-striped">
       <thead>
       <tr>
@@ -37,7 +45,7 @@
       <tbody>
       <c:forEach var="user" items="${users}">
         <tr>
-          <th scope="row">${user.id}</th>
+          <th scope="row">${user.id}<input type="hidden" name="userIds" value="${user.id}"></th>
           <td>${user.firstName}</td>
           <td>${user.lastName}</td>
           <td>${user.email}</td>
@@ -73,7 +81,13 @@
     <ul class="pagination justify-content-center">
       <c:forEach begin="1" end="${totalPages}" var="i">
         <li class="page-item ${i == currentPage ? 'active' : ''}">
-          <a class="page-link" href="AdminPanelServlet?page=${i}">${i}</a>
+          <c:url var="pageUrl" value="AdminPanelServlet">
+            <c:param name="page" value="${i}"/>
+            <c:if test="${not empty searchQuery}">
+              <c:param name="searchQuery" value="${searchQuery}"/>
+            </c:if>
+          </c:url>
+          <a class="page-link" href="${pageUrl}">${i}</a>
         </li>
       </c:forEach>
     </ul>
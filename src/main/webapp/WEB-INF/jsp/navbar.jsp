@@ -32,7 +32,7 @@
                         <a href="${pageContext.request.contextPath}/DashboardServlet" class="btn btn-outline-secondary my-2 my-sm-0 ml-2">Tableau de bord</a>
                     </li>
                     <!-- Bouton pour le panneau d'administration, visible uniquement pour les admins -->
-                    <c:if test="${sessionScope.user.fkRole.id == 3}">
+                    <c:if test="${sessionScope.user.roleId == 3}">
                         <li class="nav-item">
                             <a href="${pageContext.request.contextPath}/AdminPanelServlet" class="btn btn-outline-warning my-2 my-sm-0 ml-2">Panneau d'administration</a>
                         </li>
@@ -21,9 +21,19 @@ $(document).ready(function() {
 
 function initializeSelect2() {
     console.log("Initialisation de Select2 pour .locality-select");
+    // Les localités sont chargées à la demande (code postal ou ville) au lieu d'être incluses dans la page
     $('.locality-select').select2({
-        placeholder: 'Recherchez une localité...',
-        allowClear: true
+        placeholder: 'Recherchez une localité (code postal ou ville)...',
+        allowClear: true,
+        minimumInputLength: 1,
+        ajax: {
+            url: 'AddressServlet',
+            dataType: 'json',
+            delay: 150,
+            data: function(params) {
+                return { localityQuery: params.term };
+            }
+        }
     });
 }
 
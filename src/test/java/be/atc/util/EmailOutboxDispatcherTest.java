@@ -0,0 +1,311 @@
+package be.atc.util;
+
+import be.atc.dao.EmailOutboxDao;
+import be.atc.entities.EmailOutbox;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Envoi de la boîte d'envoi vers {@link StubSmtpServer} : nouvelles tentatives après un refus,
+ * délai exponentiel plafonné, abandon après {@code outbox.maxAttempts}, et jamais deux envois
+ * du même e-mail.
+ */
+class EmailOutboxDispatcherTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private final List<EmailOutboxDispatcher> dispatchers = new ArrayList<>();
+    private StubSmtpServer smtpServer;
+
+    @AfterEach
+    void stop() throws IOException {
+        for (EmailOutboxDispatcher dispatcher : dispatchers) {
+            dispatcher.stop();
+        }
+        if (smtpServer != null) {
+            smtpServer.close();
+        }
+    }
+
+    /**
+     * Les deux premières livraisons sont refusées (451) : l'e-mail est envoyé à la troisième tentative.
+     */
+    @Test
+    void retriesUntilServerAccepts() throws Exception {
+        smtpServer = new StubSmtpServer(0, 2);
+        InMemoryEmailOutboxDao dao = new InMemoryEmailOutboxDao();
+        int id = dao.add(new EmailOutbox("user@example.com", "Bienvenue", "Bonjour"));
+
+        start(dao, configuration(6));
+
+        awaitStatus(dao, id, EmailOutbox.Status.SENT);
+        assertEquals(3, dao.get(id).getAttempts());
+        assertEquals(1, smtpServer.getMessages().size());
+        assertTrue(smtpServer.getMessages().get(0).contains("Subject: Bienvenue"));
+    }
+
+    /**
+     * Le serveur refuse toujours : l'e-mail est abandonné après le nombre maximum de tentatives.
+     */
+    @Test
+    void givesUpAfterMaxAttempts() throws Exception {
+        smtpServer = new StubSmtpServer(0, Integer.MAX_VALUE);
+        InMemoryEmailOutboxDao dao = new InMemoryEmailOutboxDao();
+        int id = dao.add(new EmailOutbox("user@example.com", "Bienvenue", "Bonjour"));
+
+        start(dao, configuration(3));
+
+        awaitStatus(dao, id, EmailOutbox.Status.FAILED);
+        assertEquals(3, dao.get(id).getAttempts());
+        assertNotNull(dao.get(id).getLastError());
+        assertTrue(smtpServer.getMessages().isEmpty());
+    }
+
+    /**
+     * Le délai double à chaque échec (±20 %) puis reste plafonné à {@code outbox.maxBackoffMs}.
+     */
+    @Test
+    void backoffGrowsAndIsCapped() {
+        Properties configuration = new Properties();
+        configuration.setProperty("outbox.initialBackoffMs", "1000");
+        configuration.setProperty("outbox.maxBackoffMs", "5000");
+        EmailOutboxDispatcher dispatcher = new EmailOutboxDispatcher(new InMemoryEmailOutboxDao(), configuration);
+
+        long[] expected = {1000, 2000, 4000, 5000, 5000};
+        for (int attempts = 1; attempts <= expected.length; attempts++) {
+            assertBackoff(dispatcher, attempts, expected[attempts - 1]);
+        }
+        assertBackoff(dispatcher, 40, 5000);
+    }
+
+    /**
+     * Une lecture périmée (e-mail déjà envoyé depuis) ne provoque pas de second envoi.
+     */
+    @Test
+    void staleReadIsNotSentAgain() throws Exception {
+        smtpServer = new StubSmtpServer(0, 0);
+        InMemoryEmailOutboxDao dao = new InMemoryEmailOutboxDao();
+        int id = dao.add(new EmailOutbox("user@example.com", "Bienvenue", "Bonjour"));
+        EmailOutbox staleRead = dao.copy(dao.get(id));
+        dao.markSent(id, 1, Instant.now());
+        dao.staleRead = staleRead;
+
+        start(dao, configuration(6));
+
+        awaitTrue(() -> dao.findDueCalls >= 50);
+        assertTrue(smtpServer.getMessages().isEmpty());
+        assertEquals(1, dao.get(id).getAttempts());
+    }
+
+    /**
+     * Deux répartiteurs sur la même boîte d'envoi : chaque e-mail est envoyé exactement une fois.
+     */
+    @Test
+    void concurrentDispatchersSendEachEmailOnce() throws Exception {
+        smtpServer = new StubSmtpServer(0, 0);
+        InMemoryEmailOutboxDao dao = new InMemoryEmailOutboxDao();
+        int count = 40;
+        for (int i = 0; i < count; i++) {
+            dao.add(new EmailOutbox("user" + i + "@example.com", "Message " + i, "Bonjour"));
+        }
+
+        start(dao, configuration(6));
+        start(dao, configuration(6));
+
+        awaitTrue(() -> dao.count(EmailOutbox.Status.SENT) == count);
+        List<String> messages = smtpServer.getMessages();
+        assertEquals(count, messages.size());
+        Set<String> subjects = new HashSet<>();
+        for (String message : messages) {
+            for (String line : message.split("\n")) {
+                if (line.startsWith("Subject: ")) {
+                    subjects.add(line);
+                }
+            }
+        }
+        assertEquals(count, subjects.size());
+    }
+
+    private void assertBackoff(EmailOutboxDispatcher dispatcher, int attempts, long expected) {
+        for (int i = 0; i < 100; i++) {
+            long delay = dispatcher.backoffMillis(attempts);
+            assertTrue(delay >= expected * 0.8 && delay <= expected * 1.2,
+                    "Délai " + delay + " hors de ±20 % de " + expected + " après " + attempts + " tentative(s)");
+        }
+    }
+
+    private Properties configuration(int maxAttempts) {
+        Properties configuration = new Properties();
+        configuration.setProperty("outbox.workers", "2");
+        configuration.setProperty("outbox.pollIntervalMs", "10");
+        configuration.setProperty("outbox.batchSize", "5");
+        configuration.setProperty("outbox.maxAttempts", String.valueOf(maxAttempts));
+        configuration.setProperty("outbox.initialBackoffMs", "10");
+        configuration.setProperty("outbox.maxBackoffMs", "40");
+        return configuration;
+    }
+
+    private void start(EmailOutboxDao dao, Properties configuration) {
+        EmailOutboxDispatcher dispatcher = new EmailOutboxDispatcher(dao, configuration, this::sendToStub);
+        dispatchers.add(dispatcher);
+        dispatcher.start();
+    }
+
+    /**
+     * Envoie l'e-mail au serveur de test, sur une nouvelle connexion SMTP.
+     */
+    private void sendToStub(String recipient, String subject, String body) throws MessagingException {
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.host", "localhost");
+        properties.setProperty("mail.smtp.port", String.valueOf(smtpServer.getPort()));
+        properties.setProperty("mail.smtp.auth", "false");
+        properties.setProperty("mail.smtp.starttls.enable", "false");
+        properties.setProperty("mail.smtp.connectiontimeout", "5000");
+        properties.setProperty("mail.smtp.timeout", "5000");
+        Message message = new MimeMessage(Session.getInstance(properties));
+        message.setFrom(new InternetAddress("noreply@example.com"));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress(recipient));
+        message.setSubject(subject);
+        message.setText(body);
+        Transport.send(message);
+    }
+
+    private void awaitStatus(InMemoryEmailOutboxDao dao, int id, EmailOutbox.Status status) throws InterruptedException {
+        awaitTrue(() -> dao.get(id).getStatus() == status);
+    }
+
+    private void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Délai d'attente dépassé");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Boîte d'envoi en mémoire avec la même sémantique que les requêtes nommées de {@link EmailOutbox}.
+     * Les e-mails retournés par {@link #findDue(Instant, int)} sont des copies, comme des entités détachées.
+     */
+    private static class InMemoryEmailOutboxDao implements EmailOutboxDao {
+
+        private final Map<Integer, EmailOutbox> emails = new LinkedHashMap<>();
+        private int nextId = 1;
+
+        /** Si renseigné, retourné par chaque {@link #findDue(Instant, int)} à la place de la table. */
+        volatile EmailOutbox staleRead;
+        volatile int findDueCalls;
+
+        synchronized int add(EmailOutbox email) {
+            email.setId(nextId++);
+            email.setStatus(EmailOutbox.Status.PENDING);
+            email.setNextAttemptAt(Instant.now());
+            email.setCreatedAt(Instant.now());
+            emails.put(email.getId(), email);
+            return email.getId();
+        }
+
+        synchronized EmailOutbox get(int id) {
+            return copy(emails.get(id));
+        }
+
+        synchronized long count(EmailOutbox.Status status) {
+            return countByStatus(status);
+        }
+
+        EmailOutbox copy(EmailOutbox email) {
+            EmailOutbox copy = new EmailOutbox(email.getRecipient(), email.getSubject(), email.getBody());
+            copy.setId(email.getId());
+            copy.setStatus(email.getStatus());
+            copy.setAttempts(email.getAttempts());
+            copy.setNextAttemptAt(email.getNextAttemptAt());
+            copy.setCreatedAt(email.getCreatedAt());
+            copy.setSentAt(email.getSentAt());
+            copy.setLastError(email.getLastError());
+            return copy;
+        }
+
+        @Override
+        public synchronized void enqueue(EmailOutbox email) {
+            add(email);
+        }
+
+        @Override
+        public synchronized List<EmailOutbox> findDue(Instant now, int limit) {
+            findDueCalls++;
+            List<EmailOutbox> due = new ArrayList<>();
+            if (staleRead != null) {
+                due.add(copy(staleRead));
+                return due;
+            }
+            for (EmailOutbox email : emails.values()) {
+                boolean waiting = email.getStatus() == EmailOutbox.Status.PENDING || email.getStatus() == EmailOutbox.Status.SENDING;
+                if (waiting && !email.getNextAttemptAt().isAfter(now) && due.size() < limit) {
+                    due.add(copy(email));
+                }
+            }
+            return due;
+        }
+
+        @Override
+        public synchronized boolean claim(int id, EmailOutbox.Status status, int attempts, Instant leaseUntil) {
+            EmailOutbox email = emails.get(id);
+            if (email == null || email.getStatus() != status || email.getAttempts() != attempts) {
+                return false;
+            }
+            email.setStatus(EmailOutbox.Status.SENDING);
+            email.setAttempts(attempts + 1);
+            email.setNextAttemptAt(leaseUntil);
+            return true;
+        }
+
+        @Override
+        public synchronized void markSent(int id, int attempts, Instant sentAt) {
+            EmailOutbox email = emails.get(id);
+            email.setStatus(EmailOutbox.Status.SENT);
+            email.setAttempts(attempts);
+            email.setSentAt(sentAt);
+            email.setLastError(null);
+        }
+
+        @Override
+        public synchronized void markAttemptFailed(int id, int attempts, EmailOutbox.Status status, Instant nextAttemptAt, String lastError) {
+            EmailOutbox email = emails.get(id);
+            email.setStatus(status);
+            email.setAttempts(attempts);
+            email.setNextAttemptAt(nextAttemptAt);
+            email.setLastError(lastError);
+        }
+
+        @Override
+        public synchronized long countByStatus(EmailOutbox.Status status) {
+            long count = 0;
+            for (EmailOutbox email : emails.values()) {
+                if (email.getStatus() == status) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package be.atc.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saturation du pool de hachage : une opération réussit ou est refusée avec
+ * {@code PASSWORD_HASHING_BUSY}, jamais avec une autre exception.
+ */
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void shutdown() {
+        if (hasher != null) {
+            hasher.shutdown();
+        }
+    }
+
+    /**
+     * Configuration livrée (4 threads, file de 32) et 64 appelants simultanés : le délai d'admission
+     * suffit à chacun, aucune opération ne doit être refusée.
+     */
+    @Test
+    void shippedSettingsAbsorbLoginStorm() throws Exception {
+        hasher = new PasswordHasher(configuration(4, 32, 10_000));
+        Outcomes outcomes = runConcurrently(64, 20);
+        assertEquals(0, outcomes.unexpected.get(), "exceptions autres que PASSWORD_HASHING_BUSY");
+        assertEquals(0, outcomes.busy.get());
+        assertEquals(64 * 20, outcomes.succeeded.get());
+    }
+
+    /**
+     * Pool minuscule et aucune attente d'admission : une partie des opérations est refusée,
+     * toujours avec {@code PASSWORD_HASHING_BUSY}.
+     */
+    @Test
+    void saturatedPoolRejectsWithBusy() throws Exception {
+        hasher = new PasswordHasher(configuration(1, 1, 0));
+        Outcomes outcomes = runConcurrently(32, 10);
+        assertEquals(0, outcomes.unexpected.get(), "exceptions autres que PASSWORD_HASHING_BUSY");
+        assertTrue(outcomes.busy.get() > 0, "aucun refus malgré la saturation");
+        assertTrue(outcomes.succeeded.get() > 0, "aucune opération admise");
+        assertEquals(32 * 10, outcomes.busy.get() + outcomes.succeeded.get());
+    }
+
+    @Test
+    void shutdownPoolRejectsWithBusy() throws Exception {
+        hasher = new PasswordHasher(configuration(1, 1, 0));
+        hasher.shutdown();
+        Outcomes outcomes = runConcurrently(1, 1);
+        assertEquals(1, outcomes.busy.get());
+    }
+
+    private static Properties configuration(int threads, int queueCapacity, int admissionTimeoutMs) {
+        Properties configuration = new Properties();
+        configuration.setProperty("bcrypt.cost", String.valueOf(PasswordHasher.MIN_COST));
+        configuration.setProperty("hashing.threads", String.valueOf(threads));
+        configuration.setProperty("hashing.queueCapacity", String.valueOf(queueCapacity));
+        configuration.setProperty("hashing.admissionTimeoutMs", String.valueOf(admissionTimeoutMs));
+        return configuration;
+    }
+
+    private Outcomes runConcurrently(int callers, int callsPerCaller) throws Exception {
+        Outcomes outcomes = new Outcomes();
+        ExecutorService callerPool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(callerPool.submit((Callable<Void>) () -> {
+                start.await();
+                for (int call = 0; call < callsPerCaller; call++) {
+                    try {
+                        hasher.hash("Motdepasse1");
+                        outcomes.succeeded.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        (("PASSWORD_HASHING_BUSY".equals(e.getMessage())) ? outcomes.busy : outcomes.unexpected).incrementAndGet();
+                    } catch (RuntimeException e) {
+                        outcomes.unexpected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        callerPool.shutdown();
+        return outcomes;
+    }
+
+    private static final class Outcomes {
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger busy = new AtomicInteger();
+        private final AtomicInteger unexpected = new AtomicInteger();
+    }
+}
@@ -0,0 +1,158 @@
+package be.atc.util;
+
+import org.apache.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serveur SMTP minimal pour les tests de la boîte d'envoi.
+ * <p>
+ * Il accepte plusieurs connexions simultanées, toutes les commandes SMTP (sans authentification ni TLS) et conserve
+ * en mémoire les messages reçus. Pour l'utiliser, pointer {@code mail.properties}
+ * vers {@code localhost} sur le port du serveur avec {@code mail.smtp.auth=false}
+ * et {@code mail.smtp.starttls.enable=false}.
+ * </p>
+ * <p>
+ * Avec {@code failuresBeforeSuccess}, les premières livraisons sont refusées
+ * (code 451), ce qui permet de vérifier les nouvelles tentatives.
+ * </p>
+ */
+public class StubSmtpServer implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(StubSmtpServer.class);
+
+    private final ServerSocket serverSocket;
+    private final Thread acceptThread;
+    private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private int remainingFailures;
+
+    /**
+     * Démarre le serveur sur le port donné (0 pour un port libre).
+     *
+     * @param port                  Le port d'écoute.
+     * @param failuresBeforeSuccess Le nombre de livraisons à refuser avant d'accepter.
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    public StubSmtpServer(int port, int failuresBeforeSuccess) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+        this.remainingFailures = failuresBeforeSuccess;
+        this.acceptThread = new Thread(this::acceptLoop, "stub-smtp");
+        this.acceptThread.setDaemon(true);
+        this.acceptThread.start();
+        logger.info("Serveur SMTP de test démarré sur le port " + getPort());
+    }
+
+    /**
+     * @return Le port d'écoute effectif.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return Une copie des messages reçus (en-têtes et contenu bruts).
+     */
+    public List<String> getMessages() {
+        synchronized (messages) {
+            return new ArrayList<>(messages);
+        }
+    }
+
+    /**
+     * @return Le nombre de connexions SMTP acceptées.
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connectionCount.incrementAndGet();
+                Thread handler = new Thread(() -> serve(socket), "stub-smtp-" + connectionCount.get());
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.warn("Erreur de connexion au serveur SMTP de test", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket client = socket) {
+            handle(client);
+        } catch (IOException e) {
+            logger.debug("Connexion au serveur SMTP de test interrompue", e);
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+        reply(out, "220 localhost stub SMTP");
+        String line;
+        while ((line = in.readLine()) != null) {
+            String command = line.toUpperCase();
+            if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                reply(out, "250 localhost");
+            } else if (command.startsWith("DATA")) {
+                reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                StringBuilder data = new StringBuilder();
+                while ((line = in.readLine()) != null && !line.equals(".")) {
+                    data.append(line).append("\n");
+                }
+                reply(out, acceptMessage(data.toString()));
+            } else if (command.startsWith("QUIT")) {
+                reply(out, "221 Bye");
+                return;
+            } else {
+                reply(out, "250 OK"); // MAIL FROM, RCPT TO, RSET, NOOP
+            }
+        }
+    }
+
+    private synchronized String acceptMessage(String data) {
+        if (remainingFailures > 0) {
+            remainingFailures--;
+            return "451 Temporary failure";
+        }
+        messages.add(data);
+        return "250 Message accepted";
+    }
+
+    private void reply(PrintWriter out, String response) {
+        out.print(response + "\r\n");
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    /**
+     * Lance le serveur en ligne de commande : {@code StubSmtpServer [port]} (2525 par défaut).
+     *
+     * @param args Le port d'écoute (optionnel).
+     * @throws Exception Si le serveur ne peut pas démarrer.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 2525;
+        StubSmtpServer server = new StubSmtpServer(port, 0);
+        server.acceptThread.join();
+    }
+}